@@ -0,0 +1,110 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import cn.nnjskz.jfx.network.TcpClientService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * TCP客户端接收吞吐与字节正确性校验
+ * <p>
+ * 回环服务端发送指定字节数的随机数据后关闭连接，{@link TcpClientService} 在接收回调中累计 CRC32，
+ * 结束后与发送端校验和比对。任何字节被改写（例如字符集往返）都会导致校验失败，进程以非零码退出。
+ * <pre>
+ * java -cp ... cn.nnjskz.jfx.benchmark.ClientThroughputBenchmark --bytes 1073741824
+ * </pre>
+ */
+public class ClientThroughputBenchmark {
+    private static final int WRITE_SIZE = 64 * 1024;
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        long total = Long.parseLong(opts.getOrDefault("bytes", String.valueOf(1L << 30)));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "20250101"));
+
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.bind(new InetSocketAddress("127.0.0.1", 0));
+            int port = serverSocket.getLocalPort();
+
+            CRC32 sent = new CRC32();
+            Thread sender = new Thread(() -> {
+                try (Socket socket = serverSocket.accept(); OutputStream out = socket.getOutputStream()) {
+                    SplittableRandom random = new SplittableRandom(seed);
+                    byte[] block = new byte[WRITE_SIZE];
+                    long remaining = total;
+                    while (remaining > 0) {
+                        int len = (int) Math.min(block.length, remaining);
+                        for (int i = 0; i < len; i += 8) {
+                            long r = random.nextLong();
+                            for (int j = 0; j < 8 && i + j < len; j++) {
+                                block[i + j] = (byte) (r >>> (j * 8));
+                            }
+                        }
+                        sent.update(block, 0, len);
+                        out.write(block, 0, len);
+                        remaining -= len;
+                    }
+                } catch (IOException e) {
+                    System.err.println("sender: " + e.getMessage());
+                }
+            }, "throughput-sender");
+            sender.start();
+
+            CRC32 received = new CRC32();
+            AtomicLong receivedBytes = new AtomicLong();
+            AtomicLong reads = new AtomicLong();
+            CountDownLatch finished = new CountDownLatch(1);
+            TcpClientService client = new TcpClientService("127.0.0.1", port);
+            // 回调在唯一的读线程上顺序执行，CRC32 无需同步
+            client.setReceive((connectionId, data, timestamp) -> {
+                received.update(data.data());
+                receivedBytes.addAndGet(data.length());
+                reads.incrementAndGet();
+            });
+            client.setOnDisconnect(finished::countDown);
+
+            long start = System.nanoTime();
+            if (!client.connect()) {
+                System.err.println("连接失败");
+                System.exit(2);
+            }
+            boolean done = finished.await(10, TimeUnit.MINUTES);
+            long elapsed = System.nanoTime() - start;
+            sender.join();
+            client.close();
+
+            boolean ok = done && receivedBytes.get() == total && received.getValue() == sent.getValue();
+            System.out.printf("bytes=%d received=%d reads=%d elapsedMs=%d throughputMBps=%.1f%n",
+                    total, receivedBytes.get(), reads.get(), elapsed / 1_000_000,
+                    receivedBytes.get() / 1048576.0 / (elapsed / 1e9));
+            System.out.printf("crc32 sent=%08x received=%08x -> %s%n",
+                    sent.getValue(), received.getValue(), ok ? "OK" : "MISMATCH");
+            System.exit(ok ? 0 : 1);
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import cn.nnjskz.jfx.utils.DateUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天区标头时间格式化
+ * <p>
+ * {@link DateUtil#formatDate2String(long, String)} 每次调用都会解析模式串、新建 DateTimeFormatter；
+ * cachedFormatter 复用同一个实例作为对照。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DateFormatBenchmark {
+    private static final DateTimeFormatter CACHED = DateTimeFormatter.ofPattern(DateUtil.LONG_PATTERN);
+
+    private long timestamp;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        timestamp = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public String formatDate2String() {
+        return DateUtil.formatDate2String(timestamp++, DateUtil.LONG_PATTERN);
+    }
+
+    @Benchmark
+    public String cachedFormatter() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(timestamp++), ZoneId.systemDefault()).format(CACHED);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import cn.nnjskz.jfx.network.codec.HexCodec;
+import cn.nnjskz.jfx.utils.SocketUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 十六进制编解码 JMH 基准
+ * <p>
+ * legacy 为改造前 {@code SocketUtil.formatBytesToHex} 的 String.format 实现；lookupTable 与 vector
+ * 分别在关闭/开启 Vector API 的独立进程中运行 {@link HexCodec#encode}；formatBytesToHex/parseHex 为界面实际调用的入口。
+ * <pre>
+ * mvn -q compile exec:exec -Dbenchmark.mainClass=cn.nnjskz.jfx.benchmark.JmhRunner -Dbenchmark.args="HexCodecBenchmark"
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Benchmark)
+public class HexCodecBenchmark {
+    @Param({"64", "1024", "65536"})
+    private int size;
+
+    private byte[] data;
+    private String hex;
+
+    @Setup
+    public void setup() {
+        data = new byte[size];
+        new SplittableRandom(size).nextBytes(data);
+        hex = HexCodec.encode(data);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Djfx.hex.vector=false"})
+    public String legacy() {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : data) {
+            sb.append(String.format("%02X ", b));
+        }
+        return sb.toString().trim();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Djfx.hex.vector=false"})
+    public String lookupTable() {
+        return HexCodec.encode(data);
+    }
+
+    @Benchmark
+    public String vector() {
+        return HexCodec.encode(data);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = {"--add-modules=jdk.incubator.vector", "-Djfx.hex.vector=false"})
+    public byte[] decode() {
+        return HexCodec.decode(hex);
+    }
+
+    @Benchmark
+    public String formatBytesToHex() {
+        return SocketUtil.formatBytesToHex(data);
+    }
+
+    @Benchmark
+    public byte[] parseHex() {
+        return SocketUtil.parseHex(hex);
+    }
+}
@@ -0,0 +1,33 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH 入口：在命令行参数之外固定挂上 gc profiler，每项结果同时给出吞吐与分配速率
+ * （gc.alloc.rate 为 MB/秒，gc.alloc.rate.norm 为每次操作分配的字节数）。
+ * 参数与 {@code org.openjdk.jmh.Main} 相同，未指定基准时运行全部。
+ * <pre>
+ * mvn -q compile exec:exec -Dbenchmark.mainClass=cn.nnjskz.jfx.benchmark.JmhRunner -Dbenchmark.args="DateFormatBenchmark"
+ * </pre>
+ */
+public class JmhRunner {
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class);
+        if (cmd.getIncludes().isEmpty()) {
+            options.include("cn\\.nnjskz\\.jfx\\.benchmark\\..*");
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import cn.nnjskz.jfx.network.TcpServerService;
+import cn.nnjskz.jfx.utils.AppExecutors;
+import cn.nnjskz.jfx.utils.SocketUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 回环基准：比较平台线程与虚拟线程模式下 BIO 服务端承载大量空闲连接的开销
+ * <p>
+ * 每种模式在独立的子 JVM 中运行（执行模式在 {@link AppExecutors} 初始化时确定），
+ * 统计接入速率、平台线程数与进程 RSS。
+ * <pre>
+ * java -cp ... cn.nnjskz.jfx.benchmark.LoopbackBenchmark --clients 5000 --mode both
+ * </pre>
+ * 注意：连接数受 ulimit -n 限制（每个连接占用客户端、服务端两个文件描述符）。
+ */
+public class LoopbackBenchmark {
+    private static final String RESULT_PREFIX = "RESULT ";
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        int clients = Integer.parseInt(opts.getOrDefault("clients", "2000"));
+        String mode = opts.getOrDefault("mode", "both");
+
+        if ("both".equals(mode)) {
+            List<Map<String, String>> results = new ArrayList<>();
+            results.add(fork(AppExecutors.MODE_PLATFORM, clients));
+            results.add(fork(AppExecutors.MODE_VIRTUAL, clients));
+            printTable(results);
+        } else {
+            System.setProperty(AppExecutors.MODE_PROPERTY, mode);
+            System.out.println(RESULT_PREFIX + run(clients));
+            System.exit(0);
+        }
+    }
+
+    /**
+     * 在当前 JVM 内执行一次测量
+     */
+    private static String run(int clients) throws Exception {
+        boolean virtual = AppExecutors.getInstance().isVirtualThreadMode();
+        int port = SocketUtil.getAvailablePort();
+        CountDownLatch connected = new CountDownLatch(clients);
+        TcpServerService server = new TcpServerService(port, "auto", 3600);
+        server.setInfoCall(msg -> {
+            if (msg.endsWith("已连接")) {
+                connected.countDown();
+            }
+        });
+        server.openConnect();
+
+        int baseThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+        long baseRss = rssKb();
+
+        List<Socket> sockets = new ArrayList<>(clients);
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            Socket socket = new Socket();
+            socket.connect(new InetSocketAddress("127.0.0.1", port), 10000);
+            sockets.add(socket);
+        }
+        boolean allAccepted = connected.await(60, TimeUnit.SECONDS);
+        long elapsed = System.nanoTime() - start;
+
+        // 等待读线程全部进入阻塞读取
+        Thread.sleep(1000);
+        int threads = ManagementFactory.getThreadMXBean().getThreadCount();
+        int peakThreads = ManagementFactory.getThreadMXBean().getPeakThreadCount();
+        long rss = rssKb();
+
+        for (Socket socket : sockets) {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+            }
+        }
+        server.close();
+
+        return "mode=" + (virtual ? AppExecutors.MODE_VIRTUAL : AppExecutors.MODE_PLATFORM)
+                + " clients=" + clients
+                + " accepted=" + (allAccepted ? clients : clients - connected.getCount())
+                + " acceptPerSec=" + Math.round(clients / (elapsed / 1e9))
+                + " platformThreads=" + (threads - baseThreads)
+                + " peakThreads=" + peakThreads
+                + " rssDeltaMB=" + (rss < 0 ? "n/a" : String.format("%.1f", (rss - baseRss) / 1024.0));
+    }
+
+    /**
+     * 使用相同的 java 与 classpath 启动子 JVM 运行指定模式
+     */
+    private static Map<String, String> fork(String mode, int clients) throws IOException, InterruptedException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        ProcessBuilder pb = new ProcessBuilder(java,
+                "-D" + AppExecutors.MODE_PROPERTY + "=" + mode,
+                "-cp", System.getProperty("java.class.path"),
+                LoopbackBenchmark.class.getName(),
+                "--clients", String.valueOf(clients),
+                "--mode", mode);
+        pb.redirectErrorStream(true);
+        Process process = pb.start();
+        Map<String, String> result = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT_PREFIX)) {
+                    for (String kv : line.substring(RESULT_PREFIX.length()).split(" ")) {
+                        String[] pair = kv.split("=", 2);
+                        result.put(pair[0], pair[1]);
+                    }
+                } else {
+                    System.out.println("[" + mode + "] " + line);
+                }
+            }
+        }
+        process.waitFor();
+        result.putIfAbsent("mode", mode + "(failed)");
+        return result;
+    }
+
+    private static void printTable(List<Map<String, String>> results) {
+        String[] cols = {"mode", "clients", "accepted", "acceptPerSec", "platformThreads", "peakThreads", "rssDeltaMB"};
+        StringBuilder sb = new StringBuilder();
+        for (String col : cols) {
+            sb.append(String.format("%-16s", col));
+        }
+        System.out.println(sb);
+        for (Map<String, String> row : results) {
+            sb.setLength(0);
+            for (String col : cols) {
+                sb.append(String.format("%-16s", row.getOrDefault(col, "-")));
+            }
+            System.out.println(sb);
+        }
+    }
+
+    /**
+     * 读取进程常驻内存（仅 Linux），其他平台返回 -1
+     */
+    private static long rssKb() {
+        Path status = Path.of("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        try {
+            for (String line : Files.readAllLines(status)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException ignored) {
+        }
+        return -1;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+}
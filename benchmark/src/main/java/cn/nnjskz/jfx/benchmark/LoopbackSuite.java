@@ -0,0 +1,476 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import cn.nnjskz.jfx.network.SendScheduler;
+import cn.nnjskz.jfx.network.TcpClientService;
+import cn.nnjskz.jfx.network.TcpServerService;
+import cn.nnjskz.jfx.network.UdpService;
+import cn.nnjskz.jfx.network.latency.LatencyHistogram;
+import cn.nnjskz.jfx.utils.SocketUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONWriter;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.DatagramPacket;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 三种传输方式的回环集成性能测试（无界面）
+ * <p>
+ * 在随机可用端口上启动 {@link TcpServerService}、{@link UdpService}，以 {@link TcpClientService} 与原始 socket 驱动，
+ * 按多种负载长度测量持续吞吐、接入速率、丢失与尾延迟，结果写为 JSON 报告。
+ * 指定 --baseline 时与上一次的报告比对：吞吐下降或 p99 上升超过 --tolerance、丢失率上升时以退出码 1 结束。
+ * <pre>
+ * java -cp ... cn.nnjskz.jfx.benchmark.LoopbackSuite --sizes 64,1024,16384 --seconds 3 --out loopback-report.json
+ * java -cp ... cn.nnjskz.jfx.benchmark.LoopbackSuite --baseline loopback-report.json --out loopback-new.json
+ * </pre>
+ */
+public class LoopbackSuite {
+    private static final String HOST = "127.0.0.1";
+    private static final long DRAIN_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final int UDP_ECHO_TIMEOUT_MILLIS = 200;
+    // 判定丢失率"上升"的最小差值，避免 UDP 偶发的个别丢包造成误报
+    private static final double LOSS_SLACK = 0.001;
+
+    private final long measureNanos;
+    private final long warmupNanos;
+    private final int udpRate;
+
+    private LoopbackSuite(long measureNanos, long warmupNanos, int udpRate) {
+        this.measureNanos = measureNanos;
+        this.warmupNanos = warmupNanos;
+        this.udpRate = udpRate;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        int[] sizes = Arrays.stream(opts.getOrDefault("sizes", "64,1024,16384").split(","))
+                .mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+        double seconds = Double.parseDouble(opts.getOrDefault("seconds", "3"));
+        double warmup = Double.parseDouble(opts.getOrDefault("warmup", "1"));
+        int connections = Integer.parseInt(opts.getOrDefault("connections", "500"));
+        int udpRate = Integer.parseInt(opts.getOrDefault("udp-rate", "50000"));
+        Path out = Paths.get(opts.getOrDefault("out", "loopback-report.json"));
+        double tolerance = Double.parseDouble(opts.getOrDefault("tolerance", "0.2"));
+
+        LoopbackSuite suite = new LoopbackSuite((long) (seconds * 1e9), (long) (warmup * 1e9), udpRate);
+        JSONArray results = new JSONArray();
+        results.add(suite.run("tcp-server-accept", 0, s -> s.tcpServerAccept(connections)));
+        for (int size : sizes) {
+            results.add(suite.run("tcp-server-throughput", size, s -> s.tcpServerThroughput(size)));
+            results.add(suite.run("tcp-client-throughput", size, s -> s.tcpClientThroughput(size)));
+            if (size <= UdpService.MAX_DATAGRAM_SIZE) {
+                results.add(suite.run("udp-throughput", size, s -> s.udpThroughput(size)));
+            }
+            results.add(suite.run("tcp-server-latency", size, s -> s.tcpServerLatency(size)));
+            results.add(suite.run("tcp-client-latency", size, s -> s.tcpClientLatency(size)));
+            if (size <= UdpService.MAX_DATAGRAM_SIZE) {
+                results.add(suite.run("udp-latency", size, s -> s.udpLatency(size)));
+            }
+        }
+
+        JSONObject report = new JSONObject();
+        report.put("timestamp", System.currentTimeMillis());
+        report.put("java", System.getProperty("java.version"));
+        report.put("os", System.getProperty("os.name") + " " + System.getProperty("os.arch"));
+        report.put("cpus", Runtime.getRuntime().availableProcessors());
+        report.put("seconds", seconds);
+        report.put("results", results);
+
+        int exitCode = 0;
+        String baseline = opts.get("baseline");
+        if (baseline != null) {
+            JSONObject base = JSON.parseObject(Files.readString(Paths.get(baseline), StandardCharsets.UTF_8));
+            List<String> regressions = compare(base.getJSONArray("results"), results, tolerance);
+            report.put("baseline", baseline);
+            report.put("regressions", regressions);
+            regressions.forEach(r -> System.out.println("REGRESSION " + r));
+            exitCode = regressions.isEmpty() ? 0 : 1;
+        }
+        Files.writeString(out, JSON.toJSONString(report, JSONWriter.Feature.PrettyFormat), StandardCharsets.UTF_8);
+        System.out.println("报告已写入 " + out.toAbsolutePath());
+        System.exit(exitCode);
+    }
+
+    /**
+     * 执行一个用例：先以预热时长运行一次并丢弃结果，再正式测量（接入速率用例不按时长运行，不预热）
+     */
+    private JSONObject run(String name, int size, Case body) throws Exception {
+        if (warmupNanos > 0 && size > 0) {
+            body.run(new LoopbackSuite(warmupNanos, 0, udpRate));
+        }
+        JSONObject result = new JSONObject();
+        result.put("name", name);
+        result.put("payload", size);
+        result.putAll(body.run(this));
+        System.out.println(result.toJSONString());
+        return result;
+    }
+
+    /**
+     * 接入速率：N 个原始 socket 同时连接服务端，直到服务端全部登记为止
+     */
+    private Map<String, Object> tcpServerAccept(int connections) throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        TcpServerService server = new TcpServerService(port, "auto", 3600);
+        server.openConnect();
+        List<Socket> sockets = new ArrayList<>(connections);
+        try {
+            long start = System.nanoTime();
+            for (int i = 0; i < connections; i++) {
+                Socket socket = new Socket();
+                socket.connect(new InetSocketAddress(HOST, port), 10000);
+                sockets.add(socket);
+            }
+            long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+            while (server.getWritersMap().size() < connections && System.nanoTime() - deadline < 0) {
+                Thread.yield();
+            }
+            long elapsed = System.nanoTime() - start;
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("connections", connections);
+            result.put("accepted", server.getWritersMap().size());
+            result.put("elapsedMillis", elapsed / 1_000_000.0);
+            result.put("acceptsPerSecond", server.getWritersMap().size() / (elapsed / 1e9));
+            return result;
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            server.close();
+        }
+    }
+
+    /**
+     * 服务端接收吞吐：原始 socket 持续写出，统计服务端回调收到的字节数
+     */
+    private Map<String, Object> tcpServerThroughput(int size) throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        TcpServerService server = new TcpServerService(port, "auto", 3600);
+        AtomicLong received = new AtomicLong();
+        server.setReceive((connectionId, data, timestamp) -> received.addAndGet(data.length()));
+        server.openConnect();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(HOST, port), 10000);
+            return streamThroughput(socket.getOutputStream(), size, received);
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * 客户端接收吞吐：原始服务端持续写出，统计 {@link TcpClientService} 回调收到的字节数
+     */
+    private Map<String, Object> tcpClientThroughput(int size) throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.bind(new InetSocketAddress(HOST, 0));
+            AtomicLong received = new AtomicLong();
+            TcpClientService client = new TcpClientService(HOST, serverSocket.getLocalPort());
+            client.setReceive((connectionId, data, timestamp) -> received.addAndGet(data.length()));
+            if (!client.connect()) {
+                throw new IOException("连接失败");
+            }
+            try (Socket socket = serverSocket.accept()) {
+                return streamThroughput(socket.getOutputStream(), size, received);
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    private Map<String, Object> streamThroughput(OutputStream out, int size, AtomicLong received) throws IOException {
+        byte[] payload = payload(size);
+        long messages = 0;
+        long start = System.nanoTime();
+        long end = start + measureNanos;
+        while (System.nanoTime() < end) {
+            out.write(payload);
+            messages++;
+        }
+        out.flush();
+        long sent = messages * size;
+        awaitCount(received, sent);
+        long elapsed = System.nanoTime() - start;
+        return throughput(messages, sent, received.get(), elapsed);
+    }
+
+    /**
+     * UDP接收吞吐与丢失：按 --udp-rate 定速发出报文，结束后等待片刻统计未收到的报文
+     */
+    private Map<String, Object> udpThroughput(int size) throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        UdpService service = new UdpService(port, UdpService.MAX_DATAGRAM_SIZE, 4 * 1024 * 1024);
+        AtomicLong received = new AtomicLong();
+        AtomicLong receivedBytes = new AtomicLong();
+        service.setReceive((sender, data, timestamp) -> {
+            receivedBytes.addAndGet(data.length());
+            received.incrementAndGet();
+        });
+        service.openUdp();
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            InetSocketAddress target = new InetSocketAddress(HOST, port);
+            ByteBuffer packet = ByteBuffer.wrap(payload(size));
+            SendScheduler scheduler = new SendScheduler(1_000_000_000L / Math.max(1, udpRate), 1, 0, measureNanos,
+                    (seq, deadline) -> {
+                        try {
+                            channel.send(packet.clear(), target);
+                            return true;
+                        } catch (IOException e) {
+                            return false;
+                        }
+                    });
+            long start = System.nanoTime();
+            scheduler.start("loopback-udp-sender");
+            while (!scheduler.isFinished()) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            long sent = scheduler.getSent();
+            // UDP 没有确认，等到计数不再增长为止
+            long last = -1;
+            while (received.get() < sent && received.get() != last) {
+                last = received.get();
+                TimeUnit.MILLISECONDS.sleep(200);
+            }
+            long elapsed = System.nanoTime() - start;
+            Map<String, Object> result = throughput(sent, sent * size, receivedBytes.get(), elapsed);
+            result.put("targetRate", udpRate);
+            result.put("receivedMessages", received.get());
+            result.put("lostMessages", sent - received.get());
+            result.put("lossRate", sent == 0 ? 0 : (sent - received.get()) / (double) sent);
+            result.put("poolDropped", service.getDroppedCount());
+            return result;
+        } finally {
+            service.close();
+        }
+    }
+
+    /**
+     * 服务端回显时延：原始 socket 一问一答，服务端在回调中通过 {@link TcpServerService#send(byte[], long)} 原样回写
+     */
+    private Map<String, Object> tcpServerLatency(int size) throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        TcpServerService server = new TcpServerService(port, "auto", 3600);
+        server.setReceive((connectionId, data, timestamp) -> server.send(data.toByteArray(), connectionId));
+        server.openConnect();
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(HOST, port), 10000);
+            OutputStream out = socket.getOutputStream();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            byte[] payload = payload(size);
+            byte[] echo = new byte[size];
+            LatencyHistogram histogram = new LatencyHistogram();
+            long end = System.nanoTime() + measureNanos;
+            while (System.nanoTime() < end) {
+                long t0 = System.nanoTime();
+                out.write(payload);
+                in.readFully(echo);
+                histogram.recordValue(System.nanoTime() - t0);
+            }
+            return latency(histogram, 0);
+        } finally {
+            server.close();
+        }
+    }
+
+    /**
+     * 客户端回显时延：{@link TcpClientService} 一问一答，对端为原始 socket 回显线程
+     */
+    private Map<String, Object> tcpClientLatency(int size) throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.bind(new InetSocketAddress(HOST, 0));
+            Thread echo = new Thread(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    socket.setTcpNoDelay(true);
+                    InputStream in = socket.getInputStream();
+                    OutputStream out = socket.getOutputStream();
+                    byte[] buf = new byte[64 * 1024];
+                    int n;
+                    while ((n = in.read(buf)) > 0) {
+                        out.write(buf, 0, n);
+                    }
+                } catch (IOException ignored) {
+                }
+            }, "loopback-echo");
+            echo.setDaemon(true);
+            echo.start();
+
+            AtomicLong received = new AtomicLong();
+            TcpClientService client = new TcpClientService(HOST, serverSocket.getLocalPort());
+            client.setReceive((connectionId, data, timestamp) -> received.addAndGet(data.length()));
+            if (!client.connect()) {
+                throw new IOException("连接失败");
+            }
+            try {
+                byte[] payload = payload(size);
+                LatencyHistogram histogram = new LatencyHistogram();
+                long expected = 0;
+                long end = System.nanoTime() + measureNanos;
+                while (System.nanoTime() < end) {
+                    long t0 = System.nanoTime();
+                    client.send(payload);
+                    expected += size;
+                    awaitCount(received, expected);
+                    histogram.recordValue(System.nanoTime() - t0);
+                }
+                return latency(histogram, 0);
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * UDP回显时延：{@link UdpService} 在回调中原样回送，超时未收到计为丢失
+     */
+    private Map<String, Object> udpLatency(int size) throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        UdpService service = new UdpService(port, UdpService.MAX_DATAGRAM_SIZE, 4 * 1024 * 1024);
+        service.setReceive((sender, data, timestamp) -> service.send(data.toByteArray(), sender));
+        service.openUdp();
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.bind(new InetSocketAddress(HOST, 0));
+            channel.connect(new InetSocketAddress(HOST, port));
+            channel.socket().setSoTimeout(UDP_ECHO_TIMEOUT_MILLIS);
+            ByteBuffer payload = ByteBuffer.wrap(payload(size));
+            byte[] echo = new byte[size];
+            DatagramPacket reply = new DatagramPacket(echo, size);
+            LatencyHistogram histogram = new LatencyHistogram();
+            long lost = 0;
+            long end = System.nanoTime() + measureNanos;
+            while (System.nanoTime() < end) {
+                long t0 = System.nanoTime();
+                channel.write(payload.clear());
+                try {
+                    channel.socket().receive(reply);
+                    histogram.recordValue(System.nanoTime() - t0);
+                } catch (SocketTimeoutException e) {
+                    lost++;
+                }
+            }
+            return latency(histogram, lost);
+        } finally {
+            service.close();
+        }
+    }
+
+    private void awaitCount(AtomicLong counter, long expected) {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT_NANOS;
+        // 让出而不是自旋，核数较少时不与被测的读线程争抢 CPU
+        while (counter.get() < expected && System.nanoTime() - deadline < 0) {
+            Thread.yield();
+        }
+    }
+
+    private static Map<String, Object> throughput(long messages, long sentBytes, long receivedBytes, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("messages", messages);
+        result.put("sentBytes", sentBytes);
+        result.put("receivedBytes", receivedBytes);
+        result.put("lostBytes", sentBytes - receivedBytes);
+        result.put("elapsedMillis", elapsedNanos / 1_000_000.0);
+        result.put("messagesPerSecond", messages / seconds);
+        result.put("mbPerSecond", receivedBytes / 1048576.0 / seconds);
+        return result;
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram histogram, long lost) {
+        long count = histogram.getTotalCount();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("samples", count);
+        result.put("lostMessages", lost);
+        result.put("lossRate", count + lost == 0 ? 0 : lost / (double) (count + lost));
+        result.put("minMicros", histogram.getMinValue() / 1000.0);
+        result.put("meanMicros", histogram.getMean() / 1000.0);
+        result.put("p50Micros", histogram.getValueAtPercentile(50) / 1000.0);
+        result.put("p90Micros", histogram.getValueAtPercentile(90) / 1000.0);
+        result.put("p99Micros", histogram.getValueAtPercentile(99) / 1000.0);
+        result.put("p999Micros", histogram.getValueAtPercentile(99.9) / 1000.0);
+        result.put("maxMicros", histogram.getMaxValue() / 1000.0);
+        return result;
+    }
+
+    /**
+     * 按用例名与负载长度逐项比对
+     */
+    private static List<String> compare(JSONArray baseline, JSONArray current, double tolerance) {
+        Map<String, JSONObject> base = new LinkedHashMap<>();
+        for (int i = 0; i < baseline.size(); i++) {
+            JSONObject r = baseline.getJSONObject(i);
+            base.put(r.getString("name") + "/" + r.getIntValue("payload"), r);
+        }
+        List<String> regressions = new ArrayList<>();
+        for (int i = 0; i < current.size(); i++) {
+            JSONObject now = current.getJSONObject(i);
+            String key = now.getString("name") + "/" + now.getIntValue("payload");
+            JSONObject before = base.get(key);
+            if (before == null) {
+                continue;
+            }
+            for (String metric : List.of("messagesPerSecond", "acceptsPerSecond")) {
+                if (before.containsKey(metric) && now.getDoubleValue(metric) < before.getDoubleValue(metric) * (1 - tolerance)) {
+                    regressions.add(String.format("%s %s %.1f -> %.1f", key, metric, before.getDoubleValue(metric), now.getDoubleValue(metric)));
+                }
+            }
+            if (before.containsKey("p99Micros") && now.getDoubleValue("p99Micros") > before.getDoubleValue("p99Micros") * (1 + tolerance)) {
+                regressions.add(String.format("%s p99Micros %.1f -> %.1f", key, before.getDoubleValue("p99Micros"), now.getDoubleValue("p99Micros")));
+            }
+            if (before.containsKey("lossRate") && now.getDoubleValue("lossRate") > before.getDoubleValue("lossRate") + LOSS_SLACK) {
+                regressions.add(String.format("%s lossRate %.4f -> %.4f", key, before.getDoubleValue("lossRate"), now.getDoubleValue("lossRate")));
+            }
+            if (before.containsKey("lostBytes") && before.getLongValue("lostBytes") == 0 && now.getLongValue("lostBytes") != 0) {
+                regressions.add(String.format("%s lostBytes 0 -> %d", key, now.getLongValue("lostBytes")));
+            }
+        }
+        return regressions;
+    }
+
+    private static byte[] payload(int size) {
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; i++) {
+            payload[i] = (byte) ('a' + i % 26);
+        }
+        return payload;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            opts.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        }
+        return opts;
+    }
+
+    @FunctionalInterface
+    private interface Case {
+        Map<String, Object> run(LoopbackSuite suite) throws Exception;
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import cn.nnjskz.jfx.chat.MessageFormatter;
+import cn.nnjskz.jfx.network.buffer.BufferPool;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.codec.TextStreamDecoder;
+import cn.nnjskz.jfx.utils.NanoClock;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 聊天区单条消息的标头与正文文本构造
+ * <p>
+ * 调用渲染队列与会话日志共用的 {@link MessageFormatter}：时间标头 + 十六进制或流式解码的正文，
+ * 不含拼装样式文档与写入文本框本身（依赖 FX 线程）。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageRenderBenchmark {
+    @Param({"64", "1024", "16384"})
+    private int size;
+
+    @Param({"false", "true"})
+    private boolean hex;
+
+    private PooledBuffer data;
+    private TextStreamDecoder decoder;
+
+    @Setup
+    public void setup() {
+        data = BufferPool.forLength(size).allocate();
+        byte[] text = "收到数据 hello world 0123456789\n".repeat(size / 16 + 1).getBytes(StandardCharsets.UTF_8);
+        data.buffer().put(text, 0, size);
+        data.setLength(size);
+        decoder = new TextStreamDecoder(StandardCharsets.UTF_8);
+    }
+
+    @TearDown
+    public void tearDown() {
+        data.release();
+    }
+
+    @Benchmark
+    public String render() {
+        String head = MessageFormatter.head(NanoClock.epochNanos(), "客户端[127.0.0.1:50000]>>", data.length(),
+                hex ? MessageFormatter.HEX_MARK : "");
+        return head + MessageFormatter.body(data, hex, decoder) + "\n\n";
+    }
+}
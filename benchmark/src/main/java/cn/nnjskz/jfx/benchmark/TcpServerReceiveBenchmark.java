@@ -0,0 +1,105 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import cn.nnjskz.jfx.network.TcpServerService;
+import cn.nnjskz.jfx.network.codec.FramingConfig;
+import cn.nnjskz.jfx.utils.SocketUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TCP服务端接收路径：读入池化块 → （可选）分帧 → 回调分发
+ * <p>
+ * 每次操作由回环客户端写出一个数据块，等待服务端回调收齐后返回，gc.alloc.rate.norm 即每个数据块在接收路径上的分配量。
+ * framing=delimiter 时数据块由 64 字节、以换行结尾的行组成，按行分帧。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TcpServerReceiveBenchmark {
+    private static final int LINE = 64;
+    private static final long TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    @Param({"1024", "65536"})
+    private int blockSize;
+
+    @Param({"none", "delimiter"})
+    private String framing;
+
+    private TcpServerService server;
+    private Socket socket;
+    private OutputStream out;
+    private byte[] block;
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong receivedFrames = new AtomicLong();
+    private long expectedBytes;
+    private long expectedFrames;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        block = new byte[blockSize];
+        Arrays.fill(block, (byte) 'a');
+        for (int i = LINE - 1; i < blockSize; i += LINE) {
+            block[i] = '\n';
+        }
+        int port = SocketUtil.getAvailablePort();
+        server = new TcpServerService(port, "auto", 3600);
+        if ("delimiter".equals(framing)) {
+            server.setFraming(FramingConfig.delimiter(new byte[]{'\n'}, FramingConfig.DEFAULT_MAX_FRAME_LENGTH));
+        }
+        server.setReceive((connectionId, data, timestamp) -> {
+            receivedBytes.addAndGet(data.length());
+            receivedFrames.incrementAndGet();
+        });
+        server.openConnect();
+        socket = new Socket();
+        socket.setTcpNoDelay(true);
+        socket.connect(new InetSocketAddress("127.0.0.1", port), 10000);
+        out = socket.getOutputStream();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        socket.close();
+        server.close();
+    }
+
+    @Benchmark
+    public long receive() throws IOException {
+        out.write(block);
+        if ("delimiter".equals(framing)) {
+            expectedFrames += blockSize / LINE;
+            await(receivedFrames, expectedFrames);
+        } else {
+            expectedBytes += blockSize;
+            await(receivedBytes, expectedBytes);
+        }
+        return receivedBytes.get();
+    }
+
+    static void await(AtomicLong counter, long expected) {
+        long deadline = System.nanoTime() + TIMEOUT_NANOS;
+        while (counter.get() < expected) {
+            if (System.nanoTime() - deadline > 0) {
+                throw new IllegalStateException("等待接收超时: " + counter.get() + "/" + expected);
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
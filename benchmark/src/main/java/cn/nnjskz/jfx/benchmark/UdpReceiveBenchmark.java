@@ -0,0 +1,67 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.benchmark;
+
+import cn.nnjskz.jfx.network.UdpService;
+import cn.nnjskz.jfx.utils.SocketUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UDP报文接收路径：receive → 拷贝到按长度分级的池化块 → 回调分发
+ * <p>
+ * 每次操作由回环发送端发出一个报文并等待回调收到，逐个等待避免接收缓冲区溢出丢包。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UdpReceiveBenchmark {
+    @Param({"64", "1400", "65507"})
+    private int packetSize;
+
+    private UdpService service;
+    private DatagramChannel sender;
+    private InetSocketAddress target;
+    private ByteBuffer packet;
+    private final AtomicLong received = new AtomicLong();
+    private long expected;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        int port = SocketUtil.getAvailablePort();
+        service = new UdpService(port, UdpService.MAX_DATAGRAM_SIZE, 4 * 1024 * 1024);
+        service.setReceive((address, data, timestamp) -> received.incrementAndGet());
+        service.openUdp();
+        target = new InetSocketAddress("127.0.0.1", port);
+        sender = DatagramChannel.open();
+        packet = ByteBuffer.allocateDirect(packetSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        sender.close();
+        service.close();
+    }
+
+    @Benchmark
+    public long receive() throws IOException {
+        packet.clear();
+        sender.send(packet, target);
+        TcpServerReceiveBenchmark.await(received, ++expected);
+        return received.get();
+    }
+}
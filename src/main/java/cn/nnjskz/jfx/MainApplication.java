@@ -10,6 +10,7 @@ package cn.nnjskz.jfx;
 import atlantafx.base.theme.CupertinoDark;
 import atlantafx.base.theme.CupertinoLight;
 import cn.nnjskz.jfx.utils.AppExecutors;
+import cn.nnjskz.jfx.utils.ConnHistoryStore;
 import cn.nnjskz.jfx.utils.ThemeManager;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -63,6 +64,11 @@ public class MainApplication extends Application {
         stage.setMinHeight(screenBounds.getHeight() - 100);
         dynamicUserAgentStylesheet(scene);
         stage.show();
+        // 启动时加载一次连接历史，之后的连接/发送只访问内存
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+            ConnHistoryStore.connections();
+            ConnHistoryStore.targetHosts();
+        });
 
         if (System.getProperty("os.name").toLowerCase().contains("mac")) {
             setupDockIcon();
@@ -72,6 +78,7 @@ public class MainApplication extends Application {
         }
         // 关闭主窗口监听器
         stage.setOnCloseRequest(e -> {
+            ConnHistoryStore.flushAll();
             AppExecutors.getInstance().shutdown();
             Platform.exit();
             System.exit(0);
@@ -107,6 +114,7 @@ public class MainApplication extends Application {
         }));
         exitItem.addActionListener(e -> {
             tray.remove(tray.getTrayIcons()[0]);
+            ConnHistoryStore.flushAll();
             Platform.exit();
             System.exit(0);
         });
@@ -0,0 +1,250 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.chat;
+
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.codec.TextStreamDecoder;
+import cn.nnjskz.jfx.utils.ColorConstant;
+import cn.nnjskz.jfx.utils.NanoClock;
+import javafx.animation.AnimationTimer;
+import org.fxmisc.richtext.InlineCssTextArea;
+import org.fxmisc.richtext.model.ReadOnlyStyledDocument;
+import org.fxmisc.richtext.model.ReadOnlyStyledDocumentBuilder;
+import org.fxmisc.richtext.model.StyledSegment;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 聊天区渲染队列
+ * <p>
+ * 任意线程通过 {@link #offer} 入队（无锁），FX 线程上的 {@link AnimationTimer} 每个脉冲最多刷新一次（受最大帧率限制），
+ * 把本帧取出的消息拼成一个文档一次性追加到聊天区。积压超过 {@value #OVERLOAD_THRESHOLD} 条时，
+ * 较早的消息只合并为一行摘要，保证界面在突发流量结束后能立即跟上；收发字节数由调用方在入队时累计，不受影响。
+ */
+public final class ChatRenderQueue {
+    // 每帧最多完整渲染的消息数与字符数
+    private static final int MAX_ENTRIES_PER_FRAME = 256;
+    private static final int MAX_CHARS_PER_FRAME = 256 * 1024;
+    private static final int OVERLOAD_THRESHOLD = 5000;
+    private static final String HEAD_STYLE = "-fx-fill:" + ColorConstant.HEAD_COLOR + ";";
+
+    private final InlineCssTextArea area;
+    private final long minFrameNanos;
+    private final ChatScrollback scrollback;
+    private final Runnable onFlushed;
+    private final Queue<Entry> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AnimationTimer timer;
+    private long lastFlush;
+
+    /**
+     * @param area      聊天区
+     * @param maxFps    每秒最多刷新次数
+     * @param scrollback 回滚上限
+     * @param onFlushed 每次刷新后回调（FX 线程）
+     */
+    public ChatRenderQueue(InlineCssTextArea area, int maxFps, ChatScrollback scrollback, Runnable onFlushed) {
+        this.area = area;
+        this.scrollback = scrollback;
+        this.minFrameNanos = 1_000_000_000L / Math.max(1, maxFps);
+        this.onFlushed = onFlushed;
+        this.timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                if (now - lastFlush >= minFrameNanos && pending.get() > 0) {
+                    lastFlush = now;
+                    flush();
+                }
+            }
+        };
+    }
+
+    public void start() {
+        timer.start();
+    }
+
+    public void stop() {
+        timer.stop();
+    }
+
+    /**
+     * 入队一条消息，数据块在渲染完成（或被合并为摘要）后释放
+     *
+     * @param labelPrefix 标头
+     * @param data        数据
+     * @param timestamp   时间（纪元纳秒）
+     * @param isHex       是否十六进制
+     * @param color       正文颜色
+     * @param decoder     文本解码器，为 null 时按 UTF-8 单独解码本块
+     */
+    public void offer(String labelPrefix, PooledBuffer data, long timestamp, boolean isHex, String color, TextStreamDecoder decoder) {
+        data.retain();
+        queue.add(new Entry(labelPrefix, data, timestamp, isHex, color, decoder));
+        pending.incrementAndGet();
+    }
+
+    /**
+     * @return 尚未渲染的消息数
+     */
+    public int pending() {
+        return pending.get();
+    }
+
+    private void flush() {
+        int skipped = 0;
+        long skippedBytes = 0;
+        // 积压过多时只保留最近一帧的量完整渲染，其余合并为摘要
+        if (pending.get() > OVERLOAD_THRESHOLD) {
+            int collapse = pending.get() - MAX_ENTRIES_PER_FRAME;
+            for (int i = 0; i < collapse; i++) {
+                Entry entry = poll();
+                if (entry == null) {
+                    break;
+                }
+                skipped++;
+                skippedBytes += entry.data.length();
+                if (entry.decoder != null) {
+                    // 被跳过的字节不再参与拼接，丢弃解码器中残留的半个字符
+                    entry.decoder.reset();
+                }
+                entry.data.release();
+            }
+        }
+
+        DocumentBuilder doc = new DocumentBuilder(area);
+        if (skipped > 0) {
+            String summary = "显示积压，已合并 " + skipped + " 条消息（" + skippedBytes + " 字节），收发计数不受影响";
+            doc.append(MessageFormatter.head(NanoClock.epochNanos(), "系统消息>>", summary.getBytes(StandardCharsets.UTF_8).length, ""), HEAD_STYLE);
+            doc.append(summary + "\n\n", bodyStyle(ColorConstant.SYSTEM_MSG_COLOR));
+        }
+        int rendered = 0;
+        while (rendered < MAX_ENTRIES_PER_FRAME && doc.length() < MAX_CHARS_PER_FRAME) {
+            Entry entry = poll();
+            if (entry == null) {
+                break;
+            }
+            try {
+                render(entry, doc);
+            } finally {
+                entry.data.release();
+            }
+            rendered++;
+        }
+        if (doc.isEmpty()) {
+            return;
+        }
+        ReadOnlyStyledDocument<String, String, String> document = doc.build();
+        area.append(document);
+        scrollback.onAppended(document.length(), doc.lines(), rendered + (skipped > 0 ? 1 : 0));
+        area.moveTo(area.getLength());
+        area.requestFollowCaret();
+        onFlushed.run();
+    }
+
+    private Entry poll() {
+        Entry entry = queue.poll();
+        if (entry != null) {
+            pending.decrementAndGet();
+        }
+        return entry;
+    }
+
+    private static void render(Entry entry, DocumentBuilder doc) {
+        PooledBuffer data = entry.data;
+        String displayText = MessageFormatter.body(data, entry.isHex, entry.decoder);
+        doc.append(MessageFormatter.head(entry.timestamp, entry.labelPrefix, data.length(),
+                entry.isHex ? MessageFormatter.HEX_MARK : ""), HEAD_STYLE);
+        doc.append(displayText + "\n\n", bodyStyle(entry.color));
+    }
+
+    private static String bodyStyle(String color) {
+        return "-fx-fill:" + color + ";-fx-padding:10px";
+    }
+
+    private record Entry(String labelPrefix, PooledBuffer data, long timestamp, boolean isHex, String color,
+                         TextStreamDecoder decoder) {
+    }
+
+    /**
+     * 把多段带样式的文本拼成一个文档
+     */
+    private static final class DocumentBuilder {
+        private final ReadOnlyStyledDocumentBuilder<String, String, String> builder;
+        private List<StyledSegment<String, String>> paragraph = new ArrayList<>();
+        private int length;
+        private int lines;
+
+        private DocumentBuilder(InlineCssTextArea area) {
+            this.builder = new ReadOnlyStyledDocumentBuilder<>(area.getSegOps(), "");
+        }
+
+        /**
+         * 与 {@code area.append(text, style)} 一致，\r\n、\r、\n 均视为换行
+         */
+        private void append(String text, String style) {
+            int start = 0;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\n' || c == '\r') {
+                    addSegment(text.substring(start, i), style);
+                    endParagraph(style);
+                    if (c == '\r' && i + 1 < text.length() && text.charAt(i + 1) == '\n') {
+                        i++;
+                    }
+                    start = i + 1;
+                }
+            }
+            addSegment(text.substring(start), style);
+            length += text.length();
+        }
+
+        private void addSegment(String text, String style) {
+            if (!text.isEmpty()) {
+                paragraph.add(new StyledSegment<>(text, style));
+            }
+        }
+
+        private void endParagraph(String style) {
+            // 段落至少需要一个片段
+            if (paragraph.isEmpty()) {
+                paragraph.add(new StyledSegment<>("", style));
+            }
+            builder.addParagraph(paragraph);
+            paragraph = new ArrayList<>();
+            lines++;
+        }
+
+        private int length() {
+            return length;
+        }
+
+        /**
+         * @return 已结束的段落数（换行数）
+         */
+        private int lines() {
+            return lines;
+        }
+
+        private boolean isEmpty() {
+            return length == 0;
+        }
+
+        private ReadOnlyStyledDocument<String, String, String> build() {
+            if (paragraph.isEmpty()) {
+                paragraph.add(new StyledSegment<>("", ""));
+            }
+            builder.addParagraph(paragraph);
+            return builder.build();
+        }
+    }
+}
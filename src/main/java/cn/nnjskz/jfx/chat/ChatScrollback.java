@@ -0,0 +1,273 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.chat;
+
+import javafx.application.Platform;
+import org.fxmisc.richtext.InlineCssTextArea;
+import org.fxmisc.richtext.model.StyleSpan;
+import org.fxmisc.richtext.model.StyleSpans;
+import org.fxmisc.richtext.model.StyleSpansBuilder;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+
+/**
+ * 聊天区回滚上限
+ * <p>
+ * 以渲染队列每次追加的内容为一个块记录长度，超过上限时从头部整块淘汰，直到降到上限的 90%。
+ * 开启溢写时被淘汰的块（文本 + 样式）追加到磁盘段文件，滚动到顶部时按块逆序读回插入，
+ * 之后有新消息时再按同样规则淘汰。读回的总是文件末尾的一块，读回后把文件截断到该块起点，
+ * 段文件大小始终等于当前溢写的内容，反复滚动不会增长。所有方法都在 FX 线程上调用。
+ */
+public final class ChatScrollback {
+    private static final double LOW_WATER = 0.9;
+
+    /**
+     * 上限的计量单位
+     */
+    public enum Unit {
+        MESSAGES, LINES, CHARS;
+
+        public static Unit of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final InlineCssTextArea area;
+    private final Unit unit;
+    private final long limit;
+    private final Path spillDir;
+    // 聊天区中的块，按时间顺序
+    private final Deque<Block> blocks = new ArrayDeque<>();
+    // 已溢写的块，按时间顺序，也是在段文件中的顺序；读回时从尾部取
+    private final Deque<Spilled> spilled = new ArrayDeque<>();
+    private long totalChars;
+    private long totalLines;
+    private long totalMessages;
+    private Path spillFile;
+    private FileChannel spillChannel;
+    private boolean paging;
+
+    /**
+     * @param area     聊天区
+     * @param unit     计量单位
+     * @param limit    上限，0 表示不限
+     * @param spillDir 溢写目录，null 表示淘汰的内容直接丢弃
+     */
+    public ChatScrollback(InlineCssTextArea area, Unit unit, long limit, Path spillDir) {
+        this.area = area;
+        this.unit = unit;
+        this.limit = limit;
+        this.spillDir = spillDir;
+        if (spillDir != null) {
+            area.estimatedScrollYProperty().addListener((observable, oldValue, newValue) -> {
+                if (newValue != null && newValue <= 0 && !spilled.isEmpty() && !paging) {
+                    paging = true;
+                    Platform.runLater(this::pageIn);
+                }
+            });
+        }
+    }
+
+    /**
+     * 记录一次追加到末尾的内容，必要时淘汰最早的块
+     */
+    void onAppended(int chars, int lines, int messages) {
+        Block block = new Block(chars, lines, messages);
+        blocks.addLast(block);
+        count(block, 1);
+        if (limit > 0 && measure() > limit) {
+            evict();
+        }
+    }
+
+    /**
+     * 清空计数与溢写内容（聊天区本身由调用方清空）
+     */
+    public void clear() {
+        blocks.clear();
+        spilled.clear();
+        totalChars = 0;
+        totalLines = 0;
+        totalMessages = 0;
+        closeSpill();
+    }
+
+    /**
+     * @return 已溢写到磁盘、当前不在聊天区中的消息数
+     */
+    public long spilledMessages() {
+        long n = 0;
+        for (Spilled s : spilled) {
+            n += s.block.messages;
+        }
+        return n;
+    }
+
+    /**
+     * 按时间顺序写出全部内容（已溢写的部分 + 聊天区）
+     */
+    public void writeAllText(Writer out) throws IOException {
+        for (Spilled s : spilled) {
+            out.write(readSpilled(s).text);
+        }
+        out.write(area.getText());
+    }
+
+    private long measure() {
+        return switch (unit) {
+            case MESSAGES -> totalMessages;
+            case LINES -> totalLines;
+            case CHARS -> totalChars;
+        };
+    }
+
+    private void count(Block block, int sign) {
+        totalChars += sign * block.chars;
+        totalLines += sign * block.lines;
+        totalMessages += sign * block.messages;
+    }
+
+    private void evict() {
+        long lowWater = (long) (limit * LOW_WATER);
+        int chars = 0;
+        Deque<Block> evicted = new ArrayDeque<>();
+        // 至少保留最新的一块
+        while (blocks.size() > 1 && measure() > lowWater) {
+            Block block = blocks.pollFirst();
+            count(block, -1);
+            chars += block.chars;
+            evicted.addLast(block);
+        }
+        if (chars == 0) {
+            return;
+        }
+        if (spillDir != null) {
+            int offset = 0;
+            for (Block block : evicted) {
+                spill(block, offset);
+                offset += block.chars;
+            }
+        }
+        area.deleteText(0, chars);
+    }
+
+    /**
+     * 把聊天区 [offset, offset + block.chars) 的文本与样式追加到段文件
+     */
+    private void spill(Block block, int offset) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(block.chars * 2 + 64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            StyleSpans<String> spans = area.getStyleSpans(offset, offset + block.chars);
+            out.writeInt(spans.getSpanCount());
+            for (StyleSpan<String> span : spans) {
+                out.writeUTF(span.getStyle());
+                out.writeInt(span.getLength());
+            }
+            byte[] text = area.getText(offset, offset + block.chars).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(text.length);
+            out.write(text);
+            out.flush();
+            FileChannel channel = spillChannel();
+            long position = channel.size();
+            ByteBuffer buf = ByteBuffer.wrap(bytes.toByteArray());
+            while (buf.hasRemaining()) {
+                channel.write(buf, position + buf.position());
+            }
+            spilled.addLast(new Spilled(position, bytes.size(), block));
+        } catch (IOException e) {
+            System.err.println("scrollback spill: " + e.getMessage());
+        }
+    }
+
+    /**
+     * 读回最近溢写的一块，插入到聊天区顶部并保持当前视图位置
+     */
+    private void pageIn() {
+        try {
+            Spilled s = spilled.peekLast();
+            if (s == null) {
+                return;
+            }
+            Content content = readSpilled(s);
+            // 该块位于文件末尾，截掉后再次淘汰时从同一位置重新写入
+            spillChannel.truncate(s.offset);
+            spilled.pollLast();
+            area.insertText(0, content.text);
+            area.setStyleSpans(0, content.spans);
+            blocks.addFirst(s.block);
+            count(s.block, 1);
+            area.showParagraphAtTop(s.block.lines);
+        } catch (IOException e) {
+            System.err.println("scrollback page in: " + e.getMessage());
+        } finally {
+            paging = false;
+        }
+    }
+
+    private Content readSpilled(Spilled s) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(s.length);
+        while (buf.hasRemaining()) {
+            if (spillChannel.read(buf, s.offset + buf.position()) < 0) {
+                throw new EOFException();
+            }
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(buf.array()));
+        int spanCount = in.readInt();
+        StyleSpansBuilder<String> spans = new StyleSpansBuilder<>(spanCount);
+        for (int i = 0; i < spanCount; i++) {
+            spans.add(in.readUTF(), in.readInt());
+        }
+        byte[] text = new byte[in.readInt()];
+        in.readFully(text);
+        return new Content(new String(text, StandardCharsets.UTF_8), spans.create());
+    }
+
+    private FileChannel spillChannel() throws IOException {
+        if (spillChannel == null) {
+            Files.createDirectories(spillDir);
+            spillFile = Files.createTempFile(spillDir, "chat-", ".seg");
+            spillFile.toFile().deleteOnExit();
+            spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+        return spillChannel;
+    }
+
+    private void closeSpill() {
+        if (spillChannel != null) {
+            try {
+                spillChannel.close();
+                Files.deleteIfExists(spillFile);
+            } catch (IOException ignored) {
+            }
+            spillChannel = null;
+            spillFile = null;
+        }
+    }
+
+    /**
+     * 一次追加的内容：字符数、段落数（换行数）、消息数
+     */
+    private record Block(int chars, int lines, int messages) {
+    }
+
+    private record Spilled(long offset, int length, Block block) {
+    }
+
+    private record Content(String text, StyleSpans<String> spans) {
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.chat;
+
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.codec.TextStreamDecoder;
+import cn.nnjskz.jfx.utils.DateUtil;
+import cn.nnjskz.jfx.utils.NanoClock;
+
+import java.nio.charset.StandardCharsets;
+
+import static cn.nnjskz.jfx.utils.SocketUtil.formatBytesToHex;
+
+/**
+ * 消息的标头与正文文本，聊天区渲染队列与会话日志共用
+ * <p>
+ * 不依赖 JavaFX，可在任意线程上调用。
+ */
+public final class MessageFormatter {
+    /**
+     * 十六进制显示的消息在标头中的标记
+     */
+    public static final String HEX_MARK = "【HEX】";
+
+    private MessageFormatter() {
+    }
+
+    /**
+     * 消息标头
+     *
+     * @param timestamp   时间（纪元纳秒）
+     * @param labelPrefix 标头
+     * @param length      正文字节数
+     * @param format      格式标记，如 {@link #HEX_MARK}
+     */
+    public static String head(long timestamp, String labelPrefix, int length, String format) {
+        return "[" + DateUtil.formatDate2String(NanoClock.toMillis(timestamp), DateUtil.LONG_PATTERN) +
+                "] " + labelPrefix + "|" + length + "字节" + format + ":\n";
+    }
+
+    /**
+     * 消息正文
+     *
+     * @param data    数据
+     * @param isHex   是否十六进制
+     * @param decoder 文本解码器，为 null 时按 UTF-8 单独解码本块；十六进制显示时丢弃其中残留的半个字符
+     */
+    public static String body(PooledBuffer data, boolean isHex, TextStreamDecoder decoder) {
+        if (!isHex && decoder != null) {
+            return decoder.decode(data);
+        }
+        if (decoder != null) {
+            decoder.reset();
+        }
+        byte[] bytes = data.hasArray() ? data.array() : data.toByteArray();
+        int offset = data.hasArray() ? data.arrayOffset() : 0;
+        return isHex ? formatBytesToHex(bytes, offset, data.length())
+                : new String(bytes, offset, data.length(), StandardCharsets.UTF_8);
+    }
+}
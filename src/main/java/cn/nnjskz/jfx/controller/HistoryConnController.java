@@ -9,6 +9,8 @@
 package cn.nnjskz.jfx.controller;
 
 import cn.nnjskz.jfx.model.HistoryConn;
+import cn.nnjskz.jfx.utils.ConnHistoryStore;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.scene.control.Button;
@@ -17,14 +19,11 @@ import javafx.scene.control.TableColumn;
 import javafx.scene.control.TableView;
 import javafx.scene.control.cell.PropertyValueFactory;
 
-import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 
-import static cn.nnjskz.jfx.utils.FileUtil.getConnHistoryFile;
-import static cn.nnjskz.jfx.utils.ResourceBundleUtil.getProperty;
+import static cn.nnjskz.jfx.utils.DateUtil.COMMON_PATTERN;
+import static cn.nnjskz.jfx.utils.DateUtil.formatDate2String;
 
 public class HistoryConnController {
     @FXML
@@ -34,6 +33,12 @@ public class HistoryConnController {
     @FXML
     private TableColumn<HistoryConn, Integer> port;
     @FXML
+    private TableColumn<HistoryConn, Long> useCount;
+    @FXML
+    private TableColumn<HistoryConn, String> lastUsed;
+    @FXML
+    private TableColumn<HistoryConn, String> latency;
+    @FXML
     private TableColumn<HistoryConn, Void> action;
 
     private Consumer<HistoryConn> onSelected;
@@ -42,15 +47,18 @@ public class HistoryConnController {
     }
 
     @FXML
-    private void initialize() throws IOException {
-        Map<String, Integer> connMap = getConnHistoryFile(getProperty.apply("conn.history.path"));
-        List<HistoryConn> connHistoryList = new ArrayList<>();
-        connMap.forEach((k,v) -> connHistoryList.add(new HistoryConn(k, v)));
-
+    private void initialize() {
+        // 按最近使用排序
+        List<HistoryConn> connHistoryList = ConnHistoryStore.connections().list();
 
         if (!connHistoryList.isEmpty()) {
             host.setCellValueFactory(new PropertyValueFactory<>("host"));
             port.setCellValueFactory(new PropertyValueFactory<>("port"));
+            useCount.setCellValueFactory(new PropertyValueFactory<>("useCount"));
+            lastUsed.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getLastUsed() > 0
+                    ? formatDate2String(cell.getValue().getLastUsed(), COMMON_PATTERN) : "-"));
+            latency.setCellValueFactory(cell -> new ReadOnlyStringWrapper(cell.getValue().getLatency() >= 0
+                    ? String.valueOf(cell.getValue().getLatency()) : "-"));
             historyConnTable.setItems(FXCollections.observableList(connHistoryList));
             action.setCellFactory(col -> new TableCell<>(){
                 private final Button selectBut = new Button("选择");
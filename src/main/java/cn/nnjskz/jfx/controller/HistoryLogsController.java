@@ -7,30 +7,54 @@
  */
 package cn.nnjskz.jfx.controller;
 
+import cn.nnjskz.jfx.log.LogCatalog;
+import cn.nnjskz.jfx.log.LogSearch;
+import cn.nnjskz.jfx.log.LogTokenIndex;
 import cn.nnjskz.jfx.model.HistoryLogs;
+import cn.nnjskz.jfx.model.LogSearchHit;
+import cn.nnjskz.jfx.network.capture.CaptureReader;
+import cn.nnjskz.jfx.network.capture.CaptureStore;
+import cn.nnjskz.jfx.network.capture.PcapImporter;
+import cn.nnjskz.jfx.network.capture.PcapngExporter;
+import cn.nnjskz.jfx.utils.AppExecutors;
 import cn.nnjskz.jfx.utils.DateUtil;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.geometry.Pos;
 import javafx.scene.Parent;
 import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
+import javafx.scene.control.Dialog;
+import javafx.scene.control.Label;
 import javafx.scene.control.TableCell;
 import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableRow;
 import javafx.scene.control.TableView;
+import javafx.scene.control.TextField;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.HBox;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
 
-import static cn.nnjskz.jfx.utils.WindowUtil.showConfirmationDialog;
-import static cn.nnjskz.jfx.utils.WindowUtil.showWindow;
+import static cn.nnjskz.jfx.utils.WindowUtil.*;
 import static cn.nnjskz.jfx.utils.FileUtil.*;
 import static cn.nnjskz.jfx.utils.ResourceBundleUtil.getProperty;
 
@@ -46,31 +70,73 @@ public class HistoryLogsController {
     @FXML
     private TableColumn<HistoryLogs, String> logTime;
     @FXML
+    private TableColumn<HistoryLogs, String> logMessages;
+    @FXML
+    private TableColumn<HistoryLogs, String> logPeer;
+    @FXML
+    private TableColumn<HistoryLogs, String> logDuration;
+    @FXML
     private TableColumn<HistoryLogs, Void> action;
-
     @FXML
-    private void initialize() throws IOException {
-        // 渲染列表
-        Map<String, Long> logMap = getHistoryLogList();
-        List<HistoryLogs> historyLogsList = new ArrayList<>();
-        AtomicReference<Integer> i = new AtomicReference<>(1);
-        logMap.forEach((k, v) -> {
-            String timestamp = k.substring(k.lastIndexOf('_') + 1);
-            historyLogsList.add(new HistoryLogs(i.get(), k, v, DateUtil.formatDate2String(Long.parseLong(timestamp.split("\\.")[0]), DateUtil.COMMON_PATTERN)));
-            i.getAndSet(i.get() + 1);
-        });
+    private Button prevPageBtn;
+    @FXML
+    private Button nextPageBtn;
+    @FXML
+    private Label pageLabel;
+    @FXML
+    private Button importPcapBtn;
+    @FXML
+    private TextField searchField;
+    @FXML
+    private ChoiceBox<String> searchMode;
+    @FXML
+    private Button searchBtn;
+    @FXML
+    private Label searchStatus;
+    @FXML
+    private TableView<LogSearchHit> searchResultTable;
+    @FXML
+    private TableColumn<LogSearchHit, String> hitLogName;
+    @FXML
+    private TableColumn<LogSearchHit, String> hitLocation;
+    @FXML
+    private TableColumn<LogSearchHit, String> hitContent;
+
+    // 搜索命中上限，避免结果表过大
+    private static final int MAX_SEARCH_HITS = 10000;
+    private volatile LogSearch search;
+    // 工作线程产生的命中，合并后一次加入结果表
+    private final Queue<LogSearchHit> pendingHits = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean hitsScheduled = new AtomicBoolean();
+
+    // 日志列表每页条数
+    private static final int PAGE_SIZE = 100;
+    private LogCatalog catalog;
+    private final Runnable catalogListener = this::scheduleRefresh;
+    private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+    private int page;
 
+    @FXML
+    private void initialize() {
         logSeq.setCellValueFactory(new PropertyValueFactory<>("logSeq"));
         logName.setCellValueFactory(new PropertyValueFactory<>("logName"));
         logSize.setCellValueFactory(new PropertyValueFactory<>("logSize"));
         logTime.setCellValueFactory(new PropertyValueFactory<>("logTime"));
-        historyLogsTable.setItems(FXCollections.observableList(historyLogsList));
+        logMessages.setCellValueFactory(new PropertyValueFactory<>("logMessages"));
+        logPeer.setCellValueFactory(new PropertyValueFactory<>("logPeer"));
+        logDuration.setCellValueFactory(new PropertyValueFactory<>("logDuration"));
+        // 列表来自元数据索引，在后台加载后渲染，此后随目录变化刷新
+        catalog = LogCatalog.of(Paths.get(currentDir, getProperty.apply("logs.path")));
+        catalog.addListener(catalogListener);
+        catalog.refresh().thenRun(this::scheduleRefresh);
+        initSearch();
 
         action.setCellFactory(col -> new TableCell<>() {
             private final Button openBut = new Button("打开文件所在位置");
             private final Button selectBut = new Button("预览");
             private final Button deleteBut = new Button("删除");
-            private final HBox hbox = new HBox(10, openBut, selectBut, deleteBut);
+            private final Button exportBut = new Button("导出pcapng");
+            private final HBox hbox = new HBox(10, openBut, selectBut, exportBut, deleteBut);
 
             {
                 openBut.setOnAction(event -> {
@@ -101,18 +167,11 @@ public class HistoryLogsController {
                 });
                 selectBut.setOnAction(event -> {
                     HistoryLogs item = getTableView().getItems().get(getIndex());
-                    try {
-                        StringBuilder content = readFile(getProperty.apply("logs.path") + item.getLogName());
-                        FXMLLoader fxmlLoader = showWindow(getProperty.apply("log.detail.view.path"), "查看日志", true, LogController.class);
-                        LogController controller = fxmlLoader.getController();
-                        controller.setContent(content);
-                        // 监听关闭Stage时清空logContent
-                        Parent root = fxmlLoader.getRoot();
-                        Stage stage = (Stage) root.getScene().getWindow();
-                        stage.setOnCloseRequest(e -> controller.onClose());
-                    } catch (IOException e) {
-                        throw new RuntimeException(e);
-                    }
+                    previewLog(item.getLogName());
+                });
+                exportBut.setOnAction(event -> {
+                    HistoryLogs item = getTableView().getItems().get(getIndex());
+                    exportPcapng(item.getLogName());
                 });
                 deleteBut.setOnAction(event -> {
                     HistoryLogs item = getTableView().getItems().get(getIndex());
@@ -121,6 +180,7 @@ public class HistoryLogsController {
                         try {
                             Boolean deleted = deleteFile(getProperty.apply("logs.path") + item.getLogName());
                             if (deleted) {
+                                LogTokenIndex.of(Paths.get(currentDir, getProperty.apply("logs.path"))).remove(item.getLogName());
                                 showConfirmationDialog("成功消息", "删除成功!");
                                 getTableView().getItems().remove(getIndex());
                             }
@@ -136,10 +196,306 @@ public class HistoryLogsController {
                 if (empty) {
                     setGraphic(null);
                 } else {
+                    // 只有抓包文件可导出
+                    boolean capture = getTableView().getItems().get(getIndex()).getLogName().endsWith(CaptureStore.EXTENSION);
+                    exportBut.setVisible(capture);
+                    exportBut.setManaged(capture);
                     hbox.setAlignment(Pos.CENTER);
                     setGraphic(hbox);
                 }
             }
         });
     }
+
+    private void initSearch() {
+        hitLogName.setCellValueFactory(new PropertyValueFactory<>("logName"));
+        hitLocation.setCellValueFactory(new PropertyValueFactory<>("location"));
+        hitContent.setCellValueFactory(new PropertyValueFactory<>("content"));
+        searchMode.setItems(FXCollections.observableArrayList("文本", "正则", "十六进制"));
+        searchMode.getSelectionModel().selectFirst();
+        searchResultTable.setRowFactory(table -> {
+            TableRow<LogSearchHit> row = new TableRow<>();
+            row.setOnMouseClicked(event -> {
+                if (event.getClickCount() == 2 && !row.isEmpty()) {
+                    openHit(row.getItem());
+                }
+            });
+            return row;
+        });
+    }
+
+    /**
+     * 并行搜索全部日志，命中逐批加入结果表；搜索中再次点击则停止
+     */
+    @FXML
+    private void onSearch() {
+        LogSearch running = search;
+        if (running != null) {
+            running.cancel();
+            return;
+        }
+        LogSearch.Mode mode = switch (searchMode.getSelectionModel().getSelectedIndex()) {
+            case 1 -> LogSearch.Mode.REGEX;
+            case 2 -> LogSearch.Mode.HEX;
+            default -> LogSearch.Mode.TEXT;
+        };
+        LogSearch started;
+        try {
+            started = new LogSearch(Paths.get(currentDir, getProperty.apply("logs.path")), mode,
+                    searchField.getText(), MAX_SEARCH_HITS, this::onHit);
+        } catch (IllegalArgumentException e) {
+            showTip(e.getMessage(), "⚠️警告消息");
+            return;
+        }
+        search = started;
+        pendingHits.clear();
+        searchResultTable.getItems().clear();
+        searchBtn.setText("停止");
+        searchStatus.setText("搜索中...");
+        started.start(() -> Platform.runLater(() -> {
+            drainHits();
+            search = null;
+            searchBtn.setText("搜索");
+            searchStatus.setText(String.format("命中 %,d 条%s，扫描 %d 个日志，词表排除 %d 个%s，耗时 %d ms",
+                    started.getHits(),
+                    started.isLimitReached() ? "（已达上限）" : started.isCancelled() ? "（已停止）" : "",
+                    started.getScanned(), started.getSkipped(),
+                    started.getFailed() > 0 ? "，" + started.getFailed() + " 个读取失败" : "",
+                    started.getElapsedNanos() / 1_000_000));
+        }));
+    }
+
+    private void onHit(LogSearchHit hit) {
+        pendingHits.add(hit);
+        if (hitsScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::drainHits);
+        }
+    }
+
+    private void drainHits() {
+        hitsScheduled.set(false);
+        List<LogSearchHit> batch = new ArrayList<>();
+        LogSearchHit hit;
+        while ((hit = pendingHits.poll()) != null) {
+            batch.add(hit);
+        }
+        if (!batch.isEmpty()) {
+            searchResultTable.getItems().addAll(batch);
+        }
+    }
+
+    /**
+     * 打开命中所在的日志；文本日志直接定位到命中行
+     */
+    private void openHit(LogSearchHit hit) {
+        if (hit.getOffset() < 0) {
+            previewLog(hit.getLogName());
+            return;
+        }
+        LogController controller = openLogView(Paths.get(currentDir, getProperty.apply("logs.path"), hit.getLogName()), false);
+        if (controller != null) {
+            controller.jumpTo(hit.getOffset());
+        }
+    }
+
+    /**
+     * 窗口关闭时停止搜索
+     */
+    public void onClose() {
+        catalog.removeListener(catalogListener);
+        LogSearch running = search;
+        if (running != null) {
+            running.cancel();
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (refreshScheduled.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                refreshScheduled.set(false);
+                renderPage();
+            });
+        }
+    }
+
+    /**
+     * 渲染当前页
+     */
+    private void renderPage() {
+        List<LogCatalog.Entry> entries = catalog.snapshot();
+        int pages = Math.max(1, (entries.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        page = Math.min(page, pages - 1);
+        int from = page * PAGE_SIZE;
+        List<HistoryLogs> historyLogsList = new ArrayList<>();
+        for (int i = from; i < Math.min(entries.size(), from + PAGE_SIZE); i++) {
+            LogCatalog.Entry entry = entries.get(i);
+            boolean scanned = entry.messages() >= 0;
+            historyLogsList.add(new HistoryLogs(i + 1, entry.name(), entry.size(),
+                    DateUtil.formatDate2String(entry.modified(), DateUtil.COMMON_PATTERN),
+                    scanned ? String.valueOf(entry.messages()) : "…",
+                    entry.peer(),
+                    scanned && entry.messages() > 1 ? formatDuration(entry.durationMillis()) : ""));
+        }
+        historyLogsTable.setItems(FXCollections.observableList(historyLogsList));
+        pageLabel.setText("第 " + (page + 1) + "/" + pages + " 页，共 " + entries.size() + " 个");
+        prevPageBtn.setDisable(page == 0);
+        nextPageBtn.setDisable(page >= pages - 1);
+    }
+
+    private static String formatDuration(long millis) {
+        long seconds = millis / 1000;
+        return String.format("%d:%02d:%02d", seconds / 3600, seconds / 60 % 60, seconds % 60);
+    }
+
+    @FXML
+    private void onPrevPage() {
+        page = Math.max(0, page - 1);
+        renderPage();
+    }
+
+    @FXML
+    private void onNextPage() {
+        page++;
+        renderPage();
+    }
+
+    /**
+     * 预览日志：文本日志直接映射打开；抓包文件与 .gz 先在后台流式转换为临时文本文件
+     */
+    private void previewLog(String logName) {
+        Path path = Paths.get(currentDir, getProperty.apply("logs.path"), logName);
+        boolean capture = logName.endsWith(CaptureStore.EXTENSION);
+        if (!capture && !logName.endsWith(".gz")) {
+            openLogView(path, false);
+            return;
+        }
+        Dialog<Void> loading = showLoading("正在解析...");
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+            Path text = null;
+            try {
+                text = Files.createTempFile("jfx-log-", ".log");
+                if (capture) {
+                    // 抓包文件按聊天区格式转为文本
+                    try (Writer writer = Files.newBufferedWriter(text, StandardCharsets.UTF_8)) {
+                        new CaptureReader(path).writeText(writer);
+                    }
+                } else {
+                    // 已压缩的会话日志段
+                    try (InputStream in = new GZIPInputStream(Files.newInputStream(path))) {
+                        Files.copy(in, text, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+                Path converted = text;
+                Platform.runLater(() -> {
+                    closeLoading(loading);
+                    openLogView(converted, true);
+                });
+            } catch (IOException e) {
+                if (text != null) {
+                    try {
+                        Files.deleteIfExists(text);
+                    } catch (IOException ignored) {
+                    }
+                }
+                Platform.runLater(() -> {
+                    closeLoading(loading);
+                    showTip("解析失败：" + e.getMessage(), "错误消息");
+                });
+            }
+        });
+    }
+
+    private LogController openLogView(Path file, boolean temporary) {
+        try {
+            FXMLLoader fxmlLoader = showWindow(getProperty.apply("log.detail.view.path"), "查看日志", true, LogController.class);
+            LogController controller = fxmlLoader.getController();
+            // 监听关闭Stage时释放映射
+            Parent root = fxmlLoader.getRoot();
+            Stage stage = (Stage) root.getScene().getWindow();
+            stage.setOnCloseRequest(e -> controller.onClose());
+            controller.open(file, temporary);
+            return controller;
+        } catch (IOException e) {
+            showTip("打开日志失败：" + e.getMessage(), "错误消息");
+            return null;
+        }
+    }
+
+    /**
+     * 把抓包文件导出为 pcapng（流式写出，不整体读入内存）
+     */
+    private void exportPcapng(String logName) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("导出 pcapng");
+        chooser.setInitialFileName(logName.substring(0, logName.length() - CaptureStore.EXTENSION.length()) + ".pcapng");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("pcapng", "*.pcapng"));
+        File target = chooser.showSaveDialog(historyLogsTable.getScene().getWindow());
+        if (target == null) {
+            return;
+        }
+        Path source = Paths.get(currentDir, getProperty.apply("logs.path"), logName);
+        Dialog<Void> loading = showLoading("正在导出...");
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+            try {
+                long packets = PcapngExporter.export(source, target.toPath());
+                Platform.runLater(() -> {
+                    closeLoading(loading);
+                    showTip("导出成功，共 " + packets + " 个报文：\n" + target.getAbsolutePath(), "提示消息");
+                });
+            } catch (IOException e) {
+                Platform.runLater(() -> {
+                    closeLoading(loading);
+                    showTip("导出失败：" + e.getMessage(), "错误消息");
+                });
+            }
+        });
+    }
+
+    /**
+     * 导入 pcap/pcapng：TCP 载荷流与 UDP 报文各生成一份抓包文件，加入日志列表
+     */
+    @FXML
+    private void onImportPcap() throws IOException {
+        if (MainController.countSavedLogs() >= 49) {
+            showTip("已达最大上限(50)!", "⚠️警告消息");
+            return;
+        }
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("导入 pcap/pcapng");
+        chooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("pcap/pcapng", "*.pcap", "*.pcapng", "*.cap"),
+                new FileChooser.ExtensionFilter("所有文件", "*.*"));
+        File source = chooser.showOpenDialog(historyLogsTable.getScene().getWindow());
+        if (source == null) {
+            return;
+        }
+        String name = source.getName();
+        int dot = name.lastIndexOf('.');
+        String baseName = "pcap_" + (dot > 0 ? name.substring(0, dot) : name).replaceAll("[^\\w\\-]", "-");
+        long segmentSize = Long.parseLong(getProperty.apply("capture.segment.size")) * 1024 * 1024;
+        importPcapBtn.setDisable(true);
+        Dialog<Void> loading = showLoading("正在导入...");
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+            try {
+                PcapImporter.Result result = PcapImporter.importFile(source.toPath(),
+                        Paths.get(currentDir, getProperty.apply("logs.path")), baseName, segmentSize);
+                Platform.runLater(() -> {
+                    closeLoading(loading);
+                    importPcapBtn.setDisable(false);
+                    catalog.refresh();
+                    showTip("导入完成：" + result.packets() + " 个报文，跳过 " + result.skipped() + " 个"
+                            + (result.files().isEmpty() ? "（没有 TCP/UDP 载荷）" : ""), "提示消息");
+                });
+                // 为导入的抓包文件建立搜索词表
+                LogTokenIndex index = LogTokenIndex.of(Paths.get(currentDir, getProperty.apply("logs.path")));
+                result.files().forEach(index::update);
+            } catch (IOException e) {
+                Platform.runLater(() -> {
+                    closeLoading(loading);
+                    importPcapBtn.setDisable(false);
+                    showTip("导入失败：" + e.getMessage(), "错误消息");
+                });
+            }
+        });
+    }
 }
@@ -7,24 +7,269 @@
  */
 package cn.nnjskz.jfx.controller;
 
+import cn.nnjskz.jfx.log.MappedLogFile;
+import cn.nnjskz.jfx.utils.AppExecutors;
 import cn.nnjskz.jfx.utils.ThemeManager;
+import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import org.fxmisc.richtext.InlineCssTextArea;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.control.ScrollPane;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.StackPane;
+import org.fxmisc.flowless.Cell;
+import org.fxmisc.flowless.VirtualFlow;
+import org.fxmisc.flowless.VirtualizedScrollPane;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static cn.nnjskz.jfx.utils.WindowUtil.showTip;
+
+/**
+ * 日志查看窗口
+ * <p>
+ * 文件经 {@link MappedLogFile} 映射，列表中只保留以当前位置为中心的一页（{@value #PAGE_ROWS} 行），
+ * 由 flowless 只渲染可见的行；滚动接近页首/页尾时以首个可见行为锚点重新取页。右侧滚动条按字节偏移覆盖整个文件，
+ * 行号索引在后台建立，跳转到偏移与跳转到行号在索引完成前即可使用。
+ */
 public class LogController {
+    private static final int PAGE_ROWS = 2000;
+    // 距页首/页尾不足该行数时重新取页
+    private static final int EDGE_ROWS = 200;
+
+    @FXML
+    private StackPane logViewport;
+    @FXML
+    private ScrollBar fileBar;
+    @FXML
+    private TextField lineField;
     @FXML
-    private InlineCssTextArea logContent;
+    private TextField offsetField;
+    @FXML
+    private Button jumpLineBtn;
+    @FXML
+    private Label statusLabel;
+
+    private final ObservableList<String> rows = FXCollections.observableArrayList();
+    private VirtualFlow<String, RowCell> flow;
+    private String rowStyle;
+    private MappedLogFile log;
+    // 关闭窗口时删除（由 .gz / 抓包文件转换出的临时文本）
+    private Path temporaryFile;
+    private long[] rowOffsets = new long[0];
+    private long pageEnd;
+    private long topOffset;
+    private boolean updatingBar;
+    private boolean repagePending;
 
+    @FXML
+    private void initialize() {
+        rowStyle = "-fx-text-fill: " + (ThemeManager.isDarkMode() ? "#fbfbfb" : "#1c1c1e") + ";";
+        flow = VirtualFlow.createVertical(rows, RowCell::new);
+        VirtualizedScrollPane<VirtualFlow<String, RowCell>> scrollPane = new VirtualizedScrollPane<>(flow);
+        // 纵向位置由右侧的整文件滚动条表示
+        scrollPane.setVbarPolicy(ScrollPane.ScrollBarPolicy.NEVER);
+        logViewport.getChildren().add(scrollPane);
+        flow.estimatedScrollYProperty().addListener((observable, oldValue, newValue) -> onScrolled());
+        fileBar.valueProperty().addListener((observable, oldValue, newValue) -> {
+            if (!updatingBar && log != null) {
+                showAt(newValue.longValue());
+            }
+        });
+    }
 
-    public void setContent(StringBuilder content) {
-        if (logContent != null) {
-            String textColor = ThemeManager.isDarkMode() ? "#fbfbfb" : "#1c1c1e";
-            logContent.append(content.toString(),"-fx-fill: " + textColor);
+    /**
+     * 打开日志文件，行号索引在后台建立
+     *
+     * @param file      日志文件
+     * @param temporary 是否为关闭窗口时删除的临时文件
+     */
+    public void open(Path file, boolean temporary) throws IOException {
+        MappedLogFile opened = new MappedLogFile(file);
+        log = opened;
+        temporaryFile = temporary ? file : null;
+        long size = opened.size();
+        fileBar.setMin(0);
+        fileBar.setMax(Math.max(1, size));
+        fileBar.setVisibleAmount(Math.max(1, size / 50));
+        fileBar.setUnitIncrement(Math.max(1, size / 1000));
+        fileBar.setBlockIncrement(Math.max(1, size / 50));
+        showAt(0);
+        AppExecutors.getInstance().getBackgroundCachedExecutor().execute(() ->
+                opened.index(indexed -> Platform.runLater(this::updateStatus)));
+    }
+
+    /**
+     * 定位到 offset 所在的行
+     */
+    public void jumpTo(long offset) {
+        if (log != null) {
+            showAt(offset);
+        }
+    }
+
+    public void onClose() {
+        MappedLogFile opened = log;
+        log = null;
+        rows.clear();
+        flow.dispose();
+        if (opened != null) {
+            try {
+                opened.close();
+            } catch (IOException e) {
+                System.err.println(e.getMessage());
+            }
+        }
+        if (temporaryFile != null) {
+            try {
+                Files.deleteIfExists(temporaryFile);
+            } catch (IOException e) {
+                // 部分平台上映射未释放前无法删除
+                temporaryFile.toFile().deleteOnExit();
+            }
+        }
+    }
+
+    @FXML
+    private void onJumpLine() {
+        MappedLogFile opened = log;
+        long line;
+        try {
+            line = Long.parseLong(lineField.getText().trim());
+        } catch (NumberFormatException e) {
+            line = 0;
         }
+        if (opened == null || line < 1) {
+            showTip("请输入有效的行号（从 1 开始）", "⚠️警告消息");
+            return;
+        }
+        long target = line - 1;
+        // 未索引到的部分需要扫描，放到后台
+        jumpLineBtn.setDisable(true);
+        statusLabel.setText("正在定位第 " + line + " 行...");
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+            long offset = opened.seekLine(target);
+            Platform.runLater(() -> {
+                jumpLineBtn.setDisable(false);
+                if (log != opened) {
+                    return;
+                }
+                if (offset < 0) {
+                    updateStatus();
+                    showTip("超出文件行数", "⚠️警告消息");
+                } else {
+                    showAt(offset);
+                }
+            });
+        });
     }
 
-    public void onClose(){
-        logContent.clear();
-        logContent.replaceText("");
+    @FXML
+    private void onJumpOffset() {
+        long offset;
+        try {
+            offset = Long.parseLong(offsetField.getText().trim());
+        } catch (NumberFormatException e) {
+            offset = -1;
+        }
+        if (log == null || offset < 0 || offset >= Math.max(1, log.size())) {
+            showTip("请输入有效的字节偏移（0 ~ " + Math.max(0, log == null ? 0 : log.size() - 1) + "）", "⚠️警告消息");
+            return;
+        }
+        showAt(offset);
+    }
+
+    /**
+     * 以 offset 所在行为首个可见行，前后各保留半页
+     */
+    private void showAt(long offset) {
+        long top = log.lineStart(offset);
+        MappedLogFile.Page page = log.read(log.rowsBefore(top, PAGE_ROWS / 2), PAGE_ROWS);
+        rowOffsets = page.offsets();
+        pageEnd = page.end();
+        rows.setAll(page.rows());
+        if (!rows.isEmpty()) {
+            int index = Arrays.binarySearch(rowOffsets, top);
+            flow.showAsFirst(index >= 0 ? index : Math.max(0, -index - 2));
+        }
+        setTop(top);
+    }
+
+    private void onScrolled() {
+        if (log == null || rows.isEmpty() || flow.visibleCells().isEmpty()) {
+            return;
+        }
+        int first = flow.getFirstVisibleIndex();
+        if (first >= rowOffsets.length) {
+            return;
+        }
+        setTop(rowOffsets[first]);
+        boolean nearStart = first < EDGE_ROWS && rowOffsets[0] > 0;
+        boolean nearEnd = flow.getLastVisibleIndex() >= rows.size() - EDGE_ROWS && pageEnd < log.size();
+        if ((nearStart || nearEnd) && !repagePending) {
+            repagePending = true;
+            Platform.runLater(() -> {
+                repagePending = false;
+                if (log != null && !flow.visibleCells().isEmpty()) {
+                    showAt(rowOffsets[flow.getFirstVisibleIndex()]);
+                }
+            });
+        }
+    }
+
+    private void setTop(long offset) {
+        topOffset = offset;
+        updatingBar = true;
+        fileBar.setValue(offset);
+        updatingBar = false;
+        updateStatus();
+    }
+
+    private void updateStatus() {
+        MappedLogFile opened = log;
+        if (opened == null) {
+            return;
+        }
+        long line = opened.lineOf(topOffset);
+        String position = (line < 0 ? "第 ? 行" : String.format("第 %,d 行", line + 1))
+                + String.format("  偏移 %,d / %,d 字节", topOffset, opened.size());
+        String index = opened.isIndexed()
+                ? String.format("  共 %,d 行", opened.getIndexedLines())
+                : String.format("  索引中 %d%%（%,d 行）", opened.size() == 0 ? 100
+                : opened.getIndexedBytes() * 100 / opened.size(), opened.getIndexedLines());
+        statusLabel.setText(position + index);
+    }
+
+    /**
+     * 可复用的行单元
+     */
+    private final class RowCell implements Cell<String, Label> {
+        private final Label label = new Label();
+
+        RowCell(String row) {
+            label.setStyle(rowStyle);
+            label.setText(row);
+        }
+
+        @Override
+        public Label getNode() {
+            return label;
+        }
+
+        @Override
+        public boolean isReusable() {
+            return true;
+        }
+
+        @Override
+        public void updateItem(String row) {
+            label.setText(row);
+        }
     }
 }
@@ -8,9 +8,32 @@
 package cn.nnjskz.jfx.controller;
 
 import cn.nnjskz.jfx.MainApplication;
+import cn.nnjskz.jfx.chat.ChatRenderQueue;
+import cn.nnjskz.jfx.chat.ChatScrollback;
+import cn.nnjskz.jfx.log.LogTokenIndex;
+import cn.nnjskz.jfx.log.SessionLogWriter;
+import cn.nnjskz.jfx.network.LoadConfig;
+import cn.nnjskz.jfx.network.LoadStats;
+import cn.nnjskz.jfx.network.NioTcpServerService;
+import cn.nnjskz.jfx.network.OutboundQueue;
+import cn.nnjskz.jfx.network.SendScheduler;
+import cn.nnjskz.jfx.network.SlowConsumerPolicy;
 import cn.nnjskz.jfx.network.TcpClientService;
+import cn.nnjskz.jfx.network.TcpLoadGenerator;
+import cn.nnjskz.jfx.network.TcpServer;
 import cn.nnjskz.jfx.network.TcpServerService;
 import cn.nnjskz.jfx.network.UdpService;
+import cn.nnjskz.jfx.network.WriteQueueConfig;
+import cn.nnjskz.jfx.network.answer.AnswerEngine;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.capture.CaptureStore;
+import cn.nnjskz.jfx.network.capture.Direction;
+import cn.nnjskz.jfx.network.codec.FramingConfig;
+import cn.nnjskz.jfx.network.codec.TextStreamDecoder;
+import cn.nnjskz.jfx.network.latency.LatencyReport;
+import cn.nnjskz.jfx.network.latency.LatencySession;
+import cn.nnjskz.jfx.network.replay.ReplaySession;
+import cn.nnjskz.jfx.network.template.PayloadTemplate;
 import cn.nnjskz.jfx.utils.*;
 import javafx.application.Platform;
 import javafx.fxml.FXML;
@@ -23,12 +46,17 @@ import javafx.stage.Stage;
 import org.fxmisc.richtext.InlineCssTextArea;
 
 import java.io.IOException;
+import java.io.Writer;
+import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import static cn.nnjskz.jfx.utils.WindowUtil.*;
 import static cn.nnjskz.jfx.utils.FileUtil.*;
 import static cn.nnjskz.jfx.utils.ResourceBundleUtil.getProperty;
@@ -60,8 +88,18 @@ public class MainController {
     @FXML
     private CheckBox autoSendCheck;
     @FXML
+    private CheckBox latencyCheck;
+    @FXML
+    private CheckBox replayCheck;
+    @FXML
+    private CheckBox templateCheck;
+    @FXML
     private TextField sendIntervalField;
     @FXML
+    private TextField burstField;
+    @FXML
+    private TextField sendCountField;
+    @FXML
     private Button sendBtn;
     @FXML
     private Button sendStopBtn;
@@ -76,25 +114,65 @@ public class MainController {
     @FXML
     private Label statusLabel;
     @FXML
+    private Label sendRateLabel;
+    @FXML
     private Label byteCountLabel;
     @FXML
     private Label clientNumLabel;
     @FXML
     private Label extensionOption;
 
-    private long sentBytes = 0;
-    private long receivedBytes = 0;
+    // 收发字节数在入队时累计（任意线程），与聊天区是否来得及渲染无关
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private ChatRenderQueue renderQueue;
+    private ChatScrollback scrollback;
     private boolean isConnected = false;
 
-    private ScheduledFuture<?> scheduledFuture;
+    private volatile SendScheduler sendScheduler;
+    private ScheduledFuture<?> sendRateFuture;
+    // 已计入发送字节数的定时发送条数
+    private final AtomicLong autoSendReported = new AtomicLong();
+    // 已计入发送字节数的回放字节数
+    private final AtomicLong replayReported = new AtomicLong();
+    private long[] lastSendRateSample;
+    private ScheduledFuture<?> statsMonitorFuture;
     private TcpClientService tcpClientService;
-    private TcpServerService tcpServerService;
+    private TcpServer tcpServerService;
     private UdpService udpService;
+    private TcpLoadGenerator tcpLoadGenerator;
+    private LoadStats lastLoadStats;
+    private volatile LatencySession latencySession;
+    private ScheduledFuture<?> latencyMonitorFuture;
+    private volatile ReplaySession replaySession;
+    // 勾选自动应答时编译的规则，网络线程直接读取；未勾选为 null
+    private volatile AnswerEngine answerEngine;
+    // 最近一次编译的发送模板，发送区内容与 HEX 选项不变时复用（单次发送的序号随之递增）
+    private PayloadTemplate sendTemplate;
+    private String sendTemplateSource;
+    private boolean sendTemplateHex;
+    // UDP 没有连接编号，抓包时按对端地址分配
+    private static final long CAPTURE_BY_ADDRESS = -1L;
+    // 当前会话的抓包文件，未开启或已断开时为 null
+    private volatile CaptureStore captureStore;
+    // 最近一次会话的抓包文件，断开后仍可保存日志
+    private Path lastCaptureFile;
+    // 上一份抓包文件在后台关闭完成
+    private CompletableFuture<Void> captureClosed = CompletableFuture.completedFuture(null);
+    // 当前会话的持续日志，未开启或已断开时为 null
+    private volatile SessionLogWriter sessionLog;
 
     @FXML
     public void initialize() throws IOException {
         Files.createDirectories(Paths.get(FileUtil.currentDir));
-        modeCombo.getItems().addAll("TCP Client", "TCP Server", "UDP");
+        String spillPath = getProperty.apply("chat.scrollback.spill.path");
+        scrollback = new ChatScrollback(chatArea,
+                ChatScrollback.Unit.of(getProperty.apply("chat.scrollback.unit")),
+                Long.parseLong(getProperty.apply("chat.scrollback.limit")),
+                spillPath == null || spillPath.isBlank() ? null : Paths.get(FileUtil.currentDir, spillPath));
+        renderQueue = new ChatRenderQueue(chatArea, Integer.parseInt(getProperty.apply("chat.render.max.fps")), scrollback, this::onChatFlushed);
+        renderQueue.start();
+        modeCombo.getItems().addAll("TCP Client", "TCP Server", "UDP", "TCP Load");
         modeCombo.getSelectionModel().selectFirst();
         statusLabel.setText("未连接");
         statusLabel.setStyle("-fx-text-fill: " + ColorConstant.STATUS_COLOR_02 + ";");
@@ -102,7 +180,22 @@ public class MainController {
         hostField.textProperty().addListener((observable, oldValue, newValue) -> validateInputs());
         portField.textProperty().addListener((observable, oldValue, newValue) -> validateInputs());
 
-        sendArea.textProperty().addListener((observable, oldValue, newValue) -> sendBtn.setDisable(newValue.isEmpty() || !isConnected));
+        // 压测模式按配置自动发送，不使用发送按钮
+        sendArea.textProperty().addListener((observable, oldValue, newValue) -> sendBtn.setDisable((newValue.isEmpty() && !replayCheck.isSelected()) || !isConnected || "TCP Load".equals(modeCombo.getValue())));
+        // 回放的内容来自抓包日志，不需要发送区内容；与时延测试互斥
+        replayCheck.selectedProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                latencyCheck.setSelected(false);
+            }
+            sendBtn.setDisable((sendArea.getText().isEmpty() && !newValue) || !isConnected || "TCP Load".equals(modeCombo.getValue()));
+        });
+        latencyCheck.selectedProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                replayCheck.setSelected(false);
+            }
+        });
+        // 勾选自动应答时编辑并编译应答规则
+        autoAnswerCheck.setOnAction(event -> onAutoAnswer());
 //        sendArea.plainTextChanges()
 //                .filter(change -> !change.getInserted().isEmpty())
 //                .subscribe(change -> {
@@ -127,6 +220,19 @@ public class MainController {
         });
 
         modeCombo.getSelectionModel().selectedItemProperty().addListener((observable, oldValue, newValue) -> {
+            // 时延测试需要对端回显，仅客户端模式与UDP可用
+            boolean latencySupported = "TCP Client".equals(newValue) || "UDP".equals(newValue);
+            latencyCheck.setDisable(!latencySupported);
+            if (!latencySupported) {
+                latencyCheck.setSelected(false);
+            }
+            replayCheck.setDisable("TCP Load".equals(newValue));
+            // 压测各连接共用同一份内容，不支持模板
+            templateCheck.setDisable("TCP Load".equals(newValue));
+            if ("TCP Load".equals(newValue)) {
+                replayCheck.setSelected(false);
+                templateCheck.setSelected(false);
+            }
             if ("TCP Server".equals(newValue) || "UDP".equals(newValue)) {
                 hostField.setDisable(true);
                 hostField.setText(Objects.requireNonNull(getLocalHostExactAddress()).getHostAddress());
@@ -164,10 +270,18 @@ public class MainController {
         int port = Integer.parseInt(portField.getText().trim());
         switch (mode) {
             case "TCP Client" -> {
+                Optional<Map<String, String>> res = showTcpClientExtensionOption();
+                if (res.isEmpty()) {
+                    return;
+                }
+                FramingConfig framing = parseFramingConfig(res.get());
                 Dialog<Void> connectDialog = showLoading("正在尝试连接中...");
                 AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
                     tcpClientService = new TcpClientService(host, port);
+                    tcpClientService.setFraming(framing);
+                    long connectStart = System.nanoTime();
                     Boolean success = tcpClientService.connect();
+                    long connectMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - connectStart);
                     Platform.runLater(() -> {
                         closeLoading(connectDialog);
                         if (success) {
@@ -177,39 +291,42 @@ public class MainController {
                             connHistoryBtn.setDisable(true);
                             connectBtn.setDisable(true);
                             disconnectBtn.setDisable(false);
-                            sendBtn.setDisable("".equals(sendArea.getText()));
+                            sendBtn.setDisable("".equals(sendArea.getText()) && !replayCheck.isSelected());
                             statusLabel.setText("已连接->" + host + ":" + port);
                             statusLabel.setStyle("-fx-text-fill: " + ColorConstant.STATUS_COLOR_01 + ";");
                             isConnected = true;
+                            extensionOption.setVisible(true);
+                            extensionOption.setText("分帧: " + framing.describe());
+                            // 与服务端、UDP 一致，记录解析后的对端地址而不是输入的主机名
+                            String remote = tcpClientService.getRemoteAddress();
+                            openCapture(CaptureStore.Protocol.TCP, tcpClientService.getLocalAddress());
+                            openSessionLog(host, port);
 
                             // 监听来自 tcpClientService 的消息
                             tcpClientService.setOnDisconnect(() -> Platform.runLater(this::onDisconnect));
-                            tcpClientService.setReceive(bytes -> {
-                                appendReceivedData(bytes, "<<来自TCP服务端:" + host + ":" + port);
-                                // 如果开启自动应答
-                                if (autoAnswerCheck.isSelected()) {
-                                    // 默认回复"received"（后续版本更新可自定义应答模板）
-                                    tcpClientService.send("received".getBytes());
-                                    appendMessage("自动应答>>",
-                                            "received".getBytes(),
-                                            false,
-                                            ColorConstant.SEND_COLOR
-                                    );
+                            // 原始字节直接交给界面，跨块的多字节字符由同一个解码器拼接
+                            TextStreamDecoder textDecoder = new TextStreamDecoder(StandardCharsets.UTF_8);
+                            tcpClientService.setReceive((connectionId, data, timestamp) -> {
+                                captureReceived(connectionId, remote, data, timestamp);
+                                // 时延测试期间回显数据只统计不显示
+                                LatencySession session = latencySession;
+                                if (session != null) {
+                                    session.onData(data, timestamp);
+                                    return;
+                                }
+                                appendReceivedData(data, timestamp, "<<来自TCP服务端:" + host + ":" + port, textDecoder);
+                                // 如果开启自动应答，直接在网络线程上匹配规则并回复
+                                AnswerEngine answerRules = answerEngine;
+                                byte[] reply = answerRules == null ? null : answerRules.answer(data);
+                                if (reply != null) {
+                                    tcpClientService.send(reply);
+                                    captureSent(connectionId, remote, reply);
+                                    appendMessage("自动应答>>", reply, false, ColorConstant.SEND_COLOR);
                                 }
                             });
 
                             // 记录本次连接进入历史
-                            AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
-                                try {
-                                    StringBuilder content = readFile(getProperty.apply("conn.history.path"));
-                                    if (!content.toString().contains(host + ":" + port)) {
-                                        // 保存新连接
-                                        writeFile(host + ":" + port, getProperty.apply("conn.history.path"), true);
-                                    }
-                                } catch (IOException e) {
-                                    throw new RuntimeException(e);
-                                }
-                            });
+                            ConnHistoryStore.connections().record(host, port, connectMillis);
                             appendMessage("系统消息>>",
                                     "服务已连接".getBytes(),
                                     false,
@@ -238,8 +355,20 @@ public class MainController {
                 res.ifPresent(r->{
                     String heartbeat = r.get("heartbeat");
                     String maxPacket = r.get("maxPacket");
+                    String engine = r.get("engine");
+                    String eventLoops = r.get("eventLoops");
+                    FramingConfig framing = parseFramingConfig(r);
+                    WriteQueueConfig writeQueueConfig = new WriteQueueConfig(
+                            Long.parseLong(r.get("highWatermark")) * 1024,
+                            Long.parseLong(r.get("lowWatermark")) * 1024,
+                            SlowConsumerPolicy.ofLabel(r.get("policy")));
                     try {
-                        tcpServerService = new TcpServerService(Integer.parseInt(portField.getText().trim()), maxPacket,Integer.parseInt(heartbeat));
+                        if (TcpServer.ENGINE_NIO.equals(engine)) {
+                            tcpServerService = new NioTcpServerService(Integer.parseInt(portField.getText().trim()), maxPacket, Integer.parseInt(heartbeat), Integer.parseInt(eventLoops), writeQueueConfig);
+                        } else {
+                            tcpServerService = new TcpServerService(Integer.parseInt(portField.getText().trim()), maxPacket, Integer.parseInt(heartbeat), writeQueueConfig);
+                        }
+                        tcpServerService.setFraming(framing);
                         tcpServerService.openConnect();
                         Platform.runLater(() -> {
                             portField.setDisable(true);
@@ -247,13 +376,21 @@ public class MainController {
                             connHistoryBtn.setDisable(true);
                             connectBtn.setDisable(true);
                             disconnectBtn.setDisable(false);
-                            sendBtn.setDisable("".equals(sendArea.getText()));
+                            sendBtn.setDisable("".equals(sendArea.getText()) && !replayCheck.isSelected());
                             statusLabel.setText("服务已启动->" + host + ":" + port);
                             statusLabel.setStyle("-fx-text-fill: " + ColorConstant.STATUS_COLOR_01 + ";");
                             isConnected = true;
                             clientNumLabel.setVisible(true);
                             extensionOption.setVisible(true);
-                            extensionOption.setText("心跳(S): "+heartbeat+" | 接收包长度(B): "+maxPacket);
+                            extensionOption.setText("心跳(S): "+heartbeat+" | 接收包长度(B): "+maxPacket
+                                    + " | 引擎: " + (TcpServer.ENGINE_NIO.equals(engine) ? engine + "(" + eventLoops + ")" : engine)
+                                    + " | 慢客户端: " + writeQueueConfig.policy().getLabel()
+                                    + " | 分帧: " + framing.describe());
+                            // 每秒刷新各客户端发送队列积压
+                            statsMonitorFuture = AppExecutors.getInstance().getScheduledTaskExecutor()
+                                    .scheduleAtFixedRate(this::refreshClientQueues, 1, 1, TimeUnit.SECONDS);
+                            openCapture(CaptureStore.Protocol.TCP, host + ":" + port);
+                            openSessionLog(host, port);
 
                             // 监听来自 tcpServerService 的消息
                             tcpServerService.setInfoCall(msg -> {
@@ -264,26 +401,24 @@ public class MainController {
                                             ColorConstant.SYSTEM_MSG_COLOR
                                     );
                                     // 更新底部客户端数量
-                                    clientNumLabel.setText("客户端数量：" + tcpServerService.getWritersMap().size());
+                                    refreshClientQueues();
                                     onStopSend();
                                 });
                             });
-                            tcpServerService.setReceive(receive -> receive.forEach(((socket, bytes) ->
-                                    AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
-                                        String addr = socket.getRemoteSocketAddress().toString().replaceAll("/", "");
-                                        appendReceivedData(bytes, "<<来自TCP客户端:" + addr);
-                                        // 如果开启自动应答
-                                        if (autoAnswerCheck.isSelected()) {
-                                            // 默认回复"received"（后续版本更新可自定义应答模板）
-                                            byte[] received = "received".getBytes();
-                                            tcpServerService.send(received, socket);
-                                            appendMessage("自动应答>>",
-                                                    "received".getBytes(),
-                                                    false,
-                                                    ColorConstant.SEND_COLOR
-                                            );
-                                        }
-                                    }))));
+                            // 直接在网络线程上处理，数据块由 appendReceivedData 持有到渲染完成
+                            tcpServerService.setReceive((connectionId, data, timestamp) -> {
+                                String addr = tcpServerService.getRemoteAddress(connectionId);
+                                captureReceived(connectionId, addr, data, timestamp);
+                                appendReceivedData(data, timestamp, "<<来自TCP客户端:" + addr);
+                                // 如果开启自动应答，直接在网络线程上匹配规则并回复
+                                AnswerEngine answerRules = answerEngine;
+                                byte[] reply = answerRules == null ? null : answerRules.answer(data);
+                                if (reply != null) {
+                                    tcpServerService.send(reply, connectionId);
+                                    captureSent(connectionId, addr, reply);
+                                    appendMessage("自动应答>>", reply, false, ColorConstant.SEND_COLOR);
+                                }
+                            });
                             tcpServerService.setOnDisconnect(() -> Platform.runLater(this::onDisconnect));
                             appendMessage("系统消息>>",
                                     "TCP服务启动成功，等待客户端连接...".getBytes(),
@@ -298,66 +433,146 @@ public class MainController {
                     }
                 });
             }
+            case "TCP Load" -> startTcpLoad(host, port);
             case "UDP" -> {
-                try {
-                    udpService = new UdpService(Integer.parseInt(portField.getText().trim()), 4096);
-                    udpService.openUdp();
-                    Platform.runLater(() -> {
-                        portField.setDisable(true);
-                        modeCombo.setDisable(true);
-                        connHistoryBtn.setDisable(true);
-                        connectBtn.setDisable(true);
-                        disconnectBtn.setDisable(false);
-                        sendBtn.setDisable("".equals(sendArea.getText()));
-                        statusLabel.setText("UDP已启动->" + host + ":" + port);
-                        statusLabel.setStyle("-fx-text-fill: " + ColorConstant.STATUS_COLOR_01 + ";");
-                        isConnected = true;
-                        // 为目标主机输入框加载历史输入
-                        try {
-                            StringBuilder targetHost = readFile(getProperty.apply("target.host.history.path"));
-                            String[] hosts = targetHost.toString().split("\n");
-                            sendHBox.getChildren().add(genUdpTargetHostHBoxView(Arrays.asList(hosts)));
-                        } catch (IOException e) {
-                            System.err.println(e.getMessage());
-                            throw new RuntimeException(e);
-                        }
+                Optional<Map<String, String>> res = showUdpExtensionOption();
+                res.ifPresent(r -> {
+                    int maxDatagram = Integer.parseInt(r.get("maxDatagram"));
+                    int receiveBufferKb = Integer.parseInt(r.get("receiveBuffer"));
+                    try {
+                        udpService = new UdpService(Integer.parseInt(portField.getText().trim()), maxDatagram, receiveBufferKb * 1024);
+                        udpService.openUdp();
+                        Platform.runLater(() -> {
+                            portField.setDisable(true);
+                            modeCombo.setDisable(true);
+                            connHistoryBtn.setDisable(true);
+                            connectBtn.setDisable(true);
+                            disconnectBtn.setDisable(false);
+                            sendBtn.setDisable("".equals(sendArea.getText()) && !replayCheck.isSelected());
+                            statusLabel.setText("UDP已启动->" + host + ":" + port);
+                            statusLabel.setStyle("-fx-text-fill: " + ColorConstant.STATUS_COLOR_01 + ";");
+                            isConnected = true;
+                            extensionOption.setVisible(true);
+                            extensionOption.setText("最大报文(B): " + maxDatagram
+                                    + " | SO_RCVBUF: " + formatSize(udpService.getActualReceiveBufferSize()));
+                            // 每秒刷新接收/丢弃/截断计数
+                            clientNumLabel.setVisible(true);
+                            refreshUdpStats();
+                            statsMonitorFuture = AppExecutors.getInstance().getScheduledTaskExecutor()
+                                    .scheduleAtFixedRate(this::refreshUdpStats, 1, 1, TimeUnit.SECONDS);
+                            openCapture(CaptureStore.Protocol.UDP, host + ":" + port);
+                            openSessionLog(host, port);
+                            // 为目标主机输入框加载历史输入
+                            sendHBox.getChildren().add(genUdpTargetHostHBoxView(ConnHistoryStore.targetHosts().addresses()));
 
-                        udpService.setReceive(receive ->
-                                receive.forEach(((socket, bytes) -> {
-                                    String addr = socket.getSocketAddress().toString().replaceAll("/", "");
-                                    appendReceivedData(bytes.getBytes(), "<<来自UDP客户端:" + addr);
-                                    // 如果开启自动应答
-                                    if (autoAnswerCheck.isSelected()) {
-                                        // 默认回复"received"（后续版本更新可自定义应答模板）
-                                        byte[] received = "received".getBytes();
-                                        String sendRes = udpService.send(received, addr.split(":")[0], Integer.parseInt(addr.split(":")[1]));
-                                        if (!"".equals(sendRes)) {
-                                            showTip("应答无法发送!!!" + sendRes + "，请检查IP/域名和端口是否可用", "⚠️警告消息");
-                                            return;
-                                        }
-                                        appendMessage("自动应答>>",
-                                                "received".getBytes(),
-                                                false,
-                                                ColorConstant.SEND_COLOR
-                                        );
+                            // 直接在接收线程上处理，数据块由 appendReceivedData 持有到渲染完成
+                            udpService.setReceive((sender, data, timestamp) -> {
+                                String addr = sender.getAddress().getHostAddress() + ":" + sender.getPort();
+                                captureReceived(CAPTURE_BY_ADDRESS, addr, data, timestamp);
+                                // 时延测试期间回显数据只统计不显示
+                                LatencySession session = latencySession;
+                                if (session != null) {
+                                    session.onData(data, timestamp);
+                                    return;
+                                }
+                                appendReceivedData(data, timestamp, "<<来自UDP客户端:" + addr);
+                                // 如果开启自动应答，直接在网络线程上匹配规则并回复
+                                AnswerEngine answerRules = answerEngine;
+                                byte[] reply = answerRules == null ? null : answerRules.answer(data);
+                                if (reply != null) {
+                                    String sendRes = udpService.send(reply, sender);
+                                    if (!"".equals(sendRes)) {
+                                        Platform.runLater(() -> showTip("应答无法发送!!!" + sendRes + "，请检查IP/域名和端口是否可用", "⚠️警告消息"));
+                                        return;
                                     }
-                                })));
-                        appendMessage("系统消息>>",
-                                "UDP启动成功!".getBytes(),
-                                false,
-                                ColorConstant.SYSTEM_MSG_COLOR
-                        );
-                    });
+                                    captureSent(CAPTURE_BY_ADDRESS, addr, reply);
+                                    appendMessage("自动应答>>", reply, false, ColorConstant.SEND_COLOR);
+                                }
+                            });
+                            appendMessage("系统消息>>",
+                                    "UDP启动成功!".getBytes(),
+                                    false,
+                                    ColorConstant.SYSTEM_MSG_COLOR
+                            );
+                        });
 
-                } catch (IOException e) {
-                    Platform.runLater(() -> {
-                        showTip("UDP启动失败：" + e.getMessage(), "错误提示");
-                    });
-                }
+                    } catch (IOException e) {
+                        Platform.runLater(() -> {
+                            showTip("UDP启动失败：" + e.getMessage(), "错误提示");
+                        });
+                    }
+                });
             }
         }
     }
 
+    /**
+     * 开始TCP压测
+     */
+    private void startTcpLoad(String host, int port) {
+        Optional<byte[]> content = readSendPayload();
+        if (content.isEmpty()) {
+            return;
+        }
+        byte[] payload = content.get();
+        if (payload.length == 0) {
+            showTip("请先在发送区输入压测发送的内容", "⚠️警告消息");
+            return;
+        }
+        Optional<Map<String, String>> res = showTcpLoadOption();
+        if (res.isEmpty()) {
+            return;
+        }
+        Map<String, String> r = res.get();
+        double rate = Double.parseDouble(r.get("rate"));
+        double messagesPerSecond = "MB/秒".equals(r.get("rateUnit"))
+                ? LoadConfig.messagesPerSecondOf(rate * 1024 * 1024, payload.length) : rate;
+        LoadConfig config = new LoadConfig(host, port,
+                Integer.parseInt(r.get("connections")),
+                Integer.parseInt(r.get("rampUp")),
+                payload,
+                messagesPerSecond,
+                Long.parseLong(r.get("duration")) * 1000,
+                Long.parseLong(r.get("count")));
+        tcpLoadGenerator = new TcpLoadGenerator(config);
+        lastLoadStats = null;
+        tcpLoadGenerator.setOnFinished(stats -> Platform.runLater(() -> {
+            appendMessage("系统消息>>", formatLoadSummary(stats).getBytes(), false, ColorConstant.SYSTEM_MSG_COLOR);
+            onDisconnect();
+        }));
+        try {
+            tcpLoadGenerator.start();
+        } catch (IOException e) {
+            showTip("压测启动失败：" + e.getMessage(), "错误提示");
+            return;
+        }
+        hostField.setDisable(true);
+        portField.setDisable(true);
+        modeCombo.setDisable(true);
+        connHistoryBtn.setDisable(true);
+        connectBtn.setDisable(true);
+        disconnectBtn.setDisable(false);
+        sendBtn.setDisable(true);
+        statusLabel.setText("压测中->" + host + ":" + port);
+        statusLabel.setStyle("-fx-text-fill: " + ColorConstant.STATUS_COLOR_01 + ";");
+        isConnected = true;
+        extensionOption.setVisible(true);
+        extensionOption.setText("连接数: " + config.connections()
+                + " | 爬坡: " + (config.rampUpPerSecond() == 0 ? "同时" : config.rampUpPerSecond() + "/s")
+                + " | 目标: " + (rate == 0 ? "不限速" : r.get("rate") + r.get("rateUnit"))
+                + (config.durationMillis() > 0 ? " | 时长: " + r.get("duration") + "s" : "")
+                + (config.messageCount() > 0 ? " | 条数: " + config.messageCount() : ""));
+        clientNumLabel.setVisible(true);
+        statsMonitorFuture = AppExecutors.getInstance().getScheduledTaskExecutor()
+                .scheduleAtFixedRate(this::refreshLoadStats, 1, 1, TimeUnit.SECONDS);
+        appendMessage("系统消息>>",
+                ("开始压测 " + host + ":" + port + "，单条 " + payload.length + " 字节").getBytes(),
+                false,
+                ColorConstant.SYSTEM_MSG_COLOR
+        );
+        ConnHistoryStore.connections().record(host, port, -1);
+    }
+
     @FXML
     private void onHandDisconnect() {
         onDisconnect();
@@ -381,9 +596,15 @@ public class MainController {
                 isConnected = false;
                 sendBtn.setDisable(true);
                 onStopSend();
+                closeCapture();
                 String selectedItem = modeCombo.getSelectionModel().getSelectedItem();
                 if ("TCP Server".equals(selectedItem)) {
+                    if (statsMonitorFuture != null) {
+                        statsMonitorFuture.cancel(false);
+                        statsMonitorFuture = null;
+                    }
                     tcpServerService.close();
+                    clientNumLabel.setTooltip(null);
                     appendMessage("系统消息>>",
                             "服务已关闭".getBytes(),
                             false,
@@ -393,7 +614,14 @@ public class MainController {
                     extensionOption.setVisible(false);
                     extensionOption.setText("");
                 } else if ("UDP".equals(selectedItem)) {
+                    if (statsMonitorFuture != null) {
+                        statsMonitorFuture.cancel(false);
+                        statsMonitorFuture = null;
+                    }
                     udpService.close();
+                    clientNumLabel.setVisible(false);
+                    extensionOption.setVisible(false);
+                    extensionOption.setText("");
                     appendMessage("系统消息>>",
                             "UDP已关闭".getBytes(),
                             false,
@@ -406,9 +634,22 @@ public class MainController {
                             break;
                         }
                     }
+                } else if ("TCP Load".equals(selectedItem)) {
+                    if (statsMonitorFuture != null) {
+                        statsMonitorFuture.cancel(false);
+                        statsMonitorFuture = null;
+                    }
+                    // 结束后由完成回调输出汇总
+                    tcpLoadGenerator.stop();
+                    clientNumLabel.setVisible(false);
+                    extensionOption.setVisible(false);
+                    extensionOption.setText("");
                 } else {
                     tcpClientService.close();
+                    extensionOption.setVisible(false);
+                    extensionOption.setText("");
                 }
+                closeSessionLog();
             });
         }
     }
@@ -417,25 +658,39 @@ public class MainController {
     private void onSend() {
         String data = sendArea.getText();
         String mode = modeCombo.getValue();
-        byte[] payload = data.getBytes();
+        if (replayCheck.isSelected()) {
+            startReplay(mode);
+            return;
+        }
+        Optional<PayloadTemplate> content = readSendTemplate();
+        if (content.isEmpty()) {
+            return;
+        }
+        PayloadTemplate template = content.get();
         boolean autoSend = autoSendCheck.isSelected() && !"".equals(sendIntervalField.getText());
+        if (latencyCheck.isSelected() && ("TCP Client".equals(mode) || "UDP".equals(mode))) {
+            // 探测包内容固定，模板只渲染一次
+            startLatency(mode, template.render(0).clone());
+            return;
+        }
+        // 单次发送取下一条报文；定时发送由发送线程按序号逐条渲染
+        byte[] payload = autoSend ? null : template.isDynamic() ? template.next().clone() : template.next();
 
         Runnable task = () -> {
             switch (mode) {
                 case "TCP Client" -> {
                     appendSendingData(payload);
                     tcpClientService.send(payload);
+                    captureSent(TcpClientService.CONNECTION_ID, tcpClientService.getRemoteAddress(), payload);
                 }
                 case "TCP Server" -> {
                     if (tcpServerService.getWritersMap().isEmpty()) {
-                        if (autoSend) {
-                            onStopSend();
-                        }
                         Platform.runLater(() -> showTip("无法发送，暂无客户端连接", "⚠️警告消息"));
                         return;
                     }
                     appendSendingData(payload);
                     tcpServerService.send(payload);
+                    captureBroadcast(payload);
                 }
                 case "UDP" -> {
                     AtomicReference<String> host = new AtomicReference<>();
@@ -453,9 +708,6 @@ public class MainController {
                         }
                     });
                     if (Objects.isNull(host.get()) || Objects.isNull(port.get())) {
-                        if (autoSend) {
-                            onStopSend();
-                        }
                         Platform.runLater(() -> showTip("无法发送，请输入目标主机", "⚠️警告消息"));
                         return;
                     }
@@ -465,38 +717,21 @@ public class MainController {
                         showTip("消息已发出，但对方也许无法收到!!!原因：" + sendRes + "，请检查IP/域名和端口是否可用", "⚠️警告消息");
                         return;
                     }
+                    captureSent(CAPTURE_BY_ADDRESS, formatAddress(new InetSocketAddress(host.get(), Integer.parseInt(port.get()))), payload);
 
                     // 记录本次目标主机进入历史
-                    AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
-                        try {
-                            String content = readFile(getProperty.apply("target.host.history.path")).toString();
-                            if (!content.contains(host + ":" + port)) {
-                                writeFile(host + ":" + port, getProperty.apply("target.host.history.path"), true);
-                            }
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+                    ConnHistoryStore.targetHosts().record(host.get(), Integer.parseInt(port.get()), -1);
                 }
             }
         };
         // 定时发送
         if (autoSend) {
-            int interval = Integer.parseInt(sendIntervalField.getText());
-            if (interval < 1000) {
-                showTip("发送间隔必须在1000ms及以上时间!", "⚠️警告消息");
+            if (!startAutoSend(mode, template)) {
                 return;
             }
-            ScheduledExecutorService executor = AppExecutors.getInstance().getScheduledTaskExecutor();
-            scheduledFuture = executor.scheduleAtFixedRate(task, 0, interval, TimeUnit.MILLISECONDS);
-            sendStopBtn.setDisable(false);
-            sendBtn.setDisable(true);
-            sendArea.setDisable(true);
-            clearSendBtn.setDisable(true);
-            autoSendCheck.setDisable(true);
-            sendIntervalField.setDisable(true);
-            hexSendCheck.setDisable(true);
-            autoAnswerCheck.setDisable(true);
+        } else if ("TCP Server".equals(mode)) {
+            // 慢客户端策略为"阻塞"时广播可能等待，避免卡住界面线程
+            AppExecutors.getInstance().getBackgroundFixedExecutor().execute(task);
         } else {
             task.run();
         }
@@ -512,21 +747,711 @@ public class MainController {
 
     @FXML
     private void onStopSend() {
-        if (scheduledFuture != null) {
-            boolean cancel = scheduledFuture.cancel(true);
-            if (cancel && scheduledFuture.isCancelled()) {
-                sendStopBtn.setDisable(true);
-                sendBtn.setDisable(!isConnected);
-                sendArea.setDisable(false);
-                clearSendBtn.setDisable(false);
-                autoSendCheck.setDisable(false);
-                sendIntervalField.setDisable(false);
-                hexSendCheck.setDisable(false);
-                autoAnswerCheck.setDisable(false);
+        ReplaySession replay = replaySession;
+        if (replay != null) {
+            // 由结束回调恢复界面并输出汇总
+            replay.stop();
+        }
+        LatencySession session = latencySession;
+        if (session != null) {
+            // 等待迟到的响应后由结束回调恢复界面并导出结果
+            session.stop();
+            return;
+        }
+        SendScheduler scheduler = sendScheduler;
+        if (scheduler != null) {
+            // 由结束回调恢复界面并输出汇总
+            scheduler.stop();
+        }
+    }
+
+    /**
+     * 读取发送区内容为模板：未勾选模板发送时为固定内容，勾选时编译（内容不变则复用上一次的编译结果），格式错误时提示并返回空
+     */
+    private Optional<PayloadTemplate> readSendTemplate() {
+        if (!templateCheck.isSelected()) {
+            return readSendPayload().map(PayloadTemplate::literal);
+        }
+        String text = sendArea.getText();
+        boolean hex = hexSendCheck.isSelected();
+        if (sendTemplate == null || hex != sendTemplateHex || !text.equals(sendTemplateSource)) {
+            try {
+                sendTemplate = PayloadTemplate.compile(text, hex);
+            } catch (IllegalArgumentException e) {
+                sendTemplate = null;
+                showTip("模板格式错误：" + e.getMessage(), "⚠️警告消息");
+                return Optional.empty();
+            }
+            sendTemplateSource = text;
+            sendTemplateHex = hex;
+        }
+        return Optional.of(sendTemplate);
+    }
+
+    /**
+     * 读取发送区内容：勾选十六进制发送时按十六进制解析（允许空白分隔），格式错误时提示并返回空
+     */
+    private Optional<byte[]> readSendPayload() {
+        String text = sendArea.getText();
+        if (!hexSendCheck.isSelected()) {
+            return Optional.of(text.getBytes());
+        }
+        try {
+            return Optional.of(parseHex(text));
+        } catch (IllegalArgumentException e) {
+            showTip("十六进制格式错误：" + e.getMessage(), "⚠️警告消息");
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 开始定时发送：由独立的 {@link SendScheduler} 线程按纳秒级截止时间发送，
+     * 聊天区只记录一次发送内容，之后在状态栏每秒显示发送速率。
+     * 每条报文由发送线程按序号渲染模板（只改写动态字段与校验），各发送方式都在返回前复制或写出数据，缓冲区可以直接复用
+     * @return 参数是否有效并已开始
+     */
+    private boolean startAutoSend(String mode, PayloadTemplate template) {
+        long intervalNanos;
+        int burst;
+        long count;
+        try {
+            intervalNanos = Math.round(Double.parseDouble(sendIntervalField.getText().trim()) * 1_000_000);
+            burst = Integer.parseInt(burstField.getText().trim());
+            count = Long.parseLong(sendCountField.getText().trim());
+        } catch (NumberFormatException e) {
+            showTip("请输入有效的发送间隔、每次条数与总条数!", "⚠️警告消息");
+            return false;
+        }
+        if (intervalNanos < SendScheduler.MIN_INTERVAL_NANOS) {
+            showTip("发送间隔必须在0.1ms及以上!", "⚠️警告消息");
+            return false;
+        }
+        if (burst < 1 || burst > 10000) {
+            showTip("每次条数必须在 1~10000 之间!", "⚠️警告消息");
+            return false;
+        }
+        if (count < 0) {
+            showTip("总条数不能为负数!", "⚠️警告消息");
+            return false;
+        }
+        SendScheduler.SendTask task;
+        switch (mode) {
+            case "TCP Client" -> {
+                TcpClientService service = tcpClientService;
+                String remote = service.getRemoteAddress();
+                task = (seq, deadline) -> {
+                    byte[] payload = template.render(seq);
+                    service.send(payload);
+                    captureSent(TcpClientService.CONNECTION_ID, remote, payload);
+                    return true;
+                };
+            }
+            case "TCP Server" -> {
+                TcpServer server = tcpServerService;
+                task = (seq, deadline) -> {
+                    if (server.getWritersMap().isEmpty()) {
+                        Platform.runLater(() -> showTip("无法发送，暂无客户端连接", "⚠️警告消息"));
+                        return false;
+                    }
+                    byte[] payload = template.render(seq);
+                    server.send(payload);
+                    captureBroadcast(payload);
+                    return true;
+                };
+            }
+            case "UDP" -> {
+                Optional<InetSocketAddress> address = getUdpTarget();
+                if (address.isEmpty()) {
+                    showTip("无法发送，请输入目标主机", "⚠️警告消息");
+                    return false;
+                }
+                InetSocketAddress target = address.get();
+                UdpService service = udpService;
+                String remote = formatAddress(target);
+                task = (seq, deadline) -> {
+                    byte[] payload = template.render(seq);
+                    String sendRes = service.send(payload, target);
+                    if (!"".equals(sendRes)) {
+                        Platform.runLater(() -> showTip("定时发送已停止!!!原因：" + sendRes + "，请检查IP/域名和端口是否可用", "⚠️警告消息"));
+                        return false;
+                    }
+                    captureSent(CAPTURE_BY_ADDRESS, remote, payload);
+                    return true;
+                };
+                ConnHistoryStore.targetHosts().record(target.getHostString(), target.getPort(), -1);
+            }
+            default -> {
+                return false;
+            }
+        }
+        SendScheduler scheduler = new SendScheduler(intervalNanos, burst, count, 0, task);
+        int payloadLength = template.length();
+        scheduler.setOnFinished(() -> Platform.runLater(() -> onAutoSendFinished(scheduler, payloadLength)));
+        sendScheduler = scheduler;
+        autoSendReported.set(0);
+        lastSendRateSample = null;
+        lockSendControls(true);
+        // 聊天区显示第一条报文
+        appendMessage("你>>", template.render(0).clone(), hexSendCheck.isSelected(), ColorConstant.SEND_COLOR);
+        appendMessage("系统消息>>",
+                ("定时发送开始：间隔 " + formatInterval(intervalNanos) + "，每次 " + burst + " 条"
+                        + (count > 0 ? "，共 " + count + " 条" : "")
+                        + (template.isDynamic() ? "，按模板逐条生成" : "")).getBytes(),
+                false,
+                ColorConstant.SYSTEM_MSG_COLOR
+        );
+        saveLogBtn.setDisable(false);
+        sendRateLabel.setText("定时发送：0 条");
+        sendRateLabel.setVisible(true);
+        sendRateFuture = AppExecutors.getInstance().getScheduledTaskExecutor()
+                .scheduleAtFixedRate(() -> refreshSendRate(payloadLength), 1, 1, TimeUnit.SECONDS);
+        scheduler.start("auto-send");
+        return true;
+    }
+
+    /**
+     * 定时发送结束：恢复界面并输出汇总
+     */
+    private void onAutoSendFinished(SendScheduler scheduler, int payloadLength) {
+        if (sendRateFuture != null) {
+            sendRateFuture.cancel(false);
+            sendRateFuture = null;
+        }
+        if (sendScheduler == scheduler) {
+            sendScheduler = null;
+        }
+        long sent = scheduler.getSent();
+        sentBytes.addAndGet((sent - autoSendReported.getAndSet(sent)) * payloadLength);
+        updateByteCount();
+        sendRateLabel.setVisible(false);
+        lockSendControls(false);
+        double seconds = Math.max(scheduler.getElapsedNanos() / 1e9, 1e-3);
+        String summary = String.format("定时发送结束：共 %d 条 / %s，耗时 %.1fs，平均 %.0f 条/s",
+                sent, formatSize(sent * payloadLength), seconds, sent / seconds)
+                + (scheduler.getSkippedTicks() > 0 ? "，因发送阻塞跳过 " + scheduler.getSkippedTicks() + " 个周期" : "");
+        appendMessage("系统消息>>", summary.getBytes(), false, ColorConstant.SYSTEM_MSG_COLOR);
+    }
+
+    /**
+     * 刷新定时发送的累计条数与最近一秒的速率
+     */
+    private void refreshSendRate(int payloadLength) {
+        SendScheduler scheduler = sendScheduler;
+        if (scheduler == null) {
+            return;
+        }
+        long sent = scheduler.getSent();
+        long elapsed = scheduler.getElapsedNanos();
+        long[] last = lastSendRateSample;
+        lastSendRateSample = new long[]{sent, elapsed};
+        double seconds = (elapsed - (last == null ? 0 : last[1])) / 1e9;
+        long delta = sent - (last == null ? 0 : last[0]);
+        long unreported = sent - autoSendReported.getAndSet(sent);
+        String text = "定时发送：" + sent + " 条  " + Math.round(delta / Math.max(seconds, 1e-3)) + " 条/s  "
+                + formatSize(Math.round(delta * payloadLength / Math.max(seconds, 1e-3))) + "/s";
+        sentBytes.addAndGet(unreported * payloadLength);
+        Platform.runLater(() -> {
+            updateByteCount();
+            sendRateLabel.setText(text);
+        });
+    }
+
+    private static String formatInterval(long nanos) {
+        return nanos % 1_000_000 == 0 ? nanos / 1_000_000 + "ms" : String.format("%.3fms", nanos / 1e6);
+    }
+
+    /**
+     * 自动应答：勾选时编辑规则，编译成功后生效并保存；取消编辑则不勾选
+     */
+    private void onAutoAnswer() {
+        if (!autoAnswerCheck.isSelected()) {
+            answerEngine = null;
+            return;
+        }
+        String rules;
+        try {
+            rules = readFile(getProperty.apply("auto.answer.path")).toString();
+        } catch (IOException e) {
+            System.err.println("读取应答规则失败: " + e.getMessage());
+            rules = "";
+        }
+        Optional<String> edited = showAutoAnswerOption(rules.isBlank() ? AnswerEngine.DEFAULT_RULES : rules);
+        if (edited.isEmpty()) {
+            autoAnswerCheck.setSelected(false);
+            return;
+        }
+        // 对话框中已校验
+        AnswerEngine engine = AnswerEngine.compile(AnswerEngine.parse(edited.get()));
+        answerEngine = engine;
+        appendMessage("系统消息>>",
+                ("自动应答已启用：" + engine.describe()).getBytes(),
+                false,
+                ColorConstant.SYSTEM_MSG_COLOR
+        );
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+            try {
+                writeFile(edited.get().strip(), getProperty.apply("auto.answer.path"), false);
+            } catch (IOException e) {
+                System.err.println("保存应答规则失败: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * 定时发送/时延测试进行中锁定发送区相关控件
+     */
+    private void lockSendControls(boolean lock) {
+        sendStopBtn.setDisable(!lock);
+        sendBtn.setDisable(lock || !isConnected);
+        sendArea.setDisable(lock);
+        clearSendBtn.setDisable(lock);
+        autoSendCheck.setDisable(lock);
+        String mode = modeCombo.getValue();
+        latencyCheck.setDisable(lock || !("TCP Client".equals(mode) || "UDP".equals(mode)));
+        replayCheck.setDisable(lock || "TCP Load".equals(mode));
+        sendIntervalField.setDisable(lock);
+        burstField.setDisable(lock);
+        sendCountField.setDisable(lock);
+        hexSendCheck.setDisable(lock);
+        templateCheck.setDisable(lock || "TCP Load".equals(mode));
+        autoAnswerCheck.setDisable(lock);
+    }
+
+    /**
+     * 开始回显时延测试：探测包由独立线程按纳秒级计划时刻发送，回显只统计不显示
+     */
+    private void startLatency(String mode, byte[] payload) {
+        Consumer<byte[]> sender;
+        String target;
+        if ("UDP".equals(mode)) {
+            Optional<InetSocketAddress> address = getUdpTarget();
+            if (address.isEmpty()) {
+                showTip("无法发送，请输入目标主机", "⚠️警告消息");
+                return;
+            }
+            InetSocketAddress addr = address.get();
+            if (addr.isUnresolved()) {
+                showTip("无法解析目标主机：" + addr.getHostString(), "⚠️警告消息");
+                return;
+            }
+            UdpService service = udpService;
+            target = addr.getHostString() + ":" + addr.getPort();
+            String remote = formatAddress(addr);
+            sender = bytes -> {
+                service.send(bytes, addr);
+                captureSent(CAPTURE_BY_ADDRESS, remote, bytes);
+            };
+        } else {
+            TcpClientService service = tcpClientService;
+            target = hostField.getText().trim() + ":" + portField.getText().trim();
+            String remote = service.getRemoteAddress();
+            sender = bytes -> {
+                service.send(bytes);
+                captureSent(TcpClientService.CONNECTION_ID, remote, bytes);
+            };
+        }
+        Optional<Map<String, String>> res = showLatencyOption();
+        if (res.isEmpty()) {
+            return;
+        }
+        double rate = Double.parseDouble(res.get().get("rate"));
+        long duration = Long.parseLong(res.get().get("duration"));
+        long count = Long.parseLong(res.get().get("count"));
+        LatencySession session = new LatencySession(rate, count, TimeUnit.SECONDS.toNanos(duration), payload,
+                !"UDP".equals(mode), sender);
+        session.setOnFinished(s -> Platform.runLater(() -> onLatencyFinished(s, mode, target)));
+        latencySession = session;
+        lockSendControls(true);
+        clientNumLabel.setVisible(true);
+        latencyMonitorFuture = AppExecutors.getInstance().getScheduledTaskExecutor()
+                .scheduleAtFixedRate(this::refreshLatencyStats, 1, 1, TimeUnit.SECONDS);
+        appendMessage("系统消息>>",
+                ("时延测试开始 -> " + target + "，速率 " + rate + " 个/秒，探测包 " + session.getProbeLength() + " 字节").getBytes(),
+                false,
+                ColorConstant.SYSTEM_MSG_COLOR
+        );
+        session.start();
+    }
+
+    /**
+     * 时延测试结束：恢复界面，导出 JSON/CSV 结果
+     */
+    private void onLatencyFinished(LatencySession session, String mode, String target) {
+        if (latencyMonitorFuture != null) {
+            latencyMonitorFuture.cancel(false);
+            latencyMonitorFuture = null;
+        }
+        latencySession = null;
+        lockSendControls(false);
+        if ("UDP".equals(mode) && isConnected) {
+            refreshUdpStats();
+        } else {
+            clientNumLabel.setVisible(false);
+        }
+        String summary = "时延测试结束：发送 " + session.getSent() + "，接收 " + session.getReceived()
+                + "，丢失 " + session.getLost() + "，乱序 " + session.getOutOfOrder()
+                + (session.getHistogram().getTotalCount() > 0 ? " | " + LatencyReport.summary(session.getHistogram()) : "");
+        appendMessage("系统消息>>", summary.getBytes(), false, ColorConstant.SYSTEM_MSG_COLOR);
+        if (session.getHistogram().getTotalCount() == 0) {
+            return;
+        }
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+            try {
+                Path file = LatencyReport.export(session, Paths.get(FileUtil.currentDir, getProperty.apply("latency.path")), mode, target);
+                appendMessage("系统消息>>", ("时延结果已导出：" + file).getBytes(), false, ColorConstant.SYSTEM_MSG_COLOR);
+            } catch (IOException e) {
+                Platform.runLater(() -> showTip("时延结果导出失败：" + e.getMessage(), "错误消息"));
+            }
+        });
+    }
+
+    /**
+     * 开始回放抓包日志：由 {@link ReplaySession} 线程按原始间隔、倍速或最快速度发往当前连接，
+     * 聊天区不逐条显示，状态栏每秒显示进度，结束时输出与原始速率的对比
+     */
+    private void startReplay(String mode) {
+        List<String> captures;
+        try {
+            captures = getHistoryLogList().keySet().stream()
+                    .filter(name -> name.endsWith(CaptureStore.EXTENSION))
+                    .toList();
+        } catch (IOException e) {
+            showTip("读取日志列表失败：" + e.getMessage(), "错误消息");
+            return;
+        }
+        if (captures.isEmpty()) {
+            showTip("暂无可回放的抓包日志，请先保存日志或导入 pcap", "⚠️警告消息");
+            return;
+        }
+        ReplaySession.Sender sender;
+        switch (mode) {
+            case "TCP Client" -> {
+                TcpClientService service = tcpClientService;
+                String remote = service.getRemoteAddress();
+                sender = bytes -> {
+                    service.send(bytes);
+                    captureSent(TcpClientService.CONNECTION_ID, remote, bytes);
+                    return true;
+                };
+            }
+            case "TCP Server" -> {
+                TcpServer server = tcpServerService;
+                sender = bytes -> {
+                    if (server.getWritersMap().isEmpty()) {
+                        Platform.runLater(() -> showTip("回放已停止，暂无客户端连接", "⚠️警告消息"));
+                        return false;
+                    }
+                    server.send(bytes);
+                    captureBroadcast(bytes);
+                    return true;
+                };
+            }
+            case "UDP" -> {
+                Optional<InetSocketAddress> address = getUdpTarget();
+                if (address.isEmpty()) {
+                    showTip("无法发送，请输入目标主机", "⚠️警告消息");
+                    return;
+                }
+                InetSocketAddress target = address.get();
+                UdpService service = udpService;
+                String remote = formatAddress(target);
+                sender = bytes -> {
+                    String sendRes = service.send(bytes, target);
+                    if (!"".equals(sendRes)) {
+                        Platform.runLater(() -> showTip("回放已停止!!!原因：" + sendRes + "，请检查IP/域名和端口是否可用", "⚠️警告消息"));
+                        return false;
+                    }
+                    captureSent(CAPTURE_BY_ADDRESS, remote, bytes);
+                    return true;
+                };
+                ConnHistoryStore.targetHosts().record(target.getHostString(), target.getPort(), -1);
+            }
+            default -> {
+                return;
+            }
+        }
+        Optional<Map<String, String>> res = showReplayOption(captures);
+        if (res.isEmpty()) {
+            return;
+        }
+        String file = res.get().get("file");
+        double speed = Double.parseDouble(res.get().get("speed"));
+        ReplaySession session = new ReplaySession(Paths.get(FileUtil.currentDir, getProperty.apply("logs.path"), file),
+                Direction.valueOf(res.get().get("direction")), speed, sender);
+        session.setOnFinished(s -> Platform.runLater(() -> onReplayFinished(s)));
+        replaySession = session;
+        replayReported.set(0);
+        lastSendRateSample = null;
+        lockSendControls(true);
+        appendMessage("系统消息>>",
+                ("日志回放开始：" + file + "，" + describeReplaySpeed(speed)).getBytes(),
+                false,
+                ColorConstant.SYSTEM_MSG_COLOR
+        );
+        saveLogBtn.setDisable(false);
+        sendRateLabel.setText("回放：0 条");
+        sendRateLabel.setVisible(true);
+        sendRateFuture = AppExecutors.getInstance().getScheduledTaskExecutor()
+                .scheduleAtFixedRate(this::refreshReplayRate, 1, 1, TimeUnit.SECONDS);
+        session.start();
+    }
+
+    /**
+     * 回放结束：恢复界面，输出实际速率与原始速率的对比
+     */
+    private void onReplayFinished(ReplaySession session) {
+        if (sendRateFuture != null) {
+            sendRateFuture.cancel(false);
+            sendRateFuture = null;
+        }
+        if (replaySession == session) {
+            replaySession = null;
+        }
+        sentBytes.addAndGet(session.getSentBytes() - replayReported.getAndSet(session.getSentBytes()));
+        updateByteCount();
+        sendRateLabel.setVisible(false);
+        lockSendControls(false);
+        Exception failure = session.getFailure();
+        if (failure != null) {
+            String reason = failure.getMessage() != null ? failure.getMessage() : failure.getClass().getSimpleName();
+            appendMessage("系统消息>>", ("日志回放失败：" + reason).getBytes(), false, ColorConstant.SYSTEM_MSG_COLOR);
+        }
+        double seconds = Math.max(session.getElapsedNanos() / 1e9, 1e-3);
+        double original = session.getOriginalRate();
+        double achieved = session.getAchievedRate();
+        String summary = String.format("日志回放结束：共 %d 条 / %s，耗时 %.1fs，原始跨度 %.1fs | 原始 %.0f 条/s，实际 %.0f 条/s",
+                session.getSent(), formatSize(session.getSentBytes()), seconds,
+                session.getOriginalSpanNanos() / 1e9, original, achieved)
+                + (original > 0 && achieved > 0 ? String.format("（%.2f 倍）", achieved / original) : "");
+        appendMessage("系统消息>>", summary.getBytes(), false, ColorConstant.SYSTEM_MSG_COLOR);
+    }
+
+    /**
+     * 刷新回放的累计条数与最近一秒的速率
+     */
+    private void refreshReplayRate() {
+        ReplaySession session = replaySession;
+        if (session == null) {
+            return;
+        }
+        long sent = session.getSent();
+        long bytes = session.getSentBytes();
+        long elapsed = session.getElapsedNanos();
+        long[] last = lastSendRateSample;
+        lastSendRateSample = new long[]{sent, elapsed};
+        double seconds = Math.max((elapsed - (last == null ? 0 : last[1])) / 1e9, 1e-3);
+        long delta = sent - (last == null ? 0 : last[0]);
+        long unreported = bytes - replayReported.getAndSet(bytes);
+        String text = "回放：" + sent + " 条  " + Math.round(delta / seconds) + " 条/s  "
+                + formatSize(Math.round(unreported / seconds)) + "/s";
+        sentBytes.addAndGet(unreported);
+        Platform.runLater(() -> {
+            updateByteCount();
+            sendRateLabel.setText(text);
+        });
+    }
+
+    private static String describeReplaySpeed(double speed) {
+        if (speed <= 0) {
+            return "最快速度";
+        }
+        return speed == 1 ? "原始间隔" : speed + " 倍速";
+    }
+
+    /**
+     * 读取UDP模式下的目标主机输入框
+     */
+    private Optional<InetSocketAddress> getUdpTarget() {
+        String host = null;
+        String port = null;
+        if (findChildById(sendHBox, "targetHostField").orElse(null) instanceof ComboBox<?> cb) {
+            host = (String) cb.getValue();
+        }
+        if (findChildById(sendHBox, "targetPortField").orElse(null) instanceof ComboBox<?> cb) {
+            port = (String) cb.getValue();
+        }
+        if (host == null || host.isBlank() || port == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new InetSocketAddress(host.trim(), Integer.parseInt(port.trim())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * 开始记录本次会话的抓包文件，未配置抓包目录时不记录
+     */
+    private void openCapture(CaptureStore.Protocol protocol, String localAddress) {
+        // 上一个抓包文件可能仍在后台收尾，清理时不能删除
+        Path closing = captureClosed.isDone() ? null : lastCaptureFile;
+        lastCaptureFile = null;
+        String dir = getProperty.apply("capture.path");
+        if (dir == null || dir.isBlank()) {
+            return;
+        }
+        try {
+            Path captureDir = Paths.get(FileUtil.currentDir, dir);
+            pruneCaptureFiles(captureDir, Integer.parseInt(getProperty.apply("capture.max.files")) - 1, closing);
+            Path file = captureDir.resolve("capture_" + protocol.name().toLowerCase() + "_"
+                    + new Date().getTime() + CaptureStore.EXTENSION);
+            captureStore = new CaptureStore(file, protocol, localAddress,
+                    Long.parseLong(getProperty.apply("capture.segment.size")) * 1024 * 1024);
+            lastCaptureFile = file;
+        } catch (IOException e) {
+            appendMessage("系统消息>>",
+                    ("抓包文件创建失败，本次会话不记录：" + e.getMessage()).getBytes(),
+                    false,
+                    ColorConstant.SYSTEM_MSG_COLOR
+            );
+        }
+    }
+
+    /**
+     * 删除最早的抓包文件，只保留 keep 份
+     *
+     * @param closing 仍在关闭的抓包文件，不删除；没有时为 null
+     */
+    private static void pruneCaptureFiles(Path dir, int keep, Path closing) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        List<Path> files;
+        try (var stream = Files.list(dir)) {
+            files = stream.filter(f -> f.getFileName().toString().endsWith(CaptureStore.EXTENSION) && !f.equals(closing))
+                    .sorted(Comparator.comparing(f -> f.toFile().lastModified()))
+                    .toList();
+        }
+        for (int i = 0; i < files.size() - Math.max(keep, 0); i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    /**
+     * 结束本次会话的抓包，文件保留供保存日志
+     */
+    private void closeCapture() {
+        CaptureStore store = captureStore;
+        if (store == null) {
+            return;
+        }
+        captureStore = null;
+        // 关闭要等写线程写完队列中剩余的记录，不占用界面线程；随后保存日志时先等待关闭完成
+        captureClosed = CompletableFuture.runAsync(() -> {
+            try {
+                store.close();
+            } catch (IOException e) {
+                System.err.println("关闭抓包文件失败: " + e.getMessage());
+            }
+            if (store.getDropped() > 0) {
+                appendMessage("系统消息>>",
+                        ("抓包写入跟不上，有 " + store.getDropped() + " 个数据块未记录").getBytes(),
+                        false,
+                        ColorConstant.SYSTEM_MSG_COLOR
+                );
+            }
+        }, AppExecutors.getInstance().getBackgroundFixedExecutor());
+    }
+
+    /**
+     * 开始本次会话的持续日志，session.log.enabled 为 false 时不记录
+     */
+    private void openSessionLog(String host, int port) {
+        if (!Boolean.parseBoolean(getProperty.apply("session.log.enabled"))) {
+            return;
+        }
+        try {
+            sessionLog = new SessionLogWriter(Paths.get(FileUtil.currentDir, getProperty.apply("logs.path")),
+                    (host + "_" + port).replaceAll("[^\\w]", "_"),
+                    SessionLogWriter.FsyncPolicy.of(getProperty.apply("session.log.fsync")),
+                    Long.parseLong(getProperty.apply("session.log.fsync.interval.ms")),
+                    Long.parseLong(getProperty.apply("session.log.rotate.size.mb")) * 1024 * 1024,
+                    TimeUnit.MINUTES.toMillis(Long.parseLong(getProperty.apply("session.log.rotate.minutes"))),
+                    Long.parseLong(getProperty.apply("session.log.retention.mb")) * 1024 * 1024);
+        } catch (IOException | IllegalArgumentException e) {
+            appendMessage("系统消息>>",
+                    ("会话日志创建失败，本次会话不记录：" + e.getMessage()).getBytes(),
+                    false,
+                    ColorConstant.SYSTEM_MSG_COLOR
+            );
+        }
+    }
+
+    /**
+     * 结束本次会话的持续日志，最后一段在后台压缩
+     */
+    private void closeSessionLog() {
+        SessionLogWriter log = sessionLog;
+        if (log == null) {
+            return;
+        }
+        sessionLog = null;
+        log.close();
+        if (log.getDropped() > 0) {
+            appendMessage("系统消息>>",
+                    ("会话日志写入跟不上，有 " + log.getDropped() + " 条消息未记录").getBytes(),
+                    false,
+                    ColorConstant.SYSTEM_MSG_COLOR
+            );
+        }
+    }
+
+    /**
+     * 记录收到的数据块（任意线程）
+     *
+     * @param connectionId 连接编号，UDP 传 {@link #CAPTURE_BY_ADDRESS} 按对端地址分配
+     */
+    private void captureReceived(long connectionId, String remoteAddress, PooledBuffer data, long timestamp) {
+        CaptureStore store = captureStore;
+        if (store != null) {
+            store.record(captureConnection(store, connectionId, remoteAddress), Direction.RECEIVE, timestamp, data);
+        }
+    }
+
+    /**
+     * 记录发出的数据（任意线程）
+     */
+    private void captureSent(long connectionId, String remoteAddress, byte[] data) {
+        CaptureStore store = captureStore;
+        if (store != null) {
+            store.record(captureConnection(store, connectionId, remoteAddress), Direction.SEND, NanoClock.epochNanos(), data);
+        }
+    }
+
+    /**
+     * 服务端广播：每个客户端各记录一份
+     */
+    private void captureBroadcast(byte[] data) {
+        CaptureStore store = captureStore;
+        TcpServer server = tcpServerService;
+        if (store == null || server == null) {
+            return;
+        }
+        for (Long connectionId : server.getOutboundQueues().keySet()) {
+            String remote = server.getRemoteAddress(connectionId);
+            if (remote != null) {
+                captureSent(connectionId, remote, data);
             }
         }
     }
 
+    private static long captureConnection(CaptureStore store, long connectionId, String remoteAddress) {
+        if (connectionId == CAPTURE_BY_ADDRESS) {
+            return store.connectionOf(remoteAddress);
+        }
+        store.defineConnection(connectionId, remoteAddress);
+        return connectionId;
+    }
+
+    /**
+     * 与 UDP 接收端相同的 ip:port 形式，使收发归到同一对端
+     */
+    private static String formatAddress(InetSocketAddress address) {
+        return address.isUnresolved() ? address.getHostString() + ":" + address.getPort()
+                : address.getAddress().getHostAddress() + ":" + address.getPort();
+    }
+
     @FXML
     private void onClearSend() {
         sendArea.clear();
@@ -537,7 +1462,8 @@ public class MainController {
     private void onClearReceive() {
         chatArea.clear();
         chatArea.replaceText("");
-        receivedBytes = 0;
+        scrollback.clear();
+        receivedBytes.set(0);
         updateByteCount();
         saveLogBtn.setDisable(true);
     }
@@ -553,14 +1479,49 @@ public class MainController {
                 host.append(h).append("_");
             }
             try {
-                // 限制最多50份日志
-                Map<String, Long> historyLogList = getHistoryLogList();
-                if (historyLogList.size() >= 50) {
+                // 限制最多50份手动保存的日志，会话日志段按总大小单独清理
+                if (countSavedLogs() >= 50) {
                     showTip("已达最大上限(50)!", "⚠️警告消息");
                     return;
                 }
-                String name = "chat_" + host + portField.getText() + "_" + new Date().getTime() + ".log";
-                writeFile(chatArea.getText(), getProperty.apply("logs.path") + name, false);
+            } catch (IOException e) {
+                showTip("保存失败!\n错误原因：" + e.getMessage(), "错误消息");
+                return;
+            }
+            // 有抓包时直接复制抓包文件，内容完整且不经过界面文本
+            CaptureStore store = captureStore;
+            Path capture = store != null ? store.getFile()
+                    : lastCaptureFile != null && Files.exists(lastCaptureFile) ? lastCaptureFile : null;
+            String name = "chat_" + host + portField.getText() + "_" + new Date().getTime()
+                    + (capture != null ? CaptureStore.EXTENSION : ".log");
+            Path target = Paths.get(FileUtil.currentDir, getProperty.apply("logs.path"), name);
+            if (store != null || capture != null) {
+                CompletableFuture<Void> closed = captureClosed;
+                // 复制在后台进行，不阻塞界面
+                AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+                    try {
+                        if (store != null) {
+                            store.saveTo(target);
+                        } else {
+                            // 等待抓包文件关闭，保证内容完整
+                            closed.join();
+                            Files.copy(capture, target);
+                        }
+                        Platform.runLater(() -> showTip("保存日志【" + name + "】成功!", "提示消息"));
+                        LogTokenIndex.of(target.getParent()).update(target);
+                    } catch (IOException e) {
+                        Platform.runLater(() -> showTip("保存失败!\n错误原因：" + e.getMessage(), "错误消息"));
+                    }
+                });
+                return;
+            }
+            try {
+                // 包含已溢写到磁盘的早期内容；聊天区只能在界面线程读取
+                try (Writer writer = Files.newBufferedWriter(target)) {
+                    scrollback.writeAllText(writer);
+                }
+                // 为搜索建立词表
+                AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> LogTokenIndex.of(target.getParent()).update(target));
                 showTip("保存日志【" + name + "】成功!", "提示消息");
             } catch (Exception e) {
                 showTip("保存失败!\n错误原因：" + e.getCause(), "错误消息");
@@ -569,6 +1530,15 @@ public class MainController {
         }
     }
 
+    /**
+     * @return 日志目录中手动保存与导入的日志数（不含会话日志段）
+     */
+    static long countSavedLogs() throws IOException {
+        return getHistoryLogList().keySet().stream()
+                .filter(name -> !SessionLogWriter.isSegment(name))
+                .count();
+    }
+
     @FXML
     private void openConnectHistory() throws IOException {
         // 打开历史连接窗口
@@ -584,7 +1554,10 @@ public class MainController {
 
     @FXML
     private void onHistoryLogs() throws IOException {
-        showWindow(getProperty.apply("log.list.view.path"), "日志列表", false, HistoryLogsController.class);
+        FXMLLoader fxmlLoader = showWindow(getProperty.apply("log.list.view.path"), "日志列表", false, HistoryLogsController.class);
+        HistoryLogsController controller = fxmlLoader.getController();
+        Stage stage = (Stage) ((Parent) fxmlLoader.getRoot()).getScene().getWindow();
+        stage.setOnCloseRequest(e -> controller.onClose());
     }
 
     /**
@@ -620,9 +1593,31 @@ public class MainController {
      * @param labelPrefix 标头
      */
     public void appendReceivedData(byte[] data, String labelPrefix) {
-        appendMessage(labelPrefix, data, hexRecvCheck.isSelected(),ColorConstant.RECEIVE_COLOR);
-        receivedBytes += data.length;
-        saveLogBtn.setDisable(false);
+        appendReceivedData(PooledBuffer.wrap(data), NanoClock.epochNanos(), labelPrefix);
+    }
+
+    /**
+     * 接收消息（池化数据块）
+     *
+     * @param data        数据，渲染完成前由本方法持有引用
+     * @param timestamp   接收时间（纪元纳秒）
+     * @param labelPrefix 标头
+     */
+    private void appendReceivedData(PooledBuffer data, long timestamp, String labelPrefix) {
+        appendReceivedData(data, timestamp, labelPrefix, null);
+    }
+
+    /**
+     * 接收消息（连续字节流）
+     *
+     * @param data        数据，渲染完成前由本方法持有引用
+     * @param timestamp   接收时间（纪元纳秒）
+     * @param labelPrefix 标头
+     * @param decoder     该字节流的文本解码器，跨块拼接多字节字符；为 null 时每块单独解码
+     */
+    private void appendReceivedData(PooledBuffer data, long timestamp, String labelPrefix, TextStreamDecoder decoder) {
+        receivedBytes.addAndGet(data.length());
+        appendMessage(labelPrefix, data, timestamp, hexRecvCheck.isSelected(), ColorConstant.RECEIVE_COLOR, decoder);
     }
 
     /**
@@ -631,9 +1626,8 @@ public class MainController {
      * @param data 数据
      */
     public void appendSendingData(byte[] data) {
+        sentBytes.addAndGet(data.length);
         appendMessage("你>>", data, hexSendCheck.isSelected(),ColorConstant.SEND_COLOR);
-        sentBytes += data.length;
-        saveLogBtn.setDisable(false);
     }
 
     /**
@@ -648,23 +1642,146 @@ public class MainController {
                                byte[] data,
                                boolean isHex,
                                String hexColor) {
+        appendMessage(labelPrefix, PooledBuffer.wrap(data), NanoClock.epochNanos(), isHex, hexColor, null);
+    }
+
+    /**
+     * 追加消息到面板：交给渲染队列按帧批量追加，渲染完成后释放数据块
+     *
+     * @param labelPrefix 标头
+     * @param data        数据
+     * @param timestamp   时间（纪元纳秒）
+     * @param isHex       是否十六进制
+     * @param hexColor    十六进制颜色值
+     * @param decoder     文本解码器，为 null 时按 UTF-8 单独解码本块
+     */
+    private void appendMessage(String labelPrefix,
+                               PooledBuffer data,
+                               long timestamp,
+                               boolean isHex,
+                               String hexColor,
+                               TextStreamDecoder decoder) {
+        // 按入队顺序在 FX 线程上解码，保证同一字节流内的块有序拼接
+        renderQueue.offer(labelPrefix, data, timestamp, isHex, hexColor, decoder);
+        SessionLogWriter log = sessionLog;
+        if (log != null) {
+            log.offer(labelPrefix, data, timestamp, isHex);
+        }
+    }
+
+    /**
+     * 渲染队列每次刷新后更新计数
+     */
+    private void onChatFlushed() {
+        updateByteCount();
+        saveLogBtn.setDisable(false);
+    }
+
+    /**
+     * 刷新底部客户端数量与各客户端发送队列积压（积压最多的前20个显示在提示框中）
+     */
+    private void refreshClientQueues() {
+        TcpServer server = tcpServerService;
+        if (server == null) {
+            return;
+        }
+        List<Map.Entry<Long, OutboundQueue>> queues = new ArrayList<>(server.getOutboundQueues().entrySet());
+        queues.sort((a, b) -> Long.compare(b.getValue().getQueuedBytes(), a.getValue().getQueuedBytes()));
+        long totalBytes = 0;
+        long totalDropped = 0;
+        StringBuilder detail = new StringBuilder();
+        for (int i = 0; i < queues.size(); i++) {
+            OutboundQueue queue = queues.get(i).getValue();
+            totalBytes += queue.getQueuedBytes();
+            totalDropped += queue.getDroppedMessages();
+            if (i < 20) {
+                detail.append(server.getRemoteAddress(queues.get(i).getKey()))
+                        .append("  待发：").append(queue.getQueuedMessages()).append("条/").append(formatSize(queue.getQueuedBytes()))
+                        .append("  丢弃：").append(queue.getDroppedMessages())
+                        .append(queue.isWritable() ? "" : "  [超过高水位]")
+                        .append("\n");
+            }
+        }
+        String text = "客户端数量：" + queues.size() + "  发送积压：" + formatSize(totalBytes)
+                + (totalDropped > 0 ? "  丢弃：" + totalDropped : "");
+        String tip = detail.isEmpty() ? "暂无客户端" : detail.toString().trim();
         Platform.runLater(() -> {
-            String displayText = isHex ? formatBytesToHex(data) : new String(data, StandardCharsets.UTF_8);
-            String format = isHex ? "【HEX】" : "";
-            String head = "[" + DateUtil.formatDate2String(new Date(), DateUtil.LONG_PATTERN) +
-                    "] " + labelPrefix + "|" + data.length + "字节" + format + ":\n";
-            chatArea.append(head, "-fx-fill:" + ColorConstant.HEAD_COLOR + ";");
-            chatArea.append(displayText + "\r\n\n", "-fx-fill:" + hexColor + ";-fx-padding:10px");
-            chatArea.moveTo(chatArea.getLength());
-            chatArea.requestFollowCaret();
-            updateByteCount();
+            clientNumLabel.setText(text);
+            if (clientNumLabel.getTooltip() == null) {
+                clientNumLabel.setTooltip(new Tooltip());
+            }
+            clientNumLabel.getTooltip().setText(tip);
         });
     }
 
+    /**
+     * 刷新UDP接收统计
+     */
+    private void refreshUdpStats() {
+        UdpService service = udpService;
+        // 时延测试期间由 refreshLatencyStats 占用状态栏
+        if (service == null || latencySession != null) {
+            return;
+        }
+        String text = "接收：" + service.getReceivedCount() + "  丢弃：" + service.getDroppedCount()
+                + "  截断：" + service.getTruncatedCount();
+        Platform.runLater(() -> clientNumLabel.setText(text));
+    }
+
+    /**
+     * 刷新时延测试实时百分位
+     */
+    private void refreshLatencyStats() {
+        LatencySession session = latencySession;
+        if (session == null) {
+            return;
+        }
+        String text = "时延 " + LatencyReport.summary(session.getHistogram())
+                + " | 发送 " + session.getSent() + " 接收 " + session.getReceived() + " 未响应 " + session.getLost();
+        Platform.runLater(() -> clientNumLabel.setText(text));
+    }
+
+    /**
+     * 刷新压测进度：连接情况与最近一秒的发送/接收速率
+     */
+    private void refreshLoadStats() {
+        TcpLoadGenerator generator = tcpLoadGenerator;
+        if (generator == null) {
+            return;
+        }
+        LoadStats stats = generator.snapshot();
+        LoadStats last = lastLoadStats;
+        lastLoadStats = stats;
+        double seconds = last == null ? stats.elapsedNanos() / 1e9 : (stats.elapsedNanos() - last.elapsedNanos()) / 1e9;
+        if (seconds <= 0) {
+            return;
+        }
+        long msgs = stats.sentMessages() - (last == null ? 0 : last.sentMessages());
+        long sent = stats.sentBytes() - (last == null ? 0 : last.sentBytes());
+        long received = stats.receivedBytes() - (last == null ? 0 : last.receivedBytes());
+        String text = "连接：" + stats.connected() + "/" + stats.connections()
+                + (stats.connecting() > 0 ? "（建立中" + stats.connecting() + "）" : "")
+                + "  失败：" + stats.connectFailures()
+                + "  断开：" + stats.disconnected()
+                + "  发送：" + Math.round(msgs / seconds) + "条/s " + formatSize(Math.round(sent / seconds)) + "/s"
+                + "  接收：" + formatSize(Math.round(received / seconds)) + "/s";
+        Platform.runLater(() -> clientNumLabel.setText(text));
+    }
+
+    private static String formatLoadSummary(LoadStats stats) {
+        double seconds = Math.max(stats.elapsedNanos() / 1e9, 1e-3);
+        return String.format("压测结束：耗时 %.1fs，发送 %d 条 / %s，平均 %.0f 条/s（%s/s），接收 %s（%s/s），连接失败 %d，被断开 %d",
+                seconds,
+                stats.sentMessages(), formatSize(stats.sentBytes()),
+                stats.sentMessages() / seconds, formatSize(Math.round(stats.sentBytes() / seconds)),
+                formatSize(stats.receivedBytes()), formatSize(Math.round(stats.receivedBytes() / seconds)),
+                stats.connectFailures(), stats.disconnected());
+    }
+
     /**
      * 更新收/发字节数
      */
     private void updateByteCount() {
-        byteCountLabel.setText(String.format("收：%d 字节  发：%d 字节", receivedBytes, sentBytes));
+        byteCountLabel.setText(String.format("收：%d 字节  发：%d 字节", receivedBytes.get(), sentBytes.get()));
     }
 }
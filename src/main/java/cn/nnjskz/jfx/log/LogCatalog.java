@@ -0,0 +1,421 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.log;
+
+import cn.nnjskz.jfx.network.capture.CaptureReader;
+import cn.nnjskz.jfx.network.capture.CaptureRecord;
+import cn.nnjskz.jfx.network.capture.CaptureStore;
+import cn.nnjskz.jfx.utils.AppExecutors;
+import cn.nnjskz.jfx.utils.DateUtil;
+import cn.nnjskz.jfx.utils.NanoClock;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 历史日志目录的元数据索引
+ * <p>
+ * 记录每个日志的名称、大小、修改时间、消息数、对端与时长，持久化在日志目录下 {@value LogTokenIndex#DIR}/{@value #FILE}。
+ * 首次使用时读入该文件即可显示列表，随后在后台与目录核对一次（每个文件只读一次属性），并以 {@link WatchService}
+ * 监视目录：新增、修改、删除的文件在变更平息 {@value #SETTLE_MILLIS} 毫秒后更新。消息数等需要读取内容的字段
+ * 在后台线程上提取，大小与修改时间未变的日志不再读取；本进程正在写入的会话日志段只更新大小与时间，
+ * 关闭后压缩出的 .gz 再提取一次。元数据变化时通知监听者（在后台线程上）。
+ */
+public final class LogCatalog {
+    static final String FILE = "catalog.tsv";
+    private static final String HEADER = "JFXCATALOG 1";
+    private static final long SETTLE_MILLIS = 500;
+    private static final long MAX_DELAY_MILLIS = 3000;
+    private static final long SAVE_DELAY_MILLIS = 1000;
+    // 对端最多记录的个数
+    private static final int MAX_PEERS = 100;
+    private static final String RECEIVE_PREFIX = "<<来自";
+    private static final Pattern HEAD = Pattern.compile(
+            "\\[(\\d{4}-\\d{2}-\\d{2} \\d{2}:\\d{2}:\\d{2}\\.\\d{3})] (.*?)\\|\\d+字节");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern(DateUtil.LONG_PATTERN);
+    private static final Map<Path, LogCatalog> INSTANCES = new ConcurrentHashMap<>();
+
+    /**
+     * 一个日志的元数据
+     *
+     * @param messages    消息数，尚未读取内容时为 -1
+     * @param peer        对端，多个时为第一个加个数，没有时为空
+     * @param firstMillis 第一条消息的时间，没有时为 0
+     * @param lastMillis  最后一条消息的时间，没有时为 0
+     */
+    public record Entry(String name, long size, long modified, long messages, String peer, long firstMillis, long lastMillis) {
+        boolean matches(BasicFileAttributes attributes) {
+            return size == attributes.size() && modified == attributes.lastModifiedTime().toMillis();
+        }
+
+        public long durationMillis() {
+            return lastMillis - firstMillis;
+        }
+
+        Entry withAttributes(BasicFileAttributes attributes) {
+            return new Entry(name, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                    messages, peer, firstMillis, lastMillis);
+        }
+    }
+
+    private final Path dir;
+    private final Path file;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+    // 正在提取的日志；提取期间再次变化的记入 rescan，完成后重新提取
+    private final Set<String> scanning = ConcurrentHashMap.newKeySet();
+    private final Set<String> rescan = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
+    private CompletableFuture<Void> loaded;
+
+    private LogCatalog(Path dir) {
+        this.dir = dir;
+        this.file = dir.resolve(LogTokenIndex.DIR).resolve(FILE);
+    }
+
+    /**
+     * @param logDir 日志目录
+     * @return 该目录共用的索引
+     */
+    public static LogCatalog of(Path logDir) {
+        return INSTANCES.computeIfAbsent(logDir.toAbsolutePath().normalize(), LogCatalog::new);
+    }
+
+    /**
+     * 首次调用时在后台读入持久化的元数据并开始监视目录；每次调用都在其后与目录核对一次
+     *
+     * @return 持久化的元数据读入完成
+     */
+    public synchronized CompletableFuture<Void> refresh() {
+        if (loaded == null) {
+            loaded = CompletableFuture.runAsync(() -> {
+                load();
+                startWatcher();
+            }, AppExecutors.getInstance().getBackgroundFixedExecutor());
+        }
+        loaded.thenRunAsync(this::reconcile, AppExecutors.getInstance().getBackgroundFixedExecutor());
+        return loaded;
+    }
+
+    /**
+     * @return 全部日志，最近修改的在前
+     */
+    public List<Entry> snapshot() {
+        List<Entry> list = new ArrayList<>(entries.values());
+        list.sort(Comparator.comparingLong(Entry::modified).reversed().thenComparing(Entry::name));
+        return list;
+    }
+
+    public void addListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 与目录核对：新增或变化的日志重新提取，已不存在的移除
+     */
+    private void reconcile() {
+        Set<String> present = new HashSet<>();
+        boolean changed = false;
+        try (var stream = Files.list(dir)) {
+            for (Path path : (Iterable<Path>) stream::iterator) {
+                String name = path.getFileName().toString();
+                if (update(name)) {
+                    changed = true;
+                }
+                present.add(name);
+            }
+        } catch (IOException e) {
+            System.err.println("读取日志目录失败: " + e.getMessage());
+            return;
+        }
+        if (entries.keySet().retainAll(present)) {
+            changed = true;
+        }
+        if (changed) {
+            changed();
+        }
+    }
+
+    /**
+     * 按文件当前状态更新一条，需要时安排提取
+     *
+     * @return 列表是否变化
+     */
+    private boolean update(String name) {
+        Path path = dir.resolve(name);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return entries.remove(name) != null;
+        }
+        if (!attributes.isRegularFile() || name.endsWith(".tmp")) {
+            return entries.remove(name) != null;
+        }
+        // 正在写入的段持续变化，提取内容要反复读取整个文件；它关闭后会被压缩为 .gz，届时再提取
+        boolean writing = SessionLogWriter.isWriting(path);
+        Entry entry = entries.get(name);
+        if (entry != null && entry.matches(attributes)
+                && (entry.messages() >= 0 || writing || scanning.contains(name))) {
+            return false;
+        }
+        // 先更新大小与时间，内容在后台提取
+        entries.put(name, entry != null ? entry.withAttributes(attributes)
+                : new Entry(name, attributes.size(), attributes.lastModifiedTime().toMillis(), -1, "", 0, 0));
+        if (!writing) {
+            scan(name);
+        }
+        return true;
+    }
+
+    private void scan(String name) {
+        if (!scanning.add(name)) {
+            rescan.add(name);
+            return;
+        }
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> {
+            try {
+                Path path = dir.resolve(name);
+                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                Entry entry = describe(path, attributes);
+                // 提取期间被删除的不再加入
+                if (entries.containsKey(name)) {
+                    entries.put(name, entry);
+                    changed();
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("读取日志元数据失败: " + name + " " + e.getMessage());
+                // 无法解析的内容按没有消息显示
+                entries.computeIfPresent(name, (key, entry) -> new Entry(name, entry.size(), entry.modified(), 0, "", 0, 0));
+                changed();
+            } finally {
+                scanning.remove(name);
+                if (rescan.remove(name) && update(name)) {
+                    changed();
+                }
+            }
+        });
+    }
+
+    /**
+     * 读取日志内容得到消息数、对端与时长
+     */
+    private static Entry describe(Path path, BasicFileAttributes attributes) throws IOException {
+        String name = path.getFileName().toString();
+        long[] stats = {0, 0, 0};
+        Set<String> peers = new LinkedHashSet<>();
+        if (name.endsWith(CaptureStore.EXTENSION)) {
+            new CaptureReader(path).forEach(new CaptureReader.Visitor() {
+                @Override
+                public void onConnection(CaptureReader.Connection connection) {
+                    if (peers.size() < MAX_PEERS) {
+                        peers.add(connection.remoteAddress());
+                    }
+                }
+
+                @Override
+                public void onData(CaptureRecord record) {
+                    count(stats, NanoClock.toMillis(record.timestampNanos()));
+                }
+            });
+        } else {
+            // 聊天区格式的文本：按消息头计数
+            String[] last = {null};
+            LogSearch.forEachText(path, row -> {
+                if (row.isEmpty() || row.charAt(0) != '[') {
+                    return;
+                }
+                Matcher matcher = HEAD.matcher(row);
+                if (!matcher.lookingAt()) {
+                    return;
+                }
+                if (stats[0]++ == 0) {
+                    stats[1] = parseTime(matcher.group(1));
+                }
+                last[0] = matcher.group(1);
+                String label = matcher.group(2);
+                if (label.startsWith(RECEIVE_PREFIX) && peers.size() < MAX_PEERS) {
+                    peers.add(label.substring(RECEIVE_PREFIX.length()));
+                }
+            });
+            if (last[0] != null) {
+                stats[2] = parseTime(last[0]);
+            }
+        }
+        String peer = peers.isEmpty() ? "" : peers.iterator().next()
+                + (peers.size() > 1 ? " 等" + (peers.size() >= MAX_PEERS ? MAX_PEERS + "+" : peers.size()) + "个" : "");
+        return new Entry(name, attributes.size(), attributes.lastModifiedTime().toMillis(),
+                stats[0], peer, stats[1], stats[2]);
+    }
+
+    private static void count(long[] stats, long millis) {
+        if (stats[0]++ == 0) {
+            stats[1] = millis;
+        }
+        stats[2] = millis;
+    }
+
+    private static long parseTime(String text) {
+        try {
+            return LocalDateTime.parse(text, TIME).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    private void changed() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+        if (saveScheduled.compareAndSet(false, true)) {
+            AppExecutors.getInstance().getScheduledTaskExecutor().schedule(() -> {
+                saveScheduled.set(false);
+                save();
+            }, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void load() {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            if (!HEADER.equals(reader.readLine())) {
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length == 7) {
+                    entries.put(fields[0], new Entry(fields[0], Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                            Long.parseLong(fields[3]), fields[4], Long.parseLong(fields[5]), Long.parseLong(fields[6])));
+                }
+            }
+        } catch (NoSuchFileException ignored) {
+        } catch (IOException | RuntimeException e) {
+            System.err.println("读取日志元数据索引失败: " + e.getMessage());
+        }
+    }
+
+    private synchronized void save() {
+        Path tmp = file.resolveSibling(FILE + ".tmp");
+        try {
+            Files.createDirectories(file.getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                writer.write(HEADER);
+                writer.newLine();
+                for (Entry entry : entries.values()) {
+                    // 未提取完的条目不保存，下次启动时重新提取
+                    if (entry.messages() < 0) {
+                        continue;
+                    }
+                    writer.write(entry.name() + "\t" + entry.size() + "\t" + entry.modified() + "\t" + entry.messages()
+                            + "\t" + entry.peer().replace('\t', ' ') + "\t" + entry.firstMillis() + "\t" + entry.lastMillis());
+                    writer.newLine();
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("保存日志元数据索引失败: " + e.getMessage());
+        }
+    }
+
+    private void startWatcher() {
+        WatchService watchService;
+        try {
+            Files.createDirectories(dir);
+            watchService = dir.getFileSystem().newWatchService();
+            dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        } catch (IOException e) {
+            // 无法监视时只在每次打开列表时核对
+            System.err.println("无法监视日志目录: " + e.getMessage());
+            return;
+        }
+        Thread watcher = new Thread(() -> watch(watchService), "log-catalog-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    private void watch(WatchService watchService) {
+        Set<String> pending = new HashSet<>();
+        boolean overflow = false;
+        long deadline = 0;
+        try {
+            while (true) {
+                WatchKey key;
+                if (pending.isEmpty() && !overflow) {
+                    key = watchService.take();
+                    deadline = System.currentTimeMillis() + MAX_DELAY_MILLIS;
+                } else {
+                    // 等待变更平息；持续写入的文件最迟 MAX_DELAY_MILLIS 处理一次
+                    long wait = Math.min(SETTLE_MILLIS, deadline - System.currentTimeMillis());
+                    key = wait > 0 ? watchService.poll(wait, TimeUnit.MILLISECONDS) : null;
+                }
+                if (key == null) {
+                    if (overflow) {
+                        reconcile();
+                    } else {
+                        boolean changed = false;
+                        for (String name : pending) {
+                            changed |= update(name);
+                        }
+                        if (changed) {
+                            changed();
+                        }
+                    }
+                    pending.clear();
+                    overflow = false;
+                    continue;
+                }
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        pending.add(event.context().toString());
+                    }
+                }
+                if (!key.reset()) {
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException ignored) {
+        }
+    }
+}
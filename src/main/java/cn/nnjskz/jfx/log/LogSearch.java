@@ -0,0 +1,478 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.log;
+
+import cn.nnjskz.jfx.model.LogSearchHit;
+import cn.nnjskz.jfx.network.capture.CaptureReader;
+import cn.nnjskz.jfx.network.capture.CaptureRecord;
+import cn.nnjskz.jfx.network.capture.CaptureStore;
+import cn.nnjskz.jfx.network.capture.Direction;
+import cn.nnjskz.jfx.network.codec.HexCodec;
+import cn.nnjskz.jfx.utils.DateUtil;
+import cn.nnjskz.jfx.utils.NanoClock;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * 历史日志搜索
+ * <p>
+ * 在共用的 {@link ForkJoinPool} 上每个日志一个任务并行扫描，超过 {@value #SPLIT_BYTES} 字节的文本日志再按行边界拆分为多段。
+ * 文本日志经 {@link MappedLogFile} 映射逐行匹配，.gz 会话日志段流式解压，抓包文件逐条记录匹配（十六进制查询直接比较记录字节）。
+ * 命中在工作线程上逐条回调。文本查询先经 {@link LogTokenIndex} 排除不可能命中的日志；缺少词表的日志在完整扫描时顺带补建。
+ */
+public final class LogSearch {
+    // 超过该大小的文本日志拆分为多段并行扫描
+    private static final long SPLIT_BYTES = 16L * 1024 * 1024;
+    private static final int PAGE_ROWS = 4096;
+    private static final int SNIPPET_BEFORE = 40;
+    private static final int SNIPPET_LENGTH = 160;
+    private static final ForkJoinPool POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /**
+     * 查询方式
+     */
+    public enum Mode {
+        /**
+         * 文本子串（区分大小写）
+         */
+        TEXT,
+        /**
+         * 正则表达式，逐行（逐条记录）查找
+         */
+        REGEX,
+        /**
+         * 十六进制字节序列：抓包文件比较原始字节，文本日志查找其十六进制显示形式与对应的 UTF-8 文本
+         */
+        HEX
+    }
+
+    private final Path logDir;
+    private final Mode mode;
+    private final String query;
+    private final String[] needles;
+    private final byte[] bytes;
+    private final Pattern pattern;
+    private final int maxHits;
+    private final Consumer<LogSearchHit> onHit;
+    private final LogTokenIndex index;
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger scanned = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile boolean limitReached;
+    private volatile long startNanos;
+    private volatile long endNanos;
+
+    /**
+     * @param logDir  日志目录
+     * @param mode    查询方式
+     * @param query   查询内容
+     * @param maxHits 命中数上限，达到后停止
+     * @param onHit   命中回调（在工作线程上调用）
+     * @throws IllegalArgumentException 查询为空、正则或十六进制格式错误
+     */
+    public LogSearch(Path logDir, Mode mode, String query, int maxHits, Consumer<LogSearchHit> onHit) {
+        if (query == null || query.isEmpty()) {
+            throw new IllegalArgumentException("请输入搜索内容");
+        }
+        this.logDir = logDir;
+        this.mode = mode;
+        this.query = query;
+        this.maxHits = maxHits;
+        this.onHit = onHit;
+        this.index = LogTokenIndex.of(logDir);
+        switch (mode) {
+            case REGEX -> {
+                this.pattern = Pattern.compile(query);
+                this.bytes = null;
+                this.needles = null;
+            }
+            case HEX -> {
+                this.pattern = null;
+                this.bytes = HexCodec.decode(query);
+                if (bytes.length == 0) {
+                    throw new IllegalArgumentException("请输入搜索内容");
+                }
+                String text = new String(bytes, StandardCharsets.UTF_8);
+                this.needles = Arrays.equals(text.getBytes(StandardCharsets.UTF_8), bytes)
+                        ? new String[]{HexCodec.encode(bytes), text} : new String[]{HexCodec.encode(bytes)};
+            }
+            default -> {
+                this.pattern = null;
+                this.bytes = null;
+                this.needles = new String[]{query};
+            }
+        }
+    }
+
+    /**
+     * 开始搜索
+     *
+     * @param onFinished 全部日志扫描完成、达到上限或取消后调用（在工作线程上）
+     */
+    public void start(Runnable onFinished) {
+        startNanos = System.nanoTime();
+        POOL.execute(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                try {
+                    List<FileTask> tasks = new ArrayList<>();
+                    for (Path file : listLogs()) {
+                        tasks.add(new FileTask(file));
+                    }
+                    invokeAll(tasks);
+                } catch (IOException e) {
+                    failed.incrementAndGet();
+                    System.err.println("搜索日志失败: " + e.getMessage());
+                } finally {
+                    endNanos = System.nanoTime();
+                    onFinished.run();
+                }
+            }
+        });
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return 已扫描的日志数
+     */
+    public int getScanned() {
+        return scanned.get();
+    }
+
+    /**
+     * @return 经词表排除、未扫描的日志数
+     */
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public int getHits() {
+        return Math.min(hits.get(), maxHits);
+    }
+
+    public boolean isLimitReached() {
+        return limitReached;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public long getElapsedNanos() {
+        return (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    private boolean stopped() {
+        return cancelled || limitReached;
+    }
+
+    /**
+     * @return 日志目录中的文件，最近修改的在前
+     */
+    private List<Path> listLogs() throws IOException {
+        Map<Path, Long> modified = new HashMap<>();
+        try (var stream = Files.list(logDir)) {
+            for (Path file : (Iterable<Path>) stream::iterator) {
+                if (Files.isRegularFile(file) && !file.getFileName().toString().endsWith(".tmp")) {
+                    modified.put(file, Files.getLastModifiedTime(file).toMillis());
+                }
+            }
+        }
+        List<Path> files = new ArrayList<>(modified.keySet());
+        files.sort(Comparator.comparing(modified::get, Comparator.reverseOrder()));
+        return files;
+    }
+
+    /**
+     * 单个日志的扫描
+     */
+    private final class FileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path file;
+        private final String name;
+
+        FileTask(Path file) {
+            this.file = file;
+            this.name = file.getFileName().toString();
+        }
+
+        @Override
+        protected void compute() {
+            if (stopped()) {
+                return;
+            }
+            Set<String> tokens = index.get(file);
+            if (tokens != null && mode == Mode.TEXT && !LogTokenIndex.mayContain(tokens, query)) {
+                skipped.incrementAndGet();
+                return;
+            }
+            // 未压缩的会话日志段仍在写入或等待压缩，不建词表
+            boolean buildIndex = tokens == null
+                    && !(SessionLogWriter.isSegment(name) && !name.endsWith(".gz"));
+            Set<String> collected = buildIndex ? ConcurrentHashMap.newKeySet() : null;
+            try {
+                long size = Files.size(file);
+                long modified = Files.getLastModifiedTime(file).toMillis();
+                if (name.endsWith(CaptureStore.EXTENSION)) {
+                    scanCapture(collected);
+                } else if (name.endsWith(".gz")) {
+                    scanGzip(collected);
+                } else {
+                    scanMapped(size, collected);
+                }
+                scanned.incrementAndGet();
+                if (collected != null && !stopped()) {
+                    index.put(file, size, modified, collected);
+                }
+            } catch (IOException | RuntimeException e) {
+                failed.incrementAndGet();
+                System.err.println("搜索日志失败: " + name + " " + e.getMessage());
+            }
+        }
+
+        private void scanMapped(long size, Set<String> collected) throws IOException {
+            try (MappedLogFile log = new MappedLogFile(file)) {
+                if (size <= SPLIT_BYTES) {
+                    new RangeTask(this, log, 0, size, collected).compute();
+                    return;
+                }
+                List<RangeTask> ranges = new ArrayList<>();
+                long start = 0;
+                while (start < size) {
+                    long end = start + SPLIT_BYTES >= size ? size : log.lineStart(start + SPLIT_BYTES);
+                    if (end <= start) {
+                        end = Math.min(size, start + SPLIT_BYTES);
+                    }
+                    ranges.add(new RangeTask(this, log, start, end, collected));
+                    start = end;
+                }
+                invokeAll(ranges);
+            }
+        }
+
+        private void scanGzip(Set<String> collected) throws IOException {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                long number = 0;
+                while ((line = reader.readLine()) != null && !stopped()) {
+                    number++;
+                    if (collected != null) {
+                        LogTokenIndex.tokenize(line, collected);
+                    }
+                    int at = find(line);
+                    if (at >= 0) {
+                        emit(new LogSearchHit(name, String.format("第 %,d 行", number), snippet(line, at), -1));
+                    }
+                }
+            }
+        }
+
+        private void scanCapture(Set<String> collected) throws IOException {
+            Map<Long, String> remotes = new HashMap<>();
+            long[] number = {0};
+            new CaptureReader(file).forEach(new CaptureReader.Visitor() {
+                @Override
+                public void onConnection(CaptureReader.Connection connection) {
+                    remotes.put(connection.id(), connection.remoteAddress());
+                }
+
+                @Override
+                public void onData(CaptureRecord record) {
+                    if (stopped()) {
+                        return;
+                    }
+                    number[0]++;
+                    ByteBuffer data = record.data();
+                    String text = collected != null || mode != Mode.HEX ? decode(data) : null;
+                    if (collected != null) {
+                        LogTokenIndex.tokenize(text, collected);
+                    }
+                    String content = null;
+                    if (mode == Mode.HEX) {
+                        int at = indexOf(data, bytes);
+                        if (at >= 0) {
+                            byte[] window = new byte[Math.min(data.remaining() - Math.max(0, at - 16), 64)];
+                            data.duplicate().position(data.position() + Math.max(0, at - 16)).get(window);
+                            content = HexCodec.encode(window);
+                        }
+                    } else {
+                        int at = find(text);
+                        if (at >= 0) {
+                            content = snippet(text, at);
+                        }
+                    }
+                    if (content != null) {
+                        String remote = remotes.getOrDefault(record.connectionId(), "#" + record.connectionId());
+                        emit(new LogSearchHit(name, "记录 #" + number[0] + " "
+                                + DateUtil.formatDate2String(NanoClock.toMillis(record.timestampNanos()), DateUtil.LONG_PATTERN)
+                                + (record.direction() == Direction.SEND ? " 你>>" + remote : " <<来自" + remote), content, -1));
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 文本日志中 [start, end) 的一段，start 为行首
+     */
+    private final class RangeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileTask owner;
+        private final MappedLogFile log;
+        private final long start;
+        private final long end;
+        private final Set<String> collected;
+
+        RangeTask(FileTask owner, MappedLogFile log, long start, long end, Set<String> collected) {
+            this.owner = owner;
+            this.log = log;
+            this.start = start;
+            this.end = end;
+            this.collected = collected;
+        }
+
+        @Override
+        protected void compute() {
+            long pos = start;
+            while (pos < end && !stopped()) {
+                MappedLogFile.Page page = log.read(pos, PAGE_ROWS);
+                long[] offsets = page.offsets();
+                List<String> rows = page.rows();
+                for (int i = 0; i < offsets.length && offsets[i] < end; i++) {
+                    String row = rows.get(i);
+                    if (collected != null) {
+                        LogTokenIndex.tokenize(row, collected);
+                    }
+                    int at = find(row);
+                    if (at >= 0) {
+                        emit(new LogSearchHit(owner.name, String.format("偏移 %,d", offsets[i]), snippet(row, at), offsets[i]));
+                    }
+                }
+                if (offsets.length == 0) {
+                    break;
+                }
+                pos = page.end();
+            }
+        }
+    }
+
+    private void emit(LogSearchHit hit) {
+        if (hits.incrementAndGet() > maxHits) {
+            limitReached = true;
+            return;
+        }
+        onHit.accept(hit);
+        if (hits.get() >= maxHits) {
+            limitReached = true;
+        }
+    }
+
+    /**
+     * @return 命中位置，未命中为 -1
+     */
+    private int find(String text) {
+        if (pattern != null) {
+            var matcher = pattern.matcher(text);
+            return matcher.find() ? matcher.start() : -1;
+        }
+        for (String needle : needles) {
+            int at = text.indexOf(needle);
+            if (at >= 0) {
+                return at;
+            }
+        }
+        return -1;
+    }
+
+    private static String snippet(String text, int at) {
+        int from = Math.max(0, at - SNIPPET_BEFORE);
+        int to = Math.min(text.length(), from + SNIPPET_LENGTH);
+        return (from > 0 ? "…" : "") + text.substring(from, to).replace('\n', ' ').replace('\r', ' ')
+                + (to < text.length() ? "…" : "");
+    }
+
+    private static String decode(ByteBuffer data) {
+        byte[] copy = new byte[data.remaining()];
+        data.duplicate().get(copy);
+        return new String(copy, StandardCharsets.UTF_8);
+    }
+
+    private static int indexOf(ByteBuffer data, byte[] pattern) {
+        int base = data.position();
+        int last = data.limit() - pattern.length;
+        outer:
+        for (int i = base; i <= last; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data.get(i + j) != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i - base;
+        }
+        return -1;
+    }
+
+    /**
+     * 按搜索时的同样方式逐行（逐条记录）读出日志文本，供建立词表
+     */
+    static void forEachText(Path file, Consumer<String> consumer) throws IOException {
+        String name = file.getFileName().toString();
+        if (name.endsWith(CaptureStore.EXTENSION)) {
+            new CaptureReader(file).forEach(record -> consumer.accept(decode(record.data())));
+        } else if (name.endsWith(".gz")) {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    consumer.accept(line);
+                }
+            }
+        } else {
+            try (MappedLogFile log = new MappedLogFile(file)) {
+                long pos = 0;
+                while (pos < log.size()) {
+                    MappedLogFile.Page page = log.read(pos, PAGE_ROWS);
+                    page.rows().forEach(consumer);
+                    pos = page.end();
+                }
+            }
+        }
+    }
+}
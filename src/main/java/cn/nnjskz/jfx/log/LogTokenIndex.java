@@ -0,0 +1,246 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.log;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 历史日志的词表索引
+ * <p>
+ * 每个日志对应日志目录下 {@value #DIR}/ 中的一个词表文件，记录日志的大小、修改时间与其中出现过的全部词（小写）。
+ * 词为连续的字母/数字，汉字每字一个词。文本搜索时先用词表排除不可能命中的日志，只扫描剩余的文件；
+ * 大小或修改时间与日志不一致的词表视为过期，不参与排除。词表在日志保存、会话日志段压缩、抓包导入后建立，
+ * 缺少词表的日志在下一次完整扫描时顺带补建。已加载的词表缓存在内存中，重复搜索不再读盘。
+ */
+public final class LogTokenIndex {
+    static final String DIR = ".index";
+    private static final String SUFFIX = ".tokens";
+    private static final String HEADER = "JFXTOKENS 1";
+    // 超长的词只保留前缀
+    static final int MAX_TOKEN = 64;
+    private static final Map<Path, LogTokenIndex> INSTANCES = new ConcurrentHashMap<>();
+
+    private final Path indexDir;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+
+    private LogTokenIndex(Path indexDir) {
+        this.indexDir = indexDir;
+    }
+
+    /**
+     * @param logDir 日志目录
+     * @return 该目录共用的索引
+     */
+    public static LogTokenIndex of(Path logDir) {
+        return INSTANCES.computeIfAbsent(logDir.toAbsolutePath().normalize(), dir -> new LogTokenIndex(dir.resolve(DIR)));
+    }
+
+    /**
+     * @return 与日志当前大小、修改时间一致的词表；没有或已过期时为 null
+     */
+    Set<String> get(Path log) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(log, BasicFileAttributes.class);
+        } catch (IOException e) {
+            return null;
+        }
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        String name = log.getFileName().toString();
+        Entry entry = cache.get(name);
+        if (entry == null || !entry.matches(size, modified)) {
+            entry = load(name);
+            if (entry == null || !entry.matches(size, modified)) {
+                return null;
+            }
+            cache.put(name, entry);
+        }
+        return entry.tokens;
+    }
+
+    /**
+     * 保存词表
+     *
+     * @param size     扫描前日志的大小
+     * @param modified 扫描前日志的修改时间（毫秒）
+     */
+    void put(Path log, long size, long modified, Set<String> tokens) throws IOException {
+        String name = log.getFileName().toString();
+        Files.createDirectories(indexDir);
+        Path target = indexDir.resolve(name + SUFFIX);
+        Path tmp = indexDir.resolve(name + SUFFIX + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            writer.write(HEADER + " " + size + " " + modified);
+            writer.newLine();
+            for (String token : tokens) {
+                writer.write(token);
+                writer.newLine();
+            }
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        cache.put(name, new Entry(size, modified, Set.copyOf(tokens)));
+    }
+
+    /**
+     * 扫描日志建立词表（在调用线程上执行），失败只输出错误
+     */
+    public void update(Path log) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(log, BasicFileAttributes.class);
+            Set<String> tokens = new HashSet<>();
+            LogSearch.forEachText(log, text -> tokenize(text, tokens));
+            put(log, attributes.size(), attributes.lastModifiedTime().toMillis(), tokens);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("建立日志索引失败: " + log.getFileName() + " " + e.getMessage());
+        }
+    }
+
+    /**
+     * 日志删除后移除对应的词表
+     */
+    public void remove(String logName) {
+        cache.remove(logName);
+        try {
+            Files.deleteIfExists(indexDir.resolve(logName + SUFFIX));
+        } catch (IOException e) {
+            System.err.println("删除日志索引失败: " + e.getMessage());
+        }
+    }
+
+    private Entry load(String name) {
+        try (BufferedReader reader = Files.newBufferedReader(indexDir.resolve(name + SUFFIX), StandardCharsets.UTF_8)) {
+            String[] header = String.valueOf(reader.readLine()).split(" ");
+            if (header.length != 4 || !HEADER.equals(header[0] + " " + header[1])) {
+                return null;
+            }
+            Set<String> tokens = new HashSet<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                tokens.add(line);
+            }
+            return new Entry(Long.parseLong(header[2]), Long.parseLong(header[3]), Set.copyOf(tokens));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("读取日志索引失败: " + name + " " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 把文本中的词加入集合
+     */
+    static void tokenize(CharSequence text, Set<String> into) {
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            if (isHan(c)) {
+                if (start >= 0) {
+                    into.add(token(text, start, i));
+                    start = -1;
+                }
+                into.add(String.valueOf(c));
+            } else if (Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                into.add(token(text, start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            into.add(token(text, start, length));
+        }
+    }
+
+    /**
+     * 词表能否排除文本查询：查询内部完整的词须在词表中，查询两端的词可能只是某个词的一部分，按前缀/后缀/子串比较
+     *
+     * @return false 表示该日志一定不包含 query
+     */
+    static boolean mayContain(Set<String> tokens, String query) {
+        int length = query.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? query.charAt(i) : ' ';
+            if (i < length && isHan(c)) {
+                if (start >= 0 && !matches(tokens, query, start, i)) {
+                    return false;
+                }
+                start = -1;
+                if (!tokens.contains(String.valueOf(c))) {
+                    return false;
+                }
+            } else if (i < length && Character.isLetterOrDigit(c)) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                if (!matches(tokens, query, start, i)) {
+                    return false;
+                }
+                start = -1;
+            }
+        }
+        return true;
+    }
+
+    private static boolean matches(Set<String> tokens, String query, int start, int end) {
+        if (end - start >= MAX_TOKEN) {
+            // 词表中只有前缀，无法判断
+            return true;
+        }
+        String word = query.substring(start, end).toLowerCase(Locale.ROOT);
+        boolean openLeft = start == 0;
+        boolean openRight = end == query.length();
+        if (!openLeft && !openRight) {
+            return tokens.contains(word);
+        }
+        for (String token : tokens) {
+            // 截断过的词结尾未知
+            if (openLeft && token.length() == MAX_TOKEN) {
+                return true;
+            }
+            if (openLeft && openRight ? token.contains(word)
+                    : openLeft ? token.endsWith(word) : token.startsWith(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String token(CharSequence text, int start, int end) {
+        return text.subSequence(start, Math.min(end, start + MAX_TOKEN)).toString().toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isHan(char c) {
+        return c >= '\u2E80' && Character.UnicodeScript.of(c) == Character.UnicodeScript.HAN;
+    }
+
+    private record Entry(long size, long modified, Set<String> tokens) {
+        boolean matches(long size, long modified) {
+            return this.size == size && this.modified == modified;
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.log;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 以只读映射访问的日志文件
+ * <p>
+ * 文件按 1 GB 分区映射，读取时直接从映射区解码所需的行，不把文件读入堆内存。行号索引是稀疏的：
+ * 后台线程顺序扫描一遍，每 {@value #INDEX_STEP} 行记录一个行首偏移。按偏移读取不依赖索引；
+ * 按行号定位时从不超过目标的最近记录点向后数换行，未索引到的部分同样可以定位，只是扫描更长。
+ * <p>
+ * 超过 {@value #MAX_LINE} 字节的行显示时折成多行，行号仍按换行符计算。
+ */
+public final class MappedLogFile implements Closeable {
+    // 单个映射区以 int 寻址，按 1 GB 分区
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+    static final int INDEX_STEP = 1024;
+    static final int MAX_LINE = 16 * 1024;
+    // 索引进度的通知间隔
+    private static final long PROGRESS_BYTES = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final MappedByteBuffer[] chunks;
+    private volatile boolean closed;
+
+    // checkpoints[k] 为第 k * INDEX_STEP 行（从 0 起）的行首偏移，仅由索引线程追加
+    private volatile long[] checkpoints = new long[1024];
+    private volatile int checkpointCount;
+    private volatile long indexedBytes;
+    private volatile long indexedLines;
+    private volatile boolean indexed;
+
+    public MappedLogFile(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        int count = (int) ((size + CHUNK_MASK) >>> CHUNK_SHIFT);
+        this.chunks = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            long base = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, base, Math.min(CHUNK_MASK + 1, size - base));
+        }
+        checkpoints[0] = 0;
+        checkpointCount = 1;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return 索引是否已扫描到文件结尾
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    public long getIndexedBytes() {
+        return indexedBytes;
+    }
+
+    /**
+     * @return 已扫描部分的行数；索引完成后为文件总行数
+     */
+    public long getIndexedLines() {
+        return indexedLines;
+    }
+
+    /**
+     * 顺序扫描整个文件建立稀疏行索引，在调用线程上执行直到完成或关闭
+     *
+     * @param onProgress 每扫描一段以及完成时调用（在调用线程上）
+     */
+    public void index(Consumer<MappedLogFile> onProgress) {
+        long lines = 0;
+        long nextReport = PROGRESS_BYTES;
+        for (int c = 0; c < chunks.length; c++) {
+            MappedByteBuffer chunk = chunks[c];
+            long base = (long) c << CHUNK_SHIFT;
+            int limit = chunk.limit();
+            for (int i = 0; i < limit; i++) {
+                if (chunk.get(i) == '\n' && ++lines % INDEX_STEP == 0) {
+                    addCheckpoint(base + i + 1);
+                }
+                if (base + i == nextReport) {
+                    if (closed) {
+                        return;
+                    }
+                    indexedLines = lines;
+                    indexedBytes = base + i;
+                    nextReport += PROGRESS_BYTES;
+                    onProgress.accept(this);
+                }
+            }
+        }
+        // 末行没有换行符时也计为一行
+        if (size > 0 && get(size - 1) != '\n') {
+            lines++;
+        }
+        indexedLines = lines;
+        indexedBytes = size;
+        indexed = true;
+        onProgress.accept(this);
+    }
+
+    private void addCheckpoint(long offset) {
+        long[] array = checkpoints;
+        int count = checkpointCount;
+        if (count == array.length) {
+            array = Arrays.copyOf(array, count * 2);
+            checkpoints = array;
+        }
+        array[count] = offset;
+        checkpointCount = count + 1;
+    }
+
+    /**
+     * 定位行首，不依赖索引进度（未索引部分在调用线程上扫描）
+     *
+     * @param line 行号，从 0 起
+     * @return 行首偏移；超出文件行数或已关闭时为 -1
+     */
+    public long seekLine(long line) {
+        int count = checkpointCount;
+        long[] array = checkpoints;
+        int k = (int) Math.min(line / INDEX_STEP, count - 1);
+        long pos = array[k];
+        long remaining = line - (long) k * INDEX_STEP;
+        while (remaining > 0) {
+            if (pos >= size || closed) {
+                return -1;
+            }
+            if (get(pos++) == '\n') {
+                remaining--;
+            }
+        }
+        return pos < size || line == 0 ? pos : -1;
+    }
+
+    /**
+     * 偏移所在的行号，只在索引已覆盖该偏移时计算（最多向后数 {@value #INDEX_STEP} 行）
+     *
+     * @return 行号（从 0 起）；尚未索引到时为 -1
+     */
+    public long lineOf(long offset) {
+        if (offset > indexedBytes && !indexed) {
+            return -1;
+        }
+        int count = checkpointCount;
+        long[] array = checkpoints;
+        int k = Arrays.binarySearch(array, 0, count, offset);
+        if (k < 0) {
+            k = -k - 2;
+        }
+        long line = (long) k * INDEX_STEP;
+        for (long pos = array[k]; pos < offset; pos++) {
+            if (get(pos) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    /**
+     * @return 包含 offset 处字节的行的行首；行长超过 {@value #MAX_LINE} 时为向前最多该长度处的字符边界
+     */
+    public long lineStart(long offset) {
+        if (size == 0) {
+            return 0;
+        }
+        offset = Math.min(offset, size - 1);
+        long floor = Math.max(0, offset - MAX_LINE);
+        long pos = offset;
+        while (pos > floor && get(pos - 1) != '\n') {
+            pos--;
+        }
+        if (pos == 0 || get(pos - 1) == '\n') {
+            return pos;
+        }
+        return charBoundary(pos);
+    }
+
+    /**
+     * @return 从 offset 所在行向前数 rows 行的行首
+     */
+    public long rowsBefore(long offset, int rows) {
+        long start = lineStart(offset);
+        for (int i = 0; i < rows && start > 0; i++) {
+            start = lineStart(start - 1);
+        }
+        return start;
+    }
+
+    /**
+     * 从行首 offset 起读取至多 maxRows 行
+     */
+    public Page read(long offset, int maxRows) {
+        List<String> rows = new ArrayList<>(maxRows);
+        long[] offsets = new long[maxRows];
+        long pos = offset;
+        byte[] buffer = new byte[MAX_LINE];
+        while (rows.size() < maxRows && pos < size) {
+            long limit = Math.min(size, pos + MAX_LINE);
+            long end = pos;
+            while (end < limit && get(end) != '\n') {
+                end++;
+            }
+            long next;
+            if (end < limit) {
+                next = end + 1;
+            } else if (end == size) {
+                next = size;
+            } else {
+                // 超长行在字符边界处折行
+                end = charBoundary(end);
+                if (end == pos) {
+                    end = limit;
+                }
+                next = end;
+            }
+            int length = (int) (end - pos);
+            if (length > 0 && get(end - 1) == '\r') {
+                length--;
+            }
+            copy(pos, buffer, length);
+            offsets[rows.size()] = pos;
+            rows.add(new String(buffer, 0, length, StandardCharsets.UTF_8));
+            pos = next;
+        }
+        return new Page(Arrays.copyOf(offsets, rows.size()), rows, pos);
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        // 映射区在不再被引用后由 GC 释放
+        channel.close();
+    }
+
+    private byte get(long pos) {
+        return chunks[(int) (pos >>> CHUNK_SHIFT)].get((int) (pos & CHUNK_MASK));
+    }
+
+    private void copy(long pos, byte[] target, int length) {
+        for (int i = 0; i < length; ) {
+            long at = pos + i;
+            MappedByteBuffer chunk = chunks[(int) (at >>> CHUNK_SHIFT)];
+            int index = (int) (at & CHUNK_MASK);
+            int n = Math.min(length - i, chunk.limit() - index);
+            chunk.get(index, target, i, n);
+            i += n;
+        }
+    }
+
+    /**
+     * @return 不晚于 pos 的 UTF-8 字符起始位置
+     */
+    private long charBoundary(long pos) {
+        long floor = Math.max(0, pos - 3);
+        while (pos > floor && (get(pos) & 0xC0) == 0x80) {
+            pos--;
+        }
+        return pos;
+    }
+
+    /**
+     * 一页显示行
+     *
+     * @param offsets 各行的起始偏移
+     * @param rows    各行文本（不含换行符）
+     * @param end     下一页的起始偏移
+     */
+    public record Page(long[] offsets, List<String> rows, long end) {
+    }
+}
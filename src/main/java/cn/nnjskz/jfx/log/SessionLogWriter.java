@@ -0,0 +1,348 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.log;
+
+import cn.nnjskz.jfx.chat.MessageFormatter;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.utils.AppExecutors;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 会话日志：聊天区的每条消息按相同格式持续写入日志目录
+ * <p>
+ * 任意线程通过 {@link #offer} 入队后立即返回（数据块只 retain），由唯一的写线程批量格式化并经缓冲写出，
+ * 每批结束后按 {@link FsyncPolicy} 落盘。当前段达到大小或时长上限时切换到新段，旧段在后台线程压缩为 .gz，
+ * 之后按总字节数删除最早的段。段文件名为 {@code session_<主机>_<端口>_<毫秒>.log[.gz]}，与手动保存的日志同列在日志列表中。
+ */
+public final class SessionLogWriter implements Closeable {
+    static final String PREFIX = "session_";
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int MAX_BATCH = 1024;
+    private static final int WRITE_BUFFER = 64 * 1024;
+    // 空闲时检查按时长切换与定时落盘的周期
+    private static final long IDLE_POLL_MILLIS = 500;
+    private static final Entry STOP = new Entry(null, null, 0, false);
+    // 本进程中正在写入或等待压缩的段（绝对路径）
+    private static final Set<Path> WRITING = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 落盘策略
+     */
+    public enum FsyncPolicy {
+        /**
+         * 每批写出后 fsync
+         */
+        BATCH,
+        /**
+         * 距上次 fsync 超过间隔时才 fsync
+         */
+        INTERVAL,
+        /**
+         * 只写入操作系统缓存，由系统决定何时落盘
+         */
+        NONE;
+
+        public static FsyncPolicy of(String name) {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    private final Path dir;
+    private final String name;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalNanos;
+    private final long rotateBytes;
+    private final long rotateNanos;
+    private final long retentionBytes;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed;
+
+    // 当前段与等待压缩的段，按总大小清理时既不计入也不删除
+    private volatile Path segment;
+    private final Set<Path> compressing = ConcurrentHashMap.newKeySet();
+    // 以下仅由写线程访问
+    private FileChannel channel;
+    private Writer out;
+    private long segmentBytes;
+    private long segmentStartNanos;
+    private long lastFsyncNanos;
+    private boolean dirty;
+
+    /**
+     * @param dir                日志目录
+     * @param name               会话名称，用于段文件名（如 主机_端口）
+     * @param fsyncPolicy        落盘策略
+     * @param fsyncIntervalMillis {@link FsyncPolicy#INTERVAL} 的间隔
+     * @param rotateBytes        单段大小上限（字节），0 表示不按大小切换
+     * @param rotateMillis       单段时长上限，0 表示不按时间切换
+     * @param retentionBytes     全部会话日志段的总大小上限，0 表示不限
+     */
+    public SessionLogWriter(Path dir, String name, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis,
+                     long rotateBytes, long rotateMillis, long retentionBytes) throws IOException {
+        this.dir = dir.toAbsolutePath().normalize();
+        this.name = name;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(fsyncIntervalMillis);
+        this.rotateBytes = rotateBytes;
+        this.rotateNanos = TimeUnit.MILLISECONDS.toNanos(rotateMillis);
+        this.retentionBytes = retentionBytes;
+        Files.createDirectories(dir);
+        openSegment();
+        this.writer = new Thread(this::writeLoop, "session-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * 是否为会话日志段
+     */
+    public static boolean isSegment(String fileName) {
+        return fileName.startsWith(PREFIX);
+    }
+
+    /**
+     * 是否为本进程中尚未写完的段（正在写入，或已关闭、等待压缩为 .gz）
+     */
+    static boolean isWriting(Path file) {
+        return WRITING.contains(file.toAbsolutePath().normalize());
+    }
+
+    /**
+     * 入队一条消息，写出后释放数据块；写线程跟不上时丢弃并计数
+     */
+    public void offer(String labelPrefix, PooledBuffer data, long timestamp, boolean isHex) {
+        if (closed) {
+            return;
+        }
+        data.retain();
+        if (!queue.offer(new Entry(labelPrefix, data, timestamp, isHex))) {
+            data.release();
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * @return 队列已满而未写入的消息数
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            queue.put(STOP);
+            writer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        boolean stop = false;
+        try {
+            while (!stop) {
+                Entry first = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    Entry entry = batch.set(i, null);
+                    if (entry == STOP) {
+                        stop = true;
+                        continue;
+                    }
+                    try {
+                        write(entry);
+                    } finally {
+                        entry.data.release();
+                    }
+                    if (rotateBytes > 0 && segmentBytes >= rotateBytes) {
+                        rotate();
+                    }
+                }
+                batch.clear();
+                if (dirty) {
+                    out.flush();
+                    segmentBytes = channel.position();
+                    sync(false);
+                }
+                if (rotateNanos > 0 && segmentBytes > 0 && System.nanoTime() - segmentStartNanos >= rotateNanos) {
+                    rotate();
+                }
+            }
+        } catch (InterruptedException ignored) {
+        } catch (IOException e) {
+            System.err.println("会话日志写入失败: " + e.getMessage());
+        } finally {
+            closed = true;
+            for (Entry entry : batch) {
+                if (entry != null && entry != STOP) {
+                    entry.data.release();
+                }
+            }
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                if (entry != STOP) {
+                    entry.data.release();
+                }
+            }
+            try {
+                closeSegment();
+            } catch (IOException e) {
+                System.err.println("关闭会话日志失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private void write(Entry entry) throws IOException {
+        PooledBuffer data = entry.data;
+        String record = MessageFormatter.head(entry.timestamp, entry.labelPrefix, data.length(),
+                entry.isHex ? MessageFormatter.HEX_MARK : "") + MessageFormatter.body(data, entry.isHex, null) + "\n\n";
+        out.write(record);
+        // 批内按字符数估算，每批写出后以实际位置校正
+        segmentBytes += record.length();
+        dirty = true;
+    }
+
+    private void sync(boolean force) throws IOException {
+        long now = System.nanoTime();
+        if (force || fsyncPolicy == FsyncPolicy.BATCH
+                || fsyncPolicy == FsyncPolicy.INTERVAL && now - lastFsyncNanos >= fsyncIntervalNanos) {
+            channel.force(false);
+            lastFsyncNanos = now;
+            dirty = false;
+        } else if (fsyncPolicy == FsyncPolicy.NONE) {
+            dirty = false;
+        }
+    }
+
+    private void openSegment() throws IOException {
+        segment = dir.resolve(PREFIX + name + "_" + System.currentTimeMillis() + ".log");
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        WRITING.add(segment);
+        out = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8), WRITE_BUFFER);
+        segmentBytes = 0;
+        segmentStartNanos = System.nanoTime();
+        lastFsyncNanos = segmentStartNanos;
+        dirty = false;
+    }
+
+    private void closeSegment() throws IOException {
+        if (channel == null) {
+            return;
+        }
+        out.flush();
+        if (fsyncPolicy != FsyncPolicy.NONE) {
+            channel.force(false);
+        }
+        out.close();
+        channel = null;
+        Path closedSegment = segment;
+        if (segmentBytes == 0) {
+            Files.deleteIfExists(closedSegment);
+            WRITING.remove(closedSegment);
+            return;
+        }
+        // 压缩与清理不占用写线程
+        compressing.add(closedSegment);
+        AppExecutors.getInstance().getBackgroundFixedExecutor().execute(() -> compress(closedSegment));
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        openSegment();
+    }
+
+    private void compress(Path file) {
+        Path target = file.resolveSibling(file.getFileName() + ".gz");
+        Path tmp = file.resolveSibling(file.getFileName() + ".gz.tmp");
+        try {
+            try (InputStream in = Files.newInputStream(file);
+                 OutputStream gz = new GZIPOutputStream(Files.newOutputStream(tmp), WRITE_BUFFER)) {
+                in.transferTo(gz);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            // 保持与原文件相同的修改时间，日志列表按时间排序
+            Files.setLastModifiedTime(target, Files.getLastModifiedTime(file));
+            Files.delete(file);
+            compressing.remove(file);
+            WRITING.remove(file);
+            LogTokenIndex.of(dir).update(target);
+            enforceRetention();
+        } catch (IOException e) {
+            System.err.println("压缩会话日志失败: " + e.getMessage());
+            compressing.remove(file);
+            WRITING.remove(file);
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 按总字节数从最早的段开始删除
+     */
+    private synchronized void enforceRetention() throws IOException {
+        if (retentionBytes <= 0) {
+            return;
+        }
+        List<Path> segments;
+        try (var stream = Files.list(dir)) {
+            Path active = segment;
+            segments = stream.filter(f -> isSegment(f.getFileName().toString())
+                            && !f.getFileName().toString().endsWith(".tmp")
+                            && !f.equals(active) && !compressing.contains(f))
+                    .sorted(Comparator.comparing(f -> f.toFile().lastModified()))
+                    .toList();
+        }
+        long total = 0;
+        for (Path f : segments) {
+            total += Files.size(f);
+        }
+        for (Path f : segments) {
+            if (total <= retentionBytes) {
+                break;
+            }
+            total -= Files.size(f);
+            Files.deleteIfExists(f);
+            LogTokenIndex.of(dir).remove(f.getFileName().toString());
+        }
+    }
+
+    private record Entry(String labelPrefix, PooledBuffer data, long timestamp, boolean isHex) {
+    }
+}
@@ -10,12 +10,26 @@ package cn.nnjskz.jfx.model;
 public class HistoryConn {
     private String host;
     private Integer port;
+    // 使用次数
+    private Long useCount;
+    // 最近使用时间（毫秒），旧格式历史为 0
+    private Long lastUsed;
+    // 最近一次连接耗时（毫秒），未知为 -1
+    private Long latency;
 
     public HistoryConn(String host, Integer port) {
         this.host = host;
         this.port = port;
     }
 
+    public HistoryConn(String host, Integer port, Long useCount, Long lastUsed, Long latency) {
+        this.host = host;
+        this.port = port;
+        this.useCount = useCount;
+        this.lastUsed = lastUsed;
+        this.latency = latency;
+    }
+
     public HistoryConn() {
     }
 
@@ -34,4 +48,28 @@ public class HistoryConn {
     public void setPort(Integer port) {
         this.port = port;
     }
+
+    public Long getUseCount() {
+        return useCount;
+    }
+
+    public void setUseCount(Long useCount) {
+        this.useCount = useCount;
+    }
+
+    public Long getLastUsed() {
+        return lastUsed;
+    }
+
+    public void setLastUsed(Long lastUsed) {
+        this.lastUsed = lastUsed;
+    }
+
+    public Long getLatency() {
+        return latency;
+    }
+
+    public void setLatency(Long latency) {
+        this.latency = latency;
+    }
 }
@@ -15,6 +15,9 @@ public class HistoryLogs {
     private String logName;
     private Long logSize;
     private String logTime;
+    private String logMessages;
+    private String logPeer;
+    private String logDuration;
 
     public HistoryLogs(Integer logSeq, String logName, Long logSize, String logTime) {
         this.logSeq = logSeq;
@@ -23,6 +26,14 @@ public class HistoryLogs {
         this.logTime = logTime;
     }
 
+    public HistoryLogs(Integer logSeq, String logName, Long logSize, String logTime,
+                       String logMessages, String logPeer, String logDuration) {
+        this(logSeq, logName, logSize, logTime);
+        this.logMessages = logMessages;
+        this.logPeer = logPeer;
+        this.logDuration = logDuration;
+    }
+
     public HistoryLogs() {
     }
 
@@ -57,4 +68,28 @@ public class HistoryLogs {
     public void setLogTime(String logTime) {
         this.logTime = logTime;
     }
+
+    public String getLogMessages() {
+        return logMessages;
+    }
+
+    public void setLogMessages(String logMessages) {
+        this.logMessages = logMessages;
+    }
+
+    public String getLogPeer() {
+        return logPeer;
+    }
+
+    public void setLogPeer(String logPeer) {
+        this.logPeer = logPeer;
+    }
+
+    public String getLogDuration() {
+        return logDuration;
+    }
+
+    public void setLogDuration(String logDuration) {
+        this.logDuration = logDuration;
+    }
 }
@@ -0,0 +1,47 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.model;
+
+/**
+ * 历史日志搜索的一条命中
+ */
+public class LogSearchHit {
+    private final String logName;
+    private final String location;
+    private final String content;
+    private final long offset;
+
+    /**
+     * @param logName  日志文件名
+     * @param location 位置描述（偏移、行号或记录序号）
+     * @param content  命中附近的内容
+     * @param offset   命中行在文本日志中的字节偏移，不能直接定位时为 -1
+     */
+    public LogSearchHit(String logName, String location, String content, long offset) {
+        this.logName = logName;
+        this.location = location;
+        this.content = content;
+        this.offset = offset;
+    }
+
+    public String getLogName() {
+        return logName;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+}
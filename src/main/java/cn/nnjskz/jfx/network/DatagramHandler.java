@@ -0,0 +1,27 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+
+import java.net.InetSocketAddress;
+
+/**
+ * UDP 接收回调
+ * <p>
+ * 在接收线程上直接调用，数据为原始字节不做解码；{@code data} 的持有规则同 {@link ReceiveHandler}。
+ */
+@FunctionalInterface
+public interface DatagramHandler {
+    /**
+     * @param sender    发送方地址
+     * @param data      报文数据（超过最大报文长度时已被截断）
+     * @param timestamp 接收时间（纪元纳秒）
+     */
+    void onReceive(InetSocketAddress sender, PooledBuffer data, long timestamp);
+}
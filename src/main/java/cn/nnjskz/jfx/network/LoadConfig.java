@@ -0,0 +1,51 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+/**
+ * TCP压测参数
+ *
+ * @param host              目标主机
+ * @param port              目标端口
+ * @param connections       并发连接数
+ * @param rampUpPerSecond   每秒新建连接数，0 表示一次性全部发起
+ * @param payload           每条消息的内容
+ * @param messagesPerSecond 所有连接合计的目标发送速率（条/秒），0 表示不限速
+ * @param durationMillis    持续时间，0 表示不限
+ * @param messageCount      发送总条数，0 表示不限
+ */
+public record LoadConfig(String host,
+                         int port,
+                         int connections,
+                         int rampUpPerSecond,
+                         byte[] payload,
+                         double messagesPerSecond,
+                         long durationMillis,
+                         long messageCount) {
+    public LoadConfig {
+        if (connections <= 0) {
+            throw new IllegalArgumentException("连接数必须为正数: " + connections);
+        }
+        if (rampUpPerSecond < 0 || messagesPerSecond < 0 || durationMillis < 0 || messageCount < 0) {
+            throw new IllegalArgumentException("速率、时长与条数不能为负数");
+        }
+        if (payload == null || payload.length == 0) {
+            throw new IllegalArgumentException("发送内容不能为空");
+        }
+    }
+
+    /**
+     * 由目标带宽换算目标消息速率
+     * @param bytesPerSecond 字节/秒
+     * @param payloadLength  单条消息长度
+     * @return 条/秒
+     */
+    public static double messagesPerSecondOf(double bytesPerSecond, int payloadLength) {
+        return bytesPerSecond / payloadLength;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+/**
+ * TCP压测统计快照，速率由调用方对相邻两次快照求差得到
+ *
+ * @param connections     目标连接数
+ * @param connected       当前已建立的连接数
+ * @param connecting      正在建立的连接数
+ * @param connectFailures 连接失败（拒绝、超时等）次数
+ * @param disconnected    建立后被对端断开的连接数
+ * @param sentMessages    已完整写出的消息数
+ * @param sentBytes       已写出的字节数
+ * @param receivedBytes   已接收的字节数
+ * @param elapsedNanos    自开始以来经过的时间
+ * @param finished        是否已结束
+ */
+public record LoadStats(int connections,
+                        int connected,
+                        int connecting,
+                        long connectFailures,
+                        long disconnected,
+                        long sentMessages,
+                        long sentBytes,
+                        long receivedBytes,
+                        long elapsedNanos,
+                        boolean finished) {
+}
@@ -0,0 +1,457 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import cn.nnjskz.jfx.network.buffer.BufferPool;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.codec.CorruptedFrameException;
+import cn.nnjskz.jfx.network.codec.FrameDecoder;
+import cn.nnjskz.jfx.network.codec.FramingConfig;
+import cn.nnjskz.jfx.utils.AppExecutors;
+import cn.nnjskz.jfx.utils.NanoClock;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 基于 ServerSocketChannel/Selector 的TCP服务端
+ * <p>
+ * 一个接收线程负责 accept，已建立的连接按轮询方式分配给少量事件循环线程（默认与CPU核数相同），
+ * 读取直接落入池化的块并在回调结束后归还，连接数不再决定线程数与缓冲区内存。
+ */
+public class NioTcpServerService implements TcpServer {
+    private static final long SELECT_TIMEOUT_MS = 1000;
+
+    private final Integer port;
+    private final String bufSize;
+    private final Integer heartbeat;
+    private final int eventLoopCount;
+    private final WriteQueueConfig writeQueueConfig;
+    private ServerSocketChannel serverChannel;
+    private EventLoop[] eventLoops;
+    private final AtomicInteger nextLoop = new AtomicInteger();
+    private final Map<Socket, OutputStream> writersMap = new ConcurrentHashMap<>();
+    private final Map<Long, Connection> connections = new ConcurrentHashMap<>();
+    private final Map<Long, OutboundQueue> outboundQueues = new ConcurrentHashMap<>();
+    private final AtomicLong connectionSeq = new AtomicLong();
+    private volatile ReceiveHandler receive;
+    private volatile Consumer<String> infoCall;
+    private volatile Runnable onDisconnect;
+    private volatile FramingConfig framing = FramingConfig.NONE;
+    private volatile boolean closed;
+
+    public NioTcpServerService(Integer port, String bufSize, Integer heartbeat, int eventLoopCount) {
+        this(port, bufSize, heartbeat, eventLoopCount, WriteQueueConfig.DEFAULT);
+    }
+
+    public NioTcpServerService(Integer port, String bufSize, Integer heartbeat, int eventLoopCount, WriteQueueConfig writeQueueConfig) {
+        this.port = port;
+        this.bufSize = bufSize;
+        this.heartbeat = heartbeat;
+        this.eventLoopCount = Math.max(1, eventLoopCount);
+        this.writeQueueConfig = writeQueueConfig;
+    }
+
+    @Override
+    public void setOnDisconnect(Runnable onDisconnect) {
+        this.onDisconnect = onDisconnect;
+    }
+
+    @Override
+    public void setReceive(ReceiveHandler receive) {
+        this.receive = receive;
+    }
+
+    @Override
+    public void setInfoCall(Consumer<String> infoCall) {
+        this.infoCall = infoCall;
+    }
+
+    @Override
+    public void setFraming(FramingConfig framing) {
+        this.framing = framing;
+    }
+
+    @Override
+    public Map<Socket, OutputStream> getWritersMap() {
+        return writersMap;
+    }
+
+    @Override
+    public Map<Long, OutboundQueue> getOutboundQueues() {
+        return outboundQueues;
+    }
+
+    @Override
+    public void openConnect() throws IOException {
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        eventLoops = new EventLoop[eventLoopCount];
+        for (int i = 0; i < eventLoopCount; i++) {
+            eventLoops[i] = new EventLoop(i);
+            eventLoops[i].start();
+        }
+        AppExecutors.getInstance().getBlockingIoExecutor().execute(this::acceptLoop);
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            SocketChannel channel;
+            try {
+                channel = serverChannel.accept();
+            } catch (IOException e) {
+                // 非主动关闭导致的监听失败，按服务断开处理
+                if (!closed && onDisconnect != null) {
+                    onDisconnect.run();
+                }
+                return;
+            }
+            try {
+                channel.configureBlocking(false);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            } catch (IOException e) {
+                // 单个连接设置失败（例如对端已重置）只关闭该连接，继续接受其他客户端
+                System.err.println("客户端接入失败: " + e.getMessage());
+                try {
+                    channel.close();
+                } catch (IOException ignored) {
+                }
+                continue;
+            }
+            Connection conn = new Connection(connectionSeq.incrementAndGet(), channel);
+            connections.put(conn.id, conn);
+            outboundQueues.put(conn.id, conn.queue);
+            writersMap.put(conn.socket, conn.out);
+            EventLoop loop = eventLoops[Math.floorMod(nextLoop.getAndIncrement(), eventLoops.length)];
+            notifyInfo("客户端->" + conn.socket.getRemoteSocketAddress() + "已连接");
+            loop.register(conn);
+        }
+    }
+
+    @Override
+    public void send(byte[] message) {
+        // 广播只复制一次，各连接共享同一份只读数据
+        ByteBuffer shared = ByteBuffer.wrap(message.clone()).asReadOnlyBuffer();
+        for (Connection conn : connections.values()) {
+            conn.enqueue(shared.duplicate());
+        }
+    }
+
+    @Override
+    public void send(byte[] message, long connectionId) {
+        Connection conn = connections.get(connectionId);
+        if (conn != null) {
+            conn.enqueue(ByteBuffer.wrap(message.clone()));
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        receive = null;
+        infoCall = null;
+        onDisconnect = null;
+        try {
+            if (serverChannel != null && serverChannel.isOpen()) {
+                serverChannel.close();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("关闭连接失败: " + e.getMessage(), e);
+        } finally {
+            if (eventLoops != null) {
+                for (EventLoop loop : eventLoops) {
+                    loop.shutdown();
+                }
+            }
+            for (Connection conn : connections.values()) {
+                conn.closeQuietly();
+            }
+            connections.clear();
+            outboundQueues.clear();
+            writersMap.clear();
+        }
+    }
+
+    @Override
+    public String getRemoteAddress(long connectionId) {
+        Connection conn = connections.get(connectionId);
+        return conn == null ? null : conn.socket.getRemoteSocketAddress().toString().replaceAll("/", "");
+    }
+
+    private boolean isEventLoopThread() {
+        EventLoop[] loops = eventLoops;
+        if (loops != null) {
+            Thread current = Thread.currentThread();
+            for (EventLoop l : loops) {
+                if (l.thread == current) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+        private void notifyInfo(String msg) {
+        Consumer<String> call = infoCall;
+        if (call != null) {
+            call.accept(msg);
+        }
+    }
+
+    private int readSize(SocketChannel channel) throws IOException {
+        if ("auto".equals(bufSize)) {
+            return Math.min(32 * 1024, channel.getOption(StandardSocketOptions.SO_RCVBUF));
+        }
+        return Integer.parseInt(bufSize);
+    }
+
+    /**
+     * 单个客户端连接
+     */
+    private final class Connection {
+        private final long id;
+        private final SocketChannel channel;
+        private final Socket socket;
+        private final OutboundQueue queue = new OutboundQueue(writeQueueConfig);
+        private final AtomicBoolean flushScheduled = new AtomicBoolean();
+        private final OutputStream out = new QueueOutputStream(this::enqueue);
+        private final FrameDecoder decoder = framing.newDecoder();
+        private EventLoop loop;
+        private SelectionKey key;
+        private BufferPool pool;
+        private long lastRead = System.nanoTime();
+
+        private Connection(long id, SocketChannel channel) {
+            this.id = id;
+            this.channel = channel;
+            this.socket = channel.socket();
+        }
+
+        private void enqueue(ByteBuffer data) {
+            // 事件循环线程（例如在接收回调中自动应答）不能阻塞，否则该循环上的所有连接都无法写出
+            OutboundQueue.OfferResult result = queue.offer(data, !isEventLoopThread());
+            EventLoop l = loop;
+            if (l == null) {
+                // 尚未注册到事件循环，注册完成后统一写出
+                return;
+            }
+            if (result == OutboundQueue.OfferResult.DISCONNECT) {
+                l.execute(() -> l.disconnect(this, "客户端->" + socket.getRemoteSocketAddress() + " 已断开（发送积压超过高水位）"));
+            } else if (result == OutboundQueue.OfferResult.ACCEPTED && flushScheduled.compareAndSet(false, true)) {
+                // 同一连接在事件循环中最多只挂一个写出任务
+                l.execute(() -> {
+                    flushScheduled.set(false);
+                    l.flush(this);
+                });
+            }
+        }
+
+        private void closeQuietly() {
+            queue.close();
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * 事件循环：一个 Selector + 一个线程
+     */
+    private final class EventLoop implements Runnable {
+        private final Selector selector;
+        private final Thread thread;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final Set<Connection> members = new HashSet<>();
+        private volatile boolean running = true;
+        private long lastIdleCheck = System.nanoTime();
+
+        private EventLoop(int index) throws IOException {
+            this.selector = Selector.open();
+            this.thread = new Thread(this, "nio-event-loop-" + port + "-" + index);
+            this.thread.setDaemon(true);
+        }
+
+        private void start() {
+            thread.start();
+        }
+
+        private void execute(Runnable task) {
+            tasks.add(task);
+            if (Thread.currentThread() != thread) {
+                selector.wakeup();
+            }
+        }
+
+        private void register(Connection conn) {
+            execute(() -> {
+                try {
+                    conn.pool = BufferPool.shared(readSize(conn.channel), true);
+                    conn.loop = this;
+                    conn.key = conn.channel.register(selector, SelectionKey.OP_READ, conn);
+                    members.add(conn);
+                    // 注册前已入队的数据
+                    flush(conn);
+                } catch (IOException e) {
+                    disconnect(conn, "客户端->" + conn.socket.getRemoteSocketAddress() + "已断开");
+                }
+            });
+        }
+
+        private void shutdown() {
+            running = false;
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            try {
+                while (running) {
+                    // 事件循环自己提交的任务（如接收回调中的回写）不会唤醒 select，有待执行任务时不等待
+                    if (tasks.isEmpty()) {
+                        selector.select(SELECT_TIMEOUT_MS);
+                    } else {
+                        selector.selectNow();
+                    }
+                    runTasks();
+                    Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                    while (it.hasNext()) {
+                        SelectionKey key = it.next();
+                        it.remove();
+                        Connection conn = (Connection) key.attachment();
+                        try {
+                            if (key.isValid() && key.isReadable()) {
+                                read(conn);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                flush(conn);
+                            }
+                        } catch (CancelledKeyException e) {
+                            // 连接已在其他线程关闭
+                            disconnect(conn, "客户端->" + conn.socket.getRemoteSocketAddress() + "已断开");
+                        }
+                    }
+                    checkIdle();
+                }
+            } catch (IOException | ClosedSelectorException ignored) {
+            } finally {
+                try {
+                    selector.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+
+        private void runTasks() {
+            Runnable task;
+            while ((task = tasks.poll()) != null) {
+                task.run();
+            }
+        }
+
+        private void read(Connection conn) {
+            PooledBuffer data = conn.pool.allocate();
+            try {
+                int len;
+                try {
+                    len = conn.channel.read(data.buffer());
+                } catch (IOException e) {
+                    disconnect(conn, "客户端->" + conn.socket.getRemoteSocketAddress() + "已断开");
+                    return;
+                }
+                if (len == -1) {
+                    disconnect(conn, "客户端->" + conn.socket.getRemoteSocketAddress() + "已断开");
+                    return;
+                }
+                if (len > 0) {
+                    conn.lastRead = System.nanoTime();
+                    data.setLength(len);
+                    ReceiveHandler handler = receive;
+                    long timestamp = NanoClock.epochNanos();
+                    if (conn.decoder != null) {
+                        try {
+                            conn.decoder.decode(data, frame -> {
+                                if (handler != null) {
+                                    handler.onReceive(conn.id, frame, timestamp);
+                                }
+                            });
+                        } catch (CorruptedFrameException e) {
+                            disconnect(conn, "客户端->" + conn.socket.getRemoteSocketAddress() + " 已断开（帧格式错误：" + e.getMessage() + "）");
+                        }
+                    } else if (handler != null) {
+                        handler.onReceive(conn.id, data, timestamp);
+                    }
+                }
+            } finally {
+                data.release();
+            }
+        }
+
+        private void flush(Connection conn) {
+            if (conn.key == null || !conn.key.isValid()) {
+                return;
+            }
+            try {
+                while (!conn.queue.isEmpty()) {
+                    if (conn.queue.drainTo(conn.channel) == 0) {
+                        // 内核发送缓冲区已满，等待可写事件
+                        conn.key.interestOps(conn.key.interestOps() | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                }
+                conn.key.interestOps(conn.key.interestOps() & ~SelectionKey.OP_WRITE);
+            } catch (IOException | CancelledKeyException e) {
+                disconnect(conn, "客户端->" + conn.socket.getRemoteSocketAddress() + " 已断开（发送失败）");
+            }
+        }
+
+        /**
+         * 心跳超时检查，与BIO引擎的 SO_TIMEOUT 语义保持一致：超过心跳时间未收到数据即断开
+         */
+        private void checkIdle() {
+            long now = System.nanoTime();
+            if (now - lastIdleCheck < TimeUnit.MILLISECONDS.toNanos(SELECT_TIMEOUT_MS)) {
+                return;
+            }
+            lastIdleCheck = now;
+            long timeout = TimeUnit.SECONDS.toNanos(heartbeat);
+            for (Connection conn : new ArrayList<>(members)) {
+                if (now - conn.lastRead > timeout) {
+                    disconnect(conn, "客户端->" + conn.socket.getRemoteSocketAddress() + "超时断开");
+                }
+            }
+        }
+
+        private void disconnect(Connection conn, String notify) {
+            members.remove(conn);
+            if (conn.key != null) {
+                conn.key.cancel();
+            }
+            conn.closeQuietly();
+            outboundQueues.remove(conn.id);
+            boolean removed = connections.remove(conn.id) != null;
+            writersMap.remove(conn.socket);
+            if (removed && !closed) {
+                notifyInfo(notify);
+            }
+        }
+    }
+}
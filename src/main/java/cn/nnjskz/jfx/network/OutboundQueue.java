@@ -0,0 +1,189 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 单个连接的有界发送队列
+ * <p>
+ * 多个发送方入队，单个写出方通过 {@link GatheringByteChannel#write(ByteBuffer[], int, int)} 批量写出。
+ * 积压超过高水位后进入不可写状态，直到回落到低水位以下；不可写期间的新消息按 {@link SlowConsumerPolicy} 处理。
+ */
+public final class OutboundQueue {
+    /**
+     * 单次聚合写出的最大消息数
+     */
+    private static final int MAX_GATHER = 64;
+
+    public enum OfferResult {
+        ACCEPTED, DROPPED, DISCONNECT
+    }
+
+    private final WriteQueueConfig config;
+    private final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    private final ByteBuffer[] gather = new ByteBuffer[MAX_GATHER];
+    private volatile long queuedBytes;
+    private volatile int queuedMessages;
+    private volatile long droppedMessages;
+    private volatile boolean writable = true;
+    private volatile boolean closed;
+
+    public OutboundQueue(WriteQueueConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * 入队。BLOCK 策略下可能阻塞调用线程
+     * @param data 待发送数据（入队后不得再修改）
+     * @return 入队结果
+     */
+    public OfferResult offer(ByteBuffer data) {
+        return offer(data, true);
+    }
+
+    /**
+     * 入队
+     * @param data     待发送数据（入队后不得再修改）
+     * @param mayBlock 调用线程是否允许阻塞；为 false 时（例如调用方就是写出线程）BLOCK 策略按 DROP 处理
+     * @return 入队结果
+     */
+    public OfferResult offer(ByteBuffer data, boolean mayBlock) {
+        int size = data.remaining();
+        lock.lock();
+        try {
+            if (closed) {
+                return OfferResult.DROPPED;
+            }
+            // 空队列总是接收，避免单条超过高水位的消息永久卡住
+            if (writable && queuedMessages > 0 && queuedBytes + size > config.highWatermark()) {
+                writable = false;
+            }
+            if (!writable) {
+                switch (config.policy()) {
+                    case DROP -> {
+                        droppedMessages++;
+                        return OfferResult.DROPPED;
+                    }
+                    case DISCONNECT -> {
+                        return OfferResult.DISCONNECT;
+                    }
+                    case BLOCK -> {
+                        if (!mayBlock) {
+                            // 等待的线程可能正是唯一的写出方，阻塞会永远等不到队列回落
+                            droppedMessages++;
+                            return OfferResult.DROPPED;
+                        }
+                        while (!writable && !closed) {
+                            notFull.await(100, TimeUnit.MILLISECONDS);
+                        }
+                        if (closed) {
+                            return OfferResult.DROPPED;
+                        }
+                    }
+                }
+            }
+            queue.addLast(data);
+            queuedBytes += size;
+            queuedMessages++;
+            return OfferResult.ACCEPTED;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            droppedMessages++;
+            return OfferResult.DROPPED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 将队首若干条消息聚合写出（仅允许单个写出方调用）
+     * @param channel 通道；非阻塞通道可能只写出一部分
+     * @return 本次写出的字节数
+     */
+    public long drainTo(GatheringByteChannel channel) throws IOException {
+        int n = 0;
+        lock.lock();
+        try {
+            Iterator<ByteBuffer> it = queue.iterator();
+            while (n < MAX_GATHER && it.hasNext()) {
+                gather[n++] = it.next();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (n == 0) {
+            return 0;
+        }
+        long written = channel.write(gather, 0, n);
+        lock.lock();
+        try {
+            // 仅移除已完整写出的消息，部分写出的保留在队首
+            while (!queue.isEmpty() && !queue.peekFirst().hasRemaining()) {
+                queue.pollFirst();
+                queuedMessages--;
+            }
+            queuedBytes -= written;
+            if (!writable && queuedBytes <= config.lowWatermark()) {
+                writable = true;
+                notFull.signalAll();
+            }
+        } finally {
+            lock.unlock();
+            for (int i = 0; i < n; i++) {
+                gather[i] = null;
+            }
+        }
+        return written;
+    }
+
+    public boolean isEmpty() {
+        return queuedMessages == 0;
+    }
+
+    /**
+     * 关闭队列，唤醒所有阻塞中的发送方并丢弃积压数据
+     */
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            queue.clear();
+            queuedBytes = 0;
+            queuedMessages = 0;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long getQueuedBytes() {
+        return queuedBytes;
+    }
+
+    public int getQueuedMessages() {
+        return queuedMessages;
+    }
+
+    public long getDroppedMessages() {
+        return droppedMessages;
+    }
+
+    public boolean isWritable() {
+        return writable;
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * 写入即入队的输出流，保持 {@link TcpServer#getWritersMap()} 原有的使用方式
+ */
+final class QueueOutputStream extends OutputStream {
+    private final Consumer<ByteBuffer> enqueue;
+
+    QueueOutputStream(Consumer<ByteBuffer> enqueue) {
+        this.enqueue = enqueue;
+    }
+
+    @Override
+    public void write(int b) {
+        enqueue.accept(ByteBuffer.wrap(new byte[]{(byte) b}));
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        enqueue.accept(ByteBuffer.wrap(Arrays.copyOfRange(b, off, off + len)));
+    }
+}
@@ -0,0 +1,26 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+
+/**
+ * 接收回调
+ * <p>
+ * 在网络线程上直接调用，不再包装 Map。{@code data} 仅在回调期间有效，
+ * 需要在回调之外使用时先 {@link PooledBuffer#retain()}，用完后 {@link PooledBuffer#release()}。
+ */
+@FunctionalInterface
+public interface ReceiveHandler {
+    /**
+     * @param connectionId 连接编号（服务端内唯一）
+     * @param data         接收到的数据
+     * @param timestamp    接收时间（纪元纳秒，见 {@link cn.nnjskz.jfx.utils.NanoClock}）
+     */
+    void onReceive(long connectionId, PooledBuffer data, long timestamp);
+}
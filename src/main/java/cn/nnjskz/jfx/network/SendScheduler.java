@@ -0,0 +1,191 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 高精度定时发送
+ * <p>
+ * 在独立线程上按 nanoTime 截止时间排定周期：第 k 个周期固定在 start + k * interval，单次发送偏慢不会累积漂移。
+ * 距截止时间较远时 park，最后 {@value #SPIN_NANOS} 纳秒自旋等待，间隔可低至 100µs 以下。
+ * 每个周期连续发送 burst 条；落后超过 {@value #MAX_CATCH_UP_TICKS} 个周期时不再补发，以当前时刻重新排定。
+ */
+public class SendScheduler {
+    /**
+     * 界面允许的最小发送间隔
+     */
+    public static final long MIN_INTERVAL_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    // parkNanos 的实际精度约为几十微秒，剩余时间小于该值时改为自旋
+    private static final long SPIN_NANOS = 100_000;
+    private static final int MAX_CATCH_UP_TICKS = 1000;
+
+    private final long intervalNanos;
+    private final int burst;
+    private final long count;
+    private final long durationNanos;
+    private final SendTask task;
+    private volatile Runnable onFinished;
+    private volatile boolean running;
+    private volatile boolean finished;
+    private volatile Thread thread;
+
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile long sent;
+    private volatile long skippedTicks;
+
+    /**
+     * @param intervalNanos 周期（纳秒）
+     * @param burst         每个周期发送的条数
+     * @param count         发送总条数，0 表示不限
+     * @param durationNanos 持续时间，0 表示不限
+     * @param task          发送动作
+     */
+    public SendScheduler(long intervalNanos, int burst, long count, long durationNanos, SendTask task) {
+        if (intervalNanos <= 0) {
+            throw new IllegalArgumentException("发送间隔必须为正数: " + intervalNanos);
+        }
+        if (burst < 1) {
+            throw new IllegalArgumentException("每次发送条数至少为 1: " + burst);
+        }
+        this.intervalNanos = intervalNanos;
+        this.burst = burst;
+        this.count = count;
+        this.durationNanos = durationNanos;
+        this.task = task;
+    }
+
+    /**
+     * 设置结束回调（在发送线程上调用）
+     */
+    public void setOnFinished(Runnable onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    public void start(String threadName) {
+        running = true;
+        startNanos = System.nanoTime();
+        Thread t = new Thread(this::run, threadName);
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    public void stop() {
+        running = false;
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    private void run() {
+        long origin = startNanos;
+        long start = origin;
+        long tick = 0;
+        long seq = 0;
+        try {
+            while (running) {
+                long deadline = start + tick * intervalNanos;
+                if (durationNanos > 0 && deadline - origin >= durationNanos) {
+                    break;
+                }
+                long wait = deadline - System.nanoTime();
+                if (wait > 0) {
+                    if (wait > SPIN_NANOS) {
+                        LockSupport.parkNanos(wait - SPIN_NANOS);
+                    } else {
+                        Thread.onSpinWait();
+                    }
+                    continue;
+                }
+                long behind = -wait / intervalNanos;
+                if (behind > MAX_CATCH_UP_TICKS) {
+                    // 严重落后（例如发送被阻塞），跳过的周期不再补发
+                    long skip = behind - MAX_CATCH_UP_TICKS;
+                    start += skip * intervalNanos;
+                    skippedTicks += skip;
+                    deadline = start + tick * intervalNanos;
+                }
+                for (int i = 0; i < burst && running; i++) {
+                    if (count > 0 && seq >= count) {
+                        running = false;
+                        break;
+                    }
+                    if (!task.send(seq, deadline)) {
+                        running = false;
+                        break;
+                    }
+                    sent = ++seq;
+                }
+                if (count > 0 && seq >= count) {
+                    break;
+                }
+                tick++;
+            }
+        } catch (RuntimeException e) {
+            System.err.println("send scheduler: " + e.getMessage());
+        } finally {
+            running = false;
+            endNanos = System.nanoTime();
+            finished = true;
+            Runnable callback = onFinished;
+            if (callback != null) {
+                callback.run();
+            }
+        }
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return 已发送条数
+     */
+    public long getSent() {
+        return sent;
+    }
+
+    /**
+     * @return 因严重落后而放弃的周期数
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    /**
+     * @return 已经过的时间；结束后为整个发送时长
+     */
+    public long getElapsedNanos() {
+        return (finished ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * 单条发送动作
+     */
+    @FunctionalInterface
+    public interface SendTask {
+        /**
+         * @param seq           序号，从 0 开始
+         * @param deadlineNanos 本周期的计划时刻（System.nanoTime 时基）
+         * @return 是否继续发送
+         */
+        boolean send(long seq, long deadlineNanos);
+    }
+}
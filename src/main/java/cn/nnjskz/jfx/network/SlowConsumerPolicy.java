@@ -0,0 +1,45 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+/**
+ * 慢消费者策略：客户端发送队列超过高水位后的处理方式
+ */
+public enum SlowConsumerPolicy {
+    /**
+     * 丢弃新消息，直到队列回落到低水位
+     */
+    DROP("丢弃"),
+    /**
+     * 断开该客户端
+     */
+    DISCONNECT("断开"),
+    /**
+     * 阻塞发送方，直到队列回落到低水位；NIO 服务端的事件循环线程上发送时（如自动应答）不阻塞，按丢弃处理
+     */
+    BLOCK("阻塞");
+
+    private final String label;
+
+    SlowConsumerPolicy(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static SlowConsumerPolicy ofLabel(String label) {
+        for (SlowConsumerPolicy policy : values()) {
+            if (policy.label.equals(label)) {
+                return policy;
+            }
+        }
+        return DROP;
+    }
+}
@@ -7,29 +7,59 @@
  */
 package cn.nnjskz.jfx.network;
 
+import cn.nnjskz.jfx.network.buffer.BufferPool;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.codec.FrameDecoder;
+import cn.nnjskz.jfx.network.codec.FramingConfig;
+import cn.nnjskz.jfx.utils.AppExecutors;
+import cn.nnjskz.jfx.utils.NanoClock;
+
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
-import java.util.function.Consumer;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Future;
 
+/**
+ * TCP客户端
+ * <p>
+ * 接收到的数据按原始字节切片交给 {@link ReceiveHandler}，不做任何字符集转换；
+ * 需要文本时由调用方使用 {@link cn.nnjskz.jfx.network.codec.TextStreamDecoder} 单独解码。
+ * 设置了分帧方式时，回调收到的是完整的帧而不是单次读取的数据块。
+ */
 public class TcpClientService {
+    /**
+     * 客户端只有一条连接，回调中的连接编号固定为该值
+     */
+    public static final long CONNECTION_ID = 0L;
+    private static final int MAX_READ_SIZE = 32 * 1024;
+
     private final String ip;
     private final Integer port;
     private Socket socket;
     private OutputStream outputStream;
     private InputStream inputStream;
-    private ReadThread readThread;
+    private Future<?> readTask;
 
-    private Consumer<byte[]> receive;
-    public void setReceive(Consumer<byte[]> receive) {
+    private volatile ReceiveHandler receive;
+    public void setReceive(ReceiveHandler receive) {
         this.receive = receive;
     }
-    private Runnable onDisconnect;
+    private volatile Runnable onDisconnect;
     public void setOnDisconnect(Runnable onDisconnect) {
         this.onDisconnect = onDisconnect;
     }
+    private FramingConfig framing = FramingConfig.NONE;
+
+    /**
+     * 设置分帧方式，需在 {@link #connect()} 之前调用
+     * @param framing 分帧参数，默认 {@link FramingConfig#NONE}
+     */
+    public void setFraming(FramingConfig framing) {
+        this.framing = framing;
+    }
 
     public TcpClientService(String ip, Integer port) {
         this.ip = ip;
@@ -46,8 +76,7 @@ public class TcpClientService {
             this.outputStream = this.socket.getOutputStream();
             this.inputStream = this.socket.getInputStream();
 
-            this.readThread = new ReadThread();
-            this.readThread.start();
+            this.readTask = AppExecutors.getInstance().getBlockingIoExecutor().submit(new ReadThread());
             return true;
         }catch (Exception e){
             e.printStackTrace();
@@ -56,8 +85,8 @@ public class TcpClientService {
     }
 
     public void close() {
-        if (this.readThread != null) {
-            this.readThread.interrupt();
+        if (this.readTask != null) {
+            this.readTask.cancel(true);
         }
         if (this.socket != null) {
            try {
@@ -79,6 +108,22 @@ public class TcpClientService {
         }
     }
 
+    /**
+     * @return 本端地址 ip:port；未连接时返回 null
+     */
+    public String getLocalAddress() {
+        Socket s = this.socket;
+        return s == null || !s.isConnected() ? null : s.getLocalAddress().getHostAddress() + ":" + s.getLocalPort();
+    }
+
+    /**
+     * @return 对端解析后的地址 ip:port；未连接时返回 null
+     */
+    public String getRemoteAddress() {
+        Socket s = this.socket;
+        return s == null || !s.isConnected() ? null : s.getInetAddress().getHostAddress() + ":" + s.getPort();
+    }
+
     /**
      * 判断是否断开连接，断开返回true,没有返回false
      * @param socket 套接字对象
@@ -93,29 +138,54 @@ public class TcpClientService {
         }
     }
 
-    private class ReadThread extends Thread {
+    private class ReadThread implements Runnable {
         @Override
         public void run() {
-            super.run();
-            byte[] buffer = new byte[4096];
             try {
-                while (!isInterrupted()) {
-                    int size = TcpClientService.this.inputStream.read(buffer);
-                    if (size == -1) {
-                        // 服务端断开连接
-                        if (onDisconnect != null) {
-                            onDisconnect.run();
+                int readSize = Math.min(MAX_READ_SIZE, socket.getReceiveBufferSize());
+                // 直接读入池化的块，回调结束后释放；消费者需要继续持有时自行 retain
+                BufferPool pool = BufferPool.shared(readSize, false);
+                FrameDecoder decoder = framing.newDecoder();
+                while (!Thread.currentThread().isInterrupted()) {
+                    PooledBuffer data = pool.allocate();
+                    try {
+                        ByteBuffer chunk = data.buffer();
+                        int size = TcpClientService.this.inputStream.read(chunk.array(), chunk.arrayOffset(), readSize);
+                        if (size == -1) {
+                            // 服务端断开连接
+                            Runnable disconnect = onDisconnect;
+                            if (disconnect != null) {
+                                disconnect.run();
+                            }
+                            break;
                         }
-                        break;
-                    }
-                    if (size > 0 && receive != null) {
-                        receive.accept(new String(buffer, 0, size).getBytes());
+                        if (size > 0) {
+                            data.setLength(size);
+                            long timestamp = NanoClock.epochNanos();
+                            // 处理器尚未安装时也要经过解码器，否则之后的帧边界会错位
+                            if (decoder != null) {
+                                decoder.decode(data, frame -> {
+                                    ReceiveHandler handler = receive;
+                                    if (handler != null) {
+                                        handler.onReceive(CONNECTION_ID, frame, timestamp);
+                                    }
+                                });
+                            } else {
+                                ReceiveHandler handler = receive;
+                                if (handler != null) {
+                                    handler.onReceive(CONNECTION_ID, data, timestamp);
+                                }
+                            }
+                        }
+                    } finally {
+                        data.release();
                     }
                 }
             } catch (Throwable e) {
                 System.err.println(e.getMessage());
-                if (onDisconnect != null) {
-                    onDisconnect.run();
+                Runnable disconnect = onDisconnect;
+                if (disconnect != null) {
+                    disconnect.run();
                 }
             }
         }
@@ -0,0 +1,402 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * TCP压测：对同一目标建立多条并发连接，按合计速率发送同一份内容
+ * <p>
+ * 所有连接由一个 Selector 线程驱动：按爬坡速率发起非阻塞连接，按目标速率把消息分摊到各连接
+ * （每次聚合写出最多 {@value #MAX_BATCH} 条），接收的数据只计数不解析。
+ * 统计字段只由该线程写入，界面通过 {@link #snapshot()} 定时读取。
+ */
+public class TcpLoadGenerator {
+    private static final long CONNECT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    // 按条数结束时，发送完毕后继续等待响应的时间
+    private static final long LINGER_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    // 落后于目标进度时最多补发 100ms 的量，避免瞬间突发
+    private static final double MAX_CATCH_UP_SECONDS = 0.1;
+    private static final int MAX_BATCH = 64;
+
+    private final LoadConfig config;
+    private final int payloadLength;
+    private final ByteBuffer[] batch = new ByteBuffer[MAX_BATCH];
+    private final List<Conn> active = new ArrayList<>();
+    private final List<Conn> pendingConnects = new ArrayList<>();
+    private Selector selector;
+    private volatile boolean running;
+    private volatile Consumer<LoadStats> onFinished;
+
+    private long startNanos;
+    private volatile long endNanos;
+    private int opened;
+    private int cursor;
+    private long issued;
+    private long skipped;
+    private long lastSweep;
+    private boolean purgeActive;
+
+    private volatile int connected;
+    private volatile int connecting;
+    private volatile long connectFailures;
+    private volatile long disconnected;
+    private volatile long sentMessages;
+    private volatile long sentBytes;
+    private volatile long receivedBytes;
+    private volatile boolean finished;
+
+    public TcpLoadGenerator(LoadConfig config) {
+        this.config = config;
+        this.payloadLength = config.payload().length;
+        for (int i = 0; i < MAX_BATCH; i++) {
+            batch[i] = ByteBuffer.wrap(config.payload()).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * 设置结束回调（在压测线程上调用）
+     */
+    public void setOnFinished(Consumer<LoadStats> onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    public void start() throws IOException {
+        selector = Selector.open();
+        running = true;
+        startNanos = System.nanoTime();
+        Thread thread = new Thread(this::run, "tcp-load-" + config.port());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * 提前结束，关闭所有连接
+     */
+    public void stop() {
+        running = false;
+        Selector s = selector;
+        if (s != null) {
+            s.wakeup();
+        }
+    }
+
+    public LoadConfig getConfig() {
+        return config;
+    }
+
+    public LoadStats snapshot() {
+        long end = finished ? endNanos : System.nanoTime();
+        return new LoadStats(config.connections(), connected, connecting, connectFailures, disconnected,
+                sentMessages, sentBytes, receivedBytes, end - startNanos, finished);
+    }
+
+    private void run() {
+        InetSocketAddress target = new InetSocketAddress(config.host(), config.port());
+        ByteBuffer scratch = ByteBuffer.allocateDirect(64 * 1024);
+        long sendDoneAt = 0;
+        try {
+            if (target.isUnresolved()) {
+                connectFailures = config.connections();
+                return;
+            }
+            while (running) {
+                long now = System.nanoTime();
+                long elapsed = now - startNanos;
+                if (config.durationMillis() > 0 && elapsed >= TimeUnit.MILLISECONDS.toNanos(config.durationMillis())) {
+                    break;
+                }
+                openDue(target, elapsed, now);
+                if (now - lastSweep >= SWEEP_INTERVAL_NANOS) {
+                    sweepConnects(now);
+                    lastSweep = now;
+                }
+                boolean canSendMore = false;
+                if (config.messageCount() > 0 && sentMessages >= config.messageCount()) {
+                    if (sendDoneAt == 0) {
+                        sendDoneAt = now;
+                    } else if (now - sendDoneAt >= LINGER_NANOS) {
+                        break;
+                    }
+                } else {
+                    canSendMore = sendDue(elapsed);
+                }
+                if (opened == config.connections() && connecting == 0 && connected == 0) {
+                    // 全部连接失败或已被对端断开
+                    break;
+                }
+                // 不限速且仍有可写连接时不阻塞；否则最多等待 1ms 以维持发送节奏
+                if (canSendMore) {
+                    selector.selectNow();
+                } else {
+                    selector.select(1);
+                }
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    handle(key, (Conn) key.attachment(), scratch);
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("tcp load: " + e.getMessage());
+        } finally {
+            closeAll();
+            endNanos = System.nanoTime();
+            finished = true;
+            Consumer<LoadStats> callback = onFinished;
+            if (callback != null) {
+                callback.accept(snapshot());
+            }
+        }
+    }
+
+    /**
+     * 按爬坡速率发起新连接
+     */
+    private void openDue(InetSocketAddress target, long elapsed, long now) {
+        int due = config.rampUpPerSecond() == 0 ? config.connections()
+                : (int) Math.min(config.connections(), 1 + elapsed * config.rampUpPerSecond() / 1_000_000_000L);
+        while (opened < due) {
+            opened++;
+            SocketChannel channel = null;
+            try {
+                channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                Conn conn = new Conn(channel, now);
+                if (channel.connect(target)) {
+                    conn.key = channel.register(selector, SelectionKey.OP_READ, conn);
+                    onConnected(conn);
+                } else {
+                    conn.key = channel.register(selector, SelectionKey.OP_CONNECT, conn);
+                    conn.connecting = true;
+                    connecting++;
+                    pendingConnects.add(conn);
+                }
+            } catch (IOException e) {
+                connectFailures++;
+                closeQuietly(channel);
+            }
+        }
+    }
+
+    /**
+     * 清理已完成的连接请求，并使超时的连接失败
+     */
+    private void sweepConnects(long now) {
+        Iterator<Conn> it = pendingConnects.iterator();
+        while (it.hasNext()) {
+            Conn conn = it.next();
+            if (!conn.connecting) {
+                it.remove();
+            } else if (now - conn.connectStart >= CONNECT_TIMEOUT_NANOS) {
+                it.remove();
+                failConnect(conn);
+            }
+        }
+    }
+
+    private void onConnected(Conn conn) {
+        if (conn.connecting) {
+            conn.connecting = false;
+            connecting--;
+        }
+        connected++;
+        active.add(conn);
+    }
+
+    private void failConnect(Conn conn) {
+        conn.connecting = false;
+        conn.dead = true;
+        connecting--;
+        connectFailures++;
+        closeQuietly(conn.channel);
+    }
+
+    private void drop(Conn conn) {
+        if (conn.dead) {
+            return;
+        }
+        conn.dead = true;
+        connected--;
+        disconnected++;
+        purgeActive = true;
+        closeQuietly(conn.channel);
+    }
+
+    /**
+     * 按目标进度把待发消息分摊到各连接
+     * @return 是否还有连接可以立即继续发送（仅不限速时有意义）
+     */
+    private boolean sendDue(long elapsed) {
+        if (purgeActive) {
+            active.removeIf(c -> c.dead);
+            purgeActive = false;
+        }
+        int n = active.size();
+        if (n == 0) {
+            return false;
+        }
+        long limit = Long.MAX_VALUE;
+        double rate = config.messagesPerSecond();
+        if (rate > 0) {
+            long due = (long) (elapsed / 1e9 * rate) - skipped;
+            long maxBehind = Math.max(1, (long) (rate * MAX_CATCH_UP_SECONDS));
+            if (due - issued > maxBehind) {
+                skipped += due - issued - maxBehind;
+                due = issued + maxBehind;
+            }
+            limit = due - issued;
+        }
+        if (config.messageCount() > 0) {
+            limit = Math.min(limit, config.messageCount() - issued);
+        }
+        if (limit <= 0) {
+            return false;
+        }
+        boolean writable = false;
+        int i = 0;
+        for (; i < n && limit > 0; i++) {
+            Conn conn = active.get((cursor + i) % n);
+            if (conn.dead || conn.blocked) {
+                continue;
+            }
+            int k = (int) Math.min(MAX_BATCH, Math.max(1, limit / (n - i)));
+            limit -= write(conn, k);
+            writable |= !conn.blocked && !conn.dead;
+        }
+        cursor = (cursor + i) % n;
+        return rate == 0 && writable;
+    }
+
+    /**
+     * 聚合写出 k 条消息
+     * @return 已开始写出的条数（含写出一半的那条）
+     */
+    private long write(Conn conn, int k) {
+        for (int j = 0; j < k; j++) {
+            batch[j].clear();
+        }
+        try {
+            long written = conn.channel.write(batch, 0, k);
+            sentBytes += written;
+            long complete = written / payloadLength;
+            int remainder = (int) (written % payloadLength);
+            sentMessages += complete;
+            issued += complete;
+            if (complete < k) {
+                // 发送缓冲区已满，等待可写事件
+                if (remainder > 0) {
+                    conn.pending = ByteBuffer.wrap(config.payload()).position(remainder);
+                    issued++;
+                }
+                conn.blocked = true;
+                conn.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return complete + (remainder > 0 ? 1 : 0);
+            }
+            return complete;
+        } catch (IOException e) {
+            drop(conn);
+            return 0;
+        }
+    }
+
+    private void handle(SelectionKey key, Conn conn, ByteBuffer scratch) {
+        if (!key.isValid() || conn.dead) {
+            return;
+        }
+        try {
+            if (key.isConnectable()) {
+                try {
+                    if (conn.channel.finishConnect()) {
+                        key.interestOps(SelectionKey.OP_READ);
+                        onConnected(conn);
+                    }
+                } catch (IOException e) {
+                    failConnect(conn);
+                }
+                return;
+            }
+            if (key.isReadable()) {
+                scratch.clear();
+                int len = conn.channel.read(scratch);
+                if (len == -1) {
+                    drop(conn);
+                    return;
+                }
+                receivedBytes += len;
+            }
+            if (key.isValid() && key.isWritable()) {
+                if (conn.pending != null) {
+                    sentBytes += conn.channel.write(conn.pending);
+                    if (conn.pending.hasRemaining()) {
+                        return;
+                    }
+                    conn.pending = null;
+                    sentMessages++;
+                }
+                conn.blocked = false;
+                key.interestOps(SelectionKey.OP_READ);
+            }
+        } catch (IOException e) {
+            drop(conn);
+        }
+    }
+
+    private void closeAll() {
+        for (Conn conn : active) {
+            closeQuietly(conn.channel);
+        }
+        for (Conn conn : pendingConnects) {
+            closeQuietly(conn.channel);
+        }
+        active.clear();
+        pendingConnects.clear();
+        connected = 0;
+        connecting = 0;
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static final class Conn {
+        private final SocketChannel channel;
+        private final long connectStart;
+        private SelectionKey key;
+        private ByteBuffer pending;
+        private boolean connecting;
+        private boolean blocked;
+        private boolean dead;
+
+        private Conn(SocketChannel channel, long connectStart) {
+            this.channel = channel;
+            this.connectStart = connectStart;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import cn.nnjskz.jfx.network.codec.FramingConfig;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * TCP服务端引擎
+ * <p>
+ * BIO（每客户端一个读线程）与 NIO（Selector 事件循环）两种实现对外保持一致的回调与发送语义，
+ * 由 {@code MainController} 根据扩展选项选择具体引擎。发送均为异步：数据进入各客户端独立的
+ * {@link OutboundQueue}，单个慢客户端不会拖慢对其他客户端的广播。
+ */
+public interface TcpServer {
+    /**
+     * 引擎类型：阻塞IO，每个客户端占用一个读线程
+     */
+    String ENGINE_BIO = "BIO";
+    /**
+     * 引擎类型：Selector 事件循环
+     */
+    String ENGINE_NIO = "NIO";
+
+    void setOnDisconnect(Runnable onDisconnect);
+
+    void setReceive(ReceiveHandler receive);
+
+    void setInfoCall(Consumer<String> infoCall);
+
+    /**
+     * 设置分帧方式，需在 {@link #openConnect()} 之前调用；每个客户端使用独立的解码器
+     * @param framing 分帧参数，默认 {@link FramingConfig#NONE}
+     */
+    void setFraming(FramingConfig framing);
+
+    /**
+     * 获取当前已连接的客户端
+     * @return key = 客户端套接字, value = 该客户端的输出流
+     */
+    Map<Socket, OutputStream> getWritersMap();
+
+    /**
+     * 获取各客户端的发送队列，用于展示积压情况
+     * @return key = 连接编号
+     */
+    Map<Long, OutboundQueue> getOutboundQueues();
+
+    /**
+     * 打开服务端口并开始接受连接
+     */
+    void openConnect() throws IOException;
+
+    /**
+     * 向所有客户端广播
+     * @param message 数据
+     */
+    void send(byte[] message);
+
+    /**
+     * 向指定客户端发送
+     * @param message      数据
+     * @param connectionId 连接编号，见 {@link ReceiveHandler}
+     */
+    void send(byte[] message, long connectionId);
+
+    /**
+     * 获取客户端地址
+     * @param connectionId 连接编号
+     * @return ip:port；连接已断开时返回 null
+     */
+    String getRemoteAddress(long connectionId);
+
+    void close();
+}
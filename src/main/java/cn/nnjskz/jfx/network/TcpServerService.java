@@ -7,113 +7,183 @@
  */
 package cn.nnjskz.jfx.network;
 
+import cn.nnjskz.jfx.network.buffer.BufferPool;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.codec.CorruptedFrameException;
+import cn.nnjskz.jfx.network.codec.FrameDecoder;
+import cn.nnjskz.jfx.network.codec.FramingConfig;
 import cn.nnjskz.jfx.utils.AppExecutors;
+import cn.nnjskz.jfx.utils.NanoClock;
 
 import java.io.*;
-import java.net.ServerSocket;
+import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketTimeoutException;
-import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
-public class TcpServerService {
+public class TcpServerService implements TcpServer {
     private final Integer port;
-    private ServerSocket serverSocket;
+    private ServerSocketChannel serverChannel;
     private final Map<Socket, OutputStream> writersMap = new ConcurrentHashMap<>();
-    private Consumer<Map<Socket, byte[]>> receive;
+    private final Map<Long, Client> connections = new ConcurrentHashMap<>();
+    private final Map<Long, OutboundQueue> outboundQueues = new ConcurrentHashMap<>();
+    private final AtomicLong connectionSeq = new AtomicLong();
+    private ReceiveHandler receive;
     private Consumer<String> infoCall;
     private Runnable onDisconnect;
+    private FramingConfig framing = FramingConfig.NONE;
     private final String bufSize;
     private final Integer heartbeat;
+    private final WriteQueueConfig writeQueueConfig;
 
     public TcpServerService(Integer port, String bufSize, Integer heartbeat) {
+        this(port, bufSize, heartbeat, WriteQueueConfig.DEFAULT);
+    }
+
+    public TcpServerService(Integer port, String bufSize, Integer heartbeat, WriteQueueConfig writeQueueConfig) {
         this.port = port;
         this.bufSize = bufSize;
         this.heartbeat = heartbeat;
+        this.writeQueueConfig = writeQueueConfig;
     }
 
+    @Override
     public void setOnDisconnect(Runnable onDisconnect) {
         this.onDisconnect = onDisconnect;
     }
 
-    public void setReceive(Consumer<Map<Socket, byte[]>> receive) {
+    @Override
+    public void setReceive(ReceiveHandler receive) {
         this.receive = receive;
     }
 
+    @Override
     public void setInfoCall(Consumer<String> infoCall) {
         this.infoCall = infoCall;
     }
 
+    @Override
+    public void setFraming(FramingConfig framing) {
+        this.framing = framing;
+    }
+
+    @Override
     public Map<Socket, OutputStream> getWritersMap() {
         return writersMap;
     }
 
+    @Override
+    public Map<Long, OutboundQueue> getOutboundQueues() {
+        return outboundQueues;
+    }
+
     // 打开连接
+    @Override
     public void openConnect() throws IOException {
-        serverSocket = new ServerSocket(port);
-        new Thread(() -> {
+        // 通过阻塞模式的 ServerSocketChannel 接收连接，使每个客户端都具备可聚合写出的 SocketChannel
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        AppExecutors.getInstance().getBlockingIoExecutor().execute(() -> {
             try {
-                while (!serverSocket.isClosed()) {
-                    Socket socket = serverSocket.accept();
-                    writersMap.put(socket, socket.getOutputStream());
-                    ReadThread readThread = new ReadThread(this, socket);
-                    AppExecutors.getInstance().getBackgroundCachedExecutor().submit(readThread);
+                while (serverChannel.isOpen()) {
+                    SocketChannel channel = serverChannel.accept();
+                    Client client = new Client(connectionSeq.incrementAndGet(), channel, new OutboundQueue(writeQueueConfig));
+                    connections.put(client.id, client);
+                    outboundQueues.put(client.id, client.queue);
+                    writersMap.put(client.socket, new QueueOutputStream(data -> enqueue(client, data)));
+                    ReadThread readThread = new ReadThread(this, client);
+                    AppExecutors.getInstance().getBlockingIoExecutor().submit(readThread);
                     if (infoCall != null) {
-                        infoCall.accept("客户端->" + socket.getRemoteSocketAddress() + "已连接");
+                        infoCall.accept("客户端->" + client.socket.getRemoteSocketAddress() + "已连接");
                     }
                 }
             } catch (IOException ignored) {}
-        }).start();
+        });
     }
 
+    @Override
     public void send(byte[] message) {
-        Iterator<Map.Entry<Socket, OutputStream>> iterator = writersMap.entrySet().iterator();
-        while (iterator.hasNext()) {
-            Map.Entry<Socket, OutputStream> entry = iterator.next();
-            try {
-                entry.getValue().write(message);
-                entry.getValue().flush();
-            } catch (IOException e) {
-                try {
-                    entry.getKey().close();
-                } catch (IOException ignored) {}
-                iterator.remove();
-                if (infoCall != null) {
-                    infoCall.accept("客户端->" + entry.getKey().getRemoteSocketAddress() + " 已断开（发送失败）");
-                }
+        // 广播只复制一次，各客户端共享同一份只读数据，入队后立即返回
+        ByteBuffer shared = ByteBuffer.wrap(message.clone()).asReadOnlyBuffer();
+        for (Client client : connections.values()) {
+            enqueue(client, shared.duplicate());
+        }
+    }
+
+    @Override
+    public void send(byte[] message, long connectionId) {
+        Client client = connections.get(connectionId);
+        if (client != null) {
+            enqueue(client, ByteBuffer.wrap(message.clone()));
+        }
+    }
+
+    private void enqueue(Client client, ByteBuffer data) {
+        switch (client.queue.offer(data)) {
+            case ACCEPTED -> scheduleDrain(client);
+            case DISCONNECT -> closeClient(client, "客户端->" + client.socket.getRemoteSocketAddress() + " 已断开（发送积压超过高水位）");
+            case DROPPED -> {
             }
         }
     }
 
-    public void send(byte[] message, Socket socket) {
-        OutputStream out = writersMap.get(socket);
-        if (out != null) {
-            try {
-                out.write(message);
-                out.flush();
-            } catch (IOException e) {
-                throw new RuntimeException("发送数据失败: " + e.getMessage(), e);
+    /**
+     * 队列由空变为非空时提交一个写出任务，写空后任务退出，空闲连接不占用写线程
+     */
+    private void scheduleDrain(Client client) {
+        if (client.draining.compareAndSet(false, true)) {
+            AppExecutors.getInstance().getBlockingIoExecutor().execute(() -> drain(client));
+        }
+    }
+
+    private void drain(Client client) {
+        try {
+            while (true) {
+                while (!client.queue.isEmpty()) {
+                    client.queue.drainTo(client.channel);
+                }
+                client.draining.set(false);
+                // 释放标记后再次检查，避免与入队方竞争导致消息滞留
+                if (client.queue.isEmpty() || !client.draining.compareAndSet(false, true)) {
+                    return;
+                }
             }
+        } catch (IOException e) {
+            client.draining.set(false);
+            closeClient(client, "客户端->" + client.socket.getRemoteSocketAddress() + " 已断开（发送失败）");
         }
     }
 
+    private void closeClient(Client client, String reason) {
+        client.closeReason = reason;
+        client.queue.close();
+        try {
+            client.socket.close();
+        } catch (IOException ignored) {}
+    }
+
+    @Override
     public void close() {
         try {
-//            threadPool.shutdownNow();
-            for (Map.Entry<Socket, OutputStream> entry : writersMap.entrySet()) {
+            for (Client client : connections.values()) {
                 try {
-                    entry.getKey().shutdownInput();
-                    entry.getKey().close();
-                    entry.getValue().close();
+                    client.queue.close();
+                    client.socket.shutdownInput();
+                    client.socket.close();
                 } catch (IOException ignored) {}
             }
             writersMap.clear();
-            if (serverSocket != null && !serverSocket.isClosed()) {
-                serverSocket.close();
+            connections.clear();
+            outboundQueues.clear();
+            if (serverChannel != null && serverChannel.isOpen()) {
+                serverChannel.close();
             }
             receive = null;
             infoCall = null;
@@ -123,34 +193,85 @@ public class TcpServerService {
         }
     }
 
-    private record ReadThread(TcpServerService server, Socket socket) implements Runnable {
+    @Override
+    public String getRemoteAddress(long connectionId) {
+        Client client = connections.get(connectionId);
+        return client == null ? null : client.socket.getRemoteSocketAddress().toString().replaceAll("/", "");
+    }
+
+    /**
+     * 单个客户端连接
+     */
+    private static final class Client {
+        private final long id;
+        private final SocketChannel channel;
+        private final Socket socket;
+        private final OutboundQueue queue;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile String closeReason;
+
+        private Client(long id, SocketChannel channel, OutboundQueue queue) {
+            this.id = id;
+            this.channel = channel;
+            this.socket = channel.socket();
+            this.queue = queue;
+        }
+    }
+
+    private record ReadThread(TcpServerService server, Client client) implements Runnable {
         @Override
             public void run() {
+                Socket socket = client.socket;
                 String notify = "";
                 try (InputStream in = socket.getInputStream()) {
                     // 设置心跳超时
                     socket.setSoTimeout(server.heartbeat * 1000);
                     // 设置最大接收包长度
                     int readSize = "auto".equals(server.bufSize)?Math.min(32 * 1024, socket.getReceiveBufferSize()):Integer.parseInt(server.bufSize);
-                    byte[] buffer = new byte[readSize];
-                    int len;
-                    while ((len = in.read(buffer)) != -1) {
-                        byte[] actual = Arrays.copyOf(buffer, len);
-                        Map<Socket, byte[]> receiveMap = new HashMap<>();
-                        receiveMap.put(socket, actual);
-                        if (server.receive != null) {
-                            server.receive.accept(receiveMap);
+                    // 直接读入池化的块，回调结束后释放；消费者需要继续持有时自行 retain
+                    BufferPool pool = BufferPool.shared(readSize, false);
+                    FrameDecoder decoder = server.framing.newDecoder();
+                    while (true) {
+                        PooledBuffer data = pool.allocate();
+                        try {
+                            ByteBuffer chunk = data.buffer();
+                            int len = in.read(chunk.array(), chunk.arrayOffset(), readSize);
+                            if (len == -1) {
+                                break;
+                            }
+                            data.setLength(len);
+                            ReceiveHandler handler = server.receive;
+                            long timestamp = NanoClock.epochNanos();
+                            if (decoder != null) {
+                                decoder.decode(data, frame -> {
+                                    if (handler != null) {
+                                        handler.onReceive(client.id, frame, timestamp);
+                                    }
+                                });
+                            } else if (handler != null) {
+                                handler.onReceive(client.id, data, timestamp);
+                            }
+                        } finally {
+                            data.release();
                         }
                     }
                     notify = "客户端->" + socket.getRemoteSocketAddress() + "已断开";
                 } catch (SocketTimeoutException timeout) {
                     notify = "客户端->" + socket.getRemoteSocketAddress() + "超时断开";
+                } catch (CorruptedFrameException e) {
+                    notify = "客户端->" + socket.getRemoteSocketAddress() + " 已断开（帧格式错误：" + e.getMessage() + "）";
                 } catch (IOException e) {
-                    if (server.onDisconnect != null) {
+                    if (client.closeReason != null) {
+                        // 由发送侧主动断开
+                        notify = client.closeReason;
+                    } else if (server.onDisconnect != null) {
                         server.onDisconnect.run();
                     }
                 } finally {
+                    client.queue.close();
                     server.writersMap.remove(socket);
+                    server.connections.remove(client.id);
+                    server.outboundQueues.remove(client.id);
                     if (server.infoCall != null) {
                         server.infoCall.accept(notify);
                     }
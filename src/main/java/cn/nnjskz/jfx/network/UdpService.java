@@ -7,63 +7,150 @@
  */
 package cn.nnjskz.jfx.network;
 
+import cn.nnjskz.jfx.network.buffer.BufferPool;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.utils.AppExecutors;
+import cn.nnjskz.jfx.utils.NanoClock;
+
 import java.io.IOException;
 import java.net.*;
-import java.nio.charset.StandardCharsets;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Consumer;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
 
+/**
+ * 基于 DatagramChannel 的 UDP 服务
+ * <p>
+ * 接收线程复用一块直接内存缓冲区，每个报文只按实际长度复制一次到池化块中交给回调；
+ * 池耗尽（消费者跟不上）时直接丢弃并计数，不再为每个报文分配数组与解码字符串。
+ */
 public class UdpService {
+    /**
+     * UDP 报文最大负载
+     */
+    public static final int MAX_DATAGRAM_SIZE = 65507;
+
     private final Integer port;
     private final Integer bufSize;
-    private DatagramSocket socket;
-    private Consumer<Map<DatagramPacket,String>> receive;
+    private final Integer receiveBufferSize;
+    private DatagramChannel channel;
+    private volatile DatagramHandler receive;
+    // 以下计数仅由接收线程写入
+    private volatile long receivedCount;
+    private volatile long droppedCount;
+    private volatile long truncatedCount;
 
     public UdpService(Integer port, Integer bufSize) {
+        this(port, bufSize, 0);
+    }
+
+    /**
+     * @param port              本地端口
+     * @param bufSize           最大报文长度，超出部分截断
+     * @param receiveBufferSize SO_RCVBUF（字节），0 表示使用系统默认值
+     */
+    public UdpService(Integer port, Integer bufSize, Integer receiveBufferSize) {
         this.port = port;
-        this.bufSize = bufSize;
+        this.bufSize = Math.min(bufSize, MAX_DATAGRAM_SIZE);
+        this.receiveBufferSize = receiveBufferSize;
     }
 
-    public void setReceive(Consumer<Map<DatagramPacket, String>> receive) {
+    public void setReceive(DatagramHandler receive) {
         this.receive = receive;
     }
 
     public void openUdp() throws IOException {
-        socket = new DatagramSocket(port);
-        new Thread(() -> {
-            try {
-                while (!socket.isClosed()) {
-                    Map<DatagramPacket,String> receiveMap = new ConcurrentHashMap<>();
-                    byte[] buf = new byte[bufSize];
-                    DatagramPacket packet = new DatagramPacket(buf, bufSize);
-                    socket.receive(packet);
-                    String msg = new String(packet.getData(), packet.getOffset(), packet.getLength(), StandardCharsets.UTF_8);
-                    receiveMap.put(packet, msg);
-                    receive.accept(receiveMap);
-                }
-            }catch (IOException ignored) {}
-        }).start();
+        channel = DatagramChannel.open();
+        if (receiveBufferSize > 0) {
+            channel.setOption(StandardSocketOptions.SO_RCVBUF, receiveBufferSize);
+        }
+        channel.bind(new InetSocketAddress(port));
+        AppExecutors.getInstance().getBlockingIoExecutor().execute(this::receiveLoop);
+    }
 
+    private void receiveLoop() {
+        // 多留 1 字节用于识别被截断的报文
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bufSize + 1);
+        try {
+            while (channel.isOpen()) {
+                buffer.clear();
+                SocketAddress sender = channel.receive(buffer);
+                long timestamp = NanoClock.epochNanos();
+                buffer.flip();
+                receivedCount++;
+                if (buffer.remaining() > bufSize) {
+                    truncatedCount++;
+                    buffer.limit(bufSize);
+                }
+                DatagramHandler handler = receive;
+                if (handler == null) {
+                    continue;
+                }
+                int len = buffer.remaining();
+                PooledBuffer data = BufferPool.forLength(len).tryAllocate();
+                if (data == null) {
+                    droppedCount++;
+                    continue;
+                }
+                try {
+                    data.buffer().put(buffer);
+                    data.setLength(len);
+                    handler.onReceive((InetSocketAddress) sender, data, timestamp);
+                } finally {
+                    data.release();
+                }
+            }
+        } catch (IOException ignored) {}
     }
 
     public String send(byte[] msg, String targetIp, Integer targetPort) {
+        return send(msg, new InetSocketAddress(targetIp, targetPort));
+    }
+
+    public String send(byte[] msg, InetSocketAddress target) {
         try {
-            DatagramPacket packet = new DatagramPacket(
-                msg,
-                msg.length,
-                InetAddress.getByName(targetIp),
-                targetPort
-            );
-            socket.send(packet);
+            if (target.isUnresolved()) {
+                return "send udp error: 无法解析主机 " + target.getHostString();
+            }
+            channel.send(ByteBuffer.wrap(msg), target);
             return "";
         } catch (IOException e) {
             return "send udp error: " + e.getMessage();
         }
     }
 
+    /**
+     * @return 实际生效的 SO_RCVBUF（系统可能对设置值做上限裁剪）
+     */
+    public int getActualReceiveBufferSize() {
+        try {
+            return channel.getOption(StandardSocketOptions.SO_RCVBUF);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    public long getReceivedCount() {
+        return receivedCount;
+    }
+
+    /**
+     * @return 因消费者处理不及时（缓冲池耗尽）而丢弃的报文数
+     */
+    public long getDroppedCount() {
+        return droppedCount;
+    }
+
+    /**
+     * @return 超过最大报文长度而被截断的报文数
+     */
+    public long getTruncatedCount() {
+        return truncatedCount;
+    }
+
     public void close(){
-        socket.close();
         receive = null;
+        try {
+            channel.close();
+        } catch (IOException ignored) {}
     }
 }
@@ -0,0 +1,25 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+/**
+ * 客户端发送队列参数
+ *
+ * @param highWatermark 高水位（字节），超过后按 policy 处理
+ * @param lowWatermark  低水位（字节），回落到此值以下恢复可写
+ * @param policy        慢消费者策略
+ */
+public record WriteQueueConfig(long highWatermark, long lowWatermark, SlowConsumerPolicy policy) {
+    public static final WriteQueueConfig DEFAULT = new WriteQueueConfig(1024 * 1024, 256 * 1024, SlowConsumerPolicy.DROP);
+
+    public WriteQueueConfig {
+        if (lowWatermark < 0 || highWatermark <= lowWatermark) {
+            throw new IllegalArgumentException("需要 0 <= 低水位 < 高水位: " + lowWatermark + "/" + highWatermark);
+        }
+    }
+}
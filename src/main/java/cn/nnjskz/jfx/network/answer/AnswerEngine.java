@@ -0,0 +1,355 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.answer;
+
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.codec.HexCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 自动应答规则引擎
+ * <p>
+ * 规则按顺序排列，报文命中的第一条规则给出应答。所有 TEXT/HEX 规则编译进同一个按字节转移的 Aho-Corasick 自动机，
+ * 每个报文只扫描一遍，耗时与规则条数无关；PREFIX/HEX_PREFIX 规则放在一棵前缀树中，只从报文开头走到最长前缀为止；
+ * 只有排在已命中规则之前的 REGEX 规则才会把报文解码为字符串逐条查找。
+ * <p>
+ * 编译后的引擎不可变，可以在多个网络线程上同时调用 {@link #answer(PooledBuffer)}，匹配过程不分配内存（REGEX 除外）。
+ * <p>
+ * 规则文本每行一条，{@code #} 开头为注释：
+ * <pre>
+ * text:PING => PONG
+ * hex:AA 55 01 => hex:AA 55 81
+ * prefix:GET => HTTP/1.1 200 OK\r\n\r\n
+ * hexprefix:68 => hex:68 00 16
+ * regex:^ID=\d+$ => ACK
+ * * => received
+ * </pre>
+ * 应答以 {@code hex:} 开头时按十六进制解析，否则为 UTF-8 文本；文本中可使用 \r \n \t \0 \\ 转义。
+ */
+public final class AnswerEngine {
+    /**
+     * 未配置规则时使用的默认规则，与旧版本“收到任意报文回复 received”一致
+     */
+    public static final String DEFAULT_RULES = """
+            # 每行一条规则：匹配方式:匹配内容 => 应答，按顺序取第一条命中的规则
+            # 匹配方式：text 包含文本、hex 包含字节、prefix 以文本开头、hexprefix 以字节开头、regex 正则查找、* 任意报文
+            # 应答以 hex: 开头时按十六进制发送，文本中可使用 \\r \\n \\t \\0 \\\\ 转义
+            # text:PING => PONG
+            # hex:AA 55 01 => hex:AA 55 81
+            * => received
+            """;
+    private static final String ARROW = " => ";
+    private static final int NONE = Integer.MAX_VALUE;
+
+    private final List<AnswerRule> rules;
+    private final byte[][] responses;
+    // Aho-Corasick：完整的转移表 delta[state << 8 | byte]，out[state] 为该状态（含后缀链）命中的最小规则序号
+    private final int[] delta;
+    private final int[] out;
+    private final int firstSubstringRule;
+    // 前缀树：next[node << 8 | byte]（-1 为无转移），prefixOut[node] 为恰好在该节点结束的最小规则序号
+    private final int[] prefixNext;
+    private final int[] prefixOut;
+    private final int firstPrefixRule;
+    // 按规则序号升序
+    private final int[] regexRules;
+    private final Pattern[] regexPatterns;
+    private final int anyRule;
+
+    private AnswerEngine(List<AnswerRule> rules) {
+        this.rules = List.copyOf(rules);
+        responses = new byte[rules.size()][];
+        Trie substrings = new Trie();
+        Trie prefixes = new Trie();
+        List<Integer> regexIndexes = new ArrayList<>();
+        List<Pattern> patterns = new ArrayList<>();
+        int any = NONE;
+        int firstSubstring = NONE;
+        int firstPrefix = NONE;
+        for (int i = 0; i < rules.size(); i++) {
+            AnswerRule rule = rules.get(i);
+            responses[i] = rule.response();
+            switch (rule.type()) {
+                case TEXT, HEX -> {
+                    substrings.insert(rule.pattern(), i);
+                    firstSubstring = Math.min(firstSubstring, i);
+                }
+                case PREFIX, HEX_PREFIX -> {
+                    prefixes.insert(rule.pattern(), i);
+                    firstPrefix = Math.min(firstPrefix, i);
+                }
+                case REGEX -> {
+                    regexIndexes.add(i);
+                    patterns.add(Pattern.compile(rule.regex()));
+                }
+                case ANY -> any = Math.min(any, i);
+            }
+        }
+        anyRule = any;
+        firstSubstringRule = firstSubstring;
+        firstPrefixRule = firstPrefix;
+        regexRules = regexIndexes.stream().mapToInt(Integer::intValue).toArray();
+        regexPatterns = patterns.toArray(new Pattern[0]);
+        prefixNext = prefixes.next();
+        prefixOut = prefixes.out();
+        out = substrings.out();
+        delta = substrings.buildAutomaton(out);
+    }
+
+    /**
+     * 编译规则
+     *
+     * @param rules 按优先级排列的规则
+     * @return AnswerEngine
+     * @throws IllegalArgumentException 正则表达式无效
+     */
+    public static AnswerEngine compile(List<AnswerRule> rules) {
+        return new AnswerEngine(rules);
+    }
+
+    /**
+     * 解析规则文本
+     *
+     * @param text 规则文本，格式见类说明
+     * @return 按行顺序排列的规则
+     * @throws IllegalArgumentException 格式错误，消息中带行号
+     */
+    public static List<AnswerRule> parse(String text) {
+        List<AnswerRule> rules = new ArrayList<>();
+        String[] lines = text.split("\r?\n");
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n].strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            try {
+                rules.add(parseRule(line));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("第 " + (n + 1) + " 行：" + e.getMessage(), e);
+            }
+        }
+        return rules;
+    }
+
+    private static AnswerRule parseRule(String line) {
+        int arrow = line.indexOf(ARROW);
+        if (arrow < 0) {
+            throw new IllegalArgumentException("缺少“" + ARROW.strip() + "”");
+        }
+        String match = line.substring(0, arrow);
+        byte[] response = parseResponse(line.substring(arrow + ARROW.length()));
+        if ("*".equals(match.strip())) {
+            return new AnswerRule(AnswerRule.MatchType.ANY, null, null, response);
+        }
+        int colon = match.indexOf(':');
+        if (colon < 0) {
+            throw new IllegalArgumentException("缺少匹配方式（text/hex/prefix/hexprefix/regex/*）");
+        }
+        String type = match.substring(0, colon).strip().toLowerCase(Locale.ROOT);
+        String pattern = match.substring(colon + 1);
+        return switch (type) {
+            case "text" -> new AnswerRule(AnswerRule.MatchType.TEXT, unescape(pattern), null, response);
+            case "hex" -> new AnswerRule(AnswerRule.MatchType.HEX, HexCodec.decode(pattern), null, response);
+            case "prefix" -> new AnswerRule(AnswerRule.MatchType.PREFIX, unescape(pattern), null, response);
+            case "hexprefix" -> new AnswerRule(AnswerRule.MatchType.HEX_PREFIX, HexCodec.decode(pattern), null, response);
+            case "regex" -> {
+                try {
+                    Pattern.compile(pattern);
+                } catch (PatternSyntaxException e) {
+                    throw new IllegalArgumentException("正则表达式无效：" + e.getDescription());
+                }
+                yield new AnswerRule(AnswerRule.MatchType.REGEX, null, pattern, response);
+            }
+            default -> throw new IllegalArgumentException("未知的匹配方式：" + type);
+        };
+    }
+
+    private static byte[] parseResponse(String response) {
+        if (response.regionMatches(true, 0, "hex:", 0, 4)) {
+            return HexCodec.decode(response.substring(4));
+        }
+        return unescape(response);
+    }
+
+    private static byte[] unescape(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c != '\\' || i + 1 == text.length()) {
+                sb.append(c);
+                continue;
+            }
+            char e = text.charAt(++i);
+            switch (e) {
+                case 'r' -> sb.append('\r');
+                case 'n' -> sb.append('\n');
+                case 't' -> sb.append('\t');
+                case '0' -> sb.append('\0');
+                case '\\' -> sb.append('\\');
+                default -> sb.append('\\').append(e);
+            }
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return 报文命中的第一条规则的应答（调用方不得修改）；没有命中时为 null
+     */
+    public byte[] answer(PooledBuffer data) {
+        int length = data.length();
+        int best = anyRule;
+        if (firstPrefixRule < best) {
+            int node = 0;
+            for (int i = 0; i < length; i++) {
+                node = prefixNext[node << 8 | data.get(i) & 0xFF];
+                if (node < 0) {
+                    break;
+                }
+                best = Math.min(best, prefixOut[node]);
+            }
+        }
+        if (firstSubstringRule < best) {
+            best = data.hasArray() ? scan(data.array(), data.arrayOffset(), length, best) : scan(data, length, best);
+        }
+        if (regexRules.length > 0 && regexRules[0] < best) {
+            String text = new String(data.toByteArray(), StandardCharsets.UTF_8);
+            for (int r = 0; r < regexRules.length && regexRules[r] < best; r++) {
+                if (regexPatterns[r].matcher(text).find()) {
+                    best = regexRules[r];
+                    break;
+                }
+            }
+        }
+        return best == NONE ? null : responses[best];
+    }
+
+    private int scan(byte[] bytes, int offset, int length, int best) {
+        int state = 0;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            state = delta[state << 8 | bytes[i] & 0xFF];
+            int hit = out[state];
+            if (hit < best) {
+                best = hit;
+                // 已命中排在最前的 TEXT/HEX 规则，不会再有更靠前的结果
+                if (best == firstSubstringRule) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int scan(PooledBuffer data, int length, int best) {
+        int state = 0;
+        for (int i = 0; i < length; i++) {
+            state = delta[state << 8 | data.get(i) & 0xFF];
+            int hit = out[state];
+            if (hit < best) {
+                best = hit;
+                if (best == firstSubstringRule) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    public List<AnswerRule> getRules() {
+        return rules;
+    }
+
+    /**
+     * 规则摘要，用于界面提示
+     */
+    public String describe() {
+        return rules.size() + " 条规则（自动机 " + out.length + " 个状态）";
+    }
+
+    /**
+     * 按字节建立的 trie，节点 0 为根
+     */
+    private static final class Trie {
+        private int[] next = newRow(new int[0], 0);
+        private int[] out = {NONE};
+        private int size = 1;
+
+        void insert(byte[] pattern, int rule) {
+            int node = 0;
+            for (byte b : pattern) {
+                int index = node << 8 | b & 0xFF;
+                if (next[index] < 0) {
+                    if (size == out.length) {
+                        out = Arrays.copyOf(out, size * 2);
+                        next = Arrays.copyOf(next, size * 2 << 8);
+                    }
+                    Arrays.fill(next, size << 8, (size + 1) << 8, -1);
+                    out[size] = NONE;
+                    next[index] = size++;
+                }
+                node = next[index];
+            }
+            out[node] = Math.min(out[node], rule);
+        }
+
+        int[] next() {
+            return Arrays.copyOf(next, size << 8);
+        }
+
+        int[] out() {
+            return Arrays.copyOf(out, size);
+        }
+
+        /**
+         * 按广度优先补全失败转移，得到完整的转移表；同时把后缀链上的命中合并进 out
+         */
+        int[] buildAutomaton(int[] out) {
+            int[] delta = next();
+            int[] fail = new int[size];
+            int[] queue = new int[size];
+            int head = 0;
+            int tail = 0;
+            for (int c = 0; c < 256; c++) {
+                int child = delta[c];
+                if (child < 0) {
+                    delta[c] = 0;
+                } else {
+                    fail[child] = 0;
+                    queue[tail++] = child;
+                }
+            }
+            while (head < tail) {
+                int node = queue[head++];
+                out[node] = Math.min(out[node], out[fail[node]]);
+                for (int c = 0; c < 256; c++) {
+                    int index = node << 8 | c;
+                    int child = delta[index];
+                    if (child < 0) {
+                        delta[index] = delta[fail[node] << 8 | c];
+                    } else {
+                        fail[child] = delta[fail[node] << 8 | c];
+                        queue[tail++] = child;
+                    }
+                }
+            }
+            return delta;
+        }
+
+        private static int[] newRow(int[] table, int node) {
+            int[] grown = Arrays.copyOf(table, (node + 1) << 8);
+            Arrays.fill(grown, node << 8, (node + 1) << 8, -1);
+            return grown;
+        }
+    }
+}
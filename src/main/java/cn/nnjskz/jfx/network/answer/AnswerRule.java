@@ -0,0 +1,43 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.answer;
+
+import java.util.Objects;
+
+/**
+ * 自动应答规则
+ *
+ * @param type     匹配方式
+ * @param pattern  匹配内容：TEXT/HEX/PREFIX/HEX_PREFIX 为字节序列，REGEX 与 ANY 为 null
+ * @param regex    REGEX 的正则表达式（在按 UTF-8 解码的报文中查找），其他方式为 null
+ * @param response 应答内容
+ */
+public record AnswerRule(MatchType type, byte[] pattern, String regex, byte[] response) {
+    public AnswerRule {
+        Objects.requireNonNull(type, "type");
+        Objects.requireNonNull(response, "response");
+        if (type == MatchType.REGEX ? regex == null : type != MatchType.ANY && (pattern == null || pattern.length == 0)) {
+            throw new IllegalArgumentException("匹配内容不能为空");
+        }
+    }
+
+    public enum MatchType {
+        // 报文中任意位置包含该文本（UTF-8）
+        TEXT,
+        // 报文中任意位置包含该字节序列
+        HEX,
+        // 报文以该文本开头
+        PREFIX,
+        // 报文以该字节序列开头
+        HEX_PREFIX,
+        // 正则表达式在报文中可以找到
+        REGEX,
+        // 任意报文
+        ANY
+    }
+}
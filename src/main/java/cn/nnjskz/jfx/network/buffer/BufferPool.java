@@ -0,0 +1,161 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 定长块的 ByteBuffer 池（slab 分配）
+ * <p>
+ * 每次向系统申请一整块 slab（约 1MB），再切成若干等长的块循环使用；
+ * 块通过 {@link PooledBuffer} 的引用计数归还。slab 数达到上限后退化为普通堆分配，交由 GC 回收。
+ */
+public final class BufferPool {
+    private static final int SLAB_BYTES = 1 << 20;
+    private static final int MIN_SIZE_CLASS = 64;
+    /**
+     * {@link #forLength(int)} 支持的最大长度
+     */
+    public static final int MAX_SIZE_CLASS = SLAB_BYTES;
+    private static final int DEFAULT_MAX_SLABS = 64;
+    // 2 的幂块大小的共享池按 log2(块大小) 下标存放，取池时不分配对象、不查哈希表
+    private static final AtomicReferenceArray<BufferPool> HEAP_CLASSES = new AtomicReferenceArray<>(Integer.numberOfTrailingZeros(MAX_SIZE_CLASS) + 1);
+    private static final AtomicReferenceArray<BufferPool> DIRECT_CLASSES = new AtomicReferenceArray<>(Integer.numberOfTrailingZeros(MAX_SIZE_CLASS) + 1);
+    // 其他块大小（如手动指定的读缓冲区），只在建立连接时查找
+    private static final Map<Integer, BufferPool> HEAP_OTHERS = new ConcurrentHashMap<>();
+    private static final Map<Integer, BufferPool> DIRECT_OTHERS = new ConcurrentHashMap<>();
+
+    private final int chunkSize;
+    private final int chunksPerSlab;
+    private final int maxSlabs;
+    private final boolean direct;
+    private final Queue<ByteBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger slabs = new AtomicInteger();
+    private final AtomicInteger inUse = new AtomicInteger();
+
+    public BufferPool(int chunkSize, int maxSlabs, boolean direct) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        this.chunkSize = chunkSize;
+        this.chunksPerSlab = Math.max(1, SLAB_BYTES / chunkSize);
+        this.maxSlabs = maxSlabs;
+        this.direct = direct;
+    }
+
+    /**
+     * 获取指定块大小的全局共享池
+     * @param chunkSize 块大小（字节）
+     * @param direct    是否直接内存；需要 {@code byte[]} 读写（如 InputStream）时使用堆内存
+     * @return BufferPool
+     */
+    public static BufferPool shared(int chunkSize, boolean direct) {
+        if (chunkSize > 0 && chunkSize <= MAX_SIZE_CLASS && Integer.bitCount(chunkSize) == 1) {
+            return sizeClass(Integer.numberOfTrailingZeros(chunkSize), direct);
+        }
+        return (direct ? DIRECT_OTHERS : HEAP_OTHERS).computeIfAbsent(chunkSize,
+                k -> new BufferPool(chunkSize, DEFAULT_MAX_SLABS, direct));
+    }
+
+    private static BufferPool sizeClass(int log2, boolean direct) {
+        AtomicReferenceArray<BufferPool> classes = direct ? DIRECT_CLASSES : HEAP_CLASSES;
+        BufferPool pool = classes.get(log2);
+        if (pool == null) {
+            classes.compareAndSet(log2, null, new BufferPool(1 << log2, DEFAULT_MAX_SLABS, direct));
+            pool = classes.get(log2);
+        }
+        return pool;
+    }
+
+    /**
+     * 按长度选择 2 的幂分级的共享堆内存池，避免变长数据（报文、帧）都占用最大长度的块
+     * @param length 数据长度，不超过 {@link #MAX_SIZE_CLASS}
+     * @return 块大小不小于 length 的共享池
+     */
+    public static BufferPool forLength(int length) {
+        if (length > MAX_SIZE_CLASS) {
+            throw new IllegalArgumentException("length exceeds " + MAX_SIZE_CLASS + ": " + length);
+        }
+        int log2 = length <= MIN_SIZE_CLASS ? Integer.numberOfTrailingZeros(MIN_SIZE_CLASS) : 32 - Integer.numberOfLeadingZeros(length - 1);
+        return sizeClass(log2, false);
+    }
+
+    /**
+     * 分配一个块，池已耗尽时退化为非池化的堆内存
+     * @return 引用计数为 1 的缓冲区
+     */
+    public PooledBuffer allocate() {
+        PooledBuffer buf = tryAllocate();
+        return buf != null ? buf : new PooledBuffer(null, ByteBuffer.allocate(chunkSize));
+    }
+
+    /**
+     * 分配一个块，池已耗尽时返回 null（调用方可据此丢弃数据而不是继续占用内存）
+     * @return 引用计数为 1 的缓冲区或 null
+     */
+    public PooledBuffer tryAllocate() {
+        ByteBuffer chunk = free.poll();
+        if (chunk == null) {
+            if (!grow()) {
+                return null;
+            }
+            chunk = free.poll();
+            if (chunk == null) {
+                return null;
+            }
+        }
+        inUse.incrementAndGet();
+        chunk.clear();
+        return new PooledBuffer(this, chunk);
+    }
+
+    private boolean grow() {
+        int n;
+        do {
+            n = slabs.get();
+            if (n >= maxSlabs) {
+                return false;
+            }
+        } while (!slabs.compareAndSet(n, n + 1));
+        ByteBuffer slab = direct ? ByteBuffer.allocateDirect(chunkSize * chunksPerSlab) : ByteBuffer.allocate(chunkSize * chunksPerSlab);
+        for (int i = 0; i < chunksPerSlab; i++) {
+            slab.limit((i + 1) * chunkSize).position(i * chunkSize);
+            free.add(slab.slice());
+        }
+        return true;
+    }
+
+    void recycle(ByteBuffer chunk) {
+        inUse.decrementAndGet();
+        free.add(chunk);
+    }
+
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @return 当前被借出的块数
+     */
+    public int inUse() {
+        return inUse.get();
+    }
+
+    /**
+     * @return 已向系统申请的总字节数
+     */
+    public long reservedBytes() {
+        return (long) slabs.get() * chunksPerSlab * chunkSize;
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.buffer;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 引用计数的缓冲区切片
+ * <p>
+ * 创建时引用计数为 1。需要跨线程持有（例如交给 UI 渲染或日志写入）时先 {@link #retain()}，
+ * 用完后 {@link #release()}；计数归零时块归还给所属的 {@link BufferPool}。
+ */
+public final class PooledBuffer {
+    private final BufferPool pool;
+    private final ByteBuffer chunk;
+    private final AtomicInteger refCnt = new AtomicInteger(1);
+    private int length;
+
+    PooledBuffer(BufferPool pool, ByteBuffer chunk) {
+        this.pool = pool;
+        this.chunk = chunk;
+    }
+
+    /**
+     * 包装已有数组（不入池，release 后交由 GC 回收）
+     * @param bytes 数据
+     * @return PooledBuffer
+     */
+    public static PooledBuffer wrap(byte[] bytes) {
+        PooledBuffer buf = new PooledBuffer(null, ByteBuffer.wrap(bytes));
+        buf.length = bytes.length;
+        return buf;
+    }
+
+    /**
+     * 获取底层块用于写入；写入完成后通过 {@link #setLength(int)} 设置有效长度
+     * @return 容量为块大小的 ByteBuffer（position = 0）
+     */
+    public ByteBuffer buffer() {
+        return chunk;
+    }
+
+    public void setLength(int length) {
+        if (length < 0 || length > chunk.capacity()) {
+            throw new IndexOutOfBoundsException("length " + length + " > capacity " + chunk.capacity());
+        }
+        this.length = length;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return 有效数据的只读视图 [0, length)
+     */
+    public ByteBuffer data() {
+        return chunk.asReadOnlyBuffer().position(0).limit(length);
+    }
+
+    public boolean hasArray() {
+        return chunk.hasArray();
+    }
+
+    /**
+     * 仅当 {@link #hasArray()} 为 true 时可用，有效数据位于 [arrayOffset(), arrayOffset() + length())
+     */
+    public byte[] array() {
+        return chunk.array();
+    }
+
+    public int arrayOffset() {
+        return chunk.arrayOffset();
+    }
+
+    public byte get(int index) {
+        return chunk.get(index);
+    }
+
+    /**
+     * 复制有效数据到新数组
+     * @return byte[]
+     */
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[length];
+        chunk.get(0, bytes, 0, length);
+        return bytes;
+    }
+
+    public PooledBuffer retain() {
+        int n;
+        do {
+            n = refCnt.get();
+            if (n <= 0) {
+                throw new IllegalStateException("buffer already released");
+            }
+        } while (!refCnt.compareAndSet(n, n + 1));
+        return this;
+    }
+
+    /**
+     * 释放一次引用
+     * @return 引用计数是否归零
+     */
+    public boolean release() {
+        int n = refCnt.decrementAndGet();
+        if (n == 0) {
+            if (pool != null) {
+                pool.recycle(chunk);
+            }
+            return true;
+        }
+        if (n < 0) {
+            throw new IllegalStateException("buffer released too many times");
+        }
+        return false;
+    }
+
+    public int refCnt() {
+        return refCnt.get();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.capture;
+
+import cn.nnjskz.jfx.network.codec.HexCodec;
+import cn.nnjskz.jfx.utils.DateUtil;
+import cn.nnjskz.jfx.utils.NanoClock;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 抓包文件的只读视图
+ * <p>
+ * 以只读映射按窗口顺序遍历记录，记录体直接以映射区的切片交给回调，不拷贝。
+ * 可读取正在写入的文件：只遍历到创建视图时已提交的位置。
+ */
+public final class CaptureReader {
+    // 每次映射的窗口大小，单条记录超过时按记录大小映射
+    private static final long WINDOW = 64L * 1024 * 1024;
+
+    private final Path file;
+    private final long limit;
+    private final CaptureStore.Protocol protocol;
+
+    /**
+     * 打开整个文件
+     */
+    public CaptureReader(Path file) throws IOException {
+        this(file, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param file  抓包文件
+     * @param limit 只读取 [0, limit) 范围内的记录
+     */
+    CaptureReader(Path file, long limit) throws IOException {
+        this.file = file;
+        this.limit = limit;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(CaptureStore.FILE_HEADER);
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    throw new IOException("不是有效的抓包文件: " + file.getFileName());
+                }
+            }
+            header.flip();
+            byte[] magic = new byte[CaptureStore.MAGIC.length];
+            header.get(magic);
+            int version = header.getInt();
+            int protocol = header.getInt();
+            if (!Arrays.equals(magic, CaptureStore.MAGIC) || version != CaptureStore.VERSION
+                    || protocol < 0 || protocol >= CaptureStore.Protocol.values().length) {
+                throw new IOException("不是有效的抓包文件: " + file.getFileName());
+            }
+            this.protocol = CaptureStore.Protocol.values()[protocol];
+        }
+    }
+
+    public CaptureStore.Protocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * 按写入顺序遍历全部记录
+     */
+    public void forEach(Visitor visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long end = Math.min(limit, channel.size());
+            long pos = CaptureStore.FILE_HEADER;
+            MappedByteBuffer window = null;
+            long windowStart = 0;
+            while (pos + CaptureStore.RECORD_HEADER <= end) {
+                if (window == null || pos + CaptureStore.RECORD_HEADER > windowStart + window.limit()) {
+                    windowStart = pos;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, end - pos));
+                }
+                int total = window.getInt((int) (pos - windowStart));
+                // 0 为映射段中尚未写入的区域；越界为异常退出时残缺的记录
+                if (total < CaptureStore.RECORD_HEADER || pos + total > end) {
+                    break;
+                }
+                if (pos + total > windowStart + window.limit()) {
+                    windowStart = pos;
+                    window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Math.max(WINDOW, total), end - pos));
+                }
+                int offset = (int) (pos - windowStart);
+                byte type = window.get(offset + 4);
+                Direction direction = Direction.of(window.get(offset + 5));
+                long connectionId = window.getLong(offset + 8);
+                long timestamp = window.getLong(offset + 16);
+                int length = window.getInt(offset + 24);
+                ByteBuffer payload = window.slice(offset + CaptureStore.RECORD_HEADER, length).asReadOnlyBuffer();
+                if (type == CaptureStore.TYPE_DATA) {
+                    visitor.onData(new CaptureRecord(connectionId, direction, timestamp, payload));
+                } else if (type == CaptureStore.TYPE_CONNECTION) {
+                    String[] info = StandardCharsets.UTF_8.decode(payload).toString().split("\n", 2);
+                    visitor.onConnection(new Connection(connectionId, info[0], info.length > 1 ? info[1] : ""));
+                }
+                pos += total;
+            }
+        }
+    }
+
+    /**
+     * 以与聊天区相同的格式输出文本：可按 UTF-8 解码的内容输出文本，否则输出十六进制
+     */
+    public void writeText(Writer out) throws IOException {
+        Map<Long, String> remotes = new HashMap<>();
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        forEach(new Visitor() {
+            @Override
+            public void onConnection(Connection connection) {
+                remotes.put(connection.id(), connection.remoteAddress());
+            }
+
+            @Override
+            public void onData(CaptureRecord record) throws IOException {
+                String text;
+                boolean hex = false;
+                try {
+                    CharBuffer chars = decoder.reset().decode(record.data().duplicate());
+                    text = chars.toString();
+                } catch (CharacterCodingException e) {
+                    ByteBuffer data = record.data();
+                    byte[] bytes = new byte[data.remaining()];
+                    data.duplicate().get(bytes);
+                    text = HexCodec.encode(bytes);
+                    hex = true;
+                }
+                String remote = remotes.getOrDefault(record.connectionId(), "#" + record.connectionId());
+                out.write("[" + DateUtil.formatDate2String(NanoClock.toMillis(record.timestampNanos()), DateUtil.LONG_PATTERN) + "] "
+                        + (record.direction() == Direction.SEND ? "你>>" + remote : "<<来自" + remote)
+                        + "|" + record.length() + "字节" + (hex ? "【HEX】" : "") + ":\n");
+                out.write(text);
+                out.write("\n\n");
+            }
+        });
+    }
+
+    /**
+     * 连接信息
+     *
+     * @param id            连接编号
+     * @param localAddress  本端地址 ip:port
+     * @param remoteAddress 对端地址 ip:port
+     */
+    public record Connection(long id, String localAddress, String remoteAddress) {
+    }
+
+    /**
+     * 记录回调，记录中的数据只在回调期间有效
+     */
+    public interface Visitor {
+        default void onConnection(Connection connection) throws IOException {
+        }
+
+        void onData(CaptureRecord record) throws IOException;
+    }
+}
@@ -0,0 +1,24 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.capture;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 抓包文件中的一条数据记录
+ *
+ * @param connectionId   连接编号，对应 {@link CaptureReader.Connection#id()}
+ * @param direction      方向
+ * @param timestampNanos 时间（纪元纳秒）
+ * @param data           原始字节，只读视图，仅在回调期间有效
+ */
+public record CaptureRecord(long connectionId, Direction direction, long timestampNanos, ByteBuffer data) {
+    public int length() {
+        return data.remaining();
+    }
+}
@@ -0,0 +1,375 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.capture;
+
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话抓包文件（只追加）
+ * <p>
+ * 网络回调把收发的原始字节入队后立即返回（数据块只 retain 不拷贝），由唯一的写线程按顺序写入
+ * 以 {@link FileChannel#map} 映射的段：当前段剩余空间不足时从写入位置起映射下一段，文件随之增长，记录在文件中连续存放。
+ * <p>
+ * 文件格式（大端）：
+ * <pre>
+ * 文件头 16 字节：magic "JFXCAP\0\1" | version int | protocol int（0 = TCP，1 = UDP）
+ * 记录头 28 字节：length int（含记录头） | type byte | direction byte | reserved short
+ *                | connectionId long | timestamp long（纪元纳秒） | payloadLength int
+ * 记录体：type = 1 为原始字节；type = 2 为连接信息，UTF-8 "本端地址\n对端地址"
+ * </pre>
+ * 映射段中尚未写入的区域为 0，读取时遇到 length = 0 即为结尾；正常关闭时文件截断到实际长度。
+ */
+public final class CaptureStore implements Closeable {
+    public static final String EXTENSION = ".jfxcap";
+    static final byte[] MAGIC = {'J', 'F', 'X', 'C', 'A', 'P', 0, 1};
+    static final int VERSION = 1;
+    static final int FILE_HEADER = 16;
+    static final int RECORD_HEADER = 28;
+    static final byte TYPE_DATA = 1;
+    static final byte TYPE_CONNECTION = 2;
+    private static final int QUEUE_CAPACITY = 64 * 1024;
+    private static final int MAX_BATCH = 1024;
+    private static final long FLUSH_TIMEOUT_SECONDS = 10;
+    // 写线程处理到该条目时退出
+    private static final Entry STOP = new Entry((byte) 0, Direction.SEND, 0, 0, null, null, null);
+
+    /**
+     * 会话的传输协议
+     */
+    public enum Protocol {
+        TCP, UDP
+    }
+
+    private final Path file;
+    private final Protocol protocol;
+    private final String localAddress;
+    private final long segmentSize;
+    private final FileChannel channel;
+    private final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writer;
+    // 已写出连接信息的连接编号
+    private final Map<Long, Boolean> connections = new ConcurrentHashMap<>();
+    // UDP 按对端地址分配连接编号
+    private final Map<String, Long> peers = new ConcurrentHashMap<>();
+    private final AtomicLong peerSeq = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private volatile boolean closed;
+    // 写线程因写入失败已退出；与 closed 分开，close() 仍需释放文件
+    private volatile boolean failed;
+    private volatile long committed;
+    private volatile IOException failure;
+
+    // 以下仅由写线程访问
+    private MappedByteBuffer segment;
+    private long position;
+
+    /**
+     * 创建抓包文件并启动写线程
+     *
+     * @param file         文件路径，已存在时覆盖
+     * @param protocol     传输协议
+     * @param localAddress 本端地址 ip:port
+     * @param segmentSize  每次映射的段大小（字节），单条记录超过时按记录大小映射
+     */
+    public CaptureStore(Path file, Protocol protocol, String localAddress, long segmentSize) throws IOException {
+        if (segmentSize < RECORD_HEADER) {
+            throw new IllegalArgumentException("映射段过小: " + segmentSize);
+        }
+        this.file = file;
+        this.protocol = protocol;
+        this.localAddress = localAddress;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        header.put(MAGIC).putInt(VERSION).putInt(protocol.ordinal()).flip();
+        while (header.hasRemaining()) {
+            channel.write(header, header.position());
+        }
+        this.position = FILE_HEADER;
+        this.committed = FILE_HEADER;
+        this.writer = new Thread(this::writeLoop, "capture-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Protocol getProtocol() {
+        return protocol;
+    }
+
+    /**
+     * 登记连接，同一编号只写入一次
+     *
+     * @param connectionId  连接编号
+     * @param remoteAddress 对端地址 ip:port
+     */
+    public void defineConnection(long connectionId, String remoteAddress) {
+        defineConnection(connectionId, localAddress, remoteAddress);
+    }
+
+    /**
+     * 登记连接并指定该连接的本端地址（导入的抓包中各连接的本端可能不同）
+     */
+    public void defineConnection(long connectionId, String localAddress, String remoteAddress) {
+        if (connections.putIfAbsent(connectionId, Boolean.TRUE) == null) {
+            byte[] info = (localAddress + "\n" + remoteAddress).getBytes(StandardCharsets.UTF_8);
+            // 连接信息必须写入，队列满时等待
+            try {
+                queue.put(new Entry(TYPE_CONNECTION, Direction.RECEIVE, connectionId, 0, null, info, null));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 按对端地址取连接编号，首次出现时登记；用于没有连接编号的 UDP 会话，不能与 {@link #defineConnection} 混用
+     */
+    public long connectionOf(String remoteAddress) {
+        Long id = peers.get(remoteAddress);
+        if (id == null) {
+            id = peers.computeIfAbsent(remoteAddress, k -> peerSeq.incrementAndGet());
+            defineConnection(id, remoteAddress);
+        }
+        return id;
+    }
+
+    /**
+     * 记录一个数据块，写入完成前由本方法持有引用
+     */
+    public void record(long connectionId, Direction direction, long timestamp, PooledBuffer data) {
+        if (closed || failed) {
+            return;
+        }
+        data.retain();
+        if (!queue.offer(new Entry(TYPE_DATA, direction, connectionId, timestamp, data, null, null))) {
+            data.release();
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 记录一段数据（复制后入队，调用方可继续复用该数组）
+     */
+    public void record(long connectionId, Direction direction, long timestamp, byte[] data) {
+        if (closed || failed) {
+            return;
+        }
+        if (!queue.offer(new Entry(TYPE_DATA, direction, connectionId, timestamp, null, data.clone(), null))) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 记录一段数据，队列满时等待而不丢弃（用于导入等离线写入），调用方此后不得修改该数组
+     */
+    public void append(long connectionId, Direction direction, long timestamp, byte[] data) throws IOException {
+        if (closed) {
+            throw new IOException("抓包文件已关闭");
+        }
+        IOException error = failure;
+        if (error != null) {
+            throw error;
+        }
+        try {
+            queue.put(new Entry(TYPE_DATA, direction, connectionId, timestamp, null, data, null));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("写入抓包文件被中断");
+        }
+    }
+
+    /**
+     * @return 写线程跟不上（队列已满）而未记录的数据块数
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return 已写入的字节数（含文件头）
+     */
+    public long size() {
+        return committed;
+    }
+
+    /**
+     * 等待此前入队的记录全部写入映射段
+     */
+    public void flush() throws IOException {
+        if (!closed && !failed) {
+            CountDownLatch done = new CountDownLatch(1);
+            try {
+                queue.put(new Entry((byte) 0, Direction.SEND, 0, 0, null, null, done));
+                if (!done.await(FLUSH_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    throw new IOException("等待抓包写入超时");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("等待抓包写入被中断", e);
+            }
+        }
+        IOException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    /**
+     * 把已写入的内容复制到 target（内核态拷贝，不经过界面文本）
+     */
+    public void saveTo(Path target) throws IOException {
+        flush();
+        long end = committed;
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long pos = 0;
+            while (pos < end) {
+                pos += channel.transferTo(pos, end - pos, out);
+            }
+        }
+    }
+
+    /**
+     * @return 当前已写入内容的只读视图
+     */
+    public CaptureReader reader() throws IOException {
+        flush();
+        return new CaptureReader(file, committed);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!failed) {
+                // 此前入队的记录写完后退出
+                queue.put(STOP);
+            }
+            writer.join(TimeUnit.SECONDS.toMillis(FLUSH_TIMEOUT_SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 写入失败时也要截断并关闭文件，已写入的部分仍可读取
+        segment = null;
+        try {
+            channel.truncate(committed);
+        } catch (IOException ignored) {
+            // 部分平台上文件仍处于映射状态时无法截断，结尾的 0 由读取方识别
+        }
+        channel.close();
+        IOException e = failure;
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void writeLoop() {
+        List<Entry> batch = new ArrayList<>(MAX_BATCH);
+        try {
+            boolean stop = false;
+            while (!stop) {
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                for (int i = 0; i < batch.size(); i++) {
+                    Entry entry = batch.set(i, null);
+                    if (entry == STOP) {
+                        stop = true;
+                    } else if (entry.flushed != null) {
+                        committed = position;
+                        entry.flushed.countDown();
+                    } else {
+                        write(entry);
+                    }
+                }
+                committed = position;
+                batch.clear();
+            }
+        } catch (InterruptedException ignored) {
+        } catch (IOException e) {
+            failure = e;
+            failed = true;
+        } finally {
+            // 出错时释放未写入的数据块并唤醒等待 flush 的线程
+            for (Entry entry : batch) {
+                if (entry != null) {
+                    release(entry);
+                }
+            }
+            Entry entry;
+            while ((entry = queue.poll()) != null) {
+                release(entry);
+            }
+        }
+    }
+
+    private void write(Entry entry) throws IOException {
+        try {
+            int length = entry.buffer != null ? entry.buffer.length() : entry.bytes.length;
+            int total = RECORD_HEADER + length;
+            if (segment == null || segment.remaining() < total) {
+                segment = channel.map(FileChannel.MapMode.READ_WRITE, position, Math.max(segmentSize, total));
+            }
+            segment.putInt(total)
+                    .put(entry.type)
+                    .put((byte) entry.direction.code())
+                    .putShort((short) 0)
+                    .putLong(entry.connectionId)
+                    .putLong(entry.timestamp)
+                    .putInt(length);
+            if (entry.buffer != null) {
+                segment.put(entry.buffer.data());
+            } else {
+                segment.put(entry.bytes);
+            }
+            position += total;
+        } finally {
+            release(entry);
+        }
+    }
+
+    private static void release(Entry entry) {
+        if (entry.buffer != null) {
+            entry.buffer.release();
+        }
+        if (entry.flushed != null) {
+            entry.flushed.countDown();
+        }
+    }
+
+    private record Entry(byte type, Direction direction, long connectionId, long timestamp,
+                         PooledBuffer buffer, byte[] bytes, CountDownLatch flushed) {
+    }
+}
@@ -0,0 +1,34 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.capture;
+
+/**
+ * 数据方向（以本工具为视角）
+ */
+public enum Direction {
+    SEND("发送"),
+    RECEIVE("接收");
+
+    private final String label;
+
+    Direction(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    static Direction of(int code) {
+        return code == 0 ? SEND : RECEIVE;
+    }
+
+    int code() {
+        return this == SEND ? 0 : 1;
+    }
+}
@@ -0,0 +1,520 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.capture;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从 pcap / pcapng 文件导入 TCP 载荷流与 UDP 报文，生成抓包文件
+ * <p>
+ * 顺序读取、逐包处理，内存占用只与连接数有关：
+ * <ul>
+ *     <li>TCP 按序号去掉重传与重叠部分，只输出此前未输出过的字节：跳过的序号区间记为空缺，
+ *     迟到的乱序报文段中落在空缺内的部分在其到达时输出（按到达顺序，不做缓存重排），缺失的部分不输出</li>
+ *     <li>发出 SYN 的一端（未见握手时为首个报文的发送方）作为本端，UDP 以首个报文的发送方作为本端</li>
+ *     <li>分片的 IP 报文跳过</li>
+ * </ul>
+ * 支持以太网（含 VLAN）、Raw IP、Linux cooked（SLL/SLL2）与 BSD loopback 链路类型。
+ */
+public final class PcapImporter {
+    private static final int PCAP_MAGIC_MICROS = 0xA1B2C3D4;
+    private static final int PCAP_MAGIC_NANOS = 0xA1B23C4D;
+    private static final int BLOCK_SHB = 0x0A0D0D0A;
+    private static final int BLOCK_IDB = 0x00000001;
+    private static final int BLOCK_SPB = 0x00000003;
+    private static final int BLOCK_EPB = 0x00000006;
+    private static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    // 单个报文/块的上限，超过视为文件损坏
+    private static final int MAX_BLOCK = 64 * 1024 * 1024;
+    // 每个 TCP 方向最多记录的空缺数，超出时放弃最早的空缺
+    private static final int MAX_HOLES = 64;
+    // 落后期望序号超过该距离的空缺放弃，避免序号回绕后误判
+    private static final int MAX_HOLE_DISTANCE = 1 << 30;
+
+    private final FileChannel in;
+    private final Path targetDir;
+    private final String baseName;
+    private final long segmentSize;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).limit(0);
+    // pcapng 各接口的链路类型与时间戳精度（每秒的刻度数）
+    private final List<Integer> linkTypes = new ArrayList<>();
+    private final List<Long> tsUnits = new ArrayList<>();
+    private final Map<String, Flow> tcpFlows = new HashMap<>();
+    private final Map<String, Flow> udpFlows = new HashMap<>();
+    private CaptureStore tcpStore;
+    private CaptureStore udpStore;
+    private final List<Path> files = new ArrayList<>();
+    private long packets;
+    private long skipped;
+
+    private PcapImporter(FileChannel in, Path targetDir, String baseName, long segmentSize) {
+        this.in = in;
+        this.targetDir = targetDir;
+        this.baseName = baseName;
+        this.segmentSize = segmentSize;
+    }
+
+    /**
+     * 导入结果
+     *
+     * @param files   生成的抓包文件（TCP、UDP 各一份，没有对应报文时不生成）
+     * @param packets 导入的报文数
+     * @param skipped 跳过的报文数（非 TCP/UDP、分片、不支持的链路类型或残缺报文）
+     */
+    public record Result(List<Path> files, long packets, long skipped) {
+    }
+
+    /**
+     * 导入 pcap / pcapng 文件
+     *
+     * @param source      pcap 或 pcapng 文件
+     * @param targetDir   抓包文件的输出目录
+     * @param baseName    输出文件名前缀
+     * @param segmentSize 抓包文件的映射段大小（字节）
+     */
+    public static Result importFile(Path source, Path targetDir, String baseName, long segmentSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            PcapImporter importer = new PcapImporter(channel, targetDir, baseName, segmentSize);
+            try {
+                importer.read();
+            } finally {
+                importer.closeStores();
+            }
+            return new Result(List.copyOf(importer.files), importer.packets, importer.skipped);
+        }
+    }
+
+    private void read() throws IOException {
+        if (!ensure(4)) {
+            throw new IOException("不是有效的 pcap/pcapng 文件");
+        }
+        int magic = buffer.order(ByteOrder.BIG_ENDIAN).getInt(buffer.position());
+        if (magic == BLOCK_SHB) {
+            readPcapng();
+        } else if (magic == PCAP_MAGIC_MICROS || magic == PCAP_MAGIC_NANOS
+                || Integer.reverseBytes(magic) == PCAP_MAGIC_MICROS || Integer.reverseBytes(magic) == PCAP_MAGIC_NANOS) {
+            readPcap();
+        } else {
+            throw new IOException("不是有效的 pcap/pcapng 文件");
+        }
+    }
+
+    private void readPcap() throws IOException {
+        if (!ensure(24)) {
+            throw new IOException("pcap 文件头不完整");
+        }
+        int magic = buffer.getInt();
+        if (magic != PCAP_MAGIC_MICROS && magic != PCAP_MAGIC_NANOS) {
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            magic = Integer.reverseBytes(magic);
+        }
+        long unit = magic == PCAP_MAGIC_NANOS ? 1 : 1000;
+        buffer.position(buffer.position() + 16);
+        int linkType = buffer.getInt() & 0xFFFF;
+        while (ensure(16)) {
+            long seconds = buffer.getInt() & 0xFFFFFFFFL;
+            long fraction = buffer.getInt() & 0xFFFFFFFFL;
+            int captured = buffer.getInt();
+            buffer.getInt();
+            if (captured < 0 || captured > MAX_BLOCK || !ensure(captured)) {
+                break;
+            }
+            int start = buffer.position();
+            onFrame(linkType, seconds * 1_000_000_000L + fraction * unit, start, captured);
+            buffer.position(start + captured);
+        }
+    }
+
+    private void readPcapng() throws IOException {
+        while (ensure(12)) {
+            int start = buffer.position();
+            int type = buffer.getInt(start);
+            if (type == BLOCK_SHB) {
+                // 每个节可以有不同的字节序
+                int bom = buffer.order(ByteOrder.BIG_ENDIAN).getInt(start + 8);
+                buffer.order(bom == BYTE_ORDER_MAGIC ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+                linkTypes.clear();
+                tsUnits.clear();
+            }
+            int length = buffer.getInt(start + 4);
+            if (length < 12 || length > MAX_BLOCK || (length & 3) != 0 || !ensure(length)) {
+                break;
+            }
+            start = buffer.position();
+            switch (type) {
+                case BLOCK_IDB -> readInterface(start, length);
+                case BLOCK_EPB -> {
+                    int iface = buffer.getInt(start + 8);
+                    long timestamp = (buffer.getInt(start + 12) & 0xFFFFFFFFL) << 32 | buffer.getInt(start + 16) & 0xFFFFFFFFL;
+                    int captured = buffer.getInt(start + 20);
+                    if (iface >= 0 && iface < linkTypes.size() && captured >= 0 && captured <= length - 32) {
+                        onFrame(linkTypes.get(iface), toNanos(timestamp, tsUnits.get(iface)), start + 28, captured);
+                    } else {
+                        skipped++;
+                    }
+                }
+                case BLOCK_SPB -> {
+                    // 简单报文块没有时间戳
+                    int captured = Math.min(buffer.getInt(start + 8), length - 16);
+                    if (!linkTypes.isEmpty() && captured >= 0) {
+                        onFrame(linkTypes.get(0), 0, start + 12, captured);
+                    } else {
+                        skipped++;
+                    }
+                }
+                default -> {
+                }
+            }
+            buffer.position(start + length);
+        }
+    }
+
+    private void readInterface(int start, int length) {
+        int linkType = buffer.getShort(start + 8) & 0xFFFF;
+        long unitsPerSecond = 1_000_000;
+        int pos = start + 16;
+        int end = start + length - 4;
+        while (pos + 4 <= end) {
+            int code = buffer.getShort(pos) & 0xFFFF;
+            int optionLength = buffer.getShort(pos + 2) & 0xFFFF;
+            if (code == 0 || pos + 4 + optionLength > end) {
+                break;
+            }
+            if (code == 9 && optionLength >= 1) {
+                // if_tsresol：最高位为 0 表示 10 的负 n 次方秒，为 1 表示 2 的负 n 次方秒
+                int resolution = buffer.get(pos + 4) & 0xFF;
+                unitsPerSecond = (resolution & 0x80) == 0 ? pow10(resolution) : 1L << Math.min(resolution & 0x7F, 62);
+            }
+            pos += 4 + (optionLength + 3 & ~3);
+        }
+        linkTypes.add(linkType);
+        tsUnits.add(unitsPerSecond);
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < Math.min(exponent, 18); i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    private static long toNanos(long timestamp, long unitsPerSecond) {
+        if (unitsPerSecond == 1_000_000_000L) {
+            return timestamp;
+        }
+        long seconds = timestamp / unitsPerSecond;
+        long fraction = timestamp % unitsPerSecond;
+        return seconds * 1_000_000_000L + fraction * 1_000_000_000L / unitsPerSecond;
+    }
+
+    /**
+     * 处理一个链路层帧，offset/length 为帧在 buffer 中的范围
+     */
+    private void onFrame(int linkType, long timestamp, int offset, int length) throws IOException {
+        // 协议头均为网络字节序，与文件本身的字节序无关
+        ByteOrder order = buffer.order();
+        buffer.order(ByteOrder.BIG_ENDIAN);
+        try {
+            onLinkFrame(linkType, timestamp, offset, offset + length);
+        } finally {
+            buffer.order(order);
+        }
+    }
+
+    private void onLinkFrame(int linkType, long timestamp, int offset, int end) throws IOException {
+        int ip;
+        switch (linkType) {
+            case 1 -> {
+                // 以太网，跳过 VLAN 标签
+                int pos = offset + 12;
+                while (pos + 2 <= end && ((buffer.getShort(pos) & 0xFFFF) == 0x8100 || (buffer.getShort(pos) & 0xFFFF) == 0x88A8)) {
+                    pos += 4;
+                }
+                ip = pos + 2;
+            }
+            case 0, 108 -> ip = offset + 4;
+            case 12, 14, 101, 228, 229 -> ip = offset;
+            case 113 -> ip = offset + 16;
+            case 276 -> ip = offset + 20;
+            default -> ip = -1;
+        }
+        if (ip < 0 || ip >= end) {
+            skipped++;
+            return;
+        }
+        int version = (buffer.get(ip) & 0xF0) >>> 4;
+        if (version == 4) {
+            onIpv4(timestamp, ip, end);
+        } else if (version == 6) {
+            onIpv6(timestamp, ip, end);
+        } else {
+            skipped++;
+        }
+    }
+
+    private void onIpv4(long timestamp, int ip, int end) throws IOException {
+        if (ip + 20 > end) {
+            skipped++;
+            return;
+        }
+        int headerLength = (buffer.get(ip) & 0x0F) * 4;
+        int total = buffer.getShort(ip + 2) & 0xFFFF;
+        int fragment = buffer.getShort(ip + 6) & 0x3FFF;
+        // 以太网可能补齐到最小帧长，以 IP 总长度为准
+        int packetEnd = total >= headerLength ? Math.min(end, ip + total) : end;
+        if (fragment != 0 || headerLength < 20 || ip + headerLength > packetEnd) {
+            skipped++;
+            return;
+        }
+        onTransport(timestamp, buffer.get(ip + 9) & 0xFF, address(ip + 12, 4), address(ip + 16, 4), ip + headerLength, packetEnd);
+    }
+
+    private void onIpv6(long timestamp, int ip, int end) throws IOException {
+        if (ip + 40 > end) {
+            skipped++;
+            return;
+        }
+        int packetEnd = Math.min(end, ip + 40 + (buffer.getShort(ip + 4) & 0xFFFF));
+        int next = buffer.get(ip + 6) & 0xFF;
+        int pos = ip + 40;
+        // 跳过逐跳、路由与目的选项扩展头；分片头直接跳过整个报文
+        while ((next == 0 || next == 43 || next == 60) && pos + 8 <= packetEnd) {
+            next = buffer.get(pos) & 0xFF;
+            pos += ((buffer.get(pos + 1) & 0xFF) + 1) * 8;
+        }
+        if (next == 44 || pos > packetEnd) {
+            skipped++;
+            return;
+        }
+        onTransport(timestamp, next, address(ip + 8, 16), address(ip + 24, 16), pos, packetEnd);
+    }
+
+    private void onTransport(long timestamp, int protocol, String srcIp, String dstIp, int pos, int end) throws IOException {
+        if (protocol == 6 && pos + 20 <= end) {
+            int headerLength = ((buffer.get(pos + 12) & 0xF0) >>> 4) * 4;
+            if (headerLength < 20 || pos + headerLength > end) {
+                skipped++;
+                return;
+            }
+            String src = endpoint(srcIp, buffer.getShort(pos) & 0xFFFF);
+            String dst = endpoint(dstIp, buffer.getShort(pos + 2) & 0xFFFF);
+            long seq = buffer.getInt(pos + 4) & 0xFFFFFFFFL;
+            int flags = buffer.get(pos + 13) & 0xFF;
+            onTcp(timestamp, src, dst, seq, flags, pos + headerLength, end);
+        } else if (protocol == 17 && pos + 8 <= end) {
+            String src = endpoint(srcIp, buffer.getShort(pos) & 0xFFFF);
+            String dst = endpoint(dstIp, buffer.getShort(pos + 2) & 0xFFFF);
+            int length = buffer.getShort(pos + 4) & 0xFFFF;
+            int payloadEnd = length >= 8 ? Math.min(end, pos + length) : end;
+            Flow flow = udpFlows.computeIfAbsent(flowKey(src, dst), k -> new Flow(udpFlows.size() + 1, src, dst));
+            if (udpStore == null) {
+                udpStore = openStore(CaptureStore.Protocol.UDP);
+            }
+            emit(udpStore, flow, src, timestamp, pos + 8, payloadEnd);
+        } else {
+            skipped++;
+        }
+    }
+
+    private void onTcp(long timestamp, String src, String dst, long seq, int flags, int pos, int end) throws IOException {
+        boolean syn = (flags & 0x02) != 0;
+        boolean ack = (flags & 0x10) != 0;
+        Flow flow = tcpFlows.computeIfAbsent(flowKey(src, dst),
+                // SYN+ACK 的接收方是发起连接的一端
+                k -> syn && ack ? new Flow(tcpFlows.size() + 1, dst, src) : new Flow(tcpFlows.size() + 1, src, dst));
+        TcpStream stream = src.equals(flow.local) ? flow.localStream : flow.remoteStream;
+        if (syn) {
+            // SYN 占用一个序号
+            seq = seq + 1 & 0xFFFFFFFFL;
+            stream.next = seq;
+            stream.holes.clear();
+        } else if (stream.next < 0) {
+            stream.next = seq;
+        }
+        int length = end - pos;
+        if (length == 0) {
+            return;
+        }
+        if (tcpStore == null) {
+            tcpStore = openStore(CaptureStore.Protocol.TCP);
+        }
+        int ahead = (int) (seq - stream.next);
+        if (ahead < 0) {
+            // 重传、重叠或迟到的乱序报文段：先输出落在空缺内的部分，再保留超出期望序号的新部分
+            fillHoles(stream, flow, src, timestamp, pos, end, ahead);
+            if (length + ahead <= 0) {
+                return;
+            }
+            pos -= ahead;
+            seq = stream.next;
+        } else if (ahead > 0) {
+            addHole(stream, stream.next, seq);
+        }
+        emit(tcpStore, flow, src, timestamp, pos, end);
+        stream.next = seq + (end - pos) & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 输出报文段中落在空缺内的部分并缩小空缺
+     *
+     * @param start 报文段起始序号相对期望序号的偏移（负数）
+     */
+    private void fillHoles(TcpStream stream, Flow flow, String src, long timestamp, int pos, int end, int start)
+            throws IOException {
+        if (stream.holes.isEmpty()) {
+            return;
+        }
+        // 只看期望序号之前的部分，之后的由调用方输出
+        int limit = Math.min(start + (end - pos), 0);
+        List<long[]> remaining = new ArrayList<>(stream.holes.size() + 1);
+        for (long[] hole : stream.holes) {
+            int holeStart = (int) (hole[0] - stream.next);
+            int holeEnd = (int) (hole[1] - stream.next);
+            int from = Math.max(holeStart, start);
+            int to = Math.min(holeEnd, limit);
+            if (from >= to) {
+                remaining.add(hole);
+                continue;
+            }
+            emit(tcpStore, flow, src, timestamp, pos + from - start, pos + to - start);
+            if (holeStart < from) {
+                remaining.add(new long[]{hole[0], stream.next + from & 0xFFFFFFFFL});
+            }
+            if (to < holeEnd) {
+                remaining.add(new long[]{stream.next + to & 0xFFFFFFFFL, hole[1]});
+            }
+        }
+        stream.holes.clear();
+        stream.holes.addAll(remaining);
+    }
+
+    /**
+     * 记录被跳过的序号区间 [start, end)
+     */
+    private static void addHole(TcpStream stream, long start, long end) {
+        stream.holes.removeIf(hole -> (int) (hole[1] - stream.next) < -MAX_HOLE_DISTANCE);
+        if (stream.holes.size() >= MAX_HOLES) {
+            stream.holes.remove(0);
+        }
+        stream.holes.add(new long[]{start, end});
+    }
+
+    private void emit(CaptureStore store, Flow flow, String src, long timestamp, int pos, int end) throws IOException {
+        if (end <= pos) {
+            return;
+        }
+        if (!flow.defined) {
+            store.defineConnection(flow.id, flow.local, flow.remote);
+            flow.defined = true;
+        }
+        byte[] payload = new byte[end - pos];
+        buffer.get(pos, payload);
+        store.append(flow.id, src.equals(flow.local) ? Direction.SEND : Direction.RECEIVE, timestamp, payload);
+        packets++;
+    }
+
+    private CaptureStore openStore(CaptureStore.Protocol protocol) throws IOException {
+        Path file = targetDir.resolve(baseName + "_" + protocol.name().toLowerCase() + "_"
+                + System.currentTimeMillis() + CaptureStore.EXTENSION);
+        files.add(file);
+        return new CaptureStore(file, protocol, "", segmentSize);
+    }
+
+    private void closeStores() throws IOException {
+        try {
+            if (tcpStore != null) {
+                tcpStore.close();
+            }
+        } finally {
+            if (udpStore != null) {
+                udpStore.close();
+            }
+        }
+    }
+
+    private String address(int pos, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(pos, bytes);
+        try {
+            return InetAddress.getByAddress(bytes).getHostAddress();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String endpoint(String ip, int port) {
+        return ip + ":" + port;
+    }
+
+    private static String flowKey(String a, String b) {
+        return a.compareTo(b) < 0 ? a + "|" + b : b + "|" + a;
+    }
+
+    /**
+     * 确保缓冲区中至少有 length 字节可读，文件已读完时返回 false
+     */
+    private boolean ensure(int length) throws IOException {
+        if (buffer.remaining() >= length) {
+            return true;
+        }
+        if (length > buffer.capacity()) {
+            ByteBuffer larger = ByteBuffer.allocateDirect(length).order(buffer.order());
+            larger.put(buffer).flip();
+            buffer = larger;
+        }
+        ByteOrder order = buffer.order();
+        buffer.compact();
+        while (buffer.position() < length && buffer.hasRemaining()) {
+            if (in.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip().order(order);
+        return buffer.remaining() >= length;
+    }
+
+    /**
+     * TCP 一个方向的序号状态
+     */
+    private static final class TcpStream {
+        // 下一个期望的序号（已输出的最大序号之后），-1 为尚未确定
+        long next = -1;
+        // 期望序号之前尚未输出的序号区间 [start, end)，按序号排列
+        final List<long[]> holes = new ArrayList<>();
+    }
+
+    /**
+     * 一条 TCP 连接或一对 UDP 端点
+     */
+    private static final class Flow {
+        final long id;
+        final String local;
+        final String remote;
+        final TcpStream localStream = new TcpStream();
+        final TcpStream remoteStream = new TcpStream();
+        boolean defined;
+
+        Flow(long id, String local, String remote) {
+            this.id = id;
+            this.local = local;
+            this.remote = remote;
+        }
+    }
+}
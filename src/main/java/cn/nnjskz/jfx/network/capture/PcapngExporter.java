@@ -0,0 +1,307 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.capture;
+
+import java.io.IOException;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 把抓包文件导出为 pcapng，可直接用 Wireshark 打开
+ * <p>
+ * 每条记录按连接的真实本端/对端地址合成以太网、IPv4/IPv6 与 TCP/UDP 头；TCP 的序号与确认号按各方向已发送的字节数递增，
+ * 不合成握手与挥手。记录体直接从只读映射写出，内存占用与会话大小无关。
+ * <p>
+ * 未计算 TCP/UDP 校验和（置 0），Wireshark 默认不校验。
+ */
+public final class PcapngExporter {
+    private static final int BLOCK_SHB = 0x0A0D0D0A;
+    private static final int BLOCK_IDB = 0x00000001;
+    private static final int BLOCK_EPB = 0x00000006;
+    private static final int BYTE_ORDER_MAGIC = 0x1A2B3C4D;
+    private static final short LINKTYPE_ETHERNET = 1;
+    private static final int EPB_HEADER = 28;
+    private static final int ETHERNET_HEADER = 14;
+    private static final int IPV4_HEADER = 20;
+    private static final int IPV6_HEADER = 40;
+    private static final int TCP_HEADER = 20;
+    private static final int UDP_HEADER = 8;
+    // IPv4 总长度字段为 16 位，超过的 TCP 记录拆成多个报文段
+    private static final int MAX_SEGMENT = 65535 - IPV4_HEADER - TCP_HEADER;
+    private static final int STAGING_SIZE = 1024 * 1024;
+    // 本地管理的 MAC 地址，仅用于区分两端
+    private static final byte[] LOCAL_MAC = {0x02, 0, 0, 0, 0, 0x01};
+    private static final byte[] REMOTE_MAC = {0x02, 0, 0, 0, 0, 0x02};
+
+    private final FileChannel out;
+    private final boolean tcp;
+    private final ByteBuffer staging = ByteBuffer.allocateDirect(STAGING_SIZE);
+    private final Map<Long, Flow> flows = new HashMap<>();
+    private short ipId;
+    private long packets;
+
+    private PcapngExporter(FileChannel out, boolean tcp) {
+        this.out = out;
+        this.tcp = tcp;
+    }
+
+    /**
+     * 导出整个抓包文件
+     *
+     * @param capture 抓包文件
+     * @param target  pcapng 文件，已存在时覆盖
+     * @return 写出的报文数
+     */
+    public static long export(Path capture, Path target) throws IOException {
+        CaptureReader reader = new CaptureReader(capture);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            PcapngExporter exporter = new PcapngExporter(channel, reader.getProtocol() == CaptureStore.Protocol.TCP);
+            exporter.writeSectionHeader();
+            reader.forEach(new CaptureReader.Visitor() {
+                @Override
+                public void onConnection(CaptureReader.Connection connection) {
+                    exporter.flows.put(connection.id(), new Flow(connection.localAddress(), connection.remoteAddress()));
+                }
+
+                @Override
+                public void onData(CaptureRecord record) throws IOException {
+                    exporter.writeRecord(record);
+                }
+            });
+            exporter.flush();
+            return exporter.packets;
+        }
+    }
+
+    private void writeSectionHeader() throws IOException {
+        ensure(28 + 32);
+        staging.putInt(BLOCK_SHB).putInt(28).putInt(BYTE_ORDER_MAGIC)
+                .putShort((short) 1).putShort((short) 0).putLong(-1L).putInt(28);
+        // 接口描述块：以太网，时间戳精度为纳秒（if_tsresol = 9）
+        staging.putInt(BLOCK_IDB).putInt(32)
+                .putShort(LINKTYPE_ETHERNET).putShort((short) 0).putInt(0)
+                .putShort((short) 9).putShort((short) 1).put((byte) 9).put(new byte[3])
+                .putInt(0)
+                .putInt(32);
+    }
+
+    private void writeRecord(CaptureRecord record) throws IOException {
+        Flow flow = flows.computeIfAbsent(record.connectionId(), id -> new Flow("0.0.0.0:0", "0.0.0.0:0"));
+        boolean send = record.direction() == Direction.SEND;
+        ByteBuffer data = record.data();
+        if (!tcp) {
+            writePacket(flow, send, record.timestampNanos(), data);
+            return;
+        }
+        int position = data.position();
+        int end = data.limit();
+        do {
+            int length = Math.min(MAX_SEGMENT, end - position);
+            writePacket(flow, send, record.timestampNanos(), data.slice(position, length));
+            position += length;
+        } while (position < end);
+    }
+
+    private void writePacket(Flow flow, boolean send, long timestamp, ByteBuffer payload) throws IOException {
+        int length = payload.remaining();
+        int transport = tcp ? TCP_HEADER : UDP_HEADER;
+        int ip = flow.ipv6 ? IPV6_HEADER : IPV4_HEADER;
+        int frame = ETHERNET_HEADER + ip + transport + length;
+        int padding = -frame & 3;
+        int blockLength = EPB_HEADER + frame + padding + 4;
+        byte[] src = send ? flow.localIp : flow.remoteIp;
+        byte[] dst = send ? flow.remoteIp : flow.localIp;
+
+        ensure(EPB_HEADER + ETHERNET_HEADER + ip + transport);
+        staging.putInt(BLOCK_EPB).putInt(blockLength).putInt(0)
+                .putInt((int) (timestamp >>> 32)).putInt((int) timestamp)
+                .putInt(frame).putInt(frame);
+        staging.put(send ? REMOTE_MAC : LOCAL_MAC).put(send ? LOCAL_MAC : REMOTE_MAC)
+                .putShort((short) (flow.ipv6 ? 0x86DD : 0x0800));
+        if (flow.ipv6) {
+            staging.putInt(0x60000000).putShort((short) (transport + length))
+                    .put((byte) (tcp ? 6 : 17)).put((byte) 64).put(src).put(dst);
+        } else {
+            int start = staging.position();
+            staging.put((byte) 0x45).put((byte) 0).putShort((short) (ip + transport + length))
+                    .putShort(ipId++).putShort((short) 0x4000)
+                    .put((byte) 64).put((byte) (tcp ? 6 : 17)).putShort((short) 0).put(src).put(dst);
+            staging.putShort(start + 10, ipv4Checksum(staging, start));
+        }
+        int srcPort = send ? flow.localPort : flow.remotePort;
+        int dstPort = send ? flow.remotePort : flow.localPort;
+        staging.putShort((short) srcPort).putShort((short) dstPort);
+        if (tcp) {
+            staging.putInt((int) (send ? flow.localSeq : flow.remoteSeq))
+                    .putInt((int) (send ? flow.remoteSeq : flow.localSeq))
+                    // 数据偏移 5，PSH|ACK
+                    .put((byte) 0x50).put((byte) 0x18).putShort((short) 0xFFFF)
+                    .putShort((short) 0).putShort((short) 0);
+            if (send) {
+                flow.localSeq += length;
+            } else {
+                flow.remoteSeq += length;
+            }
+        } else {
+            staging.putShort((short) (UDP_HEADER + length)).putShort((short) 0);
+        }
+        put(payload);
+        ensure(padding + 4);
+        staging.put(new byte[padding]).putInt(blockLength);
+        packets++;
+    }
+
+    private static short ipv4Checksum(ByteBuffer header, int start) {
+        int sum = 0;
+        for (int i = 0; i < IPV4_HEADER; i += 2) {
+            sum += header.getShort(start + i) & 0xFFFF;
+        }
+        while ((sum >>> 16) != 0) {
+            sum = (sum & 0xFFFF) + (sum >>> 16);
+        }
+        return (short) ~sum;
+    }
+
+    private void put(ByteBuffer payload) throws IOException {
+        if (payload.remaining() <= staging.remaining()) {
+            staging.put(payload);
+            return;
+        }
+        flush();
+        if (payload.remaining() <= staging.capacity()) {
+            staging.put(payload);
+            return;
+        }
+        // 超过暂存区的记录体直接从映射区写出
+        while (payload.hasRemaining()) {
+            out.write(payload);
+        }
+    }
+
+    private void ensure(int length) throws IOException {
+        if (staging.remaining() < length) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        staging.flip();
+        while (staging.hasRemaining()) {
+            out.write(staging);
+        }
+        staging.clear();
+    }
+
+    /**
+     * 连接两端的地址与 TCP 序号
+     */
+    private static final class Flow {
+        final byte[] localIp;
+        final byte[] remoteIp;
+        final int localPort;
+        final int remotePort;
+        final boolean ipv6;
+        long localSeq = 1;
+        long remoteSeq = 1;
+
+        Flow(String localAddress, String remoteAddress) {
+            InetAddress local = host(localAddress);
+            InetAddress remote = host(remoteAddress);
+            this.localPort = port(localAddress);
+            this.remotePort = port(remoteAddress);
+            // 两端地址族不同时统一为 IPv6（IPv4 映射地址）
+            this.ipv6 = local instanceof Inet6Address || remote instanceof Inet6Address;
+            this.localIp = ipv6 ? toIpv6(local) : local.getAddress();
+            this.remoteIp = ipv6 ? toIpv6(remote) : remote.getAddress();
+        }
+
+        /**
+         * 只接受 IPv4 / IPv6 字面量，不做 DNS 查询；其他内容记为 0.0.0.0
+         */
+        private static InetAddress host(String address) {
+            int colon = address.lastIndexOf(':');
+            String host = colon < 0 ? address : address.substring(0, colon);
+            if (host.startsWith("[") && host.endsWith("]")) {
+                host = host.substring(1, host.length() - 1);
+            }
+            try {
+                if (host.indexOf(':') >= 0) {
+                    // 带方括号时 JDK 只按 IPv6 字面量解析，非法时直接抛出而不会查询 DNS
+                    return InetAddress.getByName("[" + host + "]");
+                }
+                byte[] ipv4 = ipv4(host);
+                return InetAddress.getByAddress(ipv4 == null ? new byte[4] : ipv4);
+            } catch (UnknownHostException e) {
+                try {
+                    return InetAddress.getByAddress(new byte[4]);
+                } catch (UnknownHostException impossible) {
+                    throw new IllegalStateException(impossible);
+                }
+            }
+        }
+
+        /**
+         * 解析点分十进制 IPv4 字面量，不是字面量时返回 null
+         */
+        private static byte[] ipv4(String host) {
+            String[] parts = host.split("\\.", -1);
+            if (parts.length != 4) {
+                return null;
+            }
+            byte[] bytes = new byte[4];
+            for (int i = 0; i < 4; i++) {
+                String part = parts[i];
+                if (part.isEmpty() || part.length() > 3) {
+                    return null;
+                }
+                int value = 0;
+                for (int j = 0; j < part.length(); j++) {
+                    char c = part.charAt(j);
+                    if (c < '0' || c > '9') {
+                        return null;
+                    }
+                    value = value * 10 + c - '0';
+                }
+                if (value > 255) {
+                    return null;
+                }
+                bytes[i] = (byte) value;
+            }
+            return bytes;
+        }
+
+        private static int port(String address) {
+            int colon = address.lastIndexOf(':');
+            try {
+                return colon < 0 ? 0 : Integer.parseInt(address.substring(colon + 1)) & 0xFFFF;
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+
+        private static byte[] toIpv6(InetAddress address) {
+            byte[] bytes = address.getAddress();
+            if (bytes.length == 16) {
+                return bytes;
+            }
+            byte[] mapped = new byte[16];
+            mapped[10] = (byte) 0xFF;
+            mapped[11] = (byte) 0xFF;
+            System.arraycopy(bytes, 0, mapped, 12, 4);
+            return mapped;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+import java.io.IOException;
+
+/**
+ * 数据无法按配置的帧格式解析（长度字段非法、帧超过最大长度等）
+ * <p>
+ * 流中的帧边界已无法恢复，抛出后由调用方断开该连接。
+ */
+public class CorruptedFrameException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public CorruptedFrameException(String message) {
+        super(message);
+    }
+}
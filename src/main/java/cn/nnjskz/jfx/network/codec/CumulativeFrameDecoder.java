@@ -0,0 +1,148 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+import cn.nnjskz.jfx.network.buffer.BufferPool;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+
+import java.util.function.Consumer;
+
+/**
+ * 基于累积缓冲区的增量帧解码
+ * <p>
+ * 累积区为空且输入块带数组时直接在输入块上切帧，省去先复制进累积区的一步，只把末尾不完整的部分放入累积区。
+ * 切出的每个帧仍会复制到独立的池化块中交给回调，消费者可以在回调之后继续持有（retain），不受后续输入影响；
+ * 子类通过 {@link #frameLength(byte[], int, int)} 判断帧边界，可自行保存扫描进度，避免每次从帧头重新扫描。
+ */
+public abstract class CumulativeFrameDecoder implements FrameDecoder {
+    private static final int INITIAL_CAPACITY = 1024;
+
+    protected final int maxFrameLength;
+    private byte[] cumulation = new byte[0];
+    private int readIndex;
+    private int writeIndex;
+
+    protected CumulativeFrameDecoder(int maxFrameLength) {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("maxFrameLength must be positive: " + maxFrameLength);
+        }
+        this.maxFrameLength = maxFrameLength;
+    }
+
+    /**
+     * 判断 [start, end) 开头是否已有一个完整帧
+     * @param buf   数据
+     * @param start 当前帧起始位置
+     * @param end   有效数据结束位置
+     * @return 完整帧的长度；数据不足时返回 -1
+     * @throws CorruptedFrameException 数据不符合帧格式或帧超过最大长度
+     */
+    protected abstract int frameLength(byte[] buf, int start, int end) throws CorruptedFrameException;
+
+    /**
+     * 一个帧被切出后调用，子类在此重置扫描进度
+     */
+    protected void frameEmitted() {
+    }
+
+    @Override
+    public void decode(PooledBuffer in, Consumer<PooledBuffer> out) throws CorruptedFrameException {
+        int length = in.length();
+        if (length == 0) {
+            return;
+        }
+        if (readIndex == writeIndex && in.hasArray()) {
+            // 快速路径：直接在输入块上切帧
+            byte[] array = in.array();
+            int start = in.arrayOffset();
+            int end = start + length;
+            start = emitFrames(array, start, end, out);
+            readIndex = 0;
+            writeIndex = 0;
+            append(array, start, end - start);
+            return;
+        }
+        if (in.hasArray()) {
+            append(in.array(), in.arrayOffset(), length);
+        } else {
+            ensureWritable(length);
+            in.data().get(cumulation, writeIndex, length);
+            writeIndex += length;
+        }
+        readIndex = emitFrames(cumulation, readIndex, writeIndex, out);
+        if (readIndex == writeIndex) {
+            readIndex = 0;
+            writeIndex = 0;
+        }
+    }
+
+    @Override
+    public int pendingBytes() {
+        return writeIndex - readIndex;
+    }
+
+    private int emitFrames(byte[] buf, int start, int end, Consumer<PooledBuffer> out) throws CorruptedFrameException {
+        while (start < end) {
+            int frameLength = frameLength(buf, start, end);
+            if (frameLength < 0) {
+                break;
+            }
+            PooledBuffer frame = copyOf(buf, start, frameLength);
+            start += frameLength;
+            frameEmitted();
+            try {
+                out.accept(frame);
+            } finally {
+                frame.release();
+            }
+        }
+        return start;
+    }
+
+    private void append(byte[] src, int offset, int length) {
+        if (length == 0) {
+            return;
+        }
+        ensureWritable(length);
+        System.arraycopy(src, offset, cumulation, writeIndex, length);
+        writeIndex += length;
+    }
+
+    private void ensureWritable(int length) {
+        if (writeIndex + length <= cumulation.length) {
+            return;
+        }
+        int pending = writeIndex - readIndex;
+        if (pending + length <= cumulation.length && readIndex > 0) {
+            // 前部已消费的空间足够，整体前移即可
+            System.arraycopy(cumulation, readIndex, cumulation, 0, pending);
+        } else {
+            int capacity = Math.max(INITIAL_CAPACITY, cumulation.length);
+            while (capacity < pending + length) {
+                capacity <<= 1;
+            }
+            byte[] bigger = new byte[capacity];
+            System.arraycopy(cumulation, readIndex, bigger, 0, pending);
+            cumulation = bigger;
+        }
+        readIndex = 0;
+        writeIndex = pending;
+    }
+
+    private static PooledBuffer copyOf(byte[] src, int offset, int length) {
+        if (length > BufferPool.MAX_SIZE_CLASS) {
+            byte[] bytes = new byte[length];
+            System.arraycopy(src, offset, bytes, 0, length);
+            return PooledBuffer.wrap(bytes);
+        }
+        PooledBuffer frame = BufferPool.forLength(length).allocate();
+        frame.buffer().put(0, src, offset, length);
+        frame.setLength(length);
+        return frame;
+    }
+}
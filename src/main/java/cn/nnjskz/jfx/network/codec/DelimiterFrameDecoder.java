@@ -0,0 +1,61 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+/**
+ * 分隔符分帧，帧内容包含末尾的分隔符
+ * <p>
+ * 记录当前帧已扫描过的位置，新数据到达时只扫描新增部分（回退分隔符长度 - 1 以覆盖跨块的分隔符）。
+ */
+public class DelimiterFrameDecoder extends CumulativeFrameDecoder {
+    private final byte[] delimiter;
+    // 当前帧内已确认不是分隔符起点的字节数
+    private int scanned;
+
+    public DelimiterFrameDecoder(byte[] delimiter, int maxFrameLength) {
+        super(maxFrameLength);
+        if (delimiter.length == 0) {
+            throw new IllegalArgumentException("delimiter must not be empty");
+        }
+        this.delimiter = delimiter.clone();
+    }
+
+    @Override
+    protected int frameLength(byte[] buf, int start, int end) throws CorruptedFrameException {
+        int last = end - delimiter.length;
+        byte first = delimiter[0];
+        for (int i = start + scanned; i <= last; i++) {
+            if (buf[i] == first && matches(buf, i)) {
+                int frameLength = i - start + delimiter.length;
+                if (frameLength > maxFrameLength) {
+                    throw new CorruptedFrameException("帧长度 " + frameLength + " 超过最大值 " + maxFrameLength);
+                }
+                return frameLength;
+            }
+        }
+        scanned = Math.max(scanned, last - start + 1);
+        if (end - start > maxFrameLength) {
+            throw new CorruptedFrameException("超过 " + maxFrameLength + " 字节未找到分隔符");
+        }
+        return -1;
+    }
+
+    @Override
+    protected void frameEmitted() {
+        scanned = 0;
+    }
+
+    private boolean matches(byte[] buf, int index) {
+        for (int j = 1; j < delimiter.length; j++) {
+            if (buf[index + j] != delimiter[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+/**
+ * 固定长度分帧
+ */
+public class FixedLengthFrameDecoder extends CumulativeFrameDecoder {
+    private final int frameLength;
+
+    public FixedLengthFrameDecoder(int frameLength) {
+        super(frameLength);
+        this.frameLength = frameLength;
+    }
+
+    @Override
+    protected int frameLength(byte[] buf, int start, int end) {
+        return end - start >= frameLength ? frameLength : -1;
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+
+import java.util.function.Consumer;
+
+/**
+ * 帧解码器：位于 socket 读取与接收回调之间，把任意切分的字节流还原为完整的消息
+ * <p>
+ * 每条连接一个实例，只在该连接的读线程上调用，非线程安全。
+ */
+public interface FrameDecoder {
+    /**
+     * 输入一块数据，每解析出一个完整帧调用一次 {@code out}
+     * @param in  本次读取的数据（不改变其引用计数）
+     * @param out 帧回调；帧仅在回调期间有效，持有规则同 {@link cn.nnjskz.jfx.network.ReceiveHandler}
+     * @throws CorruptedFrameException 数据不符合帧格式
+     */
+    void decode(PooledBuffer in, Consumer<PooledBuffer> out) throws CorruptedFrameException;
+
+    /**
+     * @return 已缓存、尚未组成完整帧的字节数
+     */
+    int pendingBytes();
+}
@@ -0,0 +1,103 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+import cn.nnjskz.jfx.utils.SocketUtil;
+
+import java.nio.ByteOrder;
+
+/**
+ * 分帧参数，每条连接据此创建独立的 {@link FrameDecoder}
+ *
+ * @param type              分帧方式
+ * @param lengthFieldOffset 长度字段偏移（长度字段）
+ * @param lengthFieldLength 长度字段字节数 1/2/4（长度字段）
+ * @param byteOrder         长度字段字节序（长度字段）
+ * @param lengthAdjustment  长度修正值（长度字段）
+ * @param delimiter         分隔符（分隔符）
+ * @param fixedLength       帧长度（固定长度）
+ * @param maxFrameLength    最大帧长度，超过视为数据错误并断开连接
+ */
+public record FramingConfig(FramingType type,
+                            int lengthFieldOffset,
+                            int lengthFieldLength,
+                            ByteOrder byteOrder,
+                            int lengthAdjustment,
+                            byte[] delimiter,
+                            int fixedLength,
+                            int maxFrameLength) {
+    public static final int DEFAULT_MAX_FRAME_LENGTH = 1024 * 1024;
+    public static final FramingConfig NONE = new FramingConfig(FramingType.NONE, 0, 0, ByteOrder.BIG_ENDIAN, 0, null, 0, DEFAULT_MAX_FRAME_LENGTH);
+
+    public FramingConfig {
+        if (maxFrameLength <= 0) {
+            throw new IllegalArgumentException("最大帧长度必须为正数: " + maxFrameLength);
+        }
+        switch (type) {
+            case LENGTH_FIELD -> {
+                if (lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 4) {
+                    throw new IllegalArgumentException("长度字段字节数只能为 1、2、4: " + lengthFieldLength);
+                }
+                if (lengthFieldOffset < 0) {
+                    throw new IllegalArgumentException("长度字段偏移不能为负数: " + lengthFieldOffset);
+                }
+            }
+            case DELIMITER -> {
+                if (delimiter == null || delimiter.length == 0) {
+                    throw new IllegalArgumentException("分隔符不能为空");
+                }
+            }
+            case FIXED_LENGTH -> {
+                if (fixedLength <= 0) {
+                    throw new IllegalArgumentException("帧长度必须为正数: " + fixedLength);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    public static FramingConfig lengthField(int offset, int length, ByteOrder byteOrder, int adjustment, int maxFrameLength) {
+        return new FramingConfig(FramingType.LENGTH_FIELD, offset, length, byteOrder, adjustment, null, 0, maxFrameLength);
+    }
+
+    public static FramingConfig delimiter(byte[] delimiter, int maxFrameLength) {
+        return new FramingConfig(FramingType.DELIMITER, 0, 0, ByteOrder.BIG_ENDIAN, 0, delimiter, 0, maxFrameLength);
+    }
+
+    public static FramingConfig fixedLength(int length) {
+        return new FramingConfig(FramingType.FIXED_LENGTH, 0, 0, ByteOrder.BIG_ENDIAN, 0, null, length, length);
+    }
+
+    /**
+     * 为一条新连接创建解码器
+     * @return 不分帧时返回 null
+     */
+    public FrameDecoder newDecoder() {
+        return switch (type) {
+            case LENGTH_FIELD -> new LengthFieldFrameDecoder(lengthFieldOffset, lengthFieldLength, byteOrder, lengthAdjustment, maxFrameLength);
+            case DELIMITER -> new DelimiterFrameDecoder(delimiter, maxFrameLength);
+            case FIXED_LENGTH -> new FixedLengthFrameDecoder(fixedLength);
+            case NONE -> null;
+        };
+    }
+
+    /**
+     * @return 用于界面展示的简要描述
+     */
+    public String describe() {
+        return switch (type) {
+            case LENGTH_FIELD -> type.getLabel() + "(偏移" + lengthFieldOffset + "/" + lengthFieldLength + "字节/"
+                    + (byteOrder == ByteOrder.BIG_ENDIAN ? "BE" : "LE")
+                    + (lengthAdjustment != 0 ? "/修正" + lengthAdjustment : "") + ")";
+            case DELIMITER -> type.getLabel() + "(" + SocketUtil.formatBytesToHex(delimiter).trim() + ")";
+            case FIXED_LENGTH -> type.getLabel() + "(" + fixedLength + "字节)";
+            case NONE -> type.getLabel();
+        };
+    }
+}
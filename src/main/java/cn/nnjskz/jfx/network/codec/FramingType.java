@@ -0,0 +1,49 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+/**
+ * 分帧方式
+ */
+public enum FramingType {
+    /**
+     * 不分帧，每次读取到的数据直接交给界面
+     */
+    NONE("不分帧"),
+    /**
+     * 长度字段
+     */
+    LENGTH_FIELD("长度字段"),
+    /**
+     * 分隔符
+     */
+    DELIMITER("分隔符"),
+    /**
+     * 固定长度
+     */
+    FIXED_LENGTH("固定长度");
+
+    private final String label;
+
+    FramingType(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static FramingType ofLabel(String label) {
+        for (FramingType type : values()) {
+            if (type.label.equals(label)) {
+                return type;
+            }
+        }
+        return NONE;
+    }
+}
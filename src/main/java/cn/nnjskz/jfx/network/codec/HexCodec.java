@@ -0,0 +1,151 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 十六进制编解码
+ * <p>
+ * 编码格式与界面显示一致：大写、每字节以一个空格分隔（如 "0D 0A"）。编码查表写入预分配的 ASCII 数组，
+ * 再以 ISO-8859-1 构造字符串（紧凑字符串下只是一次拷贝）。
+ * 以 {@code --add-modules jdk.incubator.vector} 启动且未设置 {@code -Djfx.hex.vector=false} 时，
+ * 编码改用 Vector API 每次处理一个向量宽度（需 256 位及以上）；解码需要跳过空白并逐字符校验，始终走查表。
+ */
+public final class HexCodec {
+    private static final byte[] DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+    // 字节 -> 高/低位字符
+    private static final byte[] HIGH = new byte[256];
+    private static final byte[] LOW = new byte[256];
+    // ASCII -> 半字节，非十六进制字符为 -1
+    private static final byte[] NIBBLE = new byte[128];
+    private static final boolean VECTORIZED;
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            HIGH[i] = DIGITS[i >>> 4];
+            LOW[i] = DIGITS[i & 0x0F];
+        }
+        Arrays.fill(NIBBLE, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            NIBBLE['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            NIBBLE['A' + i] = (byte) (10 + i);
+            NIBBLE['a' + i] = (byte) (10 + i);
+        }
+        // 自检依赖上面的查表，须在其后初始化
+        VECTORIZED = vectorAvailable();
+    }
+
+    private HexCodec() {
+    }
+
+    /**
+     * @return 编码是否使用 Vector API
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * @param length 原始字节数
+     * @return 编码后的字符数
+     */
+    public static int encodedLength(int length) {
+        return length == 0 ? 0 : length * 3 - 1;
+    }
+
+    public static String encode(byte[] src) {
+        return encode(src, 0, src.length);
+    }
+
+    public static String encode(byte[] src, int offset, int length) {
+        if (length == 0) {
+            return "";
+        }
+        byte[] dst = new byte[length * 3];
+        int n = encode(src, offset, length, dst, 0);
+        return new String(dst, 0, n, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 编码为 ASCII 写入 dst
+     * @param dst       目标数组，从 dstOffset 起至少 3 * length 字节（末尾多写一个空格）
+     * @param dstOffset 写入起点
+     * @return 有效字符数，即 {@link #encodedLength(int)}
+     */
+    public static int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int done = VECTORIZED ? HexVectorEncoder.encode(src, offset, length, dst, dstOffset) : 0;
+        encodeScalar(src, offset + done, length - done, dst, dstOffset + done * 3);
+        return encodedLength(length);
+    }
+
+    /**
+     * 查表编码，供向量路径处理不足一个向量的尾部，也作为基准对照
+     */
+    static void encodeScalar(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int p = dstOffset;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            int b = src[i] & 0xFF;
+            dst[p] = HIGH[b];
+            dst[p + 1] = LOW[b];
+            dst[p + 2] = ' ';
+            p += 3;
+        }
+    }
+
+    /**
+     * 解码十六进制字符串，允许以任意空白分隔
+     * @param hex 如 "0D 0A"、"0d0a"
+     * @return 字节数组
+     * @throws IllegalArgumentException 字符数为奇数或包含非十六进制字符
+     */
+    public static byte[] decode(CharSequence hex) {
+        int len = hex.length();
+        byte[] out = new byte[len / 2 + 1];
+        int n = 0;
+        int high = -1;
+        for (int i = 0; i < len; i++) {
+            char c = hex.charAt(i);
+            if (Character.isWhitespace(c)) {
+                continue;
+            }
+            int nibble = c < 128 ? NIBBLE[c] : -1;
+            if (nibble < 0) {
+                throw new IllegalArgumentException("非法的十六进制字符: '" + c + "'（第 " + (i + 1) + " 个字符）");
+            }
+            if (high < 0) {
+                high = nibble;
+            } else {
+                out[n++] = (byte) ((high << 4) | nibble);
+                high = -1;
+            }
+        }
+        if (high >= 0) {
+            throw new IllegalArgumentException("十六进制字符数必须为偶数");
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    private static boolean vectorAvailable() {
+        if (!Boolean.parseBoolean(System.getProperty("jfx.hex.vector", "true"))) {
+            return false;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            return false;
+        }
+        try {
+            return HexVectorEncoder.selfTest();
+        } catch (Throwable e) {
+            // 模块未被本模块读取或平台不支持
+            return false;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * {@link HexCodec} 的 Vector API 编码路径，仅在 jdk.incubator.vector 可用时由 HexCodec 加载
+ * <p>
+ * 每次读入一个向量宽度（n 字节），拆成高/低半字节并换算为字符，再按 "高 低 空格" 的顺序
+ * 重排、混合为 3 个向量写出。128 位向量实测不快于查表，只在平台首选宽度不小于 {@value #MIN_BITS} 位时启用。
+ */
+final class HexVectorEncoder {
+    private static final int MIN_BITS = 256;
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+    private static final int LANES = SPECIES.length();
+    private static final ByteVector SPACE = ByteVector.broadcast(SPECIES, (byte) ' ');
+    // 第 k 个输出向量的第 j 个字符对应输出位置 k * n + j，来自第 (k * n + j) / 3 个字节：余 0 为高位字符，余 1 为低位字符，余 2 为空格
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final VectorShuffle<Byte>[] SHUFFLES = new VectorShuffle[3];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final VectorMask<Byte>[] HIGH_MASKS = new VectorMask[3];
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static final VectorMask<Byte>[] LOW_MASKS = new VectorMask[3];
+
+    static {
+        for (int k = 0; k < 3; k++) {
+            int[] indexes = new int[LANES];
+            boolean[] high = new boolean[LANES];
+            boolean[] low = new boolean[LANES];
+            for (int j = 0; j < LANES; j++) {
+                int pos = k * LANES + j;
+                indexes[j] = pos / 3;
+                high[j] = pos % 3 == 0;
+                low[j] = pos % 3 == 1;
+            }
+            SHUFFLES[k] = VectorShuffle.fromArray(SPECIES, indexes, 0);
+            HIGH_MASKS[k] = VectorMask.fromArray(SPECIES, high, 0);
+            LOW_MASKS[k] = VectorMask.fromArray(SPECIES, low, 0);
+        }
+    }
+
+    private HexVectorEncoder() {
+    }
+
+    /**
+     * 按整向量编码，剩余不足一个向量宽度的尾部由调用方处理
+     * @return 已编码的字节数
+     */
+    static int encode(byte[] src, int offset, int length, byte[] dst, int dstOffset) {
+        int done = length - length % LANES;
+        for (int i = 0; i < done; i += LANES) {
+            ByteVector v = ByteVector.fromArray(SPECIES, src, offset + i);
+            ByteVector high = toDigits(v.lanewise(VectorOperators.LSHR, 4).and((byte) 0x0F));
+            ByteVector low = toDigits(v.and((byte) 0x0F));
+            int p = dstOffset + i * 3;
+            for (int k = 0; k < 3; k++) {
+                SPACE.blend(high.rearrange(SHUFFLES[k]), HIGH_MASKS[k])
+                        .blend(low.rearrange(SHUFFLES[k]), LOW_MASKS[k])
+                        .intoArray(dst, p + k * LANES);
+            }
+        }
+        return done;
+    }
+
+    /**
+     * 半字节 0-15 转为 '0'-'9'、'A'-'F'
+     */
+    private static ByteVector toDigits(ByteVector nibbles) {
+        return nibbles.add((byte) '0').add((byte) ('A' - '0' - 10), nibbles.compare(VectorOperators.GT, (byte) 9));
+    }
+
+    /**
+     * 检查向量宽度并与查表实现比对一次，不满足时不启用
+     */
+    static boolean selfTest() {
+        if (SPECIES.vectorBitSize() < MIN_BITS) {
+            return false;
+        }
+        byte[] src = new byte[Math.max(256, LANES * 2)];
+        for (int i = 0; i < src.length; i++) {
+            src[i] = (byte) i;
+        }
+        byte[] expected = new byte[src.length * 3];
+        byte[] actual = new byte[src.length * 3];
+        HexCodec.encodeScalar(src, 0, src.length, expected, 0);
+        encode(src, 0, src.length, actual, 0);
+        return Arrays.equals(expected, actual);
+    }
+}
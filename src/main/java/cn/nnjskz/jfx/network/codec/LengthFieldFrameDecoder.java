@@ -0,0 +1,69 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+import java.nio.ByteOrder;
+
+/**
+ * 长度字段分帧，帧内容包含长度字段之前的头部与长度字段本身
+ * <p>
+ * 帧长度 = lengthFieldOffset + lengthFieldLength + 长度字段值 + lengthAdjustment。
+ * 例如长度字段只统计消息体时 adjustment 为 0；长度字段统计整帧（含头部）时
+ * adjustment 为 -(lengthFieldOffset + lengthFieldLength)。
+ */
+public class LengthFieldFrameDecoder extends CumulativeFrameDecoder {
+    private final int lengthFieldOffset;
+    private final int lengthFieldLength;
+    private final boolean bigEndian;
+    private final int lengthAdjustment;
+    private final int headerLength;
+
+    /**
+     * @param lengthFieldOffset 长度字段在帧内的偏移
+     * @param lengthFieldLength 长度字段字节数：1、2 或 4（无符号）
+     * @param byteOrder         长度字段字节序
+     * @param lengthAdjustment  长度修正值
+     * @param maxFrameLength    最大帧长度
+     */
+    public LengthFieldFrameDecoder(int lengthFieldOffset, int lengthFieldLength, ByteOrder byteOrder,
+                                   int lengthAdjustment, int maxFrameLength) {
+        super(maxFrameLength);
+        if (lengthFieldLength != 1 && lengthFieldLength != 2 && lengthFieldLength != 4) {
+            throw new IllegalArgumentException("lengthFieldLength must be 1, 2 or 4: " + lengthFieldLength);
+        }
+        if (lengthFieldOffset < 0) {
+            throw new IllegalArgumentException("lengthFieldOffset must not be negative: " + lengthFieldOffset);
+        }
+        this.lengthFieldOffset = lengthFieldOffset;
+        this.lengthFieldLength = lengthFieldLength;
+        this.bigEndian = byteOrder == ByteOrder.BIG_ENDIAN;
+        this.lengthAdjustment = lengthAdjustment;
+        this.headerLength = lengthFieldOffset + lengthFieldLength;
+    }
+
+    @Override
+    protected int frameLength(byte[] buf, int start, int end) throws CorruptedFrameException {
+        if (end - start < headerLength) {
+            return -1;
+        }
+        long fieldValue = 0;
+        int fieldStart = start + lengthFieldOffset;
+        for (int i = 0; i < lengthFieldLength; i++) {
+            int b = buf[fieldStart + (bigEndian ? i : lengthFieldLength - 1 - i)] & 0xFF;
+            fieldValue = (fieldValue << 8) | b;
+        }
+        long frameLength = headerLength + fieldValue + lengthAdjustment;
+        if (frameLength < headerLength) {
+            throw new CorruptedFrameException("长度字段值 " + fieldValue + " 修正后小于头部长度 " + headerLength);
+        }
+        if (frameLength > maxFrameLength) {
+            throw new CorruptedFrameException("帧长度 " + frameLength + " 超过最大值 " + maxFrameLength);
+        }
+        return end - start >= frameLength ? (int) frameLength : -1;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.codec;
+
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 流式文本解码器（可选的解码阶段）
+ * <p>
+ * 网络层只交付原始字节，一个多字节字符可能被拆到两次读取中。本类保留上一次末尾未完成的字节，
+ * 与下一块数据拼接后再解码，保证字符不被截断；非法字节序列替换为 U+FFFD。
+ * 每条字节流使用一个实例，非线程安全。
+ */
+public class TextStreamDecoder {
+    private final CharsetDecoder decoder;
+    // 上一块末尾不完整的字节序列
+    private final ByteBuffer carry;
+    private CharBuffer out = CharBuffer.allocate(1024);
+
+    public TextStreamDecoder(Charset charset) {
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.carry = ByteBuffer.allocate(Math.max(8, (int) Math.ceil(1 / decoder.averageCharsPerByte()) * 4));
+    }
+
+    /**
+     * 解码一块数据
+     * @param data 数据（不改变其引用计数）
+     * @return 本块可完整解码的文本，末尾未完成的字节留待下一块
+     */
+    public String decode(PooledBuffer data) {
+        return decode(data.data());
+    }
+
+    public String decode(ByteBuffer in) {
+        out.clear();
+        if (carry.position() > 0) {
+            // 先用新数据补全上一块残留的字符
+            while (carry.hasRemaining() && in.hasRemaining()) {
+                carry.put(in.get());
+                carry.flip();
+                decodeInto(carry, false);
+                if (!carry.hasRemaining()) {
+                    carry.clear();
+                    break;
+                }
+                carry.compact();
+            }
+        }
+        decodeInto(in, false);
+        carry.put(in);
+        return out.flip().toString();
+    }
+
+    /**
+     * 字节流结束时调用，输出残留的不完整字节（以替换字符表示）并重置状态
+     */
+    public String flush() {
+        out.clear();
+        carry.flip();
+        decodeInto(carry, true);
+        while (decoder.flush(out).isOverflow()) {
+            grow();
+        }
+        reset();
+        return out.flip().toString();
+    }
+
+    /**
+     * 丢弃残留字节，例如切换为十六进制显示后
+     */
+    public void reset() {
+        carry.clear();
+        decoder.reset();
+    }
+
+    private void decodeInto(ByteBuffer in, boolean endOfInput) {
+        while (true) {
+            CoderResult result = decoder.decode(in, out, endOfInput);
+            if (result.isOverflow()) {
+                grow();
+            } else {
+                return;
+            }
+        }
+    }
+
+    private void grow() {
+        CharBuffer bigger = CharBuffer.allocate(out.capacity() * 2);
+        out.flip();
+        bigger.put(out);
+        out = bigger;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.latency;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * HDR 风格的时延直方图（纳秒）
+ * <p>
+ * 按 2 的幂分桶，每个桶再线性细分为 {@value #SUB_BUCKET_COUNT} 格，任意量级下相对误差不超过 0.1%，
+ * 记录与查询都不分配内存。超过 {@link #getHighestTrackableValue()} 的值按上限记录。
+ * 允许一个线程记录、其他线程同时读取（读取结果为近似快照）。
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_HALF_COUNT_MAGNITUDE = 10;
+    private static final int SUB_BUCKET_COUNT = 1 << (SUB_BUCKET_HALF_COUNT_MAGNITUDE + 1);
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final long SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    private static final int LEADING_ZERO_COUNT_BASE = 64 - SUB_BUCKET_HALF_COUNT_MAGNITUDE - 1;
+
+    private final long highestTrackableValue;
+    private final AtomicLongArray counts;
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private volatile long minValue = Long.MAX_VALUE;
+    private volatile long maxValue;
+
+    /**
+     * 默认可记录 1 小时以内的时延
+     */
+    public LatencyHistogram() {
+        this(TimeUnit.HOURS.toNanos(1));
+    }
+
+    public LatencyHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < 2L * SUB_BUCKET_COUNT) {
+            throw new IllegalArgumentException("highestTrackableValue too small: " + highestTrackableValue);
+        }
+        this.highestTrackableValue = highestTrackableValue;
+        int bucketCount = 1;
+        long smallestUntrackable = SUB_BUCKET_COUNT;
+        while (smallestUntrackable <= highestTrackableValue) {
+            if (smallestUntrackable > Long.MAX_VALUE / 2) {
+                bucketCount++;
+                break;
+            }
+            smallestUntrackable <<= 1;
+            bucketCount++;
+        }
+        this.counts = new AtomicLongArray((bucketCount + 1) * SUB_BUCKET_HALF_COUNT);
+    }
+
+    /**
+     * 记录一个值，负数按 0 记录
+     */
+    public void recordValue(long value) {
+        long v = Math.min(Math.max(value, 0), highestTrackableValue);
+        counts.incrementAndGet(countsIndex(v));
+        sum.addAndGet(v);
+        totalCount.incrementAndGet();
+        if (v < minValue) {
+            minValue = v;
+        }
+        if (v > maxValue) {
+            maxValue = v;
+        }
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMinValue() {
+        return totalCount.get() == 0 ? 0 : minValue;
+    }
+
+    public long getMaxValue() {
+        return maxValue;
+    }
+
+    public double getMean() {
+        long n = totalCount.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    public long getHighestTrackableValue() {
+        return highestTrackableValue;
+    }
+
+    /**
+     * 获取百分位值
+     * @param percentile 0~100
+     * @return 不小于该比例样本的最小值（所在格的上界，最大不超过实际最大值）
+     */
+    public long getValueAtPercentile(double percentile) {
+        long total = totalCount.get();
+        if (total == 0) {
+            return 0;
+        }
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(highestEquivalentValue(i), maxValue);
+            }
+        }
+        return maxValue;
+    }
+
+    /**
+     * 百分位分布，用于导出
+     * @param ticksPerHalfDistance 每逼近 100% 一半距离时输出的点数（与 HdrHistogram 的输出格式一致）
+     * @return 按百分位递增的分布点
+     */
+    public List<Point> percentileDistribution(int ticksPerHalfDistance) {
+        List<Point> points = new ArrayList<>();
+        long total = totalCount.get();
+        if (total == 0) {
+            return points;
+        }
+        double percentile = 0;
+        while (true) {
+            points.add(new Point(percentile, getValueAtPercentile(percentile), (long) Math.ceil(percentile / 100.0 * total)));
+            if (percentile >= 100.0 || 100.0 - percentile < 100.0 / total / 2) {
+                break;
+            }
+            double halfDistance = Math.pow(2, Math.floor(Math.log(100.0 / (100.0 - percentile)) / Math.log(2)) + 1);
+            percentile += 100.0 / (halfDistance * ticksPerHalfDistance);
+        }
+        if (points.get(points.size() - 1).percentile() < 100.0) {
+            points.add(new Point(100.0, maxValue, total));
+        }
+        return points;
+    }
+
+    private static int bucketIndex(long value) {
+        return LEADING_ZERO_COUNT_BASE - Long.numberOfLeadingZeros(value | SUB_BUCKET_MASK);
+    }
+
+    private static int countsIndex(long value) {
+        int bucketIndex = bucketIndex(value);
+        int subBucketIndex = (int) (value >>> bucketIndex);
+        return ((bucketIndex + 1) << SUB_BUCKET_HALF_COUNT_MAGNITUDE) + (subBucketIndex - SUB_BUCKET_HALF_COUNT);
+    }
+
+    private static long valueFromIndex(int index) {
+        int bucketIndex = (index >> SUB_BUCKET_HALF_COUNT_MAGNITUDE) - 1;
+        int subBucketIndex = (index & (SUB_BUCKET_HALF_COUNT - 1)) + SUB_BUCKET_HALF_COUNT;
+        if (bucketIndex < 0) {
+            subBucketIndex -= SUB_BUCKET_HALF_COUNT;
+            bucketIndex = 0;
+        }
+        return (long) subBucketIndex << bucketIndex;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        return valueFromIndex(index + 1) - 1;
+    }
+
+    /**
+     * 分布点
+     *
+     * @param percentile 百分位
+     * @param value      该百分位对应的值（纳秒）
+     * @param count      小于等于该值的样本数
+     */
+    public record Point(double percentile, long value, long count) {
+    }
+}
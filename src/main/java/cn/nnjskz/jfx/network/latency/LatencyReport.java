@@ -0,0 +1,124 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.latency;
+
+import cn.nnjskz.jfx.utils.DateUtil;
+import cn.nnjskz.jfx.utils.NanoClock;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONWriter;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 时延测试结果的展示与导出
+ */
+public final class LatencyReport {
+    /**
+     * 实时展示与汇总使用的百分位
+     */
+    public static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private LatencyReport() {
+    }
+
+    /**
+     * 单行摘要，如 "p50 120.5µs  p90 ...  max 3.2ms"
+     */
+    public static String summary(LatencyHistogram histogram) {
+        StringBuilder sb = new StringBuilder();
+        for (double p : PERCENTILES) {
+            sb.append('p').append(formatPercentile(p)).append(' ')
+                    .append(formatNanos(histogram.getValueAtPercentile(p))).append("  ");
+        }
+        sb.append("max ").append(formatNanos(histogram.getMaxValue()));
+        return sb.toString();
+    }
+
+    /**
+     * 导出为 JSON（汇总 + 百分位分布）与 CSV（百分位分布，可直接用 HdrHistogram 绘图工具查看）
+     * @param session 已结束的会话
+     * @param dir     导出目录
+     * @param mode    模式，如 TCP Client
+     * @param target  目标地址
+     * @return 导出的 JSON 文件
+     */
+    public static Path export(LatencySession session, Path dir, String mode, String target) throws IOException {
+        Files.createDirectories(dir);
+        LatencyHistogram histogram = session.getHistogram();
+        String name = "latency-" + DateUtil.formatDate2String(NanoClock.toMillis(session.getStartEpochNanos()), DateUtil.SUP_LONG_PATTERN);
+        List<LatencyHistogram.Point> distribution = histogram.percentileDistribution(5);
+
+        Map<String, Object> percentiles = new LinkedHashMap<>();
+        for (double p : PERCENTILES) {
+            percentiles.put("p" + formatPercentile(p), histogram.getValueAtPercentile(p));
+        }
+        List<Map<String, Object>> points = new ArrayList<>(distribution.size());
+        for (LatencyHistogram.Point point : distribution) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("percentile", point.percentile());
+            row.put("valueNanos", point.value());
+            row.put("count", point.count());
+            points.add(row);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        report.put("target", target);
+        report.put("start", DateUtil.formatDate2String(NanoClock.toMillis(session.getStartEpochNanos()), DateUtil.LONG_PATTERN));
+        report.put("durationMillis", session.getElapsedNanos() / 1_000_000);
+        report.put("ratePerSecond", session.getRatePerSecond());
+        report.put("probeBytes", session.getProbeLength());
+        report.put("sent", session.getSent());
+        report.put("received", session.getReceived());
+        report.put("lost", session.getLost());
+        report.put("outOfOrder", session.getOutOfOrder());
+        report.put("unmatched", session.getUnmatched());
+        report.put("minNanos", histogram.getMinValue());
+        report.put("meanNanos", Math.round(histogram.getMean()));
+        report.put("maxNanos", histogram.getMaxValue());
+        report.put("percentilesNanos", percentiles);
+        report.put("distribution", points);
+        Path json = dir.resolve(name + ".json");
+        Files.writeString(json, JSON.toJSONString(report, JSONWriter.Feature.PrettyFormat));
+
+        try (BufferedWriter writer = Files.newBufferedWriter(dir.resolve(name + ".csv"))) {
+            writer.write("Value(us),Percentile,TotalCount,1/(1-Percentile)");
+            writer.newLine();
+            for (LatencyHistogram.Point point : distribution) {
+                double fraction = point.percentile() / 100.0;
+                writer.write(String.format("%.3f,%.12f,%d,%s", point.value() / 1000.0, fraction, point.count(),
+                        fraction < 1.0 ? String.format("%.2f", 1 / (1 - fraction)) : "Infinity"));
+                writer.newLine();
+            }
+        }
+        return json;
+    }
+
+    public static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        }
+        if (nanos < 1_000_000) {
+            return String.format("%.1fµs", nanos / 1e3);
+        }
+        if (nanos < 1_000_000_000) {
+            return String.format("%.2fms", nanos / 1e6);
+        }
+        return String.format("%.2fs", nanos / 1e9);
+    }
+
+    private static String formatPercentile(double p) {
+        return p == Math.rint(p) ? String.valueOf((long) p) : String.valueOf(p);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.latency;
+
+import cn.nnjskz.jfx.network.SendScheduler;
+import cn.nnjskz.jfx.network.buffer.PooledBuffer;
+import cn.nnjskz.jfx.network.codec.CorruptedFrameException;
+import cn.nnjskz.jfx.network.codec.FixedLengthFrameDecoder;
+import cn.nnjskz.jfx.utils.NanoClock;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 回显时延测试
+ * <p>
+ * 每个探测包 = 20 字节头（魔数 + 序号 + 计划发送时间）+ 发送区内容，对端原样回显后按头部匹配，
+ * 往返时间记录到 {@link LatencyHistogram}。计划发送时间取按速率排定的时刻而不是实际写出时刻，
+ * 发送线程被阻塞造成的排队也计入时延，避免"协调遗漏"导致结果偏乐观。
+ * <p>
+ * TCP 回显可能被合并或拆分，按探测包长度重新分帧后再匹配；UDP 每个报文即一个探测包。
+ * 发送节奏由 {@link SendScheduler} 控制。
+ */
+public class LatencySession {
+    /**
+     * 探测包头："JL" + 版本 1 + 保留
+     */
+    public static final int MAGIC = 0x4A4C0100;
+    public static final int HEADER_LENGTH = 4 + 8 + 8;
+    // 结束发送后等待迟到响应的时间
+    private static final long DRAIN_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final double ratePerSecond;
+    private final byte[] probe;
+    private final ByteBuffer header;
+    private final Consumer<byte[]> sender;
+    private final FixedLengthFrameDecoder frameDecoder;
+    private final SendScheduler scheduler;
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private volatile Consumer<LatencySession> onFinished;
+    private volatile boolean finished;
+    private long epochOffset;
+
+    private volatile long startEpochNanos;
+    private volatile long endEpochNanos;
+    private volatile long sent;
+    private volatile long received;
+    private volatile long outOfOrder;
+    private volatile long unmatched;
+    private long highestSeq = -1;
+
+    /**
+     * @param ratePerSecond 发送速率（个/秒）
+     * @param count         发送个数，0 表示不限
+     * @param durationNanos 持续时间，0 表示不限
+     * @param payload       探测包头之后附带的内容
+     * @param stream        是否为字节流（TCP），需要重新分帧
+     * @param sender        实际发送动作；数组在下一次发送前会被复用，调用方不得持有
+     */
+    public LatencySession(double ratePerSecond, long count, long durationNanos, byte[] payload,
+                          boolean stream, Consumer<byte[]> sender) {
+        if (ratePerSecond <= 0) {
+            throw new IllegalArgumentException("发送速率必须为正数: " + ratePerSecond);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.probe = new byte[HEADER_LENGTH + payload.length];
+        System.arraycopy(payload, 0, probe, HEADER_LENGTH, payload.length);
+        this.header = ByteBuffer.wrap(probe).putInt(0, MAGIC);
+        this.sender = sender;
+        this.frameDecoder = stream ? new FixedLengthFrameDecoder(probe.length) : null;
+        long intervalNanos = Math.max(1, (long) (1e9 / ratePerSecond));
+        this.scheduler = new SendScheduler(intervalNanos, 1, count, durationNanos, this::sendProbe);
+        this.scheduler.setOnFinished(this::drain);
+    }
+
+    /**
+     * 设置结束回调（在发送线程上调用）
+     */
+    public void setOnFinished(Consumer<LatencySession> onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    public void start() {
+        // 计划时刻以 nanoTime 排定，写入探测包前换算为与接收时间戳同源的纪元纳秒
+        epochOffset = NanoClock.epochNanos() - System.nanoTime();
+        startEpochNanos = NanoClock.epochNanos();
+        scheduler.start("latency-sender");
+    }
+
+    /**
+     * 提前结束发送，仍会等待迟到的响应后再回调
+     */
+    public void stop() {
+        scheduler.stop();
+    }
+
+    private boolean sendProbe(long seq, long deadlineNanos) {
+        header.putLong(4, seq);
+        header.putLong(12, deadlineNanos + epochOffset);
+        // 先计数再发送，回环下响应可能早于 send 返回
+        sent = seq + 1;
+        sender.accept(probe);
+        return true;
+    }
+
+    /**
+     * 发送结束后等待迟到的响应（在发送线程上）
+     */
+    private void drain() {
+        long drainUntil = System.nanoTime() + DRAIN_NANOS;
+        while (received < sent && System.nanoTime() < drainUntil) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        endEpochNanos = NanoClock.epochNanos();
+        finished = true;
+        Consumer<LatencySession> callback = onFinished;
+        if (callback != null) {
+            callback.accept(this);
+        }
+    }
+
+    /**
+     * 处理接收到的数据（在接收线程上调用）
+     * @param data      数据
+     * @param timestamp 接收时间（纪元纳秒）
+     */
+    public void onData(PooledBuffer data, long timestamp) {
+        if (frameDecoder == null) {
+            onProbe(data, timestamp);
+            return;
+        }
+        try {
+            frameDecoder.decode(data, frame -> onProbe(frame, timestamp));
+        } catch (CorruptedFrameException e) {
+            unmatched++;
+        }
+    }
+
+    private void onProbe(PooledBuffer data, long timestamp) {
+        ByteBuffer buf = data.data();
+        if (data.length() < HEADER_LENGTH || buf.getInt(0) != MAGIC) {
+            unmatched++;
+            return;
+        }
+        long seq = buf.getLong(4);
+        long scheduled = buf.getLong(12);
+        if (seq < 0 || seq >= sent) {
+            unmatched++;
+            return;
+        }
+        if (seq < highestSeq) {
+            outOfOrder++;
+        } else {
+            highestSeq = seq;
+        }
+        histogram.recordValue(timestamp - scheduled);
+        received++;
+    }
+
+    public LatencyHistogram getHistogram() {
+        return histogram;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getProbeLength() {
+        return probe.length;
+    }
+
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    /**
+     * @return 已经过的时间；结束后为整个会话时长
+     */
+    public long getElapsedNanos() {
+        return (finished ? endEpochNanos : NanoClock.epochNanos()) - startEpochNanos;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getReceived() {
+        return received;
+    }
+
+    /**
+     * @return 未收到响应的探测包数（会话结束后才准确）
+     */
+    public long getLost() {
+        return Math.max(0, sent - received);
+    }
+
+    public long getOutOfOrder() {
+        return outOfOrder;
+    }
+
+    /**
+     * @return 无法识别的响应数（不是探测包、序号非法等）
+     */
+    public long getUnmatched() {
+        return unmatched;
+    }
+}
@@ -0,0 +1,220 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.replay;
+
+import cn.nnjskz.jfx.network.capture.CaptureReader;
+import cn.nnjskz.jfx.network.capture.CaptureRecord;
+import cn.nnjskz.jfx.network.capture.Direction;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * 抓包文件回放
+ * <p>
+ * 在独立线程上按写入顺序遍历抓包文件，把指定方向的记录逐条交给发送动作：记录体从只读映射复制出来后立即发送，
+ * 不把整个文件读入内存。第 k 条的计划时刻为 start + (t[k] - t[0]) / speed，与 {@code SendScheduler} 一样
+ * 距计划时刻较远时 park、最后 {@value #SPIN_NANOS} 纳秒自旋；发送偏慢时立即补发，不丢弃记录。
+ * speed 不大于 0 时不等待，以发送动作能接受的最快速度回放。
+ */
+public class ReplaySession {
+    private static final long SPIN_NANOS = 100_000;
+
+    private final Path capture;
+    private final Direction direction;
+    private final double speed;
+    private final Sender sender;
+    private volatile Consumer<ReplaySession> onFinished;
+    private volatile boolean running;
+    private volatile boolean finished;
+    private volatile Thread thread;
+    private volatile Exception failure;
+
+    private volatile long startNanos;
+    private volatile long endNanos;
+    private volatile long sent;
+    private volatile long sentBytes;
+    private volatile long firstTimestamp = -1;
+    private volatile long lastTimestamp = -1;
+    private volatile long firstSendNanos;
+    private volatile long lastSendNanos;
+
+    /**
+     * @param capture   抓包文件
+     * @param direction 回放的方向：{@link Direction#SEND} 为当时发出的数据，{@link Direction#RECEIVE} 为当时收到的数据
+     * @param speed     相对原始时间的倍速，1 为原始节奏，不大于 0 为不限速
+     * @param sender    发送动作，数组归发送方所有
+     */
+    public ReplaySession(Path capture, Direction direction, double speed, Sender sender) {
+        this.capture = capture;
+        this.direction = direction;
+        this.speed = speed;
+        this.sender = sender;
+    }
+
+    /**
+     * 设置结束回调（在回放线程上调用）
+     */
+    public void setOnFinished(Consumer<ReplaySession> onFinished) {
+        this.onFinished = onFinished;
+    }
+
+    public void start() {
+        running = true;
+        startNanos = System.nanoTime();
+        Thread t = new Thread(this::run, "replay");
+        t.setDaemon(true);
+        thread = t;
+        t.start();
+    }
+
+    public void stop() {
+        running = false;
+        Thread t = thread;
+        if (t != null) {
+            LockSupport.unpark(t);
+        }
+    }
+
+    private void run() {
+        try {
+            new CaptureReader(capture).forEach(this::onRecord);
+        } catch (Stopped ignored) {
+        } catch (IOException | RuntimeException e) {
+            // 记录损坏（如长度越界）同样算作失败，由界面提示
+            failure = e;
+        } finally {
+            running = false;
+            endNanos = System.nanoTime();
+            finished = true;
+            Consumer<ReplaySession> callback = onFinished;
+            if (callback != null) {
+                callback.accept(this);
+            }
+        }
+    }
+
+    private void onRecord(CaptureRecord record) throws IOException {
+        if (!running) {
+            throw Stopped.INSTANCE;
+        }
+        if (record.direction() != direction) {
+            return;
+        }
+        long timestamp = record.timestampNanos();
+        if (firstTimestamp < 0) {
+            firstTimestamp = timestamp;
+        }
+        if (speed > 0) {
+            long deadline = startNanos + (long) ((timestamp - firstTimestamp) / speed);
+            long wait;
+            while ((wait = deadline - System.nanoTime()) > 0) {
+                if (!running) {
+                    throw Stopped.INSTANCE;
+                }
+                if (wait > SPIN_NANOS) {
+                    LockSupport.parkNanos(wait - SPIN_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+        }
+        byte[] data = new byte[record.length()];
+        record.data().get(data);
+        if (!sender.send(data)) {
+            throw Stopped.INSTANCE;
+        }
+        long now = System.nanoTime();
+        if (sent == 0) {
+            firstSendNanos = now;
+        }
+        lastSendNanos = now;
+        lastTimestamp = timestamp;
+        sentBytes += data.length;
+        sent++;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * @return 读取抓包文件失败或记录损坏时的异常，否则为 null
+     */
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public long getSent() {
+        return sent;
+    }
+
+    public long getSentBytes() {
+        return sentBytes;
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * @return 已经过的时间；结束后为整个回放时长
+     */
+    public long getElapsedNanos() {
+        return (finished ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    /**
+     * @return 已回放的记录在原始会话中的时间跨度（纳秒）
+     */
+    public long getOriginalSpanNanos() {
+        return sent > 1 ? lastTimestamp - firstTimestamp : 0;
+    }
+
+    /**
+     * @return 原始会话中这些记录的速率（条/秒），不足两条时为 0
+     */
+    public double getOriginalRate() {
+        long span = getOriginalSpanNanos();
+        return span > 0 ? (sent - 1) * 1e9 / span : 0;
+    }
+
+    /**
+     * @return 本次回放实际达到的速率（条/秒），不足两条时为 0
+     */
+    public double getAchievedRate() {
+        long span = sent > 1 ? lastSendNanos - firstSendNanos : 0;
+        return span > 0 ? (sent - 1) * 1e9 / span : 0;
+    }
+
+    /**
+     * 单条发送动作
+     */
+    @FunctionalInterface
+    public interface Sender {
+        /**
+         * @param data 记录体
+         * @return 是否继续回放
+         */
+        boolean send(byte[] data);
+    }
+
+    /**
+     * 中止遍历
+     */
+    private static final class Stopped extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        static final Stopped INSTANCE = new Stopped();
+
+        private Stopped() {
+            super(null, null, false, false);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.template;
+
+/**
+ * 发送模板支持的校验算法，CRC 均为查表实现
+ * <p>
+ * 计算分为 {@link #init()}、{@link #update(int, byte[], int, int)}、{@link #finish(int)} 三步，
+ * 模板编译时可以先算好固定前缀的中间状态，每次发送只从第一个动态字段处继续。
+ */
+public enum Checksum {
+    /**
+     * CRC-16/CCITT-FALSE：多项式 0x1021，初值 0xFFFF，不反转，默认大端
+     */
+    CRC16("crc16", 2, false) {
+        @Override
+        int init() {
+            return 0xFFFF;
+        }
+
+        @Override
+        int update(int state, byte[] data, int from, int to) {
+            for (int i = from; i < to; i++) {
+                state = (state << 8 ^ CRC16_TABLE[(state >>> 8 ^ data[i]) & 0xFF]) & 0xFFFF;
+            }
+            return state;
+        }
+    },
+    /**
+     * CRC-16/MODBUS：反转多项式 0xA001，初值 0xFFFF，默认小端（低字节在前）
+     */
+    MODBUS("modbus", 2, true) {
+        @Override
+        int init() {
+            return 0xFFFF;
+        }
+
+        @Override
+        int update(int state, byte[] data, int from, int to) {
+            for (int i = from; i < to; i++) {
+                state = state >>> 8 ^ MODBUS_TABLE[(state ^ data[i]) & 0xFF];
+            }
+            return state;
+        }
+    },
+    /**
+     * CRC-32（IEEE 802.3 / zlib）：反转多项式 0xEDB88320，初值与结果异或 0xFFFFFFFF，默认大端
+     */
+    CRC32("crc32", 4, false) {
+        @Override
+        int init() {
+            return 0xFFFFFFFF;
+        }
+
+        @Override
+        int update(int state, byte[] data, int from, int to) {
+            for (int i = from; i < to; i++) {
+                state = state >>> 8 ^ CRC32_TABLE[(state ^ data[i]) & 0xFF];
+            }
+            return state;
+        }
+
+        @Override
+        long finish(int state) {
+            return ~state & 0xFFFFFFFFL;
+        }
+    },
+    /**
+     * LRC：各字节之和取补码的低 8 位
+     */
+    LRC("lrc", 1, false) {
+        @Override
+        int init() {
+            return 0;
+        }
+
+        @Override
+        int update(int state, byte[] data, int from, int to) {
+            for (int i = from; i < to; i++) {
+                state += data[i];
+            }
+            return state;
+        }
+
+        @Override
+        long finish(int state) {
+            return -state & 0xFF;
+        }
+    };
+
+    private static final int[] CRC16_TABLE = new int[256];
+    private static final int[] MODBUS_TABLE = new int[256];
+    private static final int[] CRC32_TABLE = new int[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            int crc16 = i << 8;
+            int modbus = i;
+            int crc32 = i;
+            for (int bit = 0; bit < 8; bit++) {
+                crc16 = (crc16 & 0x8000) != 0 ? crc16 << 1 ^ 0x1021 : crc16 << 1;
+                modbus = (modbus & 1) != 0 ? modbus >>> 1 ^ 0xA001 : modbus >>> 1;
+                crc32 = (crc32 & 1) != 0 ? crc32 >>> 1 ^ 0xEDB88320 : crc32 >>> 1;
+            }
+            CRC16_TABLE[i] = crc16 & 0xFFFF;
+            MODBUS_TABLE[i] = modbus;
+            CRC32_TABLE[i] = crc32;
+        }
+    }
+
+    private final String label;
+    private final int width;
+    private final boolean littleEndian;
+
+    Checksum(String label, int width, boolean littleEndian) {
+        this.label = label;
+        this.width = width;
+        this.littleEndian = littleEndian;
+    }
+
+    /**
+     * @return 模板中的字段名
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * @return 校验值的字节数
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * @return 默认是否低字节在前
+     */
+    public boolean isLittleEndian() {
+        return littleEndian;
+    }
+
+    abstract int init();
+
+    abstract int update(int state, byte[] data, int from, int to);
+
+    long finish(int state) {
+        return state & 0xFFFFFFFFL;
+    }
+
+    /**
+     * 计算 data[from, to) 的校验值
+     */
+    public long compute(byte[] data, int from, int to) {
+        return finish(update(init(), data, from, to));
+    }
+
+    static Checksum ofLabel(String label) {
+        for (Checksum checksum : values()) {
+            if (checksum.label.equals(label)) {
+                return checksum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network.template;
+
+import cn.nnjskz.jfx.network.codec.HexCodec;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 发送模板
+ * <p>
+ * 模板文本中 {@code {...}} 为动态字段，其余为原样发送的内容（文本按 UTF-8，十六进制模式下按十六进制解析），
+ * <code>{{</code> 与 <code>}}</code> 表示字面的花括号。字段：
+ * <pre>
+ * {seq}                序号（从 0 开始，每条加 1），默认 4 字节大端
+ * {ts} / {ts:s}        当前时间，毫秒默认 8 字节、秒默认 4 字节
+ * {rand}               随机数，默认 4 字节
+ * {crc16} {modbus} {crc32} {lrc}
+ *                      校验，覆盖从报文开头（或 from=N 指定的偏移）到该字段之前的全部字节，
+ *                      CRC16 为 CCITT-FALSE，Modbus 默认低字节在前
+ * </pre>
+ * 字段选项以冒号分隔：{@code 1/2/4/8} 字节数、{@code le}/{@code be} 字节序、{@code dN} 定长 N 位十进制 ASCII、
+ * {@code x} 十六进制 ASCII（大写）、{@code start=N} 序号初值、{@code from=N} 校验起始偏移，如
+ * {@code {seq:2:le}}、{@code {ts:s:d10}}、{@code {modbus:from=2}}、{@code {lrc:x}}。
+ * <p>
+ * 模板只编译一次：固定内容写入一个复用的缓冲区，每个字段定长，记录偏移；每个校验字段在编译时算好
+ * 第一个动态字段之前的中间状态。{@link #render(long)} 只按偏移改写动态字段、从中间状态继续计算校验，
+ * 发送路径上不解析、不拼接字符串、不分配内存。返回的数组会被下一次渲染覆盖，只能由同一线程使用，
+ * 需要跨线程持有时先复制。
+ */
+public final class PayloadTemplate {
+    private static final int MAX_DIGITS = 19;
+    private static final int MAX_RANDOM_BYTES = 1024;
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private final byte[] buffer;
+    // 按偏移升序，靠后的校验可以覆盖靠前的字段
+    private final Field[] fields;
+    private long nextSeq;
+
+    private PayloadTemplate(byte[] buffer, Field[] fields) {
+        this.buffer = buffer;
+        this.fields = fields;
+    }
+
+    /**
+     * 不含动态字段的模板，{@link #render(long)} 总是返回同一个数组
+     */
+    public static PayloadTemplate literal(byte[] payload) {
+        return new PayloadTemplate(payload, new Field[0]);
+    }
+
+    /**
+     * 编译模板
+     *
+     * @param source 模板文本
+     * @param hex    固定内容是否按十六进制解析
+     * @return PayloadTemplate
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static PayloadTemplate compile(String source, boolean hex) {
+        ByteSink out = new ByteSink();
+        List<Field> fields = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if ((c == '{' || c == '}') && i + 1 < source.length() && source.charAt(i + 1) == c) {
+                literal.append(c);
+                i += 2;
+                continue;
+            }
+            if (c == '}') {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 个字符：多余的 '}'，字面的花括号请写作 }}");
+            }
+            if (c != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            int end = source.indexOf('}', i);
+            if (end < 0) {
+                throw new IllegalArgumentException("第 " + (i + 1) + " 个字符：字段缺少 '}'");
+            }
+            appendLiteral(out, literal, hex);
+            try {
+                Field field = parseField(source.substring(i + 1, end).strip(), out.size());
+                fields.add(field);
+                out.skip(field.width);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("字段 " + source.substring(i, end + 1) + "：" + e.getMessage(), e);
+            }
+            i = end + 1;
+        }
+        appendLiteral(out, literal, hex);
+        byte[] buffer = out.toByteArray();
+        Field[] compiled = fields.toArray(new Field[0]);
+        for (Field field : compiled) {
+            if (field.kind == Kind.CHECKSUM) {
+                prepareChecksum(field, buffer, compiled);
+            }
+        }
+        return new PayloadTemplate(buffer, compiled);
+    }
+
+    private static void appendLiteral(ByteSink out, StringBuilder literal, boolean hex) {
+        if (literal.isEmpty()) {
+            return;
+        }
+        out.write(hex ? HexCodec.decode(literal) : literal.toString().getBytes(StandardCharsets.UTF_8));
+        literal.setLength(0);
+    }
+
+    private static Field parseField(String spec, int offset) {
+        String[] parts = spec.split(":");
+        String name = parts[0].strip().toLowerCase(Locale.ROOT);
+        Checksum checksum = Checksum.ofLabel(name);
+        Kind kind = switch (name) {
+            case "seq" -> Kind.SEQ;
+            case "ts" -> Kind.TIME;
+            case "rand" -> Kind.RANDOM;
+            default -> {
+                if (checksum == null) {
+                    throw new IllegalArgumentException("未知的字段名：" + name);
+                }
+                yield Kind.CHECKSUM;
+            }
+        };
+        Field field = new Field(kind, offset);
+        field.checksum = checksum;
+        int bytes = 0;
+        Boolean littleEndian = null;
+        for (int p = 1; p < parts.length; p++) {
+            String option = parts[p].strip().toLowerCase(Locale.ROOT);
+            if (option.matches("\\d+")) {
+                bytes = Integer.parseInt(option);
+            } else if ("le".equals(option) || "be".equals(option)) {
+                littleEndian = "le".equals(option);
+            } else if ("x".equals(option)) {
+                field.format = Format.HEX;
+            } else if (option.matches("d\\d+")) {
+                field.format = Format.DECIMAL;
+                field.width = Integer.parseInt(option.substring(1));
+                if (field.width < 1 || field.width > MAX_DIGITS) {
+                    throw new IllegalArgumentException("十进制位数必须在 1~" + MAX_DIGITS + " 之间");
+                }
+            } else if (kind == Kind.TIME && ("s".equals(option) || "ms".equals(option))) {
+                field.seconds = "s".equals(option);
+            } else if (kind == Kind.SEQ && option.startsWith("start=")) {
+                field.start = parseNumber(option.substring(6));
+            } else if (kind == Kind.CHECKSUM && option.startsWith("from=")) {
+                field.from = (int) parseNumber(option.substring(5));
+                if (field.from < 0 || field.from > offset) {
+                    throw new IllegalArgumentException("校验起始偏移 " + field.from + " 超出字段位置 " + offset);
+                }
+            } else {
+                throw new IllegalArgumentException("无效的选项：" + option);
+            }
+        }
+        if (kind == Kind.CHECKSUM) {
+            if (bytes != 0 && bytes != checksum.getWidth()) {
+                throw new IllegalArgumentException(checksum.getLabel() + " 固定为 " + checksum.getWidth() + " 字节");
+            }
+            bytes = checksum.getWidth();
+            field.littleEndian = littleEndian != null ? littleEndian : checksum.isLittleEndian();
+        } else {
+            if (bytes == 0) {
+                bytes = kind == Kind.TIME && !field.seconds ? 8 : 4;
+            }
+            int max = kind == Kind.RANDOM ? MAX_RANDOM_BYTES : 8;
+            if (bytes < 1 || bytes > max || kind != Kind.RANDOM && Integer.bitCount(bytes) != 1) {
+                throw new IllegalArgumentException(kind == Kind.RANDOM
+                        ? "字节数必须在 1~" + MAX_RANDOM_BYTES + " 之间" : "字节数只能是 1、2、4、8");
+            }
+            field.littleEndian = Boolean.TRUE.equals(littleEndian);
+        }
+        if (field.format == Format.BINARY) {
+            field.width = bytes;
+        } else if (field.format == Format.HEX) {
+            field.width = bytes * 2;
+        }
+        return field;
+    }
+
+    private static long parseNumber(String text) {
+        try {
+            return Long.parseLong(text.strip());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的数字：" + text);
+        }
+    }
+
+    /**
+     * 校验范围内第一个动态字段之前的内容固定不变，预先算好这一段的中间状态
+     */
+    private static void prepareChecksum(Field checksum, byte[] buffer, Field[] fields) {
+        int prefixEnd = checksum.offset;
+        for (Field field : fields) {
+            if (field.offset >= checksum.offset) {
+                break;
+            }
+            if (field.offset + field.width > checksum.from) {
+                prefixEnd = Math.max(checksum.from, Math.min(prefixEnd, field.offset));
+            }
+        }
+        checksum.prefixEnd = prefixEnd;
+        checksum.prefixState = checksum.checksum.update(checksum.checksum.init(), buffer, checksum.from, prefixEnd);
+    }
+
+    /**
+     * 按序号渲染一条报文
+     *
+     * @param seq 序号（不含 start=N 的初值）
+     * @return 复用的缓冲区，下一次渲染前有效
+     */
+    public byte[] render(long seq) {
+        long now = 0;
+        for (Field field : fields) {
+            switch (field.kind) {
+                case SEQ -> write(field, field.start + seq);
+                case TIME -> {
+                    if (now == 0) {
+                        now = System.currentTimeMillis();
+                    }
+                    write(field, field.seconds ? now / 1000 : now);
+                }
+                case RANDOM -> writeRandom(field);
+                case CHECKSUM -> {
+                    Checksum checksum = field.checksum;
+                    int state = checksum.update(field.prefixState, buffer, field.prefixEnd, field.offset);
+                    write(field, checksum.finish(state));
+                }
+            }
+        }
+        return buffer;
+    }
+
+    /**
+     * 渲染下一条报文，序号在本模板的多次调用间递增
+     */
+    public byte[] next() {
+        return render(nextSeq++);
+    }
+
+    /**
+     * @return 报文长度（所有字段定长，每条相同）
+     */
+    public int length() {
+        return buffer.length;
+    }
+
+    /**
+     * @return 是否含有动态字段
+     */
+    public boolean isDynamic() {
+        return fields.length > 0;
+    }
+
+    private void write(Field field, long value) {
+        int offset = field.offset;
+        int width = field.width;
+        switch (field.format) {
+            case BINARY -> {
+                for (int i = 0; i < width; i++) {
+                    int shift = 8 * (field.littleEndian ? i : width - 1 - i);
+                    buffer[offset + i] = (byte) (value >>> shift);
+                }
+            }
+            case HEX -> {
+                for (int i = width - 1; i >= 0; i--) {
+                    buffer[offset + i] = HEX_DIGITS[(int) (value & 0xF)];
+                    value >>>= 4;
+                }
+            }
+            case DECIMAL -> {
+                for (int i = width - 1; i >= 0; i--) {
+                    buffer[offset + i] = (byte) ('0' + Long.remainderUnsigned(value, 10));
+                    value = Long.divideUnsigned(value, 10);
+                }
+            }
+        }
+    }
+
+    private void writeRandom(Field field) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int end = field.offset + field.width;
+        switch (field.format) {
+            case BINARY -> {
+                for (int i = field.offset; i < end; i++) {
+                    buffer[i] = (byte) random.nextInt(256);
+                }
+            }
+            case HEX -> {
+                for (int i = field.offset; i < end; i++) {
+                    buffer[i] = HEX_DIGITS[random.nextInt(16)];
+                }
+            }
+            case DECIMAL -> {
+                for (int i = field.offset; i < end; i++) {
+                    buffer[i] = (byte) ('0' + random.nextInt(10));
+                }
+            }
+        }
+    }
+
+    private enum Kind {
+        SEQ, TIME, RANDOM, CHECKSUM
+    }
+
+    private enum Format {
+        BINARY, HEX, DECIMAL
+    }
+
+    /**
+     * 编译后的动态字段，width 为在报文中占用的字节数
+     */
+    private static final class Field {
+        final Kind kind;
+        final int offset;
+        Format format = Format.BINARY;
+        int width;
+        boolean littleEndian;
+        long start;
+        boolean seconds;
+        Checksum checksum;
+        int from;
+        int prefixEnd;
+        int prefixState;
+
+        Field(Kind kind, int offset) {
+            this.kind = kind;
+            this.offset = offset;
+        }
+    }
+
+    /**
+     * 编译时拼接固定内容
+     */
+    private static final class ByteSink {
+        private byte[] bytes = new byte[64];
+        private int size;
+
+        void write(byte[] data) {
+            ensure(data.length);
+            System.arraycopy(data, 0, bytes, size, data.length);
+            size += data.length;
+        }
+
+        void skip(int length) {
+            ensure(length);
+            size += length;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+
+        private void ensure(int length) {
+            if (size + length > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + length));
+            }
+        }
+    }
+}
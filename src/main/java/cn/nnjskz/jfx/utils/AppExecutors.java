@@ -13,6 +13,12 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 public class AppExecutors {
+    /**
+     * 执行模式系统属性：platform（默认，平台线程）/ virtual（虚拟线程，需 JDK 21+）
+     */
+    public static final String MODE_PROPERTY = "jfx.executor.mode";
+    public static final String MODE_PLATFORM = "platform";
+    public static final String MODE_VIRTUAL = "virtual";
     // 单例模式
     private static volatile AppExecutors instance;
     private static final int CPU_CORES = Runtime.getRuntime().availableProcessors();
@@ -20,6 +26,9 @@ public class AppExecutors {
     // 后台线程
     private final ExecutorService backgroundCachedExecutor;
     private final ExecutorService backgroundFixedExecutor;
+    // 阻塞式网络读写循环
+    private final ExecutorService blockingIoExecutor;
+    private final boolean virtualThreadMode;
     // 定时线程
     private final ScheduledExecutorService scheduledTaskExecutor;
 
@@ -27,6 +36,23 @@ public class AppExecutors {
         backgroundCachedExecutor =Executors.newCachedThreadPool();
         backgroundFixedExecutor = Executors.newFixedThreadPool(IO_BOUND_THREAD_COUNT);
         scheduledTaskExecutor = Executors.newSingleThreadScheduledExecutor();
+        ExecutorService virtualExecutor = MODE_VIRTUAL.equalsIgnoreCase(System.getProperty(MODE_PROPERTY, MODE_PLATFORM))
+                ? newVirtualThreadPerTaskExecutor() : null;
+        virtualThreadMode = virtualExecutor != null;
+        blockingIoExecutor = virtualThreadMode ? virtualExecutor : backgroundCachedExecutor;
+    }
+
+    /**
+     * 以反射方式创建虚拟线程执行器，保证在 JDK 17 上编译与运行时自动退回平台线程
+     * @return ExecutorService；当前运行时不支持虚拟线程时返回 null
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            System.err.println("当前JDK(" + Runtime.version() + ")不支持虚拟线程，已退回平台线程模式");
+            return null;
+        }
     }
 
     /**
@@ -60,6 +86,23 @@ public class AppExecutors {
         return backgroundFixedExecutor;
     }
 
+    /**
+     * 获取用于阻塞式网络读写循环（accept/read/receive）的 ExecutorService。
+     * 虚拟线程模式下每个任务一个虚拟线程，否则与 {@link #getBackgroundCachedExecutor()} 相同
+     * @return ExecutorService
+     */
+    public ExecutorService getBlockingIoExecutor() {
+        return blockingIoExecutor;
+    }
+
+    /**
+     * 是否运行在虚拟线程模式
+     * @return true / false
+     */
+    public boolean isVirtualThreadMode() {
+        return virtualThreadMode;
+    }
+
     /**
      * 获取用于定时任务的 ScheduledExecutorService
      * @return ScheduledExecutorService
@@ -74,6 +117,7 @@ public class AppExecutors {
     public void shutdown() {
         shutdownExecutor(backgroundFixedExecutor);
         shutdownExecutor(backgroundCachedExecutor);
+        shutdownExecutor(blockingIoExecutor);
         shutdownExecutor(scheduledTaskExecutor);
     }
 
@@ -0,0 +1,234 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.utils;
+
+import cn.nnjskz.jfx.model.HistoryConn;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static cn.nnjskz.jfx.utils.FileUtil.currentDir;
+import static cn.nnjskz.jfx.utils.ResourceBundleUtil.getProperty;
+
+/**
+ * 连接历史（TCP 连接目标 / UDP 目标主机）
+ * <p>
+ * 历史在首次使用时从文件加载一次，之后全部在内存中维护：同一 host:port 只保留一条，按最近使用排序，
+ * 记录使用次数与最近一次连接耗时。记录操作只修改内存并登记一次延迟写入，{@value #WRITE_DELAY_MILLIS}ms 内的多次修改
+ * 合并为一次，由定时线程写入临时文件后原子替换，连接与发送路径不访问磁盘。
+ * <p>
+ * 文件每行一条，最近使用的在前：{@code host:port\t次数\t最近使用时间(毫秒)\t耗时(毫秒，未知为 -1)}；
+ * 只有 {@code host:port} 的旧格式文件按追加顺序（旧的在前）读入。
+ */
+public final class ConnHistoryStore {
+    // 最多保留的条数，超出时淘汰最久未使用的
+    private static final int MAX_ENTRIES = 200;
+    private static final long WRITE_DELAY_MILLIS = 1000;
+    private static final ConnHistoryStore CONNECTIONS = new ConnHistoryStore("conn.history.path");
+    private static final ConnHistoryStore TARGET_HOSTS = new ConnHistoryStore("target.host.history.path");
+
+    private final String pathKey;
+    // 插入顺序即使用顺序，末尾为最近使用
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final Object writeLock = new Object();
+    private boolean loaded;
+    private boolean writeScheduled;
+    // 每次修改递增，写入时比较以跳过已写过的版本
+    private long version;
+    private long writtenVersion;
+
+    private ConnHistoryStore(String pathKey) {
+        this.pathKey = pathKey;
+    }
+
+    /**
+     * @return TCP 连接目标历史
+     */
+    public static ConnHistoryStore connections() {
+        return CONNECTIONS.load();
+    }
+
+    /**
+     * @return UDP 目标主机历史
+     */
+    public static ConnHistoryStore targetHosts() {
+        return TARGET_HOSTS.load();
+    }
+
+    /**
+     * 退出前写入尚未保存的修改（在调用线程上执行）
+     */
+    public static void flushAll() {
+        CONNECTIONS.flush();
+        TARGET_HOSTS.flush();
+    }
+
+    /**
+     * 记录一次使用
+     *
+     * @param latencyMillis 本次连接耗时，未知时传 -1（保留上一次的耗时）
+     */
+    public void record(String host, int port, long latencyMillis) {
+        String key = host + ":" + port;
+        synchronized (this) {
+            Entry previous = entries.remove(key);
+            long count = previous == null ? 1 : previous.count + 1;
+            long latency = latencyMillis >= 0 ? latencyMillis : previous == null ? -1 : previous.latencyMillis;
+            entries.put(key, new Entry(host, port, count, System.currentTimeMillis(), latency));
+            trim();
+            version++;
+            if (writeScheduled) {
+                return;
+            }
+            writeScheduled = true;
+        }
+        try {
+            AppExecutors.getInstance().getScheduledTaskExecutor()
+                    .schedule(this::flush, WRITE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // 线程池已关闭（正在退出），由 flushAll 写入
+            synchronized (this) {
+                writeScheduled = false;
+            }
+        }
+    }
+
+    /**
+     * @return 按最近使用排序的历史
+     */
+    public synchronized List<HistoryConn> list() {
+        List<HistoryConn> list = new ArrayList<>(entries.size());
+        for (Entry entry : entries.values()) {
+            list.add(new HistoryConn(entry.host, entry.port, entry.count, entry.lastUsed, entry.latencyMillis));
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    /**
+     * @return 按最近使用排序的 host:port
+     */
+    public synchronized List<String> addresses() {
+        List<String> list = new ArrayList<>(entries.keySet());
+        Collections.reverse(list);
+        return list;
+    }
+
+    private synchronized ConnHistoryStore load() {
+        if (loaded) {
+            return this;
+        }
+        loaded = true;
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(file(), StandardCharsets.UTF_8);
+        } catch (NoSuchFileException e) {
+            return this;
+        } catch (IOException e) {
+            System.err.println("读取连接历史失败: " + e.getMessage());
+            return this;
+        }
+        boolean legacy = lines.stream().noneMatch(line -> line.indexOf('\t') >= 0);
+        if (!legacy) {
+            // 新格式最近使用的在前，倒序放入使末尾为最近使用
+            Collections.reverse(lines);
+        }
+        for (String line : lines) {
+            Entry entry = parse(line.trim());
+            if (entry != null) {
+                String key = entry.host + ":" + entry.port;
+                Entry previous = entries.remove(key);
+                entries.put(key, previous == null ? entry : new Entry(entry.host, entry.port,
+                        previous.count + entry.count, Math.max(previous.lastUsed, entry.lastUsed), entry.latencyMillis));
+            }
+        }
+        trim();
+        return this;
+    }
+
+    private static Entry parse(String line) {
+        String[] fields = line.split("\t");
+        int colon = fields[0].lastIndexOf(':');
+        if (colon <= 0) {
+            return null;
+        }
+        try {
+            int port = Integer.parseInt(fields[0].substring(colon + 1));
+            long count = fields.length > 1 ? Long.parseLong(fields[1]) : 1;
+            long lastUsed = fields.length > 2 ? Long.parseLong(fields[2]) : 0;
+            long latency = fields.length > 3 ? Long.parseLong(fields[3]) : -1;
+            return new Entry(fields[0].substring(0, colon), port, Math.max(1, count), lastUsed, latency);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private void trim() {
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > MAX_ENTRIES && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private void flush() {
+        // 写入串行执行，后写入的一定是较新的版本
+        synchronized (writeLock) {
+            List<String> lines;
+            long snapshotVersion;
+            synchronized (this) {
+                writeScheduled = false;
+                if (version == writtenVersion) {
+                    return;
+                }
+                snapshotVersion = version;
+                lines = new ArrayList<>(entries.size());
+                for (Entry entry : entries.values()) {
+                    lines.add(entry.host + ":" + entry.port + "\t" + entry.count + "\t" + entry.lastUsed + "\t" + entry.latencyMillis);
+                }
+            }
+            Collections.reverse(lines);
+            Path target = file();
+            Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+            try {
+                Files.createDirectories(target.getParent());
+                try (BufferedWriter writer = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+                    for (String line : lines) {
+                        writer.write(line);
+                        writer.newLine();
+                    }
+                }
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                synchronized (this) {
+                    writtenVersion = snapshotVersion;
+                }
+            } catch (IOException e) {
+                System.err.println("保存连接历史失败: " + e.getMessage());
+            }
+        }
+    }
+
+    private Path file() {
+        return Paths.get(currentDir, getProperty.apply(pathKey));
+    }
+
+    private record Entry(String host, int port, long count, long lastUsed, long latencyMillis) {
+    }
+}
@@ -9,9 +9,11 @@ package cn.nnjskz.jfx.utils;
 
 import java.io.*;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
 
 import static cn.nnjskz.jfx.utils.ResourceBundleUtil.getProperty;
@@ -30,23 +32,6 @@ public class FileUtil {
         }
     }
 
-    /**
-     * 获取历史连接文件内容
-     * @param fileName 文件路径
-     * @return map = host and port
-     */
-    public static Map<String,Integer> getConnHistoryFile(String fileName) throws IOException {
-        Map<String,Integer> map = new HashMap<>();
-        StringBuilder content = readFile(fileName);
-        if (!content.isEmpty()) {
-            String[] hosts = content.toString().split("\n");
-            for (String h : hosts) {
-                map.put(h.split(":")[0], Integer.valueOf(h.split(":")[1]));
-            }
-        }
-        return map;
-    }
-
     /**
      * 写入文件
      *
@@ -78,25 +63,23 @@ public class FileUtil {
             return result;
         }
 
+        // 每个文件只读一次属性，排序时不再访问文件系统
+        List<Map.Entry<Path, BasicFileAttributes>> files = new ArrayList<>();
         try (var filesStream = Files.list(logPath)) {
-            filesStream
-                    .filter(Files::isRegularFile)
-                    .sorted((f1, f2) -> {
-                        try {
-                            return Long.compare(
-                                    Files.getLastModifiedTime(f2).toMillis(),
-                                    Files.getLastModifiedTime(f1).toMillis());
-                        } catch (IOException e) {
-                            return 0;
-                        }
-                    })
-                    .forEach(path -> {
-                        try {
-                            result.put(path.getFileName().toString(), Files.size(path));
-                        } catch (IOException e) {
-                            throw new RuntimeException(e);
-                        }
-                    });
+            for (Path path : (Iterable<Path>) filesStream::iterator) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+                    if (attributes.isRegularFile()) {
+                        files.add(Map.entry(path, attributes));
+                    }
+                } catch (NoSuchFileException ignored) {
+                    // 列出后被删除
+                }
+            }
+        }
+        files.sort((f1, f2) -> f2.getValue().lastModifiedTime().compareTo(f1.getValue().lastModifiedTime()));
+        for (Map.Entry<Path, BasicFileAttributes> file : files) {
+            result.put(file.getKey().getFileName().toString(), file.getValue().size());
         }
         return result;
     }
@@ -0,0 +1,36 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.utils;
+
+/**
+ * 纳秒精度的纪元时钟
+ * <p>
+ * 启动时以 currentTimeMillis 校准一次，之后基于 nanoTime 递增：单调、无对象分配，适合在网络线程上为每帧打时间戳。
+ */
+public final class NanoClock {
+    private static final long BASE_EPOCH_NANOS = System.currentTimeMillis() * 1_000_000L;
+    private static final long BASE_NANO_TIME = System.nanoTime();
+
+    private NanoClock() {
+    }
+
+    /**
+     * @return 当前纪元纳秒
+     */
+    public static long epochNanos() {
+        return BASE_EPOCH_NANOS + (System.nanoTime() - BASE_NANO_TIME);
+    }
+
+    /**
+     * @param epochNanos 纪元纳秒
+     * @return 纪元毫秒
+     */
+    public static long toMillis(long epochNanos) {
+        return epochNanos / 1_000_000L;
+    }
+}
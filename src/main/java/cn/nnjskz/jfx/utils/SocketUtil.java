@@ -7,6 +7,8 @@
  */
 package cn.nnjskz.jfx.utils;
 
+import cn.nnjskz.jfx.network.codec.HexCodec;
+
 import java.net.InetAddress;
 import java.net.NetworkInterface;
 import java.net.ServerSocket;
@@ -14,22 +16,39 @@ import java.util.Enumeration;
 
 public class SocketUtil {
     public static String formatBytesToHex(byte[] data) {
-        StringBuilder sb = new StringBuilder();
-        for (byte b : data) {
-            sb.append(String.format("%02X ", b)); // 大写十六进制 + 空格
-        }
-        return sb.toString().trim();
+        return formatBytesToHex(data, 0, data.length);
+    }
+
+    public static String formatBytesToHex(byte[] data, int offset, int length) {
+        return HexCodec.encode(data, offset, length);
+    }
+
+    /**
+     * 解析十六进制字符串，允许以空白分隔
+     * @param hexStr 如 "0D 0A"
+     * @return 字节数组
+     * @throws IllegalArgumentException 长度为奇数或包含非十六进制字符
+     */
+    public static byte[] parseHex(String hexStr) {
+        return HexCodec.decode(hexStr);
     }
 
-    private byte[] parseHex(String hexStr) {
-        hexStr = hexStr.replaceAll("\\s+", "");
-        int len = hexStr.length();
-        byte[] data = new byte[len / 2];
-        for (int i = 0; i < len; i += 2) {
-            data[i / 2] = (byte) ((Character.digit(hexStr.charAt(i), 16) << 4)
-                    + Character.digit(hexStr.charAt(i+1), 16));
+    /**
+     * 字节数转为便于阅读的大小
+     * @param bytes 字节数
+     * @return 如 512B、1.5KB、20.3MB
+     */
+    public static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        if (bytes < 1024 * 1024) {
+            return String.format("%.1fKB", bytes / 1024.0);
+        }
+        if (bytes < 1024L * 1024 * 1024) {
+            return String.format("%.1fMB", bytes / 1024.0 / 1024);
         }
-        return data;
+        return String.format("%.2fGB", bytes / 1024.0 / 1024 / 1024);
     }
 
     /**
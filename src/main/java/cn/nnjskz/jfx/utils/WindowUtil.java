@@ -8,6 +8,13 @@
 package cn.nnjskz.jfx.utils;
 
 import cn.nnjskz.jfx.MainApplication;
+import cn.nnjskz.jfx.network.SlowConsumerPolicy;
+import cn.nnjskz.jfx.network.TcpServer;
+import cn.nnjskz.jfx.network.UdpService;
+import cn.nnjskz.jfx.network.WriteQueueConfig;
+import cn.nnjskz.jfx.network.answer.AnswerEngine;
+import cn.nnjskz.jfx.network.codec.FramingConfig;
+import cn.nnjskz.jfx.network.codec.FramingType;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXMLLoader;
@@ -23,6 +30,7 @@ import javafx.stage.Stage;
 import javafx.util.converter.IntegerStringConverter;
 
 import java.io.IOException;
+import java.nio.ByteOrder;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -257,10 +265,38 @@ public class WindowUtil {
         maxPacketBox.getItems().addAll("auto", "128", "256", "512", "1024", "2048", "4096");
         maxPacketBox.setValue("auto");
 
+        ComboBox<String> engineBox = new ComboBox<>();
+        engineBox.getItems().addAll(TcpServer.ENGINE_BIO, TcpServer.ENGINE_NIO);
+        engineBox.setValue(TcpServer.ENGINE_BIO);
+
+        // NIO 事件循环线程数，默认与CPU核数一致
+        TextField eventLoopField = new TextField(String.valueOf(Runtime.getRuntime().availableProcessors()));
+        eventLoopField.disableProperty().bind(engineBox.valueProperty().isNotEqualTo(TcpServer.ENGINE_NIO));
+
         grid.add(new Label("心跳时间(秒):"), 0, 0);
         grid.add(heartbeatField, 1, 0);
         grid.add(new Label("最大接收包长(字节):"), 0, 1);
         grid.add(maxPacketBox, 1, 1);
+        grid.add(new Label("服务引擎:"), 0, 2);
+        grid.add(engineBox, 1, 2);
+        grid.add(new Label("事件循环线程数:"), 0, 3);
+        grid.add(eventLoopField, 1, 3);
+
+        // 每个客户端独立的发送队列
+        TextField highWatermarkField = new TextField(String.valueOf(WriteQueueConfig.DEFAULT.highWatermark() / 1024));
+        TextField lowWatermarkField = new TextField(String.valueOf(WriteQueueConfig.DEFAULT.lowWatermark() / 1024));
+        ComboBox<String> policyBox = new ComboBox<>();
+        for (SlowConsumerPolicy policy : SlowConsumerPolicy.values()) {
+            policyBox.getItems().add(policy.getLabel());
+        }
+        policyBox.setValue(WriteQueueConfig.DEFAULT.policy().getLabel());
+        grid.add(new Label("发送队列高水位(KB):"), 0, 4);
+        grid.add(highWatermarkField, 1, 4);
+        grid.add(new Label("发送队列低水位(KB):"), 0, 5);
+        grid.add(lowWatermarkField, 1, 5);
+        grid.add(new Label("慢客户端策略:"), 0, 6);
+        grid.add(policyBox, 1, 6);
+        FramingFields framingFields = new FramingFields(grid, 7);
         dialog.getDialogPane().setContent(grid);
 
         Node confirmBtn = dialog.getDialogPane().lookupButton(okButton);
@@ -286,9 +322,31 @@ public class WindowUtil {
                         return;
                     }
                 }
+                int eventLoops = Integer.parseInt(eventLoopField.getText());
+                if (eventLoops < 1 || eventLoops > 256) {
+                    showTip("事件循环线程数必须在 1~256 之间！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
+                int highWatermark = Integer.parseInt(highWatermarkField.getText());
+                int lowWatermark = Integer.parseInt(lowWatermarkField.getText());
+                if (lowWatermark < 0 || highWatermark <= lowWatermark || highWatermark > 1024 * 1024) {
+                    showTip("发送队列水位需满足 0 <= 低水位 < 高水位 <= 1048576 KB！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
                 Map<String, String> result = new HashMap<>();
+                if (!framingFields.collect(result)) {
+                    event.consume();
+                    return;
+                }
                 result.put("heartbeat", heartbeatText);
                 result.put("maxPacket", maxPacket);
+                result.put("engine", engineBox.getValue());
+                result.put("eventLoops", String.valueOf(eventLoops));
+                result.put("highWatermark", String.valueOf(highWatermark));
+                result.put("lowWatermark", String.valueOf(lowWatermark));
+                result.put("policy", policyBox.getValue());
                 dialog.setResult(result);
             } catch (NumberFormatException e) {
                 showTip("请输入有效的数字格式！", "⚠️警告消息");
@@ -298,4 +356,474 @@ public class WindowUtil {
         dialog.setResultConverter(button -> button == okButton ? dialog.getResult() : null);
         return dialog.showAndWait();
     }
+
+    /**
+     * 显示udp扩展选项
+     */
+    public static Optional<Map<String, String>> showUdpExtensionOption() {
+        Dialog<Map<String, String>> dialog = new Dialog<>();
+        dialog.initOwner(stage);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("UDP配置参数");
+
+        ButtonType okButton = new ButtonType("确定", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(okButton, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 10, 10, 10));
+
+        ComboBox<String> maxDatagramBox = new ComboBox<>();
+        maxDatagramBox.setEditable(true);
+        maxDatagramBox.getItems().addAll("512", "1472", "4096", "8192", "65507");
+        maxDatagramBox.setValue("4096");
+
+        // 接收缓冲区越大，突发流量下内核丢包越少；实际值受系统上限（如 net.core.rmem_max）约束
+        ComboBox<String> receiveBufferBox = new ComboBox<>();
+        receiveBufferBox.setEditable(true);
+        receiveBufferBox.getItems().addAll("auto", "256", "1024", "4096", "16384");
+        receiveBufferBox.setValue("4096");
+
+        grid.add(new Label("最大报文长度(字节):"), 0, 0);
+        grid.add(maxDatagramBox, 1, 0);
+        grid.add(new Label("接收缓冲区SO_RCVBUF(KB):"), 0, 1);
+        grid.add(receiveBufferBox, 1, 1);
+        dialog.getDialogPane().setContent(grid);
+
+        Node confirmBtn = dialog.getDialogPane().lookupButton(okButton);
+        confirmBtn.disableProperty().bind(
+                maxDatagramBox.getEditor().textProperty().isEmpty()
+                        .or(receiveBufferBox.getEditor().textProperty().isEmpty())
+        );
+        // 拦截确认 + 验证逻辑
+        confirmBtn.addEventFilter(ActionEvent.ACTION, event -> {
+            String receiveBuffer = receiveBufferBox.getEditor().getText();
+            try {
+                int maxDatagram = Integer.parseInt(maxDatagramBox.getEditor().getText());
+                if (maxDatagram < 1 || maxDatagram > UdpService.MAX_DATAGRAM_SIZE) {
+                    showTip("最大报文长度必须在 1~" + UdpService.MAX_DATAGRAM_SIZE + " 之间！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
+                int receiveBufferKb = 0;
+                if (!"auto".equalsIgnoreCase(receiveBuffer)) {
+                    receiveBufferKb = Integer.parseInt(receiveBuffer);
+                    if (receiveBufferKb < 1 || receiveBufferKb > 1024 * 1024) {
+                        showTip("接收缓冲区必须为 \"auto\" 或 1~1048576 之间的整数！", "⚠️警告消息");
+                        event.consume();
+                        return;
+                    }
+                }
+                Map<String, String> result = new HashMap<>();
+                result.put("maxDatagram", String.valueOf(maxDatagram));
+                result.put("receiveBuffer", String.valueOf(receiveBufferKb));
+                dialog.setResult(result);
+            } catch (NumberFormatException e) {
+                showTip("请输入有效的数字格式！", "⚠️警告消息");
+                event.consume();
+            }
+        });
+        dialog.setResultConverter(button -> button == okButton ? dialog.getResult() : null);
+        return dialog.showAndWait();
+    }
+
+    /**
+     * 显示tcp客户端扩展选项
+     */
+    public static Optional<Map<String, String>> showTcpClientExtensionOption() {
+        Dialog<Map<String, String>> dialog = new Dialog<>();
+        dialog.initOwner(stage);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("TCP Client配置参数");
+
+        ButtonType okButton = new ButtonType("确定", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(okButton, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 10, 10, 10));
+        FramingFields framingFields = new FramingFields(grid, 0);
+        dialog.getDialogPane().setContent(grid);
+
+        Node confirmBtn = dialog.getDialogPane().lookupButton(okButton);
+        // 拦截确认 + 验证逻辑
+        confirmBtn.addEventFilter(ActionEvent.ACTION, event -> {
+            Map<String, String> result = new HashMap<>();
+            if (!framingFields.collect(result)) {
+                event.consume();
+                return;
+            }
+            dialog.setResult(result);
+        });
+        dialog.setResultConverter(button -> button == okButton ? dialog.getResult() : null);
+        return dialog.showAndWait();
+    }
+
+    /**
+     * 显示tcp压测参数
+     */
+    public static Optional<Map<String, String>> showTcpLoadOption() {
+        Dialog<Map<String, String>> dialog = new Dialog<>();
+        dialog.initOwner(stage);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("TCP Load配置参数");
+
+        ButtonType okButton = new ButtonType("开始", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(okButton, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 10, 10, 10));
+
+        TextField connectionsField = new TextField("100");
+        TextField rampUpField = new TextField("50");
+        TextField rateField = new TextField("1000");
+        ComboBox<String> rateUnitBox = new ComboBox<>();
+        rateUnitBox.getItems().addAll("条/秒", "MB/秒");
+        rateUnitBox.setValue("条/秒");
+        TextField durationField = new TextField("60");
+        TextField countField = new TextField("0");
+        rateField.setPrefWidth(100);
+
+        grid.add(new Label("并发连接数:"), 0, 0);
+        grid.add(connectionsField, 1, 0);
+        grid.add(new Label("爬坡速率(连接/秒，0为同时):"), 0, 1);
+        grid.add(rampUpField, 1, 1);
+        grid.add(new Label("合计发送速率(0为不限速):"), 0, 2);
+        grid.add(new HBox(5, rateField, rateUnitBox), 1, 2);
+        grid.add(new Label("持续时间(秒，0为不限):"), 0, 3);
+        grid.add(durationField, 1, 3);
+        grid.add(new Label("发送条数(0为不限):"), 0, 4);
+        grid.add(countField, 1, 4);
+        grid.add(new Label("发送内容取自发送区，接收数据只计数不显示"), 0, 5, 2, 1);
+        dialog.getDialogPane().setContent(grid);
+
+        Node confirmBtn = dialog.getDialogPane().lookupButton(okButton);
+        // 拦截确认 + 验证逻辑
+        confirmBtn.addEventFilter(ActionEvent.ACTION, event -> {
+            try {
+                int connections = Integer.parseInt(connectionsField.getText().trim());
+                int rampUp = Integer.parseInt(rampUpField.getText().trim());
+                double rate = Double.parseDouble(rateField.getText().trim());
+                long duration = Long.parseLong(durationField.getText().trim());
+                long count = Long.parseLong(countField.getText().trim());
+                if (connections < 1 || connections > 60000) {
+                    showTip("并发连接数必须在 1~60000 之间！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
+                if (rampUp < 0 || rate < 0 || duration < 0 || count < 0) {
+                    showTip("爬坡速率、发送速率、持续时间与发送条数不能为负数！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
+                Map<String, String> result = new HashMap<>();
+                result.put("connections", String.valueOf(connections));
+                result.put("rampUp", String.valueOf(rampUp));
+                result.put("rate", String.valueOf(rate));
+                result.put("rateUnit", rateUnitBox.getValue());
+                result.put("duration", String.valueOf(duration));
+                result.put("count", String.valueOf(count));
+                dialog.setResult(result);
+            } catch (NumberFormatException e) {
+                showTip("请输入有效的数字格式！", "⚠️警告消息");
+                event.consume();
+            }
+        });
+        dialog.setResultConverter(button -> button == okButton ? dialog.getResult() : null);
+        return dialog.showAndWait();
+    }
+
+    /**
+     * 显示时延测试参数
+     */
+    public static Optional<Map<String, String>> showLatencyOption() {
+        Dialog<Map<String, String>> dialog = new Dialog<>();
+        dialog.initOwner(stage);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("时延测试配置参数");
+
+        ButtonType okButton = new ButtonType("开始", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(okButton, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 10, 10, 10));
+
+        TextField rateField = new TextField("1000");
+        TextField durationField = new TextField("30");
+        TextField countField = new TextField("0");
+
+        grid.add(new Label("发送速率(个/秒):"), 0, 0);
+        grid.add(rateField, 1, 0);
+        grid.add(new Label("持续时间(秒，0为不限):"), 0, 1);
+        grid.add(durationField, 1, 1);
+        grid.add(new Label("发送个数(0为不限):"), 0, 2);
+        grid.add(countField, 1, 2);
+        grid.add(new Label("对端需原样回显；发送区内容附在 20 字节探测头之后，接收数据只统计不显示"), 0, 3, 2, 1);
+        dialog.getDialogPane().setContent(grid);
+
+        Node confirmBtn = dialog.getDialogPane().lookupButton(okButton);
+        // 拦截确认 + 验证逻辑
+        confirmBtn.addEventFilter(ActionEvent.ACTION, event -> {
+            try {
+                double rate = Double.parseDouble(rateField.getText().trim());
+                long duration = Long.parseLong(durationField.getText().trim());
+                long count = Long.parseLong(countField.getText().trim());
+                if (rate <= 0 || rate > 1_000_000) {
+                    showTip("发送速率必须在 0~1000000 之间！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
+                if (duration < 0 || count < 0) {
+                    showTip("持续时间与发送个数不能为负数！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
+                if (duration == 0 && count == 0) {
+                    showTip("持续时间与发送个数至少设置一项！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
+                Map<String, String> result = new HashMap<>();
+                result.put("rate", String.valueOf(rate));
+                result.put("duration", String.valueOf(duration));
+                result.put("count", String.valueOf(count));
+                dialog.setResult(result);
+            } catch (NumberFormatException e) {
+                showTip("请输入有效的数字格式！", "⚠️警告消息");
+                event.consume();
+            }
+        });
+        dialog.setResultConverter(button -> button == okButton ? dialog.getResult() : null);
+        return dialog.showAndWait();
+    }
+
+    /**
+     * 显示日志回放参数
+     *
+     * @param captures 可回放的抓包日志名称
+     */
+    public static Optional<Map<String, String>> showReplayOption(List<String> captures) {
+        Dialog<Map<String, String>> dialog = new Dialog<>();
+        dialog.initOwner(stage);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("日志回放配置参数");
+
+        ButtonType okButton = new ButtonType("开始", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(okButton, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 10, 10, 10));
+
+        ComboBox<String> fileBox = new ComboBox<>();
+        fileBox.getItems().addAll(captures);
+        fileBox.getSelectionModel().selectFirst();
+        ComboBox<String> directionBox = new ComboBox<>();
+        directionBox.getItems().addAll("当时发出的数据", "当时收到的数据");
+        directionBox.getSelectionModel().selectFirst();
+        ComboBox<String> pacingBox = new ComboBox<>();
+        pacingBox.getItems().addAll("原始间隔", "倍速", "最快");
+        pacingBox.getSelectionModel().selectFirst();
+        TextField speedField = new TextField("10");
+        speedField.setDisable(true);
+        pacingBox.valueProperty().addListener((obs, oldValue, newValue) -> speedField.setDisable(!"倍速".equals(newValue)));
+
+        grid.add(new Label("抓包日志:"), 0, 0);
+        grid.add(fileBox, 1, 0);
+        grid.add(new Label("回放内容:"), 0, 1);
+        grid.add(directionBox, 1, 1);
+        grid.add(new Label("节奏:"), 0, 2);
+        grid.add(pacingBox, 1, 2);
+        grid.add(new Label("倍速:"), 0, 3);
+        grid.add(speedField, 1, 3);
+        grid.add(new Label("按记录顺序逐条发往当前连接，记录体从磁盘流式读取"), 0, 4, 2, 1);
+        dialog.getDialogPane().setContent(grid);
+
+        Node confirmBtn = dialog.getDialogPane().lookupButton(okButton);
+        // 拦截确认 + 验证逻辑
+        confirmBtn.addEventFilter(ActionEvent.ACTION, event -> {
+            double speed;
+            switch (pacingBox.getValue()) {
+                case "倍速" -> {
+                    try {
+                        speed = Double.parseDouble(speedField.getText().trim());
+                    } catch (NumberFormatException e) {
+                        showTip("请输入有效的数字格式！", "⚠️警告消息");
+                        event.consume();
+                        return;
+                    }
+                    if (speed <= 0 || speed > 10000) {
+                        showTip("倍速必须在 0~10000 之间！", "⚠️警告消息");
+                        event.consume();
+                        return;
+                    }
+                }
+                case "最快" -> speed = 0;
+                default -> speed = 1;
+            }
+            Map<String, String> result = new HashMap<>();
+            result.put("file", fileBox.getValue());
+            result.put("direction", directionBox.getSelectionModel().getSelectedIndex() == 0 ? "SEND" : "RECEIVE");
+            result.put("speed", String.valueOf(speed));
+            dialog.setResult(result);
+        });
+        dialog.setResultConverter(button -> button == okButton ? dialog.getResult() : null);
+        return dialog.showAndWait();
+    }
+
+    /**
+     * 显示自动应答规则
+     *
+     * @param rules 当前规则文本
+     * @return 编辑后（已通过编译校验）的规则文本
+     */
+    public static Optional<String> showAutoAnswerOption(String rules) {
+        Dialog<String> dialog = new Dialog<>();
+        dialog.initOwner(stage);
+        dialog.initModality(Modality.APPLICATION_MODAL);
+        dialog.setTitle("自动应答规则");
+
+        ButtonType okButton = new ButtonType("启用", ButtonBar.ButtonData.OK_DONE);
+        dialog.getDialogPane().getButtonTypes().addAll(okButton, ButtonType.CANCEL);
+
+        GridPane grid = new GridPane();
+        grid.setHgap(10);
+        grid.setVgap(10);
+        grid.setPadding(new Insets(20, 10, 10, 10));
+
+        TextArea rulesArea = new TextArea(rules);
+        rulesArea.setPrefColumnCount(60);
+        rulesArea.setPrefRowCount(14);
+
+        grid.add(rulesArea, 0, 0);
+        grid.add(new Label("按顺序取第一条命中的规则；text/hex 规则合并为一个自动机，每个报文只扫描一遍"), 0, 1);
+        dialog.getDialogPane().setContent(grid);
+
+        Node confirmBtn = dialog.getDialogPane().lookupButton(okButton);
+        // 拦截确认 + 验证逻辑
+        confirmBtn.addEventFilter(ActionEvent.ACTION, event -> {
+            try {
+                if (AnswerEngine.compile(AnswerEngine.parse(rulesArea.getText())).getRules().isEmpty()) {
+                    showTip("至少需要一条规则！", "⚠️警告消息");
+                    event.consume();
+                    return;
+                }
+                dialog.setResult(rulesArea.getText());
+            } catch (IllegalArgumentException e) {
+                showTip(e.getMessage(), "⚠️警告消息");
+                event.consume();
+            }
+        });
+        dialog.setResultConverter(button -> button == okButton ? dialog.getResult() : null);
+        return dialog.showAndWait();
+    }
+
+    /**
+     * 将扩展选项中的分帧参数转换为 {@link FramingConfig}
+     * @param options 扩展选项弹窗的结果
+     * @return FramingConfig
+     * @throws IllegalArgumentException 参数不合法
+     */
+    public static FramingConfig parseFramingConfig(Map<String, String> options) {
+        FramingType type = FramingType.ofLabel(options.getOrDefault("framing", FramingType.NONE.getLabel()));
+        int maxFrameLength = Integer.parseInt(options.getOrDefault("maxFrameLength", "1024")) * 1024;
+        return switch (type) {
+            case LENGTH_FIELD -> FramingConfig.lengthField(
+                    Integer.parseInt(options.get("lengthFieldOffset")),
+                    Integer.parseInt(options.get("lengthFieldLength")),
+                    "LE".equals(options.get("byteOrder")) ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN,
+                    Integer.parseInt(options.get("lengthAdjustment")),
+                    maxFrameLength);
+            case DELIMITER -> FramingConfig.delimiter(SocketUtil.parseHex(options.get("delimiter")), maxFrameLength);
+            case FIXED_LENGTH -> FramingConfig.fixedLength(Integer.parseInt(options.get("fixedLength")));
+            case NONE -> FramingConfig.NONE;
+        };
+    }
+
+    /**
+     * 扩展选项中的分帧设置（服务端与客户端弹窗共用）
+     */
+    private static final class FramingFields {
+        private final ComboBox<String> typeBox = new ComboBox<>();
+        private final TextField offsetField = new TextField("0");
+        private final ComboBox<String> fieldLengthBox = new ComboBox<>();
+        private final ComboBox<String> byteOrderBox = new ComboBox<>();
+        private final TextField adjustmentField = new TextField("0");
+        private final ComboBox<String> delimiterBox = new ComboBox<>();
+        private final TextField fixedLengthField = new TextField("64");
+        private final TextField maxFrameField = new TextField(String.valueOf(FramingConfig.DEFAULT_MAX_FRAME_LENGTH / 1024));
+
+        private FramingFields(GridPane grid, int row) {
+            for (FramingType type : FramingType.values()) {
+                typeBox.getItems().add(type.getLabel());
+            }
+            typeBox.setValue(FramingType.NONE.getLabel());
+            fieldLengthBox.getItems().addAll("1", "2", "4");
+            fieldLengthBox.setValue("2");
+            byteOrderBox.getItems().addAll("BE", "LE");
+            byteOrderBox.setValue("BE");
+            // 分隔符以十六进制输入，如 0D 0A 表示 \r\n
+            delimiterBox.setEditable(true);
+            delimiterBox.getItems().addAll("0D 0A", "0A", "7E", "00");
+            delimiterBox.setValue("0D 0A");
+
+            for (Node node : List.of(offsetField, fieldLengthBox, byteOrderBox, adjustmentField)) {
+                node.disableProperty().bind(typeBox.valueProperty().isNotEqualTo(FramingType.LENGTH_FIELD.getLabel()));
+            }
+            delimiterBox.disableProperty().bind(typeBox.valueProperty().isNotEqualTo(FramingType.DELIMITER.getLabel()));
+            fixedLengthField.disableProperty().bind(typeBox.valueProperty().isNotEqualTo(FramingType.FIXED_LENGTH.getLabel()));
+            maxFrameField.disableProperty().bind(typeBox.valueProperty().isEqualTo(FramingType.NONE.getLabel())
+                    .or(typeBox.valueProperty().isEqualTo(FramingType.FIXED_LENGTH.getLabel())));
+
+            grid.add(new Label("分帧方式:"), 0, row);
+            grid.add(typeBox, 1, row);
+            grid.add(new Label("长度字段偏移/字节数:"), 0, row + 1);
+            grid.add(new HBox(5, offsetField, fieldLengthBox, byteOrderBox), 1, row + 1);
+            grid.add(new Label("长度修正值:"), 0, row + 2);
+            grid.add(adjustmentField, 1, row + 2);
+            grid.add(new Label("分隔符(HEX):"), 0, row + 3);
+            grid.add(delimiterBox, 1, row + 3);
+            grid.add(new Label("固定帧长(字节):"), 0, row + 4);
+            grid.add(fixedLengthField, 1, row + 4);
+            grid.add(new Label("最大帧长(KB):"), 0, row + 5);
+            grid.add(maxFrameField, 1, row + 5);
+            offsetField.setPrefWidth(60);
+        }
+
+        /**
+         * 校验并写入分帧参数
+         * @return 校验是否通过，不通过时已弹出提示
+         */
+        private boolean collect(Map<String, String> result) {
+            result.put("framing", typeBox.getValue());
+            result.put("lengthFieldOffset", offsetField.getText().trim());
+            result.put("lengthFieldLength", fieldLengthBox.getValue());
+            result.put("byteOrder", byteOrderBox.getValue());
+            result.put("lengthAdjustment", adjustmentField.getText().trim());
+            result.put("delimiter", delimiterBox.getEditor().getText().trim());
+            result.put("fixedLength", fixedLengthField.getText().trim());
+            result.put("maxFrameLength", maxFrameField.getText().trim());
+            try {
+                int maxFrameKb = Integer.parseInt(result.get("maxFrameLength"));
+                if (maxFrameKb < 1 || maxFrameKb > 64 * 1024) {
+                    showTip("最大帧长必须在 1~65536 KB 之间！", "⚠️警告消息");
+                    return false;
+                }
+                parseFramingConfig(result);
+                return true;
+            } catch (NumberFormatException e) {
+                showTip("请输入有效的数字格式！", "⚠️警告消息");
+            } catch (IllegalArgumentException e) {
+                showTip("分帧参数有误：" + e.getMessage(), "⚠️警告消息");
+            }
+            return false;
+        }
+    }
 }
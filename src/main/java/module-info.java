@@ -12,8 +12,12 @@ module jfx.network.tools.nnjskz {
     requires com.alibaba.fastjson2;
     requires java.desktop;
     requires org.fxmisc.richtext;
+    requires org.fxmisc.flowless;
     requires javafx.fxml;
     requires org.fxmisc.undo;
+    requires reactfx;
+    // 可选：以 --add-modules jdk.incubator.vector 启动时十六进制编码使用 Vector API
+    requires static jdk.incubator.vector;
     requires wellbehavedfx;
 
 
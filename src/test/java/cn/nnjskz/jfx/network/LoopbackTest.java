@@ -0,0 +1,313 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import cn.nnjskz.jfx.utils.SocketUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 三种传输方式的回环集成测试
+ * <p>
+ * 与 benchmark 模块的 {@code LoopbackSuite} 走相同的路径（随机可用端口、原始 socket 驱动），这里不测量性能，
+ * 只断言各路径上的行为：TCP 收到的字节不丢不改、回写与回显逐字节一致、并发接入全部登记、低速 UDP 报文全部收到。
+ * 吞吐与尾延迟的基线比对仍由 {@code LoopbackSuite} 完成。
+ */
+@Timeout(60)
+class LoopbackTest {
+    private static final String HOST = "127.0.0.1";
+    private static final int[] SIZES = {64, 1024, 16384};
+    private static final long AWAIT_NANOS = TimeUnit.SECONDS.toNanos(20);
+
+    @Test
+    void bioServerReceivesEveryByte() throws Exception {
+        serverReceivesEveryByte(TcpServer.ENGINE_BIO);
+    }
+
+    @Test
+    void nioServerReceivesEveryByte() throws Exception {
+        serverReceivesEveryByte(TcpServer.ENGINE_NIO);
+    }
+
+    @Test
+    void bioServerEchoesUnchanged() throws Exception {
+        serverEchoesUnchanged(TcpServer.ENGINE_BIO);
+    }
+
+    @Test
+    void nioServerEchoesUnchanged() throws Exception {
+        serverEchoesUnchanged(TcpServer.ENGINE_NIO);
+    }
+
+    @Test
+    void bioServerRegistersConcurrentConnections() throws Exception {
+        serverRegistersConcurrentConnections(TcpServer.ENGINE_BIO);
+    }
+
+    @Test
+    void nioServerRegistersConcurrentConnections() throws Exception {
+        serverRegistersConcurrentConnections(TcpServer.ENGINE_NIO);
+    }
+
+    /**
+     * 客户端发送并经回显收回的字节与发出的一致
+     */
+    @Test
+    void clientEchoRoundTrip() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.bind(new InetSocketAddress(HOST, 0));
+            Thread echo = new Thread(() -> {
+                try (Socket socket = serverSocket.accept()) {
+                    InputStream in = socket.getInputStream();
+                    OutputStream out = socket.getOutputStream();
+                    byte[] buf = new byte[64 * 1024];
+                    int n;
+                    while ((n = in.read(buf)) > 0) {
+                        out.write(buf, 0, n);
+                    }
+                } catch (IOException ignored) {
+                }
+            }, "loopback-test-echo");
+            echo.setDaemon(true);
+            echo.start();
+
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            TcpClientService client = new TcpClientService(HOST, serverSocket.getLocalPort());
+            // 回调在唯一的读线程上执行
+            client.setReceive((connectionId, data, timestamp) -> {
+                synchronized (received) {
+                    received.write(data.toByteArray(), 0, data.length());
+                }
+            });
+            assertTrue(client.connect(), "连接失败");
+            try {
+                ByteArrayOutputStream sent = new ByteArrayOutputStream();
+                for (int size : SIZES) {
+                    for (int i = 0; i < 50; i++) {
+                        byte[] payload = payload(size, i);
+                        client.send(payload);
+                        sent.write(payload, 0, payload.length);
+                    }
+                }
+                long expected = sent.size();
+                await(() -> {
+                    synchronized (received) {
+                        return received.size() >= expected;
+                    }
+                });
+                synchronized (received) {
+                    assertArrayEquals(sent.toByteArray(), received.toByteArray(), "回显内容不一致");
+                }
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * 低速发送时每个 UDP 报文都完整收到
+     */
+    @Test
+    void udpReceivesEveryDatagram() throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        UdpService service = new UdpService(port, UdpService.MAX_DATAGRAM_SIZE, 4 * 1024 * 1024);
+        AtomicLong received = new AtomicLong();
+        AtomicLong corrupted = new AtomicLong();
+        service.setReceive((sender, data, timestamp) -> {
+            byte[] bytes = data.toByteArray();
+            if (!Arrays.equals(bytes, payload(bytes.length, bytes.length > 0 ? bytes[0] - 'a' : 0))) {
+                corrupted.incrementAndGet();
+            }
+            received.incrementAndGet();
+        });
+        service.openUdp();
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            InetSocketAddress target = new InetSocketAddress(HOST, port);
+            long sent = 0;
+            for (int size : SIZES) {
+                for (int i = 0; i < 200; i++) {
+                    channel.send(ByteBuffer.wrap(payload(size, i % 26)), target);
+                    sent++;
+                    // 每 50 个报文等待接收方跟上，回环上不应丢包
+                    if (sent % 50 == 0) {
+                        long expected = sent;
+                        await(() -> received.get() >= expected);
+                    }
+                }
+            }
+            long expected = sent;
+            await(() -> received.get() >= expected);
+            assertEquals(sent, received.get(), "收到的报文数");
+            assertEquals(0, corrupted.get(), "内容不一致的报文数");
+            assertEquals(0, service.getDroppedCount(), "缓冲池耗尽丢弃的报文数");
+        } finally {
+            service.close();
+        }
+    }
+
+    /**
+     * UDP 服务在回调中原样回送，发送方逐个收回
+     */
+    @Test
+    void udpEchoRoundTrip() throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        UdpService service = new UdpService(port, UdpService.MAX_DATAGRAM_SIZE, 4 * 1024 * 1024);
+        service.setReceive((sender, data, timestamp) -> service.send(data.toByteArray(), sender));
+        service.openUdp();
+        try (DatagramChannel channel = DatagramChannel.open()) {
+            channel.bind(new InetSocketAddress(HOST, 0));
+            channel.connect(new InetSocketAddress(HOST, port));
+            for (int size : SIZES) {
+                for (int i = 0; i < 20; i++) {
+                    byte[] payload = payload(size, i);
+                    channel.write(ByteBuffer.wrap(payload));
+                    ByteBuffer reply = ByteBuffer.allocate(size + 1);
+                    channel.read(reply);
+                    assertEquals(size, reply.position(), "回送报文长度");
+                    byte[] echo = new byte[size];
+                    reply.flip().get(echo);
+                    assertArrayEquals(payload, echo, "回送内容不一致");
+                }
+            }
+        } finally {
+            service.close();
+        }
+    }
+
+    private static void serverReceivesEveryByte(String engine) throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        TcpServer server = newServer(engine, port);
+        CRC32 crc = new CRC32();
+        AtomicLong received = new AtomicLong();
+        // 单个连接的回调按顺序执行
+        server.setReceive((connectionId, data, timestamp) -> {
+            synchronized (crc) {
+                crc.update(data.data());
+            }
+            received.addAndGet(data.length());
+        });
+        server.openConnect();
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(HOST, port), 10000);
+            OutputStream out = socket.getOutputStream();
+            CRC32 sentCrc = new CRC32();
+            long sent = 0;
+            for (int size : SIZES) {
+                for (int i = 0; i < 500; i++) {
+                    byte[] payload = payload(size, i);
+                    out.write(payload);
+                    sentCrc.update(payload);
+                    sent += size;
+                }
+            }
+            out.flush();
+            long expected = sent;
+            await(() -> received.get() >= expected);
+            assertEquals(sent, received.get(), engine + " 收到的字节数");
+            synchronized (crc) {
+                assertEquals(sentCrc.getValue(), crc.getValue(), engine + " 内容校验");
+            }
+        } finally {
+            server.close();
+        }
+    }
+
+    private static void serverEchoesUnchanged(String engine) throws Exception {
+        int port = SocketUtil.getAvailablePort();
+        TcpServer server = newServer(engine, port);
+        server.setReceive((connectionId, data, timestamp) -> server.send(data.toByteArray(), connectionId));
+        server.openConnect();
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(HOST, port), 10000);
+            OutputStream out = socket.getOutputStream();
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            for (int size : SIZES) {
+                byte[] echo = new byte[size];
+                for (int i = 0; i < 100; i++) {
+                    byte[] payload = payload(size, i);
+                    out.write(payload);
+                    in.readFully(echo);
+                    assertArrayEquals(payload, echo, engine + " 回写内容不一致");
+                }
+            }
+        } finally {
+            server.close();
+        }
+    }
+
+    private static void serverRegistersConcurrentConnections(String engine) throws Exception {
+        int connections = 200;
+        int port = SocketUtil.getAvailablePort();
+        TcpServer server = newServer(engine, port);
+        server.openConnect();
+        List<Socket> sockets = new ArrayList<>(connections);
+        try {
+            for (int i = 0; i < connections; i++) {
+                Socket socket = new Socket();
+                socket.connect(new InetSocketAddress(HOST, port), 10000);
+                sockets.add(socket);
+            }
+            await(() -> server.getWritersMap().size() >= connections);
+            assertEquals(connections, server.getWritersMap().size(), engine + " 登记的连接数");
+            // 每个连接有独立的发送队列
+            assertEquals(connections, server.getOutboundQueues().size(), engine + " 发送队列数");
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            server.close();
+        }
+    }
+
+    private static TcpServer newServer(String engine, int port) {
+        return TcpServer.ENGINE_NIO.equals(engine)
+                ? new NioTcpServerService(port, "auto", 3600, 2)
+                : new TcpServerService(port, "auto", 3600);
+    }
+
+    /**
+     * 以 'a' + first 开头的循环字母序列
+     */
+    private static byte[] payload(int size, int first) {
+        byte[] payload = new byte[size];
+        for (int i = 0; i < size; i++) {
+            payload[i] = (byte) ('a' + (first + i) % 26);
+        }
+        return payload;
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + AWAIT_NANOS;
+        while (!condition.getAsBoolean() && System.nanoTime() - deadline < 0) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+}
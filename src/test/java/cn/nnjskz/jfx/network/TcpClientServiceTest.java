@@ -0,0 +1,138 @@
+/*
+ * jfx-network-tools - A lightweight JavaFX-based network debugging tool
+ * Copyright (c) 2025 Jensen
+ *
+ * This source code is licensed under the MIT license found in the
+ * LICENSE file in the root directory of this source tree.
+ */
+package cn.nnjskz.jfx.network;
+
+import cn.nnjskz.jfx.network.codec.FramingConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TCP客户端接收路径的字节正确性
+ * <p>
+ * 默认发送 64MB；以 {@code -Djfx.test.bytes=1073741824} 运行即为 benchmark 模块
+ * {@code ClientThroughputBenchmark} 的 1GB 校验。
+ */
+@Timeout(600)
+class TcpClientServiceTest {
+    private static final String HOST = "127.0.0.1";
+    private static final int WRITE_SIZE = 64 * 1024;
+
+    /**
+     * 回环服务端发送随机数据后关闭连接，接收回调累计的 CRC32 与发送端一致
+     */
+    @Test
+    void receivesEveryByteUnchanged() throws Exception {
+        long total = Long.getLong("jfx.test.bytes", 64L << 20);
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.bind(new InetSocketAddress(HOST, 0));
+            CRC32 sent = new CRC32();
+            Thread sender = new Thread(() -> {
+                try (Socket socket = serverSocket.accept(); OutputStream out = socket.getOutputStream()) {
+                    SplittableRandom random = new SplittableRandom(20250101);
+                    byte[] block = new byte[WRITE_SIZE];
+                    long remaining = total;
+                    while (remaining > 0) {
+                        int len = (int) Math.min(block.length, remaining);
+                        for (int i = 0; i < len; i += 8) {
+                            long r = random.nextLong();
+                            for (int j = 0; j < 8 && i + j < len; j++) {
+                                block[i + j] = (byte) (r >>> (j * 8));
+                            }
+                        }
+                        sent.update(block, 0, len);
+                        out.write(block, 0, len);
+                        remaining -= len;
+                    }
+                } catch (IOException ignored) {
+                }
+            }, "client-test-sender");
+            sender.setDaemon(true);
+            sender.start();
+
+            CRC32 received = new CRC32();
+            AtomicLong receivedBytes = new AtomicLong();
+            CountDownLatch finished = new CountDownLatch(1);
+            TcpClientService client = new TcpClientService(HOST, serverSocket.getLocalPort());
+            // 回调在唯一的读线程上顺序执行，CRC32 无需同步
+            client.setReceive((connectionId, data, timestamp) -> {
+                received.update(data.data());
+                receivedBytes.addAndGet(data.length());
+            });
+            client.setOnDisconnect(finished::countDown);
+            assertTrue(client.connect(), "连接失败");
+            try {
+                assertTrue(finished.await(10, TimeUnit.MINUTES), "服务端关闭后未收到断开通知");
+                sender.join();
+                assertEquals(total, receivedBytes.get(), "收到的字节数");
+                assertEquals(sent.getValue(), received.getValue(), "CRC32 校验");
+            } finally {
+                client.close();
+            }
+        }
+    }
+
+    /**
+     * 接收处理器安装之前到达的字节同样经过解码器，之后的定长帧不错位
+     */
+    @Test
+    void framesStayAlignedWhenHandlerIsSetLate() throws Exception {
+        try (ServerSocket serverSocket = new ServerSocket()) {
+            serverSocket.bind(new InetSocketAddress(HOST, 0));
+            TcpClientService client = new TcpClientService(HOST, serverSocket.getLocalPort());
+            client.setFraming(FramingConfig.fixedLength(4));
+            assertTrue(client.connect(), "连接失败");
+            try (Socket socket = serverSocket.accept()) {
+                OutputStream out = socket.getOutputStream();
+                // 一个完整帧加半个帧，此时还没有处理器
+                out.write("AAAABB".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                TimeUnit.MILLISECONDS.sleep(300);
+
+                List<String> frames = new ArrayList<>();
+                CountDownLatch last = new CountDownLatch(1);
+                client.setReceive((connectionId, data, timestamp) -> {
+                    String frame = new String(data.toByteArray(), StandardCharsets.US_ASCII);
+                    synchronized (frames) {
+                        frames.add(frame);
+                    }
+                    if ("CCCC".equals(frame)) {
+                        last.countDown();
+                    }
+                });
+                out.write("BBCCCC".getBytes(StandardCharsets.US_ASCII));
+                out.flush();
+                assertTrue(last.await(20, TimeUnit.SECONDS), "未收到最后一帧");
+                synchronized (frames) {
+                    // 读线程若在处理器安装后才读到第一段，会多出 AAAA，不影响对齐
+                    int size = frames.size();
+                    assertTrue(size >= 2, "收到的帧数");
+                    assertEquals(List.of("BBBB", "CCCC"), frames.subList(size - 2, size), "帧边界错位");
+                }
+            } finally {
+                client.close();
+            }
+        }
+    }
+}